@@ -149,8 +149,8 @@ public class ChallengesApi  {
 
     public Response getChallengeQuestionSet(@ApiParam(value = "Challenge Question set ID",required=true ) @PathParam("challenge-set-id")  String challengeSetId,
     @ApiParam(value = "An optional search string to look-up challenge-questions based on locale.\n") @QueryParam("locale")  String locale,
-    @ApiParam(value = "Number of records to skip for pagination. _*This filtering is not yet supported._") @QueryParam("offset")  Integer offset,
-    @ApiParam(value = "Maximum number of records to return. _*This filtering is not yet supported._") @QueryParam("limit")  Integer limit)
+    @ApiParam(value = "Number of records to skip for pagination.") @QueryParam("offset")  Integer offset,
+    @ApiParam(value = "Maximum number of records to return. A Link header with the next relation points to the next page, if any.") @QueryParam("limit")  Integer limit)
     {
     return delegate.getChallengeQuestionSet(challengeSetId,locale,offset,limit);
     }
@@ -167,10 +167,11 @@ public class ChallengesApi  {
         @io.swagger.annotations.ApiResponse(code = 500, message = "Internal Server Error") })
 
     public Response searchChallenges(@ApiParam(value = "An optional search string to look-up challenge-questions based on locale.\n") @QueryParam("locale")  String locale,
-    @ApiParam(value = "Number of records to skip for pagination. _*This filtering is not yet supported._") @QueryParam("offset")  Integer offset,
-    @ApiParam(value = "Maximum number of records to return. _*This filtering is not yet supported._") @QueryParam("limit")  Integer limit)
+    @ApiParam(value = "Number of challenge sets to skip for pagination.") @QueryParam("offset")  Integer offset,
+    @ApiParam(value = "Maximum number of challenge sets to return. A Link header with the next relation points to the next page, if any.") @QueryParam("limit")  Integer limit,
+    @ApiParam(value = "Opaque cursor of the page to return, as given in the Link header of the previous page.") @QueryParam("after")  String after)
     {
-    return delegate.searchChallenges(locale,offset,limit);
+    return delegate.searchChallenges(locale,offset,limit,after);
     }
     @PUT
     @Path("/{challenge-set-id}")
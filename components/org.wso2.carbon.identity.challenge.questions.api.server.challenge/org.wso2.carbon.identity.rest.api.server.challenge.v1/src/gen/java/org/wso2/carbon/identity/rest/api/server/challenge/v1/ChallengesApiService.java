@@ -40,7 +40,7 @@ public abstract class ChallengesApiService {
     public abstract Response deleteChallengeQuestion(String questionId,String challengeSetId,String locale);
     public abstract Response deleteChallengeQuestionSet(String challengeSetId,String locale);
     public abstract Response getChallengeQuestionSet(String challengeSetId,String locale,Integer offset,Integer limit);
-    public abstract Response searchChallenges(String locale,Integer offset,Integer limit);
+    public abstract Response searchChallenges(String locale,Integer offset,Integer limit,String after);
     public abstract Response updateChallengeQuestionSet(String challengeSetId,List<ChallengeQuestionDTO> challengeSet);
 }
 
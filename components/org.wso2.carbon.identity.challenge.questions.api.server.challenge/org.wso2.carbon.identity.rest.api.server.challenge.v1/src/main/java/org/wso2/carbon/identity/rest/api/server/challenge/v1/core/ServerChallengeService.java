@@ -30,20 +30,23 @@ import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionMa
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
-import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.core.functions.ChallengeQuestionToExternal;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeQuestionDTO;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeQuestionPatchDTO;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeSetDTO;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.Response;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Call internal osgi services to perform server challenge related operations
@@ -61,24 +64,31 @@ public class ServerChallengeService {
     }
 
     /**
-     * Get all challenges of the loaded tenant.
+     * Get a page of the challenge sets of the loaded tenant. The challenge sets are ordered by question set id, and
+     * only the questions up to the end of the requested page are read. A challenge set is never split across pages.
      *
      * @param locale challenge question locale
-     * @param offset offset to start listing the challenge questions
-     * @param limit  number of challenge questions to list
-     * @return list of challenge questions of the given locale
+     * @param offset number of challenge sets to skip after the cursor
+     * @param limit  maximum number of challenge sets to list, or null to list all the remaining sets
+     * @param after  cursor of the page returned with the previous page, or null to start from the first set
+     * @return page of challenge sets of the given locale
      */
-    public List<ChallengeSetDTO> getChallenges(String locale, Integer offset, Integer limit) {
+    public ChallengeSetPage<ChallengeSetDTO> getChallenges(String locale, Integer offset, Integer limit, String after) {
 
+        validatePagination(offset, limit);
         try {
-            if (StringUtils.isEmpty(locale)) {
-
-                return buildChallengesDTO(challengeQuestionManager.getAllChallengeQuestions(
-                        ContextLoader.getTenantDomainFromContext()), offset, limit);
-            } else {
-                return buildChallengesDTO(challengeQuestionManager.getAllChallengeQuestions(
-                        ContextLoader.getTenantDomainFromContext(), locale), offset, limit);
+            String tenantDomain = ContextLoader.getTenantDomainFromContext();
+            String resolvedLocale = resolveLocale(locale);
+            String cursor = after;
+            if (offset != null && offset > 0) {
+                cursor = challengeQuestionManager.getChallengeSets(tenantDomain, resolvedLocale, cursor, offset)
+                        .getNextCursor();
+                if (cursor == null) {
+                    return new ChallengeSetPage<>(Collections.emptyList(), null);
+                }
             }
+            return challengeQuestionManager.getChallengeSets(tenantDomain, resolvedLocale, cursor,
+                    limit == null ? Integer.MAX_VALUE : limit).map(this::buildChallengesDTO);
         } catch (IdentityRecoveryException e) {
             throw handleIdentityRecoveryException(e,
                     ChallengeConstant.ErrorMessage.ERROR_CODE_ERROR_RETRIVING_CHALLENGES);
@@ -96,18 +106,13 @@ public class ServerChallengeService {
      */
     public ChallengeSetDTO getChallengeSet(String challengeSetId, String locale, Integer offset, Integer limit) {
 
+        validatePagination(offset, limit);
         try {
             if (!isChallengeSetExists(challengeSetId, ContextLoader.getTenantDomainFromContext())) {
                 throw handleError(Response.Status.NOT_FOUND,
                         ChallengeConstant.ErrorMessage.ERROR_CHALLENGE_SET_NOT_EXISTS);
             }
-            if (StringUtils.isEmpty(locale)) {
-                return buildChallengeDTO(challengeQuestionManager.getAllChallengeQuestions(
-                        ContextLoader.getTenantDomainFromContext()), challengeSetId, offset, limit);
-            } else {
-                return buildChallengeDTO(challengeQuestionManager.getAllChallengeQuestions(
-                        ContextLoader.getTenantDomainFromContext(), locale), challengeSetId, offset, limit);
-            }
+            return buildChallengeDTO(getSortedChallengeQuestions(locale), challengeSetId, offset, limit);
         } catch (IdentityRecoveryException e) {
             throw handleIdentityRecoveryException(e,
                     ChallengeConstant.ErrorMessage.ERROR_CODE_ERROR_RETRIVING_CHALLENGE);
@@ -125,10 +130,8 @@ public class ServerChallengeService {
      */
     public boolean deleteQuestion(String challengeSetId, String questionId, String locale) {
 
-        if (StringUtils.isEmpty(locale)) {
-            locale = StringUtils.EMPTY;
-        }
         try {
+            locale = StringUtils.isEmpty(locale) ? StringUtils.EMPTY : resolveLocale(locale);
             if (isChallengeSetExists(challengeSetId, ContextLoader.getTenantDomainFromContext())) {
                 ChallengeQuestion[] toDelete = {
                         new ChallengeQuestion(challengeSetId, questionId, StringUtils.EMPTY, locale)
@@ -151,10 +154,8 @@ public class ServerChallengeService {
      */
     public boolean deleteQuestionSet(String challengeSetId, String locale) {
 
-        if (StringUtils.isEmpty(locale)) {
-            locale = StringUtils.EMPTY;
-        }
         try {
+            locale = StringUtils.isEmpty(locale) ? StringUtils.EMPTY : resolveLocale(locale);
             if (isChallengeSetExists(challengeSetId, ContextLoader.getTenantDomainFromContext())) {
                 challengeQuestionManager.deleteChallengeQuestionSet(challengeSetId, locale,
                         ContextLoader.getTenantDomainFromContext());
@@ -177,7 +178,8 @@ public class ServerChallengeService {
         ChallengeQuestion[] toAdd = buildChallengeQuestionSets(challengeSets);
 
         try {
-            challengeQuestionManager.addChallengeQuestions(toAdd, ContextLoader.getTenantDomainFromContext());
+            challengeQuestionManager.addChallengeQuestions(resolveLocales(toAdd),
+                    ContextLoader.getTenantDomainFromContext());
         } catch (IdentityRecoveryException e) {
             throw handleIdentityRecoveryException(e, ChallengeConstant.ErrorMessage.ERROR_CODE_ERROR_ADDING_CHALLENGES);
 
@@ -202,7 +204,8 @@ public class ServerChallengeService {
         List<ChallengeQuestion> questions = buildChallengeQuestions(challenges, challengeSetId);
         ChallengeQuestion[] toPut = questions.toArray(new ChallengeQuestion[0]);
         try {
-            challengeQuestionManager.addChallengeQuestions(toPut, ContextLoader.getTenantDomainFromContext());
+            challengeQuestionManager.addChallengeQuestions(resolveLocales(toPut),
+                    ContextLoader.getTenantDomainFromContext());
         } catch (IdentityRecoveryException e) {
             throw handleIdentityRecoveryException(e,
                     ChallengeConstant.ErrorMessage.ERROR_CODE_ERROR_UPDATING_CHALLENGE_SET);
@@ -231,7 +234,8 @@ public class ServerChallengeService {
             ChallengeQuestion[] toPatch = questions.toArray(new ChallengeQuestion[0]);
 
             try {
-                challengeQuestionManager.addChallengeQuestions(toPatch, ContextLoader.getTenantDomainFromContext());
+                challengeQuestionManager.addChallengeQuestions(resolveLocales(toPatch),
+                        ContextLoader.getTenantDomainFromContext());
             } catch (IdentityRecoveryException e) {
                 throw handleIdentityRecoveryException(e,
                         ChallengeConstant.ErrorMessage.ERROR_CODE_ERROR_ADDING_CHALLENGE_QUESTION_TO_A_SET);
@@ -270,8 +274,63 @@ public class ServerChallengeService {
         return new ChallengeQuestion(WSO2_CLAIM_DIALECT + setId, q.getQuestionId(), q.getQuestion(), q.getLocale());
     }
 
-    private List<ChallengeSetDTO> buildChallengesDTO(List<ChallengeQuestion> challengeQuestions, Integer offset,
-                                                     Integer limit) {
+    /**
+     * Resolve a locale tag such as en-US or EN_us to the locale of the challenge question catalog of the loaded tenant.
+     *
+     * @param locale locale tag
+     * @return resolved locale, or the given value if it is empty
+     * @throws IdentityRecoveryException if the locale tag is invalid
+     */
+    private String resolveLocale(String locale) throws IdentityRecoveryException {
+
+        if (StringUtils.isEmpty(locale)) {
+            return locale;
+        }
+        return challengeQuestionManager.resolveLocale(ContextLoader.getTenantDomainFromContext(), locale);
+    }
+
+    private ChallengeQuestion[] resolveLocales(ChallengeQuestion[] challengeQuestions)
+            throws IdentityRecoveryException {
+
+        for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+            challengeQuestion.setLocale(resolveLocale(challengeQuestion.getLocale()));
+        }
+        return challengeQuestions;
+    }
+
+    private List<ChallengeQuestion> getSortedChallengeQuestions(String locale) throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> challengeQuestions;
+        if (StringUtils.isEmpty(locale)) {
+            challengeQuestions = challengeQuestionManager.getAllChallengeQuestions(
+                    ContextLoader.getTenantDomainFromContext());
+        } else {
+            challengeQuestions = challengeQuestionManager.getAllChallengeQuestions(
+                    ContextLoader.getTenantDomainFromContext(), resolveLocale(locale));
+        }
+        challengeQuestions = new ArrayList<>(challengeQuestions);
+        challengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+        return challengeQuestions;
+    }
+
+    private List<ChallengeQuestion> getPage(List<ChallengeQuestion> challengeQuestions, Integer offset,
+                                            Integer limit) {
+
+        int start = offset == null ? 0 : Math.min(offset, challengeQuestions.size());
+        int end = limit == null ? challengeQuestions.size() :
+                (int) Math.min(challengeQuestions.size(), (long) start + limit);
+        return start >= end ? Collections.emptyList() : challengeQuestions.subList(start, end);
+    }
+
+    private void validatePagination(Integer offset, Integer limit) {
+
+        if ((offset != null && offset < 0) || (limit != null && limit < 0)) {
+            throw handleError(Response.Status.BAD_REQUEST,
+                    ChallengeConstant.ErrorMessage.ERROR_CODE_INVALID_PAGINATION_PARAMETER);
+        }
+    }
+
+    private List<ChallengeSetDTO> buildChallengesDTO(List<ChallengeQuestion> challengeQuestions) {
 
         Map<String, List<ChallengeQuestion>> challengeSets = groupChallenges(challengeQuestions);
         return challengeSets.entrySet().stream().map((e) -> getChallengeSetDTO(e.getKey(), e.getValue()))
@@ -292,13 +351,14 @@ public class ServerChallengeService {
                                               Integer offset, Integer limit) {
 
         List<ChallengeQuestion> challengeSets = filterChallengesBySetId(challengeQuestions, challengeSetId);
-        return getChallengeSetDTO(challengeSetId, challengeSets);
+        return getChallengeSetDTO(challengeSetId, getPage(challengeSets, offset, limit));
     }
 
     private Map<String, List<ChallengeQuestion>> groupChallenges(List<ChallengeQuestion> challengeQuestions) {
 
         return challengeQuestions.stream()
-                .collect(groupingBy(question -> question.getQuestionSetId().split(WSO2_CLAIM_DIALECT)[1]));
+                .collect(groupingBy(question -> question.getQuestionSetId().split(WSO2_CLAIM_DIALECT)[1],
+                        LinkedHashMap::new, toList()));
     }
 
     private List<ChallengeQuestion> filterChallengesBySetId(List<ChallengeQuestion> challengeQuestions, String setId) {
@@ -311,11 +371,9 @@ public class ServerChallengeService {
     private boolean isChallengeSetExists(String setID, String tenantDomain) {
 
         try {
-            List<String> existingChallenges = challengeQuestionManager .getAllChallengeQuestionSetsURIs(tenantDomain);
-            if (existingChallenges.contains(WSO2_CLAIM_DIALECT.concat(setID))) {
-                return true;
-            }
-        } catch (IdentityRecoveryServerException e) {
+            return challengeQuestionManager.isChallengeQuestionSetExists(tenantDomain,
+                    WSO2_CLAIM_DIALECT.concat(setID));
+        } catch (IdentityRecoveryException e) {
             log.error("Unable to retrieve existing challenge sets.", e);
         }
         return false;
@@ -18,6 +18,8 @@
 
 package org.wso2.carbon.identity.rest.api.server.challenge.v1.impl;
 
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.ChallengesApiService;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.core.ServerChallengeService;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.core.factories.ServerChallengeServiceFactory;
@@ -25,6 +27,10 @@ import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeQuesti
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeQuestionPatchDTO;
 import org.wso2.carbon.identity.rest.api.server.challenge.v1.dto.ChallengeSetDTO;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import javax.ws.rs.core.Response;
@@ -83,13 +89,19 @@ public class ChallengesApiServiceImpl extends ChallengesApiService {
     @Override
     public Response getChallengeQuestionSet(String challengeSetId, String locale, Integer offset, Integer limit) {
 
-        return Response.ok().entity(challengeService.getChallengeSet(challengeSetId, locale, limit, offset)).build();
+        return Response.ok().entity(challengeService.getChallengeSet(challengeSetId, locale, offset, limit)).build();
     }
 
     @Override
-    public Response searchChallenges(String locale, Integer offset, Integer limit) {
+    public Response searchChallenges(String locale, Integer offset, Integer limit, String after) {
 
-        return Response.ok().entity(challengeService.getChallenges(locale, limit, offset)).build();
+        ChallengeSetPage<ChallengeSetDTO> challengeSetPage = challengeService.getChallenges(locale, offset, limit,
+                after);
+        Response.ResponseBuilder responseBuilder = Response.ok().entity(challengeSetPage.getItems());
+        if (challengeSetPage.getNextCursor() != null) {
+            responseBuilder.link(getNextPageLocation(locale, challengeSetPage.getNextCursor(), limit), "next");
+        }
+        return responseBuilder.build();
     }
 
     @Override
@@ -98,4 +110,26 @@ public class ChallengesApiServiceImpl extends ChallengesApiService {
         challengeService.updateChallengeSets(challengeSetId, challengeSet);
         return Response.ok().build();
     }
+
+    private URI getNextPageLocation(String locale, String after, Integer limit) {
+
+        StringBuilder nextPagePath = new StringBuilder(V1_API_PATH_COMPONENT + CHALLENGES_PATH_COMPONENT)
+                .append("?after=").append(encodeQueryParam(after));
+        if (limit != null) {
+            nextPagePath.append("&limit=").append(limit);
+        }
+        if (StringUtils.isNotEmpty(locale)) {
+            nextPagePath.append("&locale=").append(encodeQueryParam(locale));
+        }
+        return buildURIForHeader(nextPagePath.toString());
+    }
+
+    private String encodeQueryParam(String value) {
+
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 encoding is not supported.", e);
+        }
+    }
 }
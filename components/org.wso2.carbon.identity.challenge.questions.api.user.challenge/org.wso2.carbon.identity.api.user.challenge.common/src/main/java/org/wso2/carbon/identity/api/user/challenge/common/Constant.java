@@ -25,6 +25,7 @@ public class Constant {
 
     public static final String CHALLENGE_QUESTION_PREFIX = "CQM-";
     public static final String USER_CHALLENGE_ANSWERS_PATH_COMPONENT = "/%s/challenge-answers";
+    public static final String USER_CHALLENGES_PATH_COMPONENT = "/%s/challenges";
     public static final String V1_API_PATH_COMPONENT = "/v1";
     public static final String ME_CONTEXT = "me";
 
@@ -83,7 +84,10 @@ public class Constant {
                 "Invalid answer format in the given answer for the challenge question '%s'."),
         ERROR_CODE_NOT_UNIQUE_ANSWER("10017",
                 "The given challenge question answer is not unique",
-                "The given answer for the challenge question, '%s' has been used more than once.");
+                "The given answer for the challenge question, '%s' has been used more than once."),
+        ERROR_CODE_INVALID_PAGINATION_PARAMETER("10018",
+                "Invalid pagination parameters.",
+                "The offset and the limit should be non-negative integers.");
 
         private final String code;
         private final String message;
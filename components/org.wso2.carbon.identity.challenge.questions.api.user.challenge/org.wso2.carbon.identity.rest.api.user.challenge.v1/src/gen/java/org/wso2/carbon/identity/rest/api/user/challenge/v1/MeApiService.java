@@ -41,7 +41,7 @@ public abstract class MeApiService {
     public abstract Response deleteChallengeAnswerOfLoggedInUser(String challengeSetId);
     public abstract Response deleteChallengeAnswersOfLoggedInUser();
     public abstract Response getAnsweredChallengesOfLoggedInUser();
-    public abstract Response getChallengesForLoggedInUser(Integer limit,Integer offset);
+    public abstract Response getChallengesForLoggedInUser(Integer limit,Integer offset,String after);
     public abstract Response updateChallengeAnswerOfLoggedInUser(String challengeSetId,UserChallengeAnswerDTO challengeAnswer);
     public abstract Response updateChallengeAnswersOfLoggedInUser(List<ChallengeAnswerDTO> challengeAnswers);
 }
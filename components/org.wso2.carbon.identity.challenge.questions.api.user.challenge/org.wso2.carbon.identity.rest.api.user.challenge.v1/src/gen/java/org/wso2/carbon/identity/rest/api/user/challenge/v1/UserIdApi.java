@@ -184,10 +184,11 @@ public class UserIdApi  {
         @io.swagger.annotations.ApiResponse(code = 500, message = "Internal Server Error") })
 
     public Response getChallengesForAUser(@ApiParam(value = "Uniquely identifiable user ID",required=true ) @PathParam("user-id")  String userId,
-    @ApiParam(value = "Maximum number of records to return. _*This filtering is not yet supported._") @QueryParam("limit")  Integer limit,
-    @ApiParam(value = "Number of records to skip for pagination. _*This filtering is not yet supported._") @QueryParam("offset")  Integer offset)
+    @ApiParam(value = "Maximum number of challenge sets to return. A Link header with the next relation points to the next page, if any.") @QueryParam("limit")  Integer limit,
+    @ApiParam(value = "Number of challenge sets to skip for pagination.") @QueryParam("offset")  Integer offset,
+    @ApiParam(value = "Opaque cursor of the page to return, as given in the Link header of the previous page.") @QueryParam("after")  String after)
     {
-    return delegate.getChallengesForAUser(userId,limit,offset);
+    return delegate.getChallengesForAUser(userId,limit,offset,after);
     }
     @PUT
     @Path("/challenge-answers/{challenge-set-id}")
@@ -26,7 +26,9 @@ import org.wso2.carbon.identity.api.user.common.error.APIError;
 import org.wso2.carbon.identity.api.user.common.error.ErrorResponse;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimContext;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
@@ -39,7 +41,10 @@ import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.ChallengeSetDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.UserChallengeAnswerDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.UserChallengeAnswerResponseDTO;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -47,9 +52,11 @@ import java.util.stream.Collectors;
 import javax.ws.rs.core.Response;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
- * Call internal osgi services to perform user challenge related operations
+ * Call internal osgi services to perform user challenge related operations. Each operation runs in a UserClaimContext,
+ * so that the claims of the user are read from the user store once per request.
  */
 public class UserChallengeService {
 
@@ -68,18 +75,35 @@ public class UserChallengeService {
     }
 
     /**
-     * Get challenges available for a specific user to answer
+     * Get a page of the challenge sets available for a specific user to answer. The challenge sets are ordered by
+     * question set id, and only the questions up to the end of the requested page are read. A challenge set is never
+     * split across pages.
      *
      * @param user   user
-     * @param offset limit
-     * @param limit  offset
-     * @return list of available Challenges
+     * @param offset number of challenge sets to skip after the cursor
+     * @param limit  maximum number of challenge sets to list, or null to list all the remaining sets
+     * @param after  cursor of the page returned with the previous page, or null to start from the first set
+     * @return page of available Challenges
      */
-    public List<ChallengeSetDTO> getChallengesForUser(User user, Integer offset, Integer limit) {
+    public ChallengeSetPage<ChallengeSetDTO> getChallengesForUser(User user, Integer offset, Integer limit,
+                                                                  String after) {
 
-        try {
-            return buildChallengesDTO(challengeQuestionManager.getAllChallengeQuestionsForUser(
-                    IdentityTenantUtil.resolveTenantDomain(), user), offset, limit);
+        if ((offset != null && offset < 0) || (limit != null && limit < 0)) {
+            throw handleError(Response.Status.BAD_REQUEST,
+                    Constant.ErrorMessage.ERROR_CODE_INVALID_PAGINATION_PARAMETER);
+        }
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            String tenantDomain = IdentityTenantUtil.resolveTenantDomain();
+            String cursor = after;
+            if (offset != null && offset > 0) {
+                cursor = challengeQuestionManager.getChallengeSetsForUser(tenantDomain, user, cursor, offset)
+                        .getNextCursor();
+                if (cursor == null) {
+                    return new ChallengeSetPage<>(Collections.emptyList(), null);
+                }
+            }
+            return challengeQuestionManager.getChallengeSetsForUser(tenantDomain, user, cursor,
+                    limit == null ? Integer.MAX_VALUE : limit).map(this::buildChallengesDTO);
         } catch (IdentityRecoveryException e) {
             throw handleIdentityRecoveryException(e,
                     Constant.ErrorMessage.ERROR_CODE_ERROR_RETRIEVING_CHALLENGES_FOR_USER);
@@ -96,8 +120,8 @@ public class UserChallengeService {
      */
     public boolean setChallengeAnswersOfUser(User user, List<ChallengeAnswerDTO> challengeAnswers) {
 
-        List<UserChallengeAnswer> answers = buildChallengeAnswers(challengeAnswers);
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            List<UserChallengeAnswer> answers = buildChallengeAnswers(challengeAnswers);
             List<String> answeredList = challengeQuestionManager.getChallengeQuestionUris(user);
             if (!answeredList.isEmpty()) {
                 throw handleError(Response.Status.CONFLICT,
@@ -121,8 +145,8 @@ public class UserChallengeService {
      */
     public boolean updateChallengeAnswersOfUser(User user, List<ChallengeAnswerDTO> newChallengeAnswers) {
 
-        List<UserChallengeAnswer> answers = buildChallengeAnswers(newChallengeAnswers);
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            List<UserChallengeAnswer> answers = buildChallengeAnswers(newChallengeAnswers);
             validateUserAnsweredChallenges(user);
             challengeQuestionManager.setChallengesOfUser(user, answers.toArray(
                     new UserChallengeAnswer[answers.size()]));
@@ -146,7 +170,7 @@ public class UserChallengeService {
     public boolean updateChallengeAnswerOfUser(User user, String challengeSetId,
                                                UserChallengeAnswerDTO challengeAnswer) {
 
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
             validateUserAnsweredChallenge(user, challengeSetId);
             UserChallengeAnswer answer = new UserChallengeAnswer(
                     createChallengeQuestion(challengeSetId, challengeAnswer.getChallengeQuestion()),
@@ -170,7 +194,7 @@ public class UserChallengeService {
      */
     public boolean addChallengeAnswerOfUser(User user, String challengeSetId, UserChallengeAnswerDTO challengeAnswer) {
 
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
             List<String> answeredList = challengeQuestionManager.getChallengeQuestionUris(user);
             if (!answeredList.isEmpty() && answeredList.contains(WSO2_CLAIM_DIALECT + challengeSetId)) {
                 throw handleError(Response.Status.CONFLICT,
@@ -196,7 +220,7 @@ public class UserChallengeService {
      */
     public List<UserChallengeAnswerResponseDTO> getChallengeAnswersOfUser(User user) {
 
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
             return getUserChallengeAnswerDTOsOfUser(user);
         } catch (IdentityRecoveryException e) {
 
@@ -213,7 +237,7 @@ public class UserChallengeService {
      */
     public boolean removeChallengeAnswersOfUser(User user) {
 
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
             validateUserAnsweredChallenges(user);
 
             challengeQuestionManager.removeChallengeAnswersOfUser(user);
@@ -233,7 +257,7 @@ public class UserChallengeService {
      * @return operation success
      */
     public boolean removeChallengeAnswerOfUser(User user, String challengeSetId) {
-        try {
+        try (UserClaimContext ignored = UserClaimContext.open()) {
             validateUserAnsweredChallenge(user, challengeSetId);
             challengeQuestionManager.removeChallengeAnswerOfUser(user, WSO2_CLAIM_DIALECT + challengeSetId);
         } catch (IdentityRecoveryException e) {
@@ -290,28 +314,28 @@ public class UserChallengeService {
     }
 
     /**
-     * Transform incoming ChallengeQuestionDTO to ChallengeQuestion to be sent for osgi service
+     * Transform incoming ChallengeQuestionDTO to ChallengeQuestion to be sent for osgi service. The locale tag of the
+     * question is resolved to the locale of the challenge question catalog of the tenant.
      *
      * @param setId
      * @param q
      * @return
+     * @throws IdentityRecoveryException
      */
-    private ChallengeQuestion createChallengeQuestion(String setId, ChallengeQuestionDTO q) {
+    private ChallengeQuestion createChallengeQuestion(String setId, ChallengeQuestionDTO q)
+            throws IdentityRecoveryException {
 
         return new ChallengeQuestion(WSO2_CLAIM_DIALECT + setId, q.getQuestionId(), q.getQuestion(),
-                q.getLocale());
+                challengeQuestionManager.resolveLocale(IdentityTenantUtil.resolveTenantDomain(), q.getLocale()));
     }
 
     /**
      * Transform ChallengeQuestion list to ChallengeSetDTO list
      *
      * @param challengeQuestions
-     * @param offset
-     * @param limit
      * @return
      */
-    private List<ChallengeSetDTO> buildChallengesDTO(List<ChallengeQuestion> challengeQuestions, Integer offset,
-                                                     Integer limit) {
+    private List<ChallengeSetDTO> buildChallengesDTO(List<ChallengeQuestion> challengeQuestions) {
 
         Map<String, List<ChallengeQuestion>> challengeSets = groupChallenges(challengeQuestions);
         return challengeSets.entrySet().stream().map((e) -> getChallengeSetDTO(e.getKey(),
@@ -340,18 +364,23 @@ public class UserChallengeService {
      *
      * @param challengeAnswer
      * @return
+     * @throws IdentityRecoveryException
      */
-    private List<UserChallengeAnswer> buildChallengeAnswers(List<ChallengeAnswerDTO> challengeAnswer) {
+    private List<UserChallengeAnswer> buildChallengeAnswers(List<ChallengeAnswerDTO> challengeAnswer)
+            throws IdentityRecoveryException {
 
-        return challengeAnswer.stream().map((q) -> new UserChallengeAnswer(
-                createChallengeQuestion(q.getQuestionSetId(), q.getChallengeQuestion()), q.getAnswer()))
-                .collect(Collectors.toList());
+        List<UserChallengeAnswer> answers = new ArrayList<>();
+        for (ChallengeAnswerDTO q : challengeAnswer) {
+            answers.add(new UserChallengeAnswer(createChallengeQuestion(q.getQuestionSetId(),
+                    q.getChallengeQuestion()), q.getAnswer()));
+        }
+        return answers;
     }
 
     private Map<String, List<ChallengeQuestion>> groupChallenges(List<ChallengeQuestion> challengeQuestions) {
 
         return challengeQuestions.stream().collect(groupingBy(question -> question.getQuestionSetId()
-                        .split(WSO2_CLAIM_DIALECT)[1]));
+                        .split(WSO2_CLAIM_DIALECT)[1], LinkedHashMap::new, toList()));
     }
 
     /**
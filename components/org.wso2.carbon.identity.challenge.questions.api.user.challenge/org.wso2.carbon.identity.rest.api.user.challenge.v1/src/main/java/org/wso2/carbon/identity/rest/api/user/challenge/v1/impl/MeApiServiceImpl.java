@@ -18,9 +18,11 @@
 
 package org.wso2.carbon.identity.rest.api.user.challenge.v1.impl;
 
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.MeApiService;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.core.UserChallengeService;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.ChallengeAnswerDTO;
+import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.ChallengeSetDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.UserChallengeAnswerDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.factories.UserChallengeServiceFactory;
 
@@ -31,6 +33,7 @@ import javax.ws.rs.core.Response;
 
 import static org.wso2.carbon.identity.api.user.challenge.common.Constant.ME_CONTEXT;
 import static org.wso2.carbon.identity.api.user.challenge.common.Constant.USER_CHALLENGE_ANSWERS_PATH_COMPONENT;
+import static org.wso2.carbon.identity.api.user.challenge.common.Constant.USER_CHALLENGES_PATH_COMPONENT;
 import static org.wso2.carbon.identity.api.user.challenge.common.Constant.V1_API_PATH_COMPONENT;
 import static org.wso2.carbon.identity.api.user.common.ContextLoader.buildURIForHeader;
 import static org.wso2.carbon.identity.api.user.common.ContextLoader.getUserFromContext;
@@ -87,9 +90,15 @@ public class MeApiServiceImpl extends MeApiService {
     }
 
     @Override
-    public Response getChallengesForLoggedInUser(Integer offset, Integer limit) {
+    public Response getChallengesForLoggedInUser(Integer limit, Integer offset, String after) {
 
-        return Response.ok().entity(challengeService.getChallengesForUser(getUserFromContext(), offset, limit)).build();
+        ChallengeSetPage<ChallengeSetDTO> challengeSetPage = challengeService.getChallengesForUser(getUserFromContext(),
+                offset, limit, after);
+        Response.ResponseBuilder responseBuilder = Response.ok().entity(challengeSetPage.getItems());
+        if (challengeSetPage.getNextCursor() != null) {
+            responseBuilder.link(getMeChallengesNextPageLocation(challengeSetPage.getNextCursor(), limit), "next");
+        }
+        return responseBuilder.build();
     }
 
     @Override
@@ -112,4 +121,11 @@ public class MeApiServiceImpl extends MeApiService {
         return buildURIForHeader(String.format(V1_API_PATH_COMPONENT + USER_CHALLENGE_ANSWERS_PATH_COMPONENT,
                 ME_CONTEXT));
     }
+
+    private URI getMeChallengesNextPageLocation(String after, Integer limit) {
+
+        String nextPagePath = String.format(V1_API_PATH_COMPONENT + USER_CHALLENGES_PATH_COMPONENT, ME_CONTEXT) +
+                "?after=" + after + (limit != null ? "&limit=" + limit : "");
+        return buildURIForHeader(nextPagePath);
+    }
 }
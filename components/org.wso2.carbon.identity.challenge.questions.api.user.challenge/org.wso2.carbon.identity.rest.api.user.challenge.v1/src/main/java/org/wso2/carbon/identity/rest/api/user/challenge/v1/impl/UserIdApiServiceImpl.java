@@ -21,10 +21,12 @@ package org.wso2.carbon.identity.rest.api.user.challenge.v1.impl;
 import org.wso2.carbon.identity.api.user.challenge.common.ChallengeQuestionServiceHolder;
 import org.wso2.carbon.identity.api.user.common.function.UniqueIdToUser;
 import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.UserIdApiService;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.core.UserChallengeService;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.ChallengeAnswerDTO;
+import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.ChallengeSetDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.dto.UserChallengeAnswerDTO;
 import org.wso2.carbon.identity.rest.api.user.challenge.v1.factories.UserChallengeServiceFactory;
 
@@ -34,6 +36,7 @@ import java.util.List;
 import javax.ws.rs.core.Response;
 
 import static org.wso2.carbon.identity.api.user.challenge.common.Constant.USER_CHALLENGE_ANSWERS_PATH_COMPONENT;
+import static org.wso2.carbon.identity.api.user.challenge.common.Constant.USER_CHALLENGES_PATH_COMPONENT;
 import static org.wso2.carbon.identity.api.user.challenge.common.Constant.V1_API_PATH_COMPONENT;
 import static org.wso2.carbon.identity.api.user.common.ContextLoader.buildURIForHeader;
 
@@ -89,9 +92,16 @@ public class UserIdApiServiceImpl extends UserIdApiService {
     }
 
     @Override
-    public Response getChallengesForAUser(String userId, Integer offset, Integer limit) {
-
-        return Response.ok().entity(challengeService.getChallengesForUser(getUser(userId), offset, limit)).build();
+    public Response getChallengesForAUser(String userId, Integer limit, Integer offset, String after) {
+
+        ChallengeSetPage<ChallengeSetDTO> challengeSetPage = challengeService.getChallengesForUser(getUser(userId),
+                offset, limit, after);
+        Response.ResponseBuilder responseBuilder = Response.ok().entity(challengeSetPage.getItems());
+        if (challengeSetPage.getNextCursor() != null) {
+            responseBuilder.link(getUserChallengesNextPageLocation(userId, challengeSetPage.getNextCursor(), limit),
+                    "next");
+        }
+        return responseBuilder.build();
     }
 
     @Override
@@ -119,4 +129,11 @@ public class UserIdApiServiceImpl extends UserIdApiService {
         return new UniqueIdToUser().apply(ChallengeQuestionServiceHolder.getRealmService(), userId,
                 IdentityTenantUtil.resolveTenantDomain());
     }
+
+    private URI getUserChallengesNextPageLocation(String userId, String after, Integer limit) {
+
+        String nextPagePath = String.format(V1_API_PATH_COMPONENT + USER_CHALLENGES_PATH_COMPONENT, userId) +
+                "?after=" + after + (limit != null ? "&limit=" + limit : "");
+        return buildURIForHeader(nextPagePath);
+    }
 }
@@ -26,8 +26,15 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogIndex;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimReader;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeAnswerDAO;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionDAO;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionPersistenceManagerFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.ChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.DigestChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.locale.ChallengeQuestionLocaleResolver;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.event.IdentityEventClientException;
 import org.wso2.carbon.identity.event.IdentityEventConstants;
@@ -40,19 +47,35 @@ import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.challenge.questions.recovery.seeding.DefaultChallengeQuestionSeeder;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionCatalogWarmer;
 import org.wso2.carbon.identity.recovery.util.Utils;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_INVALID_PAGINATION_CURSOR;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.LocaleResolutionConfig.DEFAULT_LOCALE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.LocaleResolutionConfig.DEFAULT_NORMALIZED_LOCALE_CACHE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.LocaleResolutionConfig.NORMALIZED_LOCALE_CACHE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.DEFAULT_STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getChallengeQuestionsOfFirstLocale;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getStringProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantUserStoreManager;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleClientException;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateLocale;
 import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.ErrorMessages.*;
 import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_INVALID_CHALLENGE_QUESTION_VALUE;
-import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.LOCALE_EN_US;
 
 /**
  * This class is used to manage challenge questions.
@@ -61,10 +84,20 @@ public class ChallengeQuestionManager {
 
     private static final Log log = LogFactory.getLog(ChallengeQuestionManager.class);
     private static ChallengeQuestionManager instance = new ChallengeQuestionManager();
+    private static final String CURSOR_SEPARATOR = ".";
     ChallengeQuestionPersistenceManagerFactory challengeQuestionPersistenceManagerFactory =
             new ChallengeQuestionPersistenceManagerFactory();
     ChallengeQuestionDAO challengeQuestionsImpl =
-            challengeQuestionPersistenceManagerFactory.getChallengeQuestionPersistenceManager();
+            challengeQuestionPersistenceManagerFactory.getCachedChallengeQuestionPersistenceManager();
+    UserClaimReader claimReader = new UserClaimReader(this::getKnownChallengeClaims);
+    ChallengeAnswerDAO challengeAnswerDAO =
+            challengeQuestionPersistenceManagerFactory.getChallengeAnswerPersistenceManager(claimReader);
+    ChallengeAnswerHasher answerHasher = DigestChallengeAnswerHasher.getInstance();
+    // Reads the locales through the current DAO, so that the resolver follows a replaced DAO.
+    ChallengeQuestionLocaleResolver localeResolver = new ChallengeQuestionLocaleResolver(
+            tenantDomain -> challengeQuestionsImpl.getChallengeQuestionLocales(tenantDomain),
+            ChallengeQuestionCatalogCache.getInstance(), getStringProperty(DEFAULT_LOCALE, null),
+            (int) getLongProperty(NORMALIZED_LOCALE_CACHE_CAPACITY, DEFAULT_NORMALIZED_LOCALE_CACHE_CAPACITY));
 
     private ChallengeQuestionManager() {
 
@@ -120,38 +153,330 @@ public class ChallengeQuestionManager {
         return challengeQuestionsImpl.getAllChallengeQuestionSetsURIs(tenantDomain);
     }
 
+    /**
+     * Get the number of challenge question sets registered for a tenant, without reading the question texts.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Number of challenge question sets.
+     * @throws IdentityRecoveryServerException If an error occurs while counting the challenge question sets.
+     */
+    public int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return challengeQuestionsImpl.getChallengeQuestionSetCount(tenantDomain);
+    }
+
+    /**
+     * Get the URIs of the challenge question sets of a tenant, without reading the question texts.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale, or null to get the sets of all locales.
+     * @return Sorted challenge question set URIs.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge question set URIs.
+     */
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        if (StringUtils.isEmpty(locale)) {
+            return challengeQuestionsImpl.getAllChallengeQuestionSetsURIs(tenantDomain).stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return challengeQuestionsImpl.getChallengeQuestionSetURIs(tenantDomain, validateLocale(locale));
+    }
+
+    /**
+     * Get the ids of the questions of a challenge question set, without reading the question texts.
+     *
+     * @param tenantDomain    Tenant domain.
+     * @param challengeSetUri Challenge question set URI.
+     * @return Sorted question ids of the set.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the question ids.
+     */
+    public List<String> getChallengeQuestionIds(String tenantDomain, String challengeSetUri)
+            throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return challengeQuestionsImpl.getChallengeQuestionIds(challengeSetUri, tenantDomain);
+    }
+
+    /**
+     * Check whether a challenge question set is registered for a tenant, without reading the question texts.
+     *
+     * @param tenantDomain    Tenant domain.
+     * @param challengeSetUri Challenge question set URI.
+     * @return True if the challenge question set exists.
+     * @throws IdentityRecoveryException If an error occurs while checking the challenge question set.
+     */
+    public boolean isChallengeQuestionSetExists(String tenantDomain, String challengeSetUri)
+            throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return challengeQuestionsImpl.hasChallengeQuestionSet(challengeSetUri, tenantDomain);
+    }
+
+    /**
+     * Resolve a locale tag to the locale of the challenge question catalog of a tenant. Tags such as en-US, en_US and
+     * EN_us resolve to the same locale.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Locale tag. A blank tag resolves to en_US.
+     * @return The locale of the catalog matching the tag in its stored spelling, or the normalized tag if the catalog
+     * has no questions in it.
+     * @throws IdentityRecoveryException If the locale tag is invalid or the locales of the catalog could not be read.
+     */
+    public String resolveLocale(String tenantDomain, String locale) throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return localeResolver.resolveLocale(tenantDomain, locale);
+    }
+
+    /**
+     * Get the locales challenge questions are looked up in for a requested locale, in the order of precedence. The
+     * chain is built from the locales of the catalog of the tenant, e.g. es_MX, es, es_ES, the configured default
+     * locale and en_US.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Requested locale tag.
+     * @return Unmodifiable fallback chain, which always ends with en_US.
+     * @throws IdentityRecoveryException If the locale tag is invalid or the locales of the catalog could not be read.
+     */
+    public List<String> getLocaleFallbackChain(String tenantDomain, String locale) throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return localeResolver.getLocaleFallbackChain(tenantDomain, locale);
+    }
+
     /**
      * Get challenge questions available for a user.
      *
      * @param tenantDomain tenantDomain of the user
      * @param user         User object
      * @return List of available challenge questions in user's locale in the tenantDomain. If no challenge questions
-     * are available we return challenge questions from the default en_US locale.
+     * are available we return challenge questions of the first locale of the fallback chain of the user's locale
+     * having questions.
      * @throws IdentityRecoveryException
      */
     public List<ChallengeQuestion> getAllChallengeQuestionsForUser(String tenantDomain,
                                                                    User user) throws IdentityRecoveryException {
 
         // Identify the locale of the user
-        String locale = getLocaleOfUser(user, tenantDomain);
-        // get challenge questions in the given tenant domain for give locale.
-        List<ChallengeQuestion> challengeQuestions = getAllChallengeQuestions(tenantDomain, locale);
+        String locale = localeResolver.normalize(getLocaleOfUser(user, tenantDomain));
+        tenantDomain = validateTenantDomain(tenantDomain);
 
         /*
-            If there are no challenge questions found in the locale of the user and the locale is not the default one.
-             we return challenge questions from default en_US locale.
+            The locales of the fallback chain are read at once, and the questions of the first locale having
+            questions are returned.
          */
-        if (challengeQuestions.isEmpty() && !StringUtils.equalsIgnoreCase(LOCALE_EN_US, locale)) {
-            String error = "No challenge questions available in '%s' locale in %s tenant. Sending questions of " +
-                    "default '%s' locale";
-            log.error(String.format(error, locale, tenantDomain, LOCALE_EN_US));
-            challengeQuestions = getAllChallengeQuestions(tenantDomain, LOCALE_EN_US);
+        List<String> locales = localeResolver.getLocaleFallbackChain(tenantDomain, locale);
+        List<ChallengeQuestion> challengeQuestions = getChallengeQuestionsOfFirstLocale(
+                challengeQuestionsImpl.getChallengeQuestionsOfLocales(tenantDomain, locales), locales);
+        if (!challengeQuestions.isEmpty()) {
+            logLocaleFallback(locale, challengeQuestions.get(0).getLocale(), tenantDomain);
+        }
+
+        return challengeQuestions;
+    }
+
+    /**
+     * Get a page of the challenge questions registered for a tenant, ordered by question set id, question id and
+     * locale. The next page is read by passing the last question of the page as the cursor.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale, or null to get the challenge questions of all locales.
+     * @param after        Question after which the page starts, or null to start from the first question.
+     * @param limit        Maximum number of challenge questions in the page.
+     * @return Page of challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions.
+     */
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
+
+        if (StringUtils.isNotEmpty(locale)) {
+            locale = validateLocale(locale);
+        }
+        tenantDomain = validateTenantDomain(tenantDomain);
+        return challengeQuestionsImpl.getChallengeQuestions(tenantDomain, locale, after, limit);
+    }
+
+    /**
+     * Pass the challenge questions registered for a tenant to the consumer one by one, in the order of question set
+     * id, question id and locale, without holding the whole catalog in memory. Suitable for exporting or processing
+     * large catalogs.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale, or null to read the challenge questions of all locales.
+     * @param consumer     Consumer of the challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions, or if the
+     *                                   consumer fails.
+     */
+    public void forEachChallengeQuestion(String tenantDomain, String locale,
+                                         ChallengeQuestionDAO.ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        if (StringUtils.isNotEmpty(locale)) {
+            locale = validateLocale(locale);
         }
+        tenantDomain = validateTenantDomain(tenantDomain);
+        challengeQuestionsImpl.forEachChallengeQuestion(tenantDomain, locale, consumer);
+    }
+
+    /**
+     * Get a page of the challenge questions available for a user, in the locale of the user. If there are no
+     * challenge questions in the locale of the user, the pages are read from the first locale of the fallback chain
+     * of the user's locale having questions.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param user         User object.
+     * @param after        Question after which the page starts, or null to start from the first question.
+     * @param limit        Maximum number of challenge questions in the page.
+     * @return Page of challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions.
+     */
+    public List<ChallengeQuestion> getChallengeQuestionsForUser(String tenantDomain, User user,
+                                                                ChallengeQuestion after, int limit)
+            throws IdentityRecoveryException {
 
+        if (after != null) {
+            // The cursor carries the locale the previous page was served in.
+            return getChallengeQuestions(tenantDomain, after.getLocale(), after, limit);
+        }
+        String locale = localeResolver.normalize(getLocaleOfUser(user, tenantDomain));
+        tenantDomain = validateTenantDomain(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        for (String fallbackLocale : localeResolver.getLocaleFallbackChain(tenantDomain, locale)) {
+            challengeQuestions = challengeQuestionsImpl.getChallengeQuestions(tenantDomain, fallbackLocale, null,
+                    limit);
+            if (!challengeQuestions.isEmpty()) {
+                logLocaleFallback(locale, fallbackLocale, tenantDomain);
+                break;
+            }
+        }
         return challengeQuestions;
     }
 
 
+    /**
+     * Get a page of whole challenge sets registered for a tenant, in the order of question set id, question id and
+     * locale. A challenge set is never split across pages.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale, or null to get the challenge questions of all locales.
+     * @param cursor       Cursor returned with the previous page, or null to start from the first challenge set.
+     * @param limit        Maximum number of challenge sets in the page.
+     * @return Page of the challenge questions of the challenge sets.
+     * @throws IdentityRecoveryException If the cursor is invalid, or if an error occurs while retrieving the challenge
+     *                                   questions.
+     */
+    public ChallengeSetPage<ChallengeQuestion> getChallengeSets(String tenantDomain, String locale, String cursor,
+                                                                int limit) throws IdentityRecoveryException {
+
+        if (StringUtils.isNotEmpty(locale)) {
+            locale = validateLocale(locale);
+        }
+        String validatedLocale = locale;
+        String validatedTenantDomain = validateTenantDomain(tenantDomain);
+        return getChallengeSetPage((after, pageSize) -> challengeQuestionsImpl.getChallengeQuestions(
+                validatedTenantDomain, validatedLocale, after, pageSize), decodeCursor(cursor), limit);
+    }
+
+    /**
+     * Get a page of whole challenge sets available for a user, in the locale of the user. If there are no challenge
+     * questions in the locale of the user, the pages are read from the first locale of the fallback chain of the
+     * user's locale having questions. A challenge set is never split across pages.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param user         User object.
+     * @param cursor       Cursor returned with the previous page, or null to start from the first challenge set.
+     * @param limit        Maximum number of challenge sets in the page.
+     * @return Page of the challenge questions of the challenge sets.
+     * @throws IdentityRecoveryException If the cursor is invalid, or if an error occurs while retrieving the challenge
+     *                                   questions.
+     */
+    public ChallengeSetPage<ChallengeQuestion> getChallengeSetsForUser(String tenantDomain, User user, String cursor,
+                                                                       int limit) throws IdentityRecoveryException {
+
+        return getChallengeSetPage((after, pageSize) -> getChallengeQuestionsForUser(tenantDomain, user, after,
+                pageSize), decodeCursor(cursor), limit);
+    }
+
+    private ChallengeSetPage<ChallengeQuestion> getChallengeSetPage(ChallengeQuestionPageReader reader,
+                                                                    ChallengeQuestion after, int limit)
+            throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        if (limit <= 0) {
+            return new ChallengeSetPage<>(challengeQuestions, null);
+        }
+        int maxPageSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                getLongProperty(STREAMING_READ_FETCH_SIZE, DEFAULT_STREAMING_READ_FETCH_SIZE)));
+        // Sets usually have more than one question, so the questions are read in growing pages until the first
+        // question of the set following the page is seen.
+        int pageSize = (int) Math.min(maxPageSize, (long) limit + 1);
+        String questionSetId = null;
+        int challengeSetCount = 0;
+        while (true) {
+            List<ChallengeQuestion> page = reader.read(after, pageSize);
+            for (ChallengeQuestion challengeQuestion : page) {
+                if (challengeSetCount == 0 || !StringUtils.equals(questionSetId,
+                        challengeQuestion.getQuestionSetId())) {
+                    if (challengeSetCount == limit) {
+                        return new ChallengeSetPage<>(challengeQuestions,
+                                encodeCursor(challengeQuestions.get(challengeQuestions.size() - 1)));
+                    }
+                    questionSetId = challengeQuestion.getQuestionSetId();
+                    challengeSetCount++;
+                }
+                challengeQuestions.add(challengeQuestion);
+            }
+            if (page.size() < pageSize) {
+                return new ChallengeSetPage<>(challengeQuestions, null);
+            }
+            after = page.get(page.size() - 1);
+            pageSize = (int) Math.min(maxPageSize, pageSize * 2L);
+        }
+    }
+
+    private static String encodeCursor(ChallengeQuestion challengeQuestion) {
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return Arrays.stream(new String[]{challengeQuestion.getQuestionSetId(), challengeQuestion.getQuestionId(),
+                        challengeQuestion.getLocale()})
+                .map(key -> encoder.encodeToString(StringUtils.defaultString(key).getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining(CURSOR_SEPARATOR));
+    }
+
+    private static ChallengeQuestion decodeCursor(String cursor) throws IdentityRecoveryClientException {
+
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        String[] keys = cursor.split(Pattern.quote(CURSOR_SEPARATOR), -1);
+        if (keys.length != 3) {
+            throw handleClientException(ERROR_CODE_INVALID_PAGINATION_CURSOR, cursor);
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            return new ChallengeQuestion(new String(decoder.decode(keys[0]), StandardCharsets.UTF_8),
+                    new String(decoder.decode(keys[1]), StandardCharsets.UTF_8), null,
+                    new String(decoder.decode(keys[2]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw handleClientException(ERROR_CODE_INVALID_PAGINATION_CURSOR, cursor);
+        }
+    }
+
+    /**
+     * Reads a page of challenge questions after a given question.
+     */
+    @FunctionalInterface
+    private interface ChallengeQuestionPageReader {
+
+        List<ChallengeQuestion> read(ChallengeQuestion after, int limit) throws IdentityRecoveryException;
+    }
+
     /**
      * Set default challenge questions to a tenant registry. (This is done during startup)
      *
@@ -163,7 +488,7 @@ public class ChallengeQuestionManager {
         tenantDomain = validateTenantDomain(tenantDomain);
 
         // check whether we already have default questions.
-        boolean isDefaultAvailable = !getAllChallengeQuestions(tenantDomain).isEmpty();
+        boolean isDefaultAvailable = getChallengeQuestionSetCount(tenantDomain) > 0;
         if (isDefaultAvailable) {
             if (log.isDebugEnabled()) {
                 log.debug("Default Challenge Questions already available.");
@@ -171,15 +496,72 @@ public class ChallengeQuestionManager {
             return;
         }
 
-        ChallengeQuestion[] questions = ChallengeQuesionsUtil.getDefaultChallengeQuestions();
-        addChallengeQuestions(questions, tenantDomain);
+        challengeQuestionsImpl.addDefaultChallengeQuestions(tenantDomain);
 
         if (log.isDebugEnabled()) {
-            String errorMsg = "%d default challenge questions added to registry of %s tenant.";
-            log.debug(String.format(errorMsg, questions.length, tenantDomain));
+            log.debug("Default challenge questions added to " + tenantDomain + " tenant.");
         }
     }
 
+    /**
+     * Release the cached challenge question catalog and catalog version of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void releaseTenant(String tenantDomain) {
+
+        challengeQuestionsImpl.releaseTenant(tenantDomain);
+    }
+
+    /**
+     * Load the challenge question catalog of a tenant into the catalog cache, along with its set count, locales and
+     * the catalog index of the locale questions are served in by default.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityRecoveryException If an error occurs while reading the catalog.
+     */
+    public void loadChallengeQuestionCatalog(String tenantDomain) throws IdentityRecoveryException {
+
+        tenantDomain = validateTenantDomain(tenantDomain);
+        challengeQuestionsImpl.getAllChallengeQuestionSetsURIs(tenantDomain);
+        challengeQuestionsImpl.getChallengeQuestionSetCount(tenantDomain);
+        challengeQuestionsImpl.getAllChallengeQuestions(tenantDomain);
+        List<String> fallbackChain = localeResolver.getLocaleFallbackChain(tenantDomain, null);
+        challengeQuestionsImpl.getChallengeQuestionCatalogIndex(tenantDomain, fallbackChain.get(0));
+    }
+
+    /**
+     * Warm up the challenge question catalogs of tenants in the background. Progress is reported by the metrics of
+     * the ChallengeQuestionCatalogWarmer.
+     *
+     * @param tenantDomains Tenant domains, or null or empty to warm up the catalogs of all the active tenants.
+     */
+    public void warmUpChallengeQuestionCatalogs(List<String> tenantDomains) {
+
+        ChallengeQuestionCatalogWarmer catalogWarmer = ChallengeQuestionCatalogWarmer.getInstance();
+        if (tenantDomains == null || tenantDomains.isEmpty()) {
+            catalogWarmer.warmUpActiveTenants();
+        } else {
+            catalogWarmer.warmUp(tenantDomains);
+        }
+    }
+
+    /**
+     * Read the challenge question catalogs of many tenants for fleet-wide operations such as exports and audits,
+     * querying the tenants batch by batch instead of one by one. The catalogs are read from the store, bypassing the
+     * catalog cache.
+     *
+     * @param tenantIds Tenant ids.
+     * @param consumer  Consumer of the catalog of each tenant, called in ascending order of tenant ids.
+     * @throws IdentityRecoveryException If an error occurs while reading the catalogs, or if the consumer fails.
+     */
+    public void forEachTenantChallengeQuestionCatalog(Collection<Integer> tenantIds,
+                                                      ChallengeQuestionDAO.TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        challengeQuestionsImpl.forEachTenantCatalog(tenantIds, consumer);
+    }
+
     /**
      * Add new challenge questions to the registry of a tenant
      *
@@ -232,39 +614,18 @@ public class ChallengeQuestionManager {
 
         validateUser(user);
 
-        List<UserChallengeAnswer> userChallengeAnswers = new ArrayList<>();
         if (log.isDebugEnabled()) {
             log.debug("Retrieving Challenge question from the user profile.");
         }
 
         List<String> challengesUris = getChallengeQuestionUris(user);
-        for (String challengesUri1 : challengesUris) {
-            String challengesUri = challengesUri1.trim();
-            String challengeValue;
-            try {
-                challengeValue = Utils.getClaimFromUserStoreManager(user, challengesUri);
-            } catch (UserStoreException e) {
-                throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                        .ERROR_CODE_GETTING_CHALLENGE_QUESTIONS, user.getUserName(), e);
-            }
-
-            String challengeQuestionSeparator = getChallengeSeparator();
-
-            String[] challengeValues = challengeValue.split(challengeQuestionSeparator);
-            if (challengeValues != null && challengeValues.length == 2) {
-                ChallengeQuestion userChallengeQuestion = new ChallengeQuestion(challengesUri,
-                        challengeValues[0].trim());
-                UserChallengeAnswer userChallengeAnswer = new UserChallengeAnswer(userChallengeQuestion,
-                        challengeValues[1].trim());
-                userChallengeAnswers.add(userChallengeAnswer);
-            }
-        }
-
-        if (!userChallengeAnswers.isEmpty()) {
-            return userChallengeAnswers.toArray(new UserChallengeAnswer[userChallengeAnswers.size()]);
-        } else {
+        if (challengesUris.isEmpty()) {
             return new UserChallengeAnswer[0];
         }
+
+        // Load the answers of all the answered challenge sets with a single read.
+        return challengeAnswerDAO.getChallengeAnswers(user, challengesUris).values()
+                .toArray(new UserChallengeAnswer[0]);
     }
 
     /**
@@ -279,30 +640,13 @@ public class ChallengeQuestionManager {
 
         validateUser(user);
 
-        ChallengeQuestion userChallengeQuestion = null;
         if (log.isDebugEnabled()) {
             log.debug("Retrieving Challenge question from the user profile.");
         }
 
-        String challengeValue = null;
-        try {
-            challengeValue = Utils.getClaimFromUserStoreManager(user, challengesUri);
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_GETTING_CHALLENGE_QUESTION, user.getUserName(), e);
-        }
-
-        if (challengeValue != null) {
-
-            String challengeQuestionSeparator = getChallengeSeparator();
-
-            String[] challengeValues = challengeValue.split(challengeQuestionSeparator);
-            if (challengeValues != null && challengeValues.length == 2) {
-                userChallengeQuestion = new ChallengeQuestion(challengesUri, challengeValues[0].trim());
-            }
-        }
-        return userChallengeQuestion;
-
+        UserChallengeAnswer userChallengeAnswer = challengeAnswerDAO
+                .getChallengeAnswers(user, Collections.singletonList(challengesUri)).get(challengesUri);
+        return userChallengeAnswer == null ? null : userChallengeAnswer.getQuestion();
     }
 
     public String[] getUserChallengeQuestionIds(User user)
@@ -342,35 +686,7 @@ public class ChallengeQuestionManager {
             log.debug(msg);
         }
 
-        List<String> challenges = new ArrayList<String>();
-        String claimValue = null;
-        String[] challengesUris;
-
-        try {
-            claimValue = Utils.getClaimFromUserStoreManager(user, IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_GETTING_CHALLENGE_URIS, user.getUserName(), e);
-        }
-
-        if (claimValue != null) {
-
-            String challengeQuestionSeparator = getChallengeSeparator();
-
-            if (claimValue.contains(challengeQuestionSeparator)) {
-                challengesUris = claimValue.split(challengeQuestionSeparator);
-            } else {
-                challengesUris = new String[]{claimValue.trim()};
-            }
-
-            for (String challengesUri : challengesUris) {
-                if (StringUtils.isNotBlank(challengesUri)) {
-                    challenges.add(challengesUri.trim());
-                }
-            }
-        }
-
-        return challenges;
+        return challengeAnswerDAO.getAnsweredChallengeSetUris(user);
     }
 
     /**
@@ -392,7 +708,13 @@ public class ChallengeQuestionManager {
                     claimsList.add(answer.getQuestion().getQuestionSetId().trim());
                 }
             }
-            existingQuestionAndAnswers = Utils.getClaimListOfUser(user, claimsList.toArray(new String[0]));
+            // Keep the question and answer format of the user claims, which the event handlers expect.
+            String separator = getChallengeSeparator();
+            for (Map.Entry<String, UserChallengeAnswer> entry :
+                    challengeAnswerDAO.getChallengeAnswers(user, claimsList).entrySet()) {
+                existingQuestionAndAnswers.put(entry.getKey(),
+                        entry.getValue().getQuestion().getQuestion() + separator + entry.getValue().getAnswer());
+            }
         }
         if (log.isDebugEnabled()) {
             if (MapUtils.isEmpty(existingQuestionAndAnswers)) {
@@ -414,75 +736,52 @@ public class ChallengeQuestionManager {
             log.debug(String.format("Setting user challenge question answers in %s's profile.", user.toString()));
         }
 
-        try {
-            String tenantDomain = StringUtils.isBlank(user.getTenantDomain()) ?
-                    MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : user.getTenantDomain();
+        String tenantDomain = StringUtils.isBlank(user.getTenantDomain()) ?
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : user.getTenantDomain();
 
-            // validate whether two questions from the same set has been answered.
-            validateSecurityQuestionDuplicate(userChallengeAnswers);
+        // validate whether two questions from the same set has been answered.
+        validateSecurityQuestionDuplicate(userChallengeAnswers);
 
-            // check whether the answered questions exist in the tenant domain
-            checkChallengeQuestionExists(userChallengeAnswers, tenantDomain);
+        // check whether the answered questions exist in the tenant domain
+        checkChallengeQuestionExists(userChallengeAnswers, tenantDomain);
 
-            // Get the existing challenge questions and answers for the user.
-            Map<String, String> existingQuestionAndAnswers = retrieveAnsweredChallenges(user, userChallengeAnswers);
+        // Get the existing challenge questions and answers for the user.
+        Map<String, String> existingQuestionAndAnswers = retrieveAnsweredChallenges(user, userChallengeAnswers);
 
-            triggerChallengeAnswersValidation(user, userChallengeAnswers,
-                    existingQuestionAndAnswers, IdentityEventConstants.Event.PRE_SET_CHALLENGE_QUESTION_ANSWERS);
+        triggerChallengeAnswersValidation(user, userChallengeAnswers,
+                existingQuestionAndAnswers, IdentityEventConstants.Event.PRE_SET_CHALLENGE_QUESTION_ANSWERS);
 
-            List<String> challengesUris = new ArrayList<String>();
-            String challengesUrisValue = "";
-            String separator = getChallengeSeparator();
+        List<String> challengesUris = new ArrayList<String>();
+        String separator = getChallengeSeparator();
 
-            Map<String, String> challengeQuestionToUpdate = new HashMap<>();
-
-            if (!ArrayUtils.isEmpty(userChallengeAnswers)) {
-                for (UserChallengeAnswer userChallengeAnswer : userChallengeAnswers) {
-
-                    if (StringUtils.isNotBlank(userChallengeAnswer.getQuestion().getQuestionSetId()) &&
-                            StringUtils.isNotBlank(userChallengeAnswer.getQuestion().getQuestion()) &&
-                            StringUtils.isNotBlank(userChallengeAnswer.getAnswer())) {
-
-                        // Get the previous answer for the question.
-                        String oldValue = existingQuestionAndAnswers
-                                .get(userChallengeAnswer.getQuestion().getQuestionSetId().trim());
-
-                        if (oldValue != null && oldValue.contains(separator)) {
-                            String oldAnswer = oldValue.split(separator)[1];
-                            if (!oldAnswer.trim().equals(userChallengeAnswer.getAnswer().trim())) {
-                                String claimValue = userChallengeAnswer.getQuestion().getQuestion().trim() + separator +
-                                        Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-                                challengeQuestionToUpdate
-                                        .put(userChallengeAnswer.getQuestion().getQuestionSetId().trim(), claimValue);
-                            }
-                        } else {
-                            String claimValue = userChallengeAnswer.getQuestion().getQuestion().trim() + separator +
-                                    Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-                            challengeQuestionToUpdate
-                                    .put(userChallengeAnswer.getQuestion().getQuestionSetId().trim(), claimValue);
-                        }
-                        challengesUris.add(userChallengeAnswer.getQuestion().getQuestionSetId().trim());
-                    }
-                }
+        List<UserChallengeAnswer> challengeAnswersToUpdate = new ArrayList<>();
+
+        if (!ArrayUtils.isEmpty(userChallengeAnswers)) {
+            for (UserChallengeAnswer userChallengeAnswer : userChallengeAnswers) {
+
+                if (StringUtils.isNotBlank(userChallengeAnswer.getQuestion().getQuestionSetId()) &&
+                        StringUtils.isNotBlank(userChallengeAnswer.getQuestion().getQuestion()) &&
+                        StringUtils.isNotBlank(userChallengeAnswer.getAnswer())) {
+
+                    // Get the previous answer for the question.
+                    String oldValue = existingQuestionAndAnswers
+                            .get(userChallengeAnswer.getQuestion().getQuestionSetId().trim());
 
-                for (String challengesUri : challengesUris) {
-                    if ("".equals(challengesUrisValue)) {
-                        challengesUrisValue = challengesUri;
+                    if (oldValue != null && oldValue.contains(separator)) {
+                        String oldAnswer = oldValue.split(separator)[1];
+                        if (!oldAnswer.trim().equals(userChallengeAnswer.getAnswer().trim())) {
+                            challengeAnswersToUpdate.add(getHashedChallengeAnswer(userChallengeAnswer));
+                        }
                     } else {
-                        challengesUrisValue = challengesUrisValue +
-                                separator + challengesUri;
+                        challengeAnswersToUpdate.add(getHashedChallengeAnswer(userChallengeAnswer));
                     }
+                    challengesUris.add(userChallengeAnswer.getQuestion().getQuestionSetId().trim());
                 }
-                challengeQuestionToUpdate.put(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI, challengesUrisValue);
-                if (MapUtils.isNotEmpty(challengeQuestionToUpdate)) {
-                    Utils.setClaimsListOfUser(user, challengeQuestionToUpdate);
-                }
-                triggerChallengeAnswersValidation(user, userChallengeAnswers,
-                        existingQuestionAndAnswers, IdentityEventConstants.Event.POST_SET_CHALLENGE_QUESTION_ANSWERS);
             }
-        } catch (org.wso2.carbon.user.api.UserStoreException e) {
-            throw Utils.handleServerException(
-                    ERROR_CODE_REMOVING_CHALLENGE_QUESTIONS, user.getUserName(), e);
+
+            challengeAnswerDAO.setChallengeAnswers(user, challengeAnswersToUpdate, challengesUris);
+            triggerChallengeAnswersValidation(user, userChallengeAnswers,
+                    existingQuestionAndAnswers, IdentityEventConstants.Event.POST_SET_CHALLENGE_QUESTION_ANSWERS);
         }
     }
 
@@ -505,14 +804,8 @@ public class ChallengeQuestionManager {
         properties.put(IdentityEventConstants.EventProperty.USER_OLD_CHALLENGE_ANSWERS, existingQuestionAndAnswers);
 
         try {
-            UserStoreManager userStoreManager;
-            if (IdentityUtil.getPrimaryDomainName().equals(user.getUserStoreDomain())) {
-                userStoreManager = (UserStoreManager) CarbonContext.getThreadLocalCarbonContext().getUserRealm()
-                        .getUserStoreManager();
-            } else {
-                userStoreManager = ((UserStoreManager) CarbonContext.getThreadLocalCarbonContext().getUserRealm()
-                        .getUserStoreManager()).getSecondaryUserStoreManager(user.getUserStoreDomain());
-            }
+            UserStoreManager userStoreManager = getTenantUserStoreManager(
+                    CarbonContext.getThreadLocalCarbonContext().getTenantDomain(), user.getUserStoreDomain());
             properties.put(IdentityEventConstants.EventProperty.USER_STORE_MANAGER, userStoreManager);
         } catch (UserStoreException e) {
             throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages.
@@ -555,55 +848,42 @@ public class ChallengeQuestionManager {
             log.debug(String.format("Setting user challenge question answers in %s's profile.", user.toString()));
         }
 
-        try {
-            String tenantDomain = StringUtils.isBlank(user.getTenantDomain()) ?
-                    MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : user.getTenantDomain();
-
-            // validate whether two questions from the same set has been answered.
-            validateSecurityQuestionDuplicate(new UserChallengeAnswer[]{userChallengeAnswer});
+        String tenantDomain = StringUtils.isBlank(user.getTenantDomain()) ?
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : user.getTenantDomain();
 
-            // check whether the answered questions exist in the tenant domain
-            checkChallengeQuestionExists(new UserChallengeAnswer[]{userChallengeAnswer}, tenantDomain);
+        // validate whether two questions from the same set has been answered.
+        validateSecurityQuestionDuplicate(new UserChallengeAnswer[]{userChallengeAnswer});
 
-            Set<String> challengesUris = new HashSet<>(getChallengeQuestionUris(user));
-            String separator = getChallengeSeparator();
+        // check whether the answered questions exist in the tenant domain
+        checkChallengeQuestionExists(new UserChallengeAnswer[]{userChallengeAnswer}, tenantDomain);
 
-            if (userChallengeAnswer.getQuestion().getQuestionSetId() != null && userChallengeAnswer.getQuestion().getQuestion() !=
-                    null && userChallengeAnswer.getAnswer() != null) {
-                String claimValue = userChallengeAnswer.getQuestion().getQuestion().trim() + separator +
-                        Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-                Utils.setClaimInUserStoreManager(user, userChallengeAnswer.getQuestion().getQuestionSetId().trim(),
-                        claimValue);
-                challengesUris.add(userChallengeAnswer.getQuestion().getQuestionSetId().trim());
+        List<String> challengesUris = getChallengeQuestionUris(user);
 
-                setUserChallengesURI(user, challengesUris, separator);
+        if (userChallengeAnswer.getQuestion().getQuestionSetId() != null && userChallengeAnswer.getQuestion().getQuestion() !=
+                null && userChallengeAnswer.getAnswer() != null) {
+            String questionSetId = userChallengeAnswer.getQuestion().getQuestionSetId().trim();
+            UserChallengeAnswer hashedChallengeAnswer = getHashedChallengeAnswer(userChallengeAnswer);
+            if (!challengesUris.contains(questionSetId)) {
+                challengesUris.add(questionSetId);
             }
-        } catch (org.wso2.carbon.user.api.UserStoreException e) {
-            throw Utils.handleServerException(
-                    ERROR_CODE_REMOVING_CHALLENGE_QUESTIONS, user.getUserName(), e);
-        }
-    }
 
-    private void setUserChallengesURI(User user, Set<String> challengesUris, String separator) throws UserStoreException {
-        String challengesUrisValue = getUserChallengesUriValue(challengesUris, separator);
-        Utils.setClaimInUserStoreManager(user, IdentityRecoveryConstants.CHALLENGE_QUESTION_URI, challengesUrisValue);
-    }
-
-    private void setUserChallengesURI(User user, Set<String> challengesUris) throws UserStoreException {
-        setUserChallengesURI(user, challengesUris, getChallengeSeparator());
+            // Write the answer and the answered set URIs together, so that they are never out of step.
+            challengeAnswerDAO.setChallengeAnswers(user, Collections.singletonList(hashedChallengeAnswer),
+                    challengesUris);
+        }
     }
 
-    private String getUserChallengesUriValue(Set<String> challengesUris, String separator) {
-        String challengesUrisValue = StringUtils.EMPTY;
-        for (String challengesUri : challengesUris) {
-            if (StringUtils.EMPTY.equals(challengesUrisValue)) {
-                challengesUrisValue = challengesUri;
-            } else {
-                challengesUrisValue = challengesUrisValue +
-                        separator + challengesUri;
-            }
-        }
-        return challengesUrisValue;
+    /**
+     * Get a copy of a challenge answer with the trimmed question set id and question, and the hash of the answer.
+     */
+    private UserChallengeAnswer getHashedChallengeAnswer(UserChallengeAnswer userChallengeAnswer)
+            throws IdentityRecoveryServerException {
+
+        ChallengeQuestion challengeQuestion = userChallengeAnswer.getQuestion();
+        return new UserChallengeAnswer(new ChallengeQuestion(challengeQuestion.getQuestionSetId().trim(),
+                challengeQuestion.getQuestionId(), challengeQuestion.getQuestion().trim(),
+                challengeQuestion.getLocale()),
+                answerHasher.hash(answerHasher.normalize(userChallengeAnswer.getAnswer())));
     }
 
     /**
@@ -618,14 +898,7 @@ public class ChallengeQuestionManager {
             log.debug("Removing Challenge question answers from the user profile.");
         }
 
-        List<String> challengesUris = getChallengeQuestionUris(user);
-        challengesUris.add(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
-        try {
-            Utils.removeClaimFromUserStoreManager(user, challengesUris.toArray(new String[challengesUris.size()]));
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(
-                    ERROR_CODE_REMOVING_CHALLENGE_QUESTIONS, user.getUserName(), e);
-        }
+        challengeAnswerDAO.removeChallengeAnswers(user);
     }
 
     /**
@@ -640,16 +913,9 @@ public class ChallengeQuestionManager {
             log.debug("Removing a Challenge answer from the user profile.");
         }
 
-        Set<String> challengesUris = new HashSet<>(getChallengeQuestionUris(user));
-        if (challengesUris.contains(questionURI)) {
-            try {
-                Utils.removeClaimFromUserStoreManager(user, new String[]{questionURI});
-                challengesUris.remove(questionURI);
-                setUserChallengesURI(user, challengesUris);
-            } catch (UserStoreException e) {
-                throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                        .ERROR_CODE_GETTING_CHALLENGE_QUESTIONS, user.getUserName(), e);
-            }
+        List<String> challengesUris = getChallengeQuestionUris(user);
+        if (challengesUris.remove(questionURI)) {
+            challengeAnswerDAO.removeChallengeAnswer(user, questionURI, challengesUris);
         }
     }
 
@@ -675,6 +941,7 @@ public class ChallengeQuestionManager {
                 return false;
             }
 
+            String normalizedAnswer = answerHasher.normalize(userChallengeAnswer.getAnswer());
             for (UserChallengeAnswer storedAnswer : storedAnswers) {
                 if ((userChallengeAnswer.getQuestion().getQuestionSetId() == null || !userChallengeAnswer.getQuestion().getQuestionSetId()
                         .trim().equals(storedAnswer.getQuestion().getQuestionSetId())) &&
@@ -684,15 +951,7 @@ public class ChallengeQuestionManager {
 
                 }
 
-                String hashedAnswer = null;
-                try {
-                    hashedAnswer = Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-                } catch (UserStoreException e) {
-                    throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                            .ERROR_CODE_NO_HASHING_ALGO, null, e);
-                }
-
-                if (hashedAnswer.equals(storedAnswer.getAnswer())) {
+                if (answerHasher.matches(normalizedAnswer, storedAnswer.getAnswer())) {
                     verification = true;
                 } else {
                     return false;
@@ -720,16 +979,10 @@ public class ChallengeQuestionManager {
             return false;
         }
 
+        String normalizedAnswer = answerHasher.normalize(userChallengeAnswer.getAnswer());
         for (UserChallengeAnswer dto : storedDto) {
             if (dto.getQuestion().getQuestionSetId().equals(userChallengeAnswer.getQuestion().getQuestionSetId())) {
-                String hashedAnswer = null;
-                try {
-                    hashedAnswer = Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-                } catch (UserStoreException e) {
-                    throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                            .ERROR_CODE_NO_HASHING_ALGO, null, e);
-                }
-                if (hashedAnswer.equals(dto.getAnswer())) {
+                if (answerHasher.matches(normalizedAnswer, dto.getAnswer())) {
                     verification = true;
                     if (log.isDebugEnabled()) {
                         log.debug("Challenge question answer verified successfully.");
@@ -746,6 +999,54 @@ public class ChallengeQuestionManager {
         return verification;
     }
 
+    /**
+     * Verify a set of challenge question answers of a user in a single pass. The stored answers of the user are
+     * loaded once and each submitted answer is hashed once.
+     *
+     * @param user                 User.
+     * @param userChallengeAnswers Submitted challenge question answers.
+     * @return Verification result of each submitted answer keyed by the question set id, in the submitted order.
+     * An answer is verified only if it is not blank and matches the stored answer of its question set.
+     * @throws IdentityRecoveryException If an error occurs while loading or hashing the answers.
+     */
+    public Map<String, Boolean> verifyUserChallengeAnswers(User user, UserChallengeAnswer[] userChallengeAnswers)
+            throws IdentityRecoveryException {
+
+        validateUser(user);
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Verifying challenge question answers for %s.", user.toString()));
+        }
+
+        Map<String, Boolean> verificationResults = new LinkedHashMap<>();
+        if (ArrayUtils.isEmpty(userChallengeAnswers)) {
+            return verificationResults;
+        }
+
+        Map<String, String> storedAnswers = new HashMap<>();
+        for (UserChallengeAnswer storedAnswer : getChallengeAnswersOfUser(user)) {
+            storedAnswers.put(storedAnswer.getQuestion().getQuestionSetId(), storedAnswer.getAnswer());
+        }
+
+        for (UserChallengeAnswer userChallengeAnswer : userChallengeAnswers) {
+            String questionSetId = userChallengeAnswer.getQuestion().getQuestionSetId();
+            String storedAnswer = storedAnswers.get(questionSetId);
+            boolean verified = false;
+            if (StringUtils.isBlank(userChallengeAnswer.getAnswer())) {
+                log.error("Invalid. Empty answer provided for the challenge question.");
+            } else if (storedAnswer != null) {
+                verified = answerHasher.matches(answerHasher.normalize(userChallengeAnswer.getAnswer()), storedAnswer);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Challenge question answer verification " + (verified ? "succeeded" : "failed") +
+                        " for question set: " + questionSetId);
+            }
+            // An answer submitted more than once for the same question set is verified only if all of them match.
+            verificationResults.merge(questionSetId, verified, Boolean::logicalAnd);
+        }
+        return verificationResults;
+    }
+
     /**
      * Validate whether two questions from the same question set have been answered (ie. we only allow a maximum of
      * one question from each set)
@@ -790,6 +1091,8 @@ public class ChallengeQuestionManager {
     private void checkChallengeQuestionExists(UserChallengeAnswer[] userChallengeAnswers, String tenantDomain)
             throws IdentityRecoveryException {
 
+        // Catalog indexes resolved for this request, keyed by locale.
+        Map<String, ChallengeQuestionCatalogIndex> catalogIndexes = new HashMap<>();
         for (UserChallengeAnswer challengeAnswer : userChallengeAnswers) {
             ChallengeQuestion challengeQuestion = challengeAnswer.getQuestion();
             // if challenge question details are missing in the challenge answer we can't proceed further
@@ -801,20 +1104,14 @@ public class ChallengeQuestionManager {
                 throw Utils.handleClientException(ERROR_CODE_INVALID_CHALLENGE_QUESTION_VALUE, null);
             }
 
-            String locale = validateLocale(challengeQuestion.getLocale());
-
-            List<ChallengeQuestion> challengeQuestions = getAllChallengeQuestions(tenantDomain, locale);
-            boolean isQuestionAvailable = false;
-            for (ChallengeQuestion availableQuestion : challengeQuestions) {
-                if (StringUtils.equals(availableQuestion.getQuestionSetId(), challengeQuestion.getQuestionSetId().trim())
-                        && StringUtils.equals(availableQuestion.getQuestion().trim(),
-                        challengeQuestion.getQuestion().trim()
-                )) {
-                    isQuestionAvailable = true;
-                }
+            String locale = localeResolver.resolveLocale(tenantDomain, challengeQuestion.getLocale());
+            ChallengeQuestionCatalogIndex catalogIndex = catalogIndexes.get(locale);
+            if (catalogIndex == null) {
+                catalogIndex = challengeQuestionsImpl.getChallengeQuestionCatalogIndex(tenantDomain, locale);
+                catalogIndexes.put(locale, catalogIndex);
             }
 
-            if (!isQuestionAvailable) {
+            if (!catalogIndex.contains(challengeQuestion.getQuestionSetId(), challengeQuestion.getQuestion())) {
                 String error = "Error persisting user challenge answers for user. " +
                         "Challenge question answered is not registered with %s domain.";
                 throw Utils.handleClientException(
@@ -826,7 +1123,33 @@ public class ChallengeQuestionManager {
 
 
     private String validateTenantDomain(String tenantDomain) {
-        return StringUtils.isBlank(tenantDomain) ? MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : tenantDomain;
+        tenantDomain = StringUtils.isBlank(tenantDomain) ? MultitenantConstants.SUPER_TENANT_DOMAIN_NAME : tenantDomain;
+        // Complete a pending seeding of the default questions first, so that the catalog is not seen empty.
+        DefaultChallengeQuestionSeeder.getInstance().awaitSeeding(tenantDomain);
+        return tenantDomain;
+    }
+
+    /**
+     * Get the claims a challenge operation may read for a user: the locale and the claims of the challenge answer
+     * store, such as the answers of every challenge set of the tenant when the answers are stored in user claims.
+     */
+    private List<String> getKnownChallengeClaims(User user) {
+
+        List<String> claimUris = new ArrayList<>();
+        claimUris.add(IdentityRecoveryConstants.Questions.LOCALE_CLAIM);
+        claimUris.addAll(challengeAnswerDAO.getKnownClaims(user, () -> {
+            try {
+                return getAllChallengeQuestionSetsURIs(user.getTenantDomain());
+            } catch (IdentityRecoveryServerException e) {
+                // The answers are then read on demand.
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while reading the challenge question sets of tenant: " + user.getTenantDomain() +
+                            " to prefetch the challenge claims of the user.", e);
+                }
+                return Collections.emptyList();
+            }
+        }));
+        return claimUris;
     }
 
     private void validateUser(User user) throws IdentityRecoveryClientException {
@@ -836,12 +1159,21 @@ public class ChallengeQuestionManager {
         }
     }
 
+    private void logLocaleFallback(String locale, String servedLocale, String tenantDomain) {
+
+        if (log.isDebugEnabled() && !StringUtils.equalsIgnoreCase(locale, servedLocale)) {
+            String message = "No challenge questions available in '%s' locale in %s tenant. Sending questions of " +
+                    "'%s' locale";
+            log.debug(String.format(message, locale, tenantDomain, servedLocale));
+        }
+    }
+
     private String getLocaleOfUser(User user, String tenantDomain) throws IdentityRecoveryException {
         String tenantAwareUserName = MultitenantUtils.getTenantAwareUsername(user.getUserName());
         String locale = IdentityRecoveryConstants.LOCALE_EN_US;
         try {
             String userLocale =
-                    Utils.getClaimFromUserStoreManager(user, IdentityRecoveryConstants.Questions.LOCALE_CLAIM);
+                    claimReader.getClaimValue(user, IdentityRecoveryConstants.Questions.LOCALE_CLAIM);
             if (StringUtils.isNotBlank(userLocale)) {
                 locale = userLocale;
             }
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.core.cache.BaseCache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogCacheConfig.CATALOG_CACHE_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogCacheConfig.CATALOG_CACHE_NAME;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogCacheConfig.CATALOG_VERSION_CHECK_INTERVAL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogCacheConfig.DEFAULT_CATALOG_VERSION_CHECK_INTERVAL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+
+/**
+ * Tenant aware cache of the challenge question catalog, keyed by the kind of the cached value and its locale.
+ * The time to live and the capacity of the cache are configured in the identity cache configuration.
+ * Cached values are copied on the way in and on the way out, so that callers can never modify a cached catalog.
+ */
+public class ChallengeQuestionCatalogCache
+        extends BaseCache<ChallengeQuestionCatalogCacheKey, ChallengeQuestionCatalogCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionCatalogCache.class);
+    private static final ChallengeQuestionCatalogCache instance = new ChallengeQuestionCatalogCache(
+            CATALOG_CACHE_NAME, getBooleanProperty(CATALOG_CACHE_ENABLE, true),
+            TimeUnit.SECONDS.toMillis(getLongProperty(CATALOG_VERSION_CHECK_INTERVAL,
+                    DEFAULT_CATALOG_VERSION_CHECK_INTERVAL)));
+
+    private final boolean enabled;
+    private final long versionCheckIntervalMillis;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    // Incremented on every invalidation so that values read before an invalidation are not cached after it.
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Create a catalog cache which does not check the catalog version.
+     *
+     * @param cacheName Name of the cache.
+     * @param enabled   Whether the cache is enabled.
+     */
+    public ChallengeQuestionCatalogCache(String cacheName, boolean enabled) {
+
+        this(cacheName, enabled, -1);
+    }
+
+    /**
+     * Create a catalog cache.
+     *
+     * @param cacheName                  Name of the cache.
+     * @param enabled                    Whether the cache is enabled.
+     * @param versionCheckIntervalMillis Minimum interval between two catalog version checks of a tenant in
+     *                                   milliseconds. Zero checks on every access and a negative value disables
+     *                                   version checks.
+     */
+    public ChallengeQuestionCatalogCache(String cacheName, boolean enabled, long versionCheckIntervalMillis) {
+
+        super(cacheName);
+        this.enabled = enabled;
+        this.versionCheckIntervalMillis = versionCheckIntervalMillis;
+    }
+
+    public static ChallengeQuestionCatalogCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the cached challenge questions of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Locale of the questions, or null for the questions of every locale.
+     * @return Copy of the cached challenge questions, or null if they are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale) {
+
+        Serializable value = get(ChallengeQuestionCatalogCacheKey.QUESTIONS, tenantDomain, locale);
+        return value == null ? null : copyOfQuestions((List<ChallengeQuestion>) value);
+    }
+
+    /**
+     * Cache the challenge questions of a tenant.
+     *
+     * @param tenantDomain       Tenant domain.
+     * @param locale             Locale of the questions, or null for the questions of every locale.
+     * @param challengeQuestions Challenge questions to cache.
+     * @param expectedGeneration Generation of the cache observed before the questions were read.
+     */
+    public void putChallengeQuestions(String tenantDomain, String locale, List<ChallengeQuestion> challengeQuestions,
+                                      long expectedGeneration) {
+
+        put(ChallengeQuestionCatalogCacheKey.QUESTIONS, tenantDomain, locale,
+                challengeQuestions == null ? null : copyOfQuestions(challengeQuestions), expectedGeneration);
+    }
+
+    /**
+     * Get the cached challenge question set URIs of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Copy of the cached set URIs, or null if they are not cached.
+     */
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain) {
+
+        return getStrings(ChallengeQuestionCatalogCacheKey.SET_URIS, tenantDomain, null);
+    }
+
+    /**
+     * Cache the challenge question set URIs of a tenant.
+     *
+     * @param tenantDomain       Tenant domain.
+     * @param setURIs            Challenge question set URIs to cache.
+     * @param expectedGeneration Generation of the cache observed before the set URIs were read.
+     */
+    public void putChallengeQuestionSetURIs(String tenantDomain, List<String> setURIs, long expectedGeneration) {
+
+        putStrings(ChallengeQuestionCatalogCacheKey.SET_URIS, tenantDomain, null, setURIs, expectedGeneration);
+    }
+
+    /**
+     * Get the cached catalog index of a tenant. The index is immutable, so it is not copied.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Locale of the catalog.
+     * @return Cached catalog index, or null if it is not cached.
+     */
+    public ChallengeQuestionCatalogIndex getCatalogIndex(String tenantDomain, String locale) {
+
+        return (ChallengeQuestionCatalogIndex) get(ChallengeQuestionCatalogCacheKey.INDEX, tenantDomain, locale);
+    }
+
+    /**
+     * Cache the catalog index of a tenant.
+     *
+     * @param catalogIndex       Catalog index to cache.
+     * @param expectedGeneration Generation of the cache observed before the catalog was read.
+     */
+    public void putCatalogIndex(ChallengeQuestionCatalogIndex catalogIndex, long expectedGeneration) {
+
+        put(ChallengeQuestionCatalogCacheKey.INDEX, catalogIndex.getTenantDomain(), catalogIndex.getLocale(),
+                catalogIndex, expectedGeneration);
+    }
+
+    /**
+     * Get the cached default challenge question sets inherited by a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Copy of the cached set URIs, or null if they are not cached.
+     */
+    public List<String> getDefaultSets(String tenantDomain) {
+
+        return getStrings(ChallengeQuestionCatalogCacheKey.DEFAULT_SETS, tenantDomain, null);
+    }
+
+    /**
+     * Cache the default challenge question sets inherited by a tenant.
+     *
+     * @param tenantDomain       Tenant domain.
+     * @param setURIs            URIs of the inherited sets to cache.
+     * @param expectedGeneration Generation of the cache observed before the inherited sets were read.
+     */
+    public void putDefaultSets(String tenantDomain, List<String> setURIs, long expectedGeneration) {
+
+        putStrings(ChallengeQuestionCatalogCacheKey.DEFAULT_SETS, tenantDomain, null, setURIs, expectedGeneration);
+    }
+
+    /**
+     * Get the cached locales having challenge questions in a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Copy of the cached locales, or null if they are not cached.
+     */
+    public List<String> getChallengeQuestionLocales(String tenantDomain) {
+
+        return getStrings(ChallengeQuestionCatalogCacheKey.LOCALES, tenantDomain, null);
+    }
+
+    /**
+     * Cache the locales having challenge questions in a tenant.
+     *
+     * @param tenantDomain       Tenant domain.
+     * @param locales            Locales to cache.
+     * @param expectedGeneration Generation of the cache observed before the locales were read.
+     */
+    public void putChallengeQuestionLocales(String tenantDomain, List<String> locales, long expectedGeneration) {
+
+        putStrings(ChallengeQuestionCatalogCacheKey.LOCALES, tenantDomain, null, locales, expectedGeneration);
+    }
+
+    /**
+     * Get the cached locale fallback chain of a requested locale in a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Normalized requested locale.
+     * @return Copy of the cached fallback chain, or null if it is not cached.
+     */
+    public List<String> getLocaleFallbackChain(String tenantDomain, String locale) {
+
+        return getStrings(ChallengeQuestionCatalogCacheKey.LOCALE_CHAIN, tenantDomain, locale);
+    }
+
+    /**
+     * Cache the locale fallback chain of a requested locale in a tenant.
+     *
+     * @param tenantDomain       Tenant domain.
+     * @param locale             Normalized requested locale.
+     * @param fallbackChain      Fallback chain to cache.
+     * @param expectedGeneration Generation of the cache observed before the locales of the tenant were read.
+     */
+    public void putLocaleFallbackChain(String tenantDomain, String locale, List<String> fallbackChain,
+                                       long expectedGeneration) {
+
+        putStrings(ChallengeQuestionCatalogCacheKey.LOCALE_CHAIN, tenantDomain, locale, fallbackChain,
+                expectedGeneration);
+    }
+
+    /**
+     * Remove every cached entry of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void invalidate(String tenantDomain) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        generation.incrementAndGet();
+        clear(tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Challenge question catalog cache invalidated for tenant: " + tenantDomain);
+        }
+    }
+
+    /**
+     * Get the current generation of the cache. A value read from the underlying store is only cached if no
+     * invalidation happened since the generation was obtained.
+     *
+     * @return Current generation.
+     */
+    public long getGeneration() {
+
+        return generation.get();
+    }
+
+    @Override
+    public boolean isEnabled() {
+
+        return enabled && super.isEnabled();
+    }
+
+    /**
+     * Check whether the cache checks the catalog versions of tenants, which requires the catalog version to be
+     * incremented on every catalog modification.
+     *
+     * @return True if the cache is enabled with a non negative version check interval.
+     */
+    public boolean isVersionCheckEnabled() {
+
+        return isEnabled() && versionCheckIntervalMillis >= 0;
+    }
+
+    public long getVersionCheckIntervalMillis() {
+
+        return versionCheckIntervalMillis;
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    private Serializable get(String type, String tenantDomain, String locale) {
+
+        if (!isEnabled()) {
+            return null;
+        }
+        ChallengeQuestionCatalogCacheEntry entry =
+                getValueFromCache(new ChallengeQuestionCatalogCacheKey(type, locale), tenantDomain);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.getValue();
+    }
+
+    private void put(String type, String tenantDomain, String locale, Serializable value, long expectedGeneration) {
+
+        if (!isEnabled() || value == null || generation.get() != expectedGeneration) {
+            return;
+        }
+        ChallengeQuestionCatalogCacheKey key = new ChallengeQuestionCatalogCacheKey(type, locale);
+        addToCache(key, new ChallengeQuestionCatalogCacheEntry(value), tenantDomain);
+        // An invalidation which ran concurrently with the put may have missed the new entry.
+        if (generation.get() != expectedGeneration) {
+            clearCacheEntry(key, tenantDomain);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getStrings(String type, String tenantDomain, String locale) {
+
+        Serializable value = get(type, tenantDomain, locale);
+        return value == null ? null : new ArrayList<>((List<String>) value);
+    }
+
+    private void putStrings(String type, String tenantDomain, String locale, List<String> values,
+                            long expectedGeneration) {
+
+        put(type, tenantDomain, locale, values == null ? null : new ArrayList<>(values), expectedGeneration);
+    }
+
+    private static ArrayList<ChallengeQuestion> copyOfQuestions(List<ChallengeQuestion> challengeQuestions) {
+
+        ArrayList<ChallengeQuestion> copy = new ArrayList<>(challengeQuestions.size());
+        for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+            copy.add(new ChallengeQuestion(challengeQuestion.getQuestionSetId(), challengeQuestion.getQuestionId(),
+                    challengeQuestion.getQuestion(), challengeQuestion.getLocale()));
+        }
+        return copy;
+    }
+}
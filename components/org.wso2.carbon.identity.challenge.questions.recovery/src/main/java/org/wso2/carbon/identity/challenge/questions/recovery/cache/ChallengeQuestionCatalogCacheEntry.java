@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.challenge.questions.recovery.cache;
+
+import org.wso2.carbon.identity.application.common.cache.CacheEntry;
+
+import java.io.Serializable;
+
+/**
+ * Challenge question catalog cache entry. The cached value is never handed out as is, callers get copies of it.
+ */
+public class ChallengeQuestionCatalogCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -4120934887163530712L;
+
+    private final Serializable value;
+
+    public ChallengeQuestionCatalogCacheEntry(Serializable value) {
+
+        this.value = value;
+    }
+
+    public Serializable getValue() {
+
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.challenge.questions.recovery.cache;
+
+import org.wso2.carbon.identity.application.common.cache.CacheKey;
+
+import java.util.Objects;
+
+/**
+ * Key of a challenge question catalog cache entry. The cache is tenant aware, so the key only identifies the kind of
+ * the cached value and its locale.
+ */
+public class ChallengeQuestionCatalogCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = 6230581547211839184L;
+
+    static final String QUESTIONS = "QUESTIONS";
+    static final String SET_URIS = "SET_URIS";
+    static final String INDEX = "INDEX";
+    static final String LOCALES = "LOCALES";
+    static final String DEFAULT_SETS = "DEFAULT_SETS";
+    static final String LOCALE_CHAIN = "LOCALE_CHAIN";
+
+    private final String type;
+    private final String locale;
+
+    public ChallengeQuestionCatalogCacheKey(String type, String locale) {
+
+        this.type = type;
+        this.locale = locale;
+    }
+
+    public String getType() {
+
+        return type;
+    }
+
+    public String getLocale() {
+
+        return locale;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChallengeQuestionCatalogCacheKey)) {
+            return false;
+        }
+        ChallengeQuestionCatalogCacheKey that = (ChallengeQuestionCatalogCacheKey) o;
+        return type.equals(that.type) && Objects.equals(locale, that.locale);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(type, locale);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.cache;
+
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable lookup view of the challenge question catalog of a tenant in a locale. Questions are indexed by their
+ * trimmed question set id and trimmed question text so that the existence of a question can be checked in constant time.
+ */
+public final class ChallengeQuestionCatalogIndex implements Serializable {
+
+    private static final long serialVersionUID = 2877405960735139465L;
+
+    private final String tenantDomain;
+    private final String locale;
+    private final Map<String, Set<String>> questionsBySetId;
+
+    private ChallengeQuestionCatalogIndex(String tenantDomain, String locale,
+                                          Map<String, Set<String>> questionsBySetId) {
+
+        this.tenantDomain = tenantDomain;
+        this.locale = locale;
+        this.questionsBySetId = questionsBySetId;
+    }
+
+    /**
+     * Build the index of a catalog.
+     *
+     * @param tenantDomain       Tenant domain of the catalog.
+     * @param locale             Locale of the catalog.
+     * @param challengeQuestions Challenge questions of the tenant in the locale.
+     * @return Catalog index.
+     */
+    public static ChallengeQuestionCatalogIndex of(String tenantDomain, String locale,
+                                                   List<ChallengeQuestion> challengeQuestions) {
+
+        Map<String, Set<String>> questionsBySetId = new HashMap<>();
+        if (challengeQuestions != null) {
+            for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+                if (challengeQuestion.getQuestionSetId() == null || challengeQuestion.getQuestion() == null) {
+                    continue;
+                }
+                questionsBySetId.computeIfAbsent(challengeQuestion.getQuestionSetId().trim(), key -> new HashSet<>())
+                        .add(challengeQuestion.getQuestion().trim());
+            }
+        }
+        return new ChallengeQuestionCatalogIndex(tenantDomain, locale, Collections.unmodifiableMap(questionsBySetId));
+    }
+
+    /**
+     * Check whether a question is registered in the catalog.
+     *
+     * @param questionSetId Question set id of the question.
+     * @param question      Question text.
+     * @return True if the catalog has the question in the given question set.
+     */
+    public boolean contains(String questionSetId, String question) {
+
+        if (questionSetId == null || question == null) {
+            return false;
+        }
+        Set<String> questions = questionsBySetId.get(questionSetId.trim());
+        return questions != null && questions.contains(question.trim());
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getLocale() {
+
+        return locale;
+    }
+}
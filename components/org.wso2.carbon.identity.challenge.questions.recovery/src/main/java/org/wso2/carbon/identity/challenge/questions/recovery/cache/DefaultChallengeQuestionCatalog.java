@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.cache;
+
+import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuesionsUtil;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable default challenge question catalog, held once per node and shared by every tenant inheriting it.
+ * The questions handed out are the shared instances and must not be modified.
+ */
+public final class DefaultChallengeQuestionCatalog {
+
+    private static final DefaultChallengeQuestionCatalog instance =
+            new DefaultChallengeQuestionCatalog(ChallengeQuesionsUtil.getDefaultChallengeQuestions());
+
+    private final Map<String, List<ChallengeQuestion>> questionsBySetId;
+
+    /**
+     * Create a default catalog.
+     *
+     * @param challengeQuestions Default challenge questions.
+     */
+    public DefaultChallengeQuestionCatalog(ChallengeQuestion[] challengeQuestions) {
+
+        Map<String, List<ChallengeQuestion>> questionsBySetId = new TreeMap<>();
+        for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+            questionsBySetId.computeIfAbsent(challengeQuestion.getQuestionSetId(), key -> new ArrayList<>())
+                    .add(challengeQuestion);
+        }
+        for (Map.Entry<String, List<ChallengeQuestion>> entry : questionsBySetId.entrySet()) {
+            entry.getValue().sort(ChallengeQuestion.KEY_ORDER);
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.questionsBySetId = Collections.unmodifiableMap(questionsBySetId);
+    }
+
+    public static DefaultChallengeQuestionCatalog getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the URIs of the default challenge question sets.
+     *
+     * @return Sorted challenge question set URIs.
+     */
+    public List<String> getChallengeQuestionSetURIs() {
+
+        return new ArrayList<>(questionsBySetId.keySet());
+    }
+
+    /**
+     * Check whether a challenge question set is a default set.
+     *
+     * @param challengeSetUri Challenge question set URI.
+     * @return True if the set is in the default catalog.
+     */
+    public boolean hasChallengeQuestionSet(String challengeSetUri) {
+
+        return questionsBySetId.containsKey(challengeSetUri);
+    }
+
+    /**
+     * Get the default questions of a challenge question set.
+     *
+     * @param challengeSetUri Challenge question set URI.
+     * @return Questions of the set in the order of ChallengeQuestion.KEY_ORDER, or an empty list if the set is not
+     * a default set.
+     */
+    public List<ChallengeQuestion> getChallengeQuestions(String challengeSetUri) {
+
+        return questionsBySetId.getOrDefault(challengeSetUri, Collections.emptyList());
+    }
+
+    /**
+     * Get the default questions of the given challenge question sets.
+     *
+     * @param challengeSetUris Challenge question set URIs.
+     * @return Questions of the sets in the order of ChallengeQuestion.KEY_ORDER.
+     */
+    public List<ChallengeQuestion> getChallengeQuestions(Collection<String> challengeSetUris) {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        for (Map.Entry<String, List<ChallengeQuestion>> entry : questionsBySetId.entrySet()) {
+            if (challengeSetUris.contains(entry.getKey())) {
+                challengeQuestions.addAll(entry.getValue());
+            }
+        }
+        return challengeQuestions;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.claim;
+
+import org.wso2.carbon.identity.application.common.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request scoped memo of the claim values of users, shared by the ChallengeQuestionManager operations of one request
+ * so that a claim of a user is read from the user store at most once per request. A context is bound to the thread
+ * which opened it, and is used as below.
+ * <pre>
+ * try (UserClaimContext ignored = UserClaimContext.open()) {
+ *     ...
+ * }
+ * </pre>
+ * Contexts opened within an open context join it, and the outermost close ends it. Claim writes of a user invalidate
+ * the claim values of the user in the context. Without an open context, claims are read from the user store on every
+ * operation as before.
+ */
+public final class UserClaimContext implements AutoCloseable {
+
+    private static final ThreadLocal<UserClaimContext> currentContext = new ThreadLocal<>();
+
+    // Claim values by user, including the claims known to have no value.
+    private final Map<String, Map<String, String>> claimValuesByUser = new HashMap<>();
+    private final Set<String> prefetchedUsers = new HashSet<>();
+    private int openCount;
+
+    private UserClaimContext() {
+
+    }
+
+    /**
+     * Open a claim context on the current thread, or join the context already open on it.
+     *
+     * @return Claim context, to be closed at the end of the request.
+     */
+    public static UserClaimContext open() {
+
+        UserClaimContext context = currentContext.get();
+        if (context == null) {
+            context = new UserClaimContext();
+            currentContext.set(context);
+        }
+        context.openCount++;
+        return context;
+    }
+
+    /**
+     * Get the claim context open on the current thread.
+     *
+     * @return Claim context, or null if no context is open.
+     */
+    public static UserClaimContext getCurrent() {
+
+        return currentContext.get();
+    }
+
+    /**
+     * Invalidate the claim values of a user in the claim context open on the current thread, if any.
+     *
+     * @param user User whose claims were written.
+     */
+    public static void invalidateCurrent(User user) {
+
+        UserClaimContext context = currentContext.get();
+        if (context != null) {
+            context.invalidate(user);
+        }
+    }
+
+    /**
+     * Check whether the known challenge claims of a user were prefetched in this context.
+     *
+     * @param user User.
+     * @return True if the claims were prefetched.
+     */
+    public boolean isPrefetched(User user) {
+
+        return prefetchedUsers.contains(getUserKey(user));
+    }
+
+    /**
+     * Get the claims of a user which are not yet read in this context.
+     *
+     * @param user      User.
+     * @param claimUris Claim URIs.
+     * @return Claim URIs to read from the user store.
+     */
+    public List<String> getMissingClaims(User user, Collection<String> claimUris) {
+
+        Map<String, String> claimValues = claimValuesByUser.get(getUserKey(user));
+        List<String> missingClaims = new ArrayList<>();
+        for (String claimUri : claimUris) {
+            if ((claimValues == null || !claimValues.containsKey(claimUri)) && !missingClaims.contains(claimUri)) {
+                missingClaims.add(claimUri);
+            }
+        }
+        return missingClaims;
+    }
+
+    /**
+     * Record the claim values of a user read from the user store.
+     *
+     * @param user        User.
+     * @param claimUris   Claim URIs which were read.
+     * @param claimValues Values of the claims having a value.
+     * @param prefetch    True if the claims include the known challenge claims of the user.
+     */
+    public void putClaimValues(User user, Collection<String> claimUris, Map<String, String> claimValues,
+                               boolean prefetch) {
+
+        String userKey = getUserKey(user);
+        Map<String, String> userClaimValues = claimValuesByUser.computeIfAbsent(userKey, key -> new HashMap<>());
+        for (String claimUri : claimUris) {
+            userClaimValues.put(claimUri, claimValues == null ? null : claimValues.get(claimUri));
+        }
+        if (prefetch) {
+            prefetchedUsers.add(userKey);
+        }
+    }
+
+    /**
+     * Get the claim values of a user read in this context.
+     *
+     * @param user      User.
+     * @param claimUris Claim URIs.
+     * @return Values of the claims having a value, in the given order.
+     */
+    public Map<String, String> getClaimValues(User user, Collection<String> claimUris) {
+
+        Map<String, String> userClaimValues = claimValuesByUser.getOrDefault(getUserKey(user), new HashMap<>());
+        Map<String, String> claimValues = new LinkedHashMap<>();
+        for (String claimUri : claimUris) {
+            String claimValue = userClaimValues.get(claimUri);
+            if (claimValue != null) {
+                claimValues.put(claimUri, claimValue);
+            }
+        }
+        return claimValues;
+    }
+
+    /**
+     * Drop the claim values of a user, so that they are read again from the user store.
+     *
+     * @param user User whose claims were written.
+     */
+    public void invalidate(User user) {
+
+        String userKey = getUserKey(user);
+        claimValuesByUser.remove(userKey);
+        prefetchedUsers.remove(userKey);
+    }
+
+    @Override
+    public void close() {
+
+        if (--openCount <= 0) {
+            currentContext.remove();
+        }
+    }
+
+    private static String getUserKey(User user) {
+
+        return user.getTenantDomain() + "/" + user.getUserStoreDomain() + "/" + user.getUserName();
+    }
+}
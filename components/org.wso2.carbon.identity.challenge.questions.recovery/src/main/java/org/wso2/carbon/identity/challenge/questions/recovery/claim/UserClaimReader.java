@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.claim;
+
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+import org.wso2.carbon.user.api.UserStoreException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getClaimFromUserStoreManager;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getClaimListOfUser;
+
+/**
+ * Reads claims of users from the user store, through the UserClaimContext open on the current thread if any. The
+ * first read of a user in a context prefetches the known challenge claims of the user along with the requested ones.
+ */
+public class UserClaimReader {
+
+    private final Function<User, List<String>> knownClaimsProvider;
+
+    /**
+     * Create a user claim reader.
+     *
+     * @param knownClaimsProvider Provides the claims a challenge operation may read for a user.
+     */
+    public UserClaimReader(Function<User, List<String>> knownClaimsProvider) {
+
+        this.knownClaimsProvider = knownClaimsProvider;
+    }
+
+    /**
+     * Get the values of claims of a user.
+     *
+     * @param user      User.
+     * @param claimUris Claim URIs.
+     * @return Values of the claims having a value.
+     * @throws IdentityRecoveryClientException If no claims are requested.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the claims.
+     */
+    public Map<String, String> getClaimValues(User user, List<String> claimUris)
+            throws IdentityRecoveryClientException, IdentityRecoveryServerException {
+
+        UserClaimContext claimContext = UserClaimContext.getCurrent();
+        if (claimContext == null) {
+            return getClaimListOfUser(user, claimUris.toArray(new String[0]));
+        }
+        List<String> missingClaims = claimContext.getMissingClaims(user, claimUris);
+        if (!missingClaims.isEmpty()) {
+            boolean prefetch = !claimContext.isPrefetched(user);
+            if (prefetch) {
+                List<String> claimsToRead = new ArrayList<>(knownClaimsProvider.apply(user));
+                claimsToRead.addAll(missingClaims);
+                missingClaims = claimContext.getMissingClaims(user, claimsToRead);
+            }
+            claimContext.putClaimValues(user, missingClaims,
+                    getClaimListOfUser(user, missingClaims.toArray(new String[0])), prefetch);
+        }
+        return claimContext.getClaimValues(user, claimUris);
+    }
+
+    /**
+     * Get the value of a claim of a user.
+     *
+     * @param user     User.
+     * @param claimUri Claim URI.
+     * @return Value of the claim, or null if the claim has no value.
+     * @throws UserStoreException              If an error occurs while reading the claim from the user store.
+     * @throws IdentityRecoveryClientException If the claim is not valid.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the claim.
+     */
+    public String getClaimValue(User user, String claimUri)
+            throws UserStoreException, IdentityRecoveryClientException, IdentityRecoveryServerException {
+
+        if (UserClaimContext.getCurrent() == null) {
+            return getClaimFromUserStoreManager(user, claimUri);
+        }
+        return getClaimValues(user, Collections.singletonList(claimUri)).get(claimUri);
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogIndex;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.util.Utils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getChallengeQuestionPage;
+
+/**
+ * Read-through cache in front of a ChallengeQuestionDAO. Catalog reads are served from the
+ * ChallengeQuestionCatalogCache and every write invalidates the cached catalog of the tenant.
+ * When a ChallengeQuestionCatalogVersionDAO is provided, the catalog version of a tenant is checked at most once per
+ * configured interval on access, and the cached catalog of the tenant is invalidated if another node modified it.
+ */
+public class CacheBackedChallengeQuestionDAO implements ChallengeQuestionDAO {
+
+    private static final Log log = LogFactory.getLog(CacheBackedChallengeQuestionDAO.class);
+
+    private final ChallengeQuestionDAO challengeQuestionDAO;
+    private final ChallengeQuestionCatalogCache catalogCache;
+    private final ChallengeQuestionCatalogVersionDAO catalogVersionDAO;
+    private final Map<String, CatalogVersion> catalogVersions = new ConcurrentHashMap<>();
+
+    public CacheBackedChallengeQuestionDAO(ChallengeQuestionDAO challengeQuestionDAO,
+                                           ChallengeQuestionCatalogCache catalogCache) {
+
+        this(challengeQuestionDAO, catalogCache, null);
+    }
+
+    public CacheBackedChallengeQuestionDAO(ChallengeQuestionDAO challengeQuestionDAO,
+                                           ChallengeQuestionCatalogCache catalogCache,
+                                           ChallengeQuestionCatalogVersionDAO catalogVersionDAO) {
+
+        this.challengeQuestionDAO = challengeQuestionDAO;
+        this.catalogCache = catalogCache;
+        this.catalogVersionDAO = catalogVersionDAO;
+    }
+
+    @Override
+    public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain)
+            throws IdentityRecoveryServerException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, null);
+        if (challengeQuestions != null) {
+            return challengeQuestions;
+        }
+        long generation = catalogCache.getGeneration();
+        challengeQuestions = challengeQuestionDAO.getAllChallengeQuestions(tenantDomain);
+        catalogCache.putChallengeQuestions(tenantDomain, null, challengeQuestions, generation);
+        return challengeQuestions;
+    }
+
+    @Override
+    public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, locale);
+        if (challengeQuestions != null) {
+            return challengeQuestions;
+        }
+        long generation = catalogCache.getGeneration();
+        challengeQuestions = challengeQuestionDAO.getAllChallengeQuestions(tenantDomain, locale);
+        catalogCache.putChallengeQuestions(tenantDomain, locale, challengeQuestions, generation);
+        return challengeQuestions;
+    }
+
+    /**
+     * Get the challenge questions of a tenant in the given locales. The locales are served from the cached catalog
+     * until a locale having questions is found, and the locales which are not cached are read from the underlying DAO
+     * at once. The questions read are cached per locale, including the empty list of a locale without questions, so
+     * that a locale known to be empty is not read again until the catalog of the tenant changes.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        List<String> uncachedLocales = new ArrayList<>();
+        for (String locale : locales) {
+            List<ChallengeQuestion> cachedChallengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, locale);
+            if (cachedChallengeQuestions == null) {
+                uncachedLocales.add(locale);
+                continue;
+            }
+            challengeQuestions.addAll(cachedChallengeQuestions);
+            if (!cachedChallengeQuestions.isEmpty()) {
+                break;
+            }
+        }
+        if (uncachedLocales.isEmpty()) {
+            return challengeQuestions;
+        }
+
+        long generation = catalogCache.getGeneration();
+        List<ChallengeQuestion> readChallengeQuestions =
+                challengeQuestionDAO.getChallengeQuestionsOfLocales(tenantDomain, uncachedLocales);
+        // The underlying DAO may omit the locales after the first locale having questions, hence they are not cached.
+        for (String locale : uncachedLocales) {
+            List<ChallengeQuestion> challengeQuestionsOfLocale =
+                    Utils.getChallengeQuestionsOfLocale(readChallengeQuestions, locale);
+            catalogCache.putChallengeQuestions(tenantDomain, locale, challengeQuestionsOfLocale, generation);
+            if (!challengeQuestionsOfLocale.isEmpty()) {
+                break;
+            }
+        }
+        challengeQuestions.addAll(readChallengeQuestions);
+        return challengeQuestions;
+    }
+
+    /**
+     * Get a page of the challenge questions of a tenant. The page is served from the cached catalog when it is
+     * present, otherwise it is read from the underlying DAO without populating the cache, as a page is not the full
+     * catalog.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions =
+                catalogCache.getChallengeQuestions(tenantDomain, StringUtils.isEmpty(locale) ? null : locale);
+        if (challengeQuestions != null) {
+            return getChallengeQuestionPage(challengeQuestions, after, limit);
+        }
+        return challengeQuestionDAO.getChallengeQuestions(tenantDomain, locale, after, limit);
+    }
+
+    /**
+     * Stream the challenge questions of a tenant. The cached catalog is used when it is present, otherwise the
+     * questions are streamed from the underlying DAO without populating the cache.
+     */
+    @Override
+    public void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions =
+                catalogCache.getChallengeQuestions(tenantDomain, StringUtils.isEmpty(locale) ? null : locale);
+        if (challengeQuestions == null) {
+            challengeQuestionDAO.forEachChallengeQuestion(tenantDomain, locale, consumer);
+            return;
+        }
+        for (ChallengeQuestion challengeQuestion : getChallengeQuestionPage(challengeQuestions, null,
+                challengeQuestions.size())) {
+            consumer.accept(challengeQuestion);
+        }
+    }
+
+    /**
+     * Read the catalogs of a batch of tenants from the underlying DAO. Fleet-wide reads bypass the cache, so that they
+     * neither evict the catalogs of the tenants in use nor depend on the catalog version of each tenant.
+     */
+    @Override
+    public void forEachTenantCatalog(Collection<Integer> tenantIds, TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        challengeQuestionDAO.forEachTenantCatalog(tenantIds, consumer);
+    }
+
+    @Override
+    public ChallengeQuestionCatalogIndex getChallengeQuestionCatalogIndex(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        ChallengeQuestionCatalogIndex catalogIndex = catalogCache.getCatalogIndex(tenantDomain, locale);
+        if (catalogIndex != null) {
+            return catalogIndex;
+        }
+        long generation = catalogCache.getGeneration();
+        catalogIndex = ChallengeQuestionCatalogIndex.of(tenantDomain, locale,
+                getAllChallengeQuestions(tenantDomain, locale));
+        catalogCache.putCatalogIndex(catalogIndex, generation);
+        return catalogIndex;
+    }
+
+    @Override
+    public List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException {
+
+        validateCatalogVersion(tenantDomain);
+        List<String> setURIs = catalogCache.getChallengeQuestionSetURIs(tenantDomain);
+        if (setURIs != null) {
+            return setURIs;
+        }
+        long generation = catalogCache.getGeneration();
+        setURIs = challengeQuestionDAO.getAllChallengeQuestionSetsURIs(tenantDomain);
+        catalogCache.putChallengeQuestionSetURIs(tenantDomain, setURIs, generation);
+        return setURIs;
+    }
+
+    @Override
+    public int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
+
+        validateCatalogVersion(tenantDomain);
+        List<String> setURIs = catalogCache.getChallengeQuestionSetURIs(tenantDomain);
+        if (setURIs != null) {
+            return new HashSet<>(setURIs).size();
+        }
+        return challengeQuestionDAO.getChallengeQuestionSetCount(tenantDomain);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, locale);
+        if (challengeQuestions != null) {
+            return Utils.getChallengeQuestionSetURIs(challengeQuestions);
+        }
+        return challengeQuestionDAO.getChallengeQuestionSetURIs(tenantDomain, locale);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<ChallengeQuestion> challengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, null);
+        if (challengeQuestions != null) {
+            return Utils.getChallengeQuestionIds(challengeQuestions, challengeSetUri);
+        }
+        return challengeQuestionDAO.getChallengeQuestionIds(challengeSetUri, tenantDomain);
+    }
+
+    @Override
+    public boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        validateCatalogVersion(tenantDomain);
+        List<String> setURIs = catalogCache.getChallengeQuestionSetURIs(tenantDomain);
+        if (setURIs != null) {
+            return setURIs.contains(challengeSetUri);
+        }
+        return challengeQuestionDAO.hasChallengeQuestionSet(challengeSetUri, tenantDomain);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionLocales(String tenantDomain) throws IdentityRecoveryServerException {
+
+        validateCatalogVersion(tenantDomain);
+        List<String> locales = catalogCache.getChallengeQuestionLocales(tenantDomain);
+        if (locales != null) {
+            return locales;
+        }
+        long generation = catalogCache.getGeneration();
+        List<ChallengeQuestion> challengeQuestions = catalogCache.getChallengeQuestions(tenantDomain, null);
+        locales = challengeQuestions != null ? Utils.getChallengeQuestionLocales(challengeQuestions) :
+                challengeQuestionDAO.getChallengeQuestionLocales(tenantDomain);
+        catalogCache.putChallengeQuestionLocales(tenantDomain, locales, generation);
+        return locales;
+    }
+
+    @Override
+    public void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        try {
+            challengeQuestionDAO.addChallengeQuestions(questions, tenantDomain);
+        } finally {
+            invalidate(tenantDomain);
+        }
+    }
+
+    @Override
+    public void addDefaultChallengeQuestions(String tenantDomain) throws IdentityRecoveryException {
+
+        try {
+            challengeQuestionDAO.addDefaultChallengeQuestions(tenantDomain);
+        } finally {
+            invalidate(tenantDomain);
+        }
+    }
+
+    @Override
+    public void deleteChallengeQuestions(ChallengeQuestion[] challengeQuestions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        try {
+            challengeQuestionDAO.deleteChallengeQuestions(challengeQuestions, tenantDomain);
+        } finally {
+            invalidate(tenantDomain);
+        }
+    }
+
+    @Override
+    public void deleteChallengeQuestionSet(String challengeQuestionUri, String locale, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        try {
+            challengeQuestionDAO.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+        } finally {
+            invalidate(tenantDomain);
+        }
+    }
+
+    /**
+     * Get the DAO wrapped by this cache.
+     *
+     * @return Underlying challenge question DAO.
+     */
+    public ChallengeQuestionDAO getChallengeQuestionDAO() {
+
+        return challengeQuestionDAO;
+    }
+
+    /**
+     * Invalidate the cached catalog of the tenant if its catalog version changed since the last check.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    private void validateCatalogVersion(String tenantDomain) {
+
+        long interval = catalogCache.getVersionCheckIntervalMillis();
+        if (catalogVersionDAO == null || !catalogCache.isVersionCheckEnabled()) {
+            return;
+        }
+        CatalogVersion catalogVersion = catalogVersions.computeIfAbsent(tenantDomain, key -> new CatalogVersion());
+        long currentTime = System.currentTimeMillis();
+        synchronized (catalogVersion) {
+            if (catalogVersion.checkedAt != 0 && currentTime - catalogVersion.checkedAt < interval) {
+                return;
+            }
+            catalogVersion.checkedAt = currentTime;
+            long version;
+            try {
+                version = catalogVersionDAO.getCatalogVersion(tenantDomain);
+            } catch (IdentityRecoveryServerException e) {
+                // Logged once until a check succeeds again, instead of on every interval of a database outage.
+                if (catalogVersion.failing) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Error while checking the challenge question catalog version of tenant: " +
+                                tenantDomain + ".", e);
+                    }
+                } else {
+                    log.warn("Error while checking the challenge question catalog version of tenant: " +
+                            tenantDomain + ". Serving the cached catalog until the check succeeds.", e);
+                    catalogVersion.failing = true;
+                }
+                return;
+            }
+            catalogVersion.failing = false;
+            if (version != catalogVersion.version) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Challenge question catalog version of tenant: " + tenantDomain + " changed from " +
+                            catalogVersion.version + " to " + version + ".");
+                }
+                catalogCache.invalidate(tenantDomain);
+                catalogVersion.version = version;
+            }
+        }
+    }
+
+    @Override
+    public void releaseTenant(String tenantDomain) {
+
+        catalogVersions.remove(tenantDomain);
+        catalogCache.invalidate(tenantDomain);
+        challengeQuestionDAO.releaseTenant(tenantDomain);
+    }
+
+    private void invalidate(String tenantDomain) {
+
+        // A failed write may still have partially applied, hence the cache is invalidated regardless.
+        catalogCache.invalidate(tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Challenge question catalog of tenant: " + tenantDomain + " modified. Cache hits: " +
+                    catalogCache.getHitCount() + ", misses: " + catalogCache.getMissCount());
+        }
+    }
+
+    /**
+     * Last observed catalog version of a tenant.
+     */
+    private static final class CatalogVersion {
+
+        private long version = -1;
+        private long checkedAt;
+        private boolean failing;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This interface is used to persist the challenge answers of users. The answers are stored hashed, and the answer
+ * of a UserChallengeAnswer passed to or returned from this interface is the hash of the answer.
+ */
+public interface ChallengeAnswerDAO {
+
+    /**
+     * Get the URIs of the challenge sets answered by a user.
+     *
+     * @param user User.
+     * @return Modifiable list of the answered challenge set URIs.
+     * @throws IdentityRecoveryException If an error occurs while reading the answered challenge sets.
+     */
+    List<String> getAnsweredChallengeSetUris(User user) throws IdentityRecoveryException;
+
+    /**
+     * Get the user claims this store reads for a user, besides the locale claim, so that they can be prefetched with
+     * a single read. None by default.
+     *
+     * @param user             User.
+     * @param challengeSetUris Supplier of the URIs of the challenge sets of the tenant of the user.
+     * @return Claim URIs.
+     */
+    default List<String> getKnownClaims(User user, Supplier<List<String>> challengeSetUris) {
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get the answers of a user to the given challenge sets.
+     *
+     * @param user             User.
+     * @param challengeSetUris URIs of the challenge sets.
+     * @return Answers of the answered challenge sets keyed by the challenge set URI, in the given order.
+     * @throws IdentityRecoveryException If an error occurs while reading the answers.
+     */
+    Map<String, UserChallengeAnswer> getChallengeAnswers(User user, List<String> challengeSetUris)
+            throws IdentityRecoveryException;
+
+    /**
+     * Set the answers of a user and the challenge sets answered by the user with a single write. Answers of the
+     * challenge sets which are no longer answered may be dropped.
+     *
+     * @param user                     User.
+     * @param challengeAnswers         Answers to add or update.
+     * @param answeredChallengeSetUris URIs of all the challenge sets answered by the user after the update.
+     * @throws IdentityRecoveryException If an error occurs while writing the answers.
+     */
+    void setChallengeAnswers(User user, List<UserChallengeAnswer> challengeAnswers,
+                             Collection<String> answeredChallengeSetUris) throws IdentityRecoveryException;
+
+    /**
+     * Remove the answer of a user to a challenge set.
+     *
+     * @param user                     User.
+     * @param challengeSetUri          URI of the challenge set.
+     * @param answeredChallengeSetUris URIs of the challenge sets which remain answered.
+     * @throws IdentityRecoveryException If an error occurs while removing the answer.
+     */
+    void removeChallengeAnswer(User user, String challengeSetUri, Collection<String> answeredChallengeSetUris)
+            throws IdentityRecoveryException;
+
+    /**
+     * Remove all the answers of a user.
+     *
+     * @param user User.
+     * @throws IdentityRecoveryException If an error occurs while removing the answers.
+     */
+    void removeChallengeAnswers(User user) throws IdentityRecoveryException;
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
+import org.wso2.carbon.database.utils.jdbc.NamedTemplate;
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static java.time.ZoneOffset.UTC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.CATALOG_VERSION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.UPDATED_AT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.ADD_CHALLENGE_QUESTION_CATALOG_VERSION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_CATALOG_VERSION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.INCREMENT_CHALLENGE_QUESTION_CATALOG_VERSION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+
+/**
+ * Maintains the per tenant challenge question catalog version in the IDN_CHALLENGE_QUESTION_VERSION table.
+ * The version is incremented on every catalog modification so that each node can detect changes made by other
+ * nodes in the cluster and invalidate its local catalog cache. The version is only maintained if the catalog cache
+ * checks catalog versions.
+ */
+public class ChallengeQuestionCatalogVersionDAO {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionCatalogVersionDAO.class);
+    private final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone(UTC));
+
+    /**
+     * Get the catalog version of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Catalog version, or 0 if the catalog of the tenant was never modified.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the catalog version.
+     */
+    public long getCatalogVersion(String tenantDomain) throws IdentityRecoveryServerException {
+
+        try {
+            Long version = getCatalogVersion(JdbcUtils.getNewNamedJdbcTemplate(),
+                    IdentityTenantUtil.getTenantId(tenantDomain));
+            return version == null ? 0 : version;
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CATALOG_VERSION,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Increment the catalog version of a tenant in the transaction of a catalog modification, so that the version
+     * changes exactly when the modification is committed and a failure fails the modification. The version row of
+     * the tenant is added beforehand on its own connection, so that concurrent first modifications of the catalog
+     * on different nodes never fail the modification on the primary key of the row.
+     *
+     * @param template Template of the transaction of the modification.
+     * @param tenantId Tenant ID.
+     * @throws DataAccessException If an error occurs while updating the catalog version.
+     */
+    public void incrementCatalogVersion(NamedTemplate<?> template, int tenantId) throws DataAccessException {
+
+        addCatalogVersionIfAbsent(tenantId);
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        template.executeUpdate(INCREMENT_CHALLENGE_QUESTION_CATALOG_VERSION, namedPreparedStatement -> {
+            namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+        });
+    }
+
+    /**
+     * Increment the catalog version of a tenant outside of a database transaction, after a modification of a store
+     * which does not take part in database transactions, such as the registry.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityRecoveryServerException If an error occurs while updating the catalog version.
+     */
+    public void incrementCatalogVersion(String tenantDomain) throws IdentityRecoveryServerException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        try {
+            JdbcUtils.getNewNamedJdbcTemplate().withTransaction(template -> {
+                incrementCatalogVersion(template, tenantId);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_UPDATE_CATALOG_VERSION,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Add the version row of a tenant with the version 0 if it does not exist yet. A failure to add the row is
+     * tolerated if another node added it concurrently.
+     *
+     * @param tenantId Tenant ID.
+     * @throws DataAccessException If an error occurs while adding the version row.
+     */
+    private void addCatalogVersionIfAbsent(int tenantId) throws DataAccessException {
+
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        if (getCatalogVersion(namedJdbcTemplate, tenantId) != null) {
+            return;
+        }
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        try {
+            namedJdbcTemplate.executeUpdate(ADD_CHALLENGE_QUESTION_CATALOG_VERSION, namedPreparedStatement -> {
+                namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                namedPreparedStatement.setInt(CATALOG_VERSION, 0);
+                namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
+            });
+        } catch (DataAccessException e) {
+            if (getCatalogVersion(namedJdbcTemplate, tenantId) == null) {
+                throw e;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Catalog version row of tenant: " + tenantId + " was added concurrently.", e);
+            }
+        }
+    }
+
+    private Long getCatalogVersion(NamedJdbcTemplate namedJdbcTemplate, int tenantId) throws DataAccessException {
+
+        return namedJdbcTemplate.fetchSingleRecord(GET_CHALLENGE_QUESTION_CATALOG_VERSION,
+                (resultSet, rowNumber) -> resultSet.getLong(CATALOG_VERSION),
+                namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID, tenantId));
+    }
+}
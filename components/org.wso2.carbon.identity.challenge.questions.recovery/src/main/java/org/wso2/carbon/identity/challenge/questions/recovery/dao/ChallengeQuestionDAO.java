@@ -18,12 +18,25 @@
 
 package org.wso2.carbon.identity.challenge.questions.recovery.dao;
 
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuesionsUtil;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogIndex;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.util.Utils;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.DEFAULT_STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getChallengeQuestionPage;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+
 /**
  * This interface is used to manage challenge questions.
  */
@@ -49,6 +62,100 @@ public interface ChallengeQuestionDAO {
     List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain, String locale)
             throws IdentityRecoveryException;
 
+    /**
+     * Get registered challenge questions in tenant in any of the given locales, which are in the order of precedence.
+     * Since the caller only uses the questions of the first locale having questions, the questions of the locales
+     * after it may be omitted. By default the locales are read one by one until a locale has questions.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param locales      Challenge questions locales, in the order of precedence.
+     * @return List of challenge questions of the locales.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions.
+     */
+    default List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        for (String locale : locales) {
+            List<ChallengeQuestion> challengeQuestions = getAllChallengeQuestions(tenantDomain, locale);
+            if (!challengeQuestions.isEmpty()) {
+                return challengeQuestions;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Get a page of the challenge questions of a tenant, ordered by question set id, question id and locale as in
+     * ChallengeQuestion.KEY_ORDER. The next page starts after the last question of the previous page. Pages read from
+     * the database follow the collation of the key columns, which is the order of ChallengeQuestion.KEY_ORDER for
+     * binary collations.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param locale       Challenge questions locale, or null to get the challenge questions of all locales.
+     * @param after        Question after which the page starts, or null to start from the first question.
+     * @param limit        Maximum number of challenge questions in the page.
+     * @return Page of challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions.
+     */
+    default List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                          int limit) throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> challengeQuestions = StringUtils.isEmpty(locale) ?
+                getAllChallengeQuestions(tenantDomain) : getAllChallengeQuestions(tenantDomain, locale);
+        return getChallengeQuestionPage(challengeQuestions, after, limit);
+    }
+
+    /**
+     * Pass the challenge questions of a tenant to the consumer one by one, in the order of ChallengeQuestion.KEY_ORDER,
+     * holding only a bounded number of questions in memory at a time. By default the questions are read page by page
+     * with getChallengeQuestions, using the configured streaming fetch size as the page size.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param locale       Challenge questions locale, or null to read the challenge questions of all locales.
+     * @param consumer     Consumer of the challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions, or if the
+     *                                   consumer fails.
+     */
+    default void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        int pageSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                getLongProperty(STREAMING_READ_FETCH_SIZE, DEFAULT_STREAMING_READ_FETCH_SIZE)));
+        ChallengeQuestion after = null;
+        List<ChallengeQuestion> page;
+        do {
+            page = getChallengeQuestions(tenantDomain, locale, after, pageSize);
+            for (ChallengeQuestion challengeQuestion : page) {
+                consumer.accept(challengeQuestion);
+            }
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() >= pageSize);
+    }
+
+    /**
+     * Read the challenge question catalogs of a batch of tenants, passing the catalog of each tenant to the consumer
+     * in ascending order of tenant ids. The consumer is called once for every given tenant, with an empty list for a
+     * tenant without questions, and holds the catalog of one tenant at a time. By default the catalog of each tenant is
+     * read separately.
+     *
+     * @param tenantIds Tenant ids.
+     * @param consumer  Consumer of the catalogs.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions, or if the
+     *                                   consumer fails.
+     */
+    default void forEachTenantCatalog(Collection<Integer> tenantIds, TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        for (List<Integer> batch : Utils.getTenantIdBatches(tenantIds)) {
+            for (int tenantId : batch) {
+                List<ChallengeQuestion> challengeQuestions =
+                        new ArrayList<>(getAllChallengeQuestions(IdentityTenantUtil.getTenantDomain(tenantId)));
+                challengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+                consumer.accept(tenantId, challengeQuestions);
+            }
+        }
+    }
+
     /**
      * Get all challenge questions set URIs registered for a tenant.
      *
@@ -58,6 +165,90 @@ public interface ChallengeQuestionDAO {
      */
     List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException;
 
+    /**
+     * Get the number of challenge question sets registered for a tenant, without reading the question texts.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @return Number of challenge question sets.
+     * @throws IdentityRecoveryServerException If an error occurs while counting the challenge question sets.
+     */
+    default int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
+
+        return new HashSet<>(getAllChallengeQuestionSetsURIs(tenantDomain)).size();
+    }
+
+    /**
+     * Get the URIs of the challenge question sets of a tenant having questions in a locale, without reading the
+     * question texts where the store allows it.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @param locale       Challenge questions locale.
+     * @return Sorted challenge question set URIs.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge question set URIs.
+     */
+    default List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        return Utils.getChallengeQuestionSetURIs(getAllChallengeQuestions(tenantDomain, locale));
+    }
+
+    /**
+     * Get the ids of the questions of a challenge question set, without reading the question texts where the store
+     * allows it.
+     *
+     * @param challengeSetUri Challenge question set URI.
+     * @param tenantDomain    Tenant domain of the user.
+     * @return Sorted question ids of the set.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the question ids.
+     */
+    default List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        return Utils.getChallengeQuestionIds(getAllChallengeQuestions(tenantDomain), challengeSetUri);
+    }
+
+    /**
+     * Check whether a challenge question set is registered for a tenant, without reading the question texts.
+     *
+     * @param challengeSetUri Challenge question set URI.
+     * @param tenantDomain    Tenant domain of the user.
+     * @return True if the challenge question set exists.
+     * @throws IdentityRecoveryException If an error occurs while checking the challenge question set.
+     */
+    default boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        return getAllChallengeQuestionSetsURIs(tenantDomain).contains(challengeSetUri);
+    }
+
+    /**
+     * Get the lookup index of the challenge questions of a tenant in a locale. By default the index is built from
+     * the challenge questions of the locale on every call.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale.
+     * @return Catalog index.
+     * @throws IdentityRecoveryException If an error occurs while retrieving the challenge questions.
+     */
+    default ChallengeQuestionCatalogIndex getChallengeQuestionCatalogIndex(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        return ChallengeQuestionCatalogIndex.of(tenantDomain, locale, getAllChallengeQuestions(tenantDomain, locale));
+    }
+
+    /**
+     * Get the locales having challenge questions in a tenant, without reading the question texts where the store
+     * allows it.
+     *
+     * @param tenantDomain Tenant domain of the user.
+     * @return Sorted locales of the challenge questions, in the spelling they are stored in.
+     * @throws IdentityRecoveryServerException If an error occurs while retrieving the locales.
+     */
+    default List<String> getChallengeQuestionLocales(String tenantDomain) throws IdentityRecoveryServerException {
+
+        return Utils.getChallengeQuestionLocales(getAllChallengeQuestions(tenantDomain));
+    }
+
     /**
      * Add new challenge questions to the registry of a tenant
      *
@@ -67,6 +258,27 @@ public interface ChallengeQuestionDAO {
      */
     void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain) throws IdentityRecoveryException;
 
+    /**
+     * Add the default challenge questions to a tenant. By default the default questions are copied to the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityRecoveryException If an error occurs while adding the default challenge questions.
+     */
+    default void addDefaultChallengeQuestions(String tenantDomain) throws IdentityRecoveryException {
+
+        addChallengeQuestions(ChallengeQuesionsUtil.getDefaultChallengeQuestions(), tenantDomain);
+    }
+
+    /**
+     * Release the state held for a tenant, such as its cached catalog, when the tenant is deactivated or deleted.
+     * Does nothing by default.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    default void releaseTenant(String tenantDomain) {
+
+    }
+
     /**
      * Delete challenge questions from a tenant registry.
      *
@@ -87,4 +299,35 @@ public interface ChallengeQuestionDAO {
      */
     void deleteChallengeQuestionSet(String challengeQuestionUri, String locale, String tenantDomain)
             throws IdentityRecoveryException;
+
+    /**
+     * Consumer of the challenge questions of a streaming read.
+     */
+    @FunctionalInterface
+    interface ChallengeQuestionConsumer {
+
+        /**
+         * Process a challenge question.
+         *
+         * @param challengeQuestion Challenge question.
+         * @throws IdentityRecoveryException If the challenge question could not be processed, which ends the read.
+         */
+        void accept(ChallengeQuestion challengeQuestion) throws IdentityRecoveryException;
+    }
+
+    /**
+     * Consumer of the tenant catalogs of a bulk read.
+     */
+    @FunctionalInterface
+    interface TenantCatalogConsumer {
+
+        /**
+         * Process the challenge question catalog of a tenant.
+         *
+         * @param tenantId           Tenant id.
+         * @param challengeQuestions Challenge questions of the tenant, in the order of ChallengeQuestion.KEY_ORDER.
+         * @throws IdentityRecoveryException If the catalog could not be processed, which ends the read.
+         */
+        void accept(int tenantId, List<ChallengeQuestion> challengeQuestions) throws IdentityRecoveryException;
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
+import org.wso2.carbon.database.utils.jdbc.NamedTemplate;
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.sql.Timestamp;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static java.time.ZoneOffset.UTC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.CREATED_AT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.QUESTION_SET_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.ADD_CHALLENGE_QUESTION_DEFAULT_SET;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION_DEFAULT_SET;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_DEFAULT_SETS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_DEFAULT_SETS_BY_TENANT_IDS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantIdPlaceholder;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantIdPlaceholders;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+
+/**
+ * Maintains the challenge question sets a tenant inherits from the shared default catalog in the
+ * IDN_CHALLENGE_QUESTION_DEFAULT_SET table. A tenant has no question rows of an inherited set, and the row of the set
+ * is removed once the tenant modifies the set and the set is materialised as rows of its own.
+ */
+public class ChallengeQuestionDefaultSetDAO {
+
+    private final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone(UTC));
+    private final ChallengeQuestionCatalogVersionDAO catalogVersionDAO;
+
+    public ChallengeQuestionDefaultSetDAO() {
+
+        this(null);
+    }
+
+    /**
+     * Create a default set DAO.
+     *
+     * @param catalogVersionDAO DAO of the catalog versions to increment in the transaction of every modification, or
+     *                          null if catalog versions are not maintained.
+     */
+    public ChallengeQuestionDefaultSetDAO(ChallengeQuestionCatalogVersionDAO catalogVersionDAO) {
+
+        this.catalogVersionDAO = catalogVersionDAO;
+    }
+
+    /**
+     * Get the default challenge question sets inherited by a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Sorted URIs of the inherited sets.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the inherited sets.
+     */
+    public List<String> getDefaultSets(String tenantDomain) throws IdentityRecoveryServerException {
+
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.executeQuery(GET_CHALLENGE_QUESTION_DEFAULT_SETS,
+                    (resultSet, rowNumber) -> resultSet.getString(QUESTION_SET_ID),
+                    namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID,
+                            IdentityTenantUtil.getTenantId(tenantDomain)));
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_DEFAULT_SETS,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Get the default challenge question sets inherited by a batch of tenants, in one query.
+     *
+     * @param tenantIds Tenant ids of a batch returned by Utils.getTenantIdBatches.
+     * @return Sorted URIs of the inherited sets by tenant id. Tenants inheriting no set are not in the map.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the inherited sets.
+     */
+    public Map<Integer, List<String>> getDefaultSetsOfTenants(List<Integer> tenantIds)
+            throws IdentityRecoveryServerException {
+
+        if (tenantIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            List<Map.Entry<Integer, String>> defaultSets = namedJdbcTemplate.executeQuery(
+                    String.format(GET_CHALLENGE_QUESTION_DEFAULT_SETS_BY_TENANT_IDS,
+                            getTenantIdPlaceholders(tenantIds.size())),
+                    (resultSet, rowNumber) -> new AbstractMap.SimpleEntry<>(resultSet.getInt(TENANT_ID),
+                            resultSet.getString(QUESTION_SET_ID)),
+                    namedPreparedStatement -> {
+                        for (int i = 0; i < tenantIds.size(); i++) {
+                            namedPreparedStatement.setInt(getTenantIdPlaceholder(i), tenantIds.get(i));
+                        }
+                    });
+            Map<Integer, List<String>> defaultSetsByTenant = new HashMap<>();
+            for (Map.Entry<Integer, String> defaultSet : defaultSets) {
+                defaultSetsByTenant.computeIfAbsent(defaultSet.getKey(), key -> new ArrayList<>())
+                        .add(defaultSet.getValue());
+            }
+            return defaultSetsByTenant;
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_DEFAULT_SETS,
+                    null, e);
+        }
+    }
+
+    /**
+     * Record default challenge question sets as inherited by a tenant.
+     *
+     * @param tenantDomain     Tenant domain.
+     * @param challengeSetUris URIs of the default sets.
+     * @throws IdentityRecoveryServerException If an error occurs while recording the inherited sets.
+     */
+    public void addDefaultSets(String tenantDomain, Collection<String> challengeSetUris)
+            throws IdentityRecoveryServerException {
+
+        if (challengeSetUris.isEmpty()) {
+            return;
+        }
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.withTransaction(template -> {
+                template.executeBatchInsert(ADD_CHALLENGE_QUESTION_DEFAULT_SET, namedPreparedStatement -> {
+                    for (String challengeSetUri : challengeSetUris) {
+                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                        namedPreparedStatement.setString(QUESTION_SET_ID, challengeSetUri);
+                        namedPreparedStatement.setTimeStamp(CREATED_AT, currentTime, CALENDAR);
+                        namedPreparedStatement.addBatch();
+                    }
+                }, null);
+                if (catalogVersionDAO != null) {
+                    catalogVersionDAO.incrementCatalogVersion(template, tenantId);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_UPDATE_DEFAULT_SETS,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Stop inheriting default challenge question sets in a tenant.
+     *
+     * @param tenantDomain     Tenant domain.
+     * @param challengeSetUris URIs of the default sets.
+     * @throws IdentityRecoveryServerException If an error occurs while removing the inherited sets.
+     */
+    public void deleteDefaultSets(String tenantDomain, Collection<String> challengeSetUris)
+            throws IdentityRecoveryServerException {
+
+        if (challengeSetUris.isEmpty()) {
+            return;
+        }
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.withTransaction(template -> {
+                deleteDefaultSets(template, tenantId, challengeSetUris);
+                if (catalogVersionDAO != null) {
+                    catalogVersionDAO.incrementCatalogVersion(template, tenantId);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_UPDATE_DEFAULT_SETS,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Stop inheriting default challenge question sets in a tenant within a transaction. The catalog version is left
+     * to the owner of the transaction.
+     *
+     * @param template         Template of the transaction.
+     * @param tenantId         Tenant ID.
+     * @param challengeSetUris URIs of the default sets.
+     * @throws DataAccessException If an error occurs while removing the inherited sets.
+     */
+    public void deleteDefaultSets(NamedTemplate<?> template, int tenantId, Collection<String> challengeSetUris)
+            throws DataAccessException {
+
+        if (challengeSetUris.isEmpty()) {
+            return;
+        }
+        template.executeBatchInsert(DELETE_CHALLENGE_QUESTION_DEFAULT_SET, namedPreparedStatement -> {
+            for (String challengeSetUri : challengeSetUris) {
+                namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                namedPreparedStatement.setString(QUESTION_SET_ID, challengeSetUri);
+                namedPreparedStatement.addBatch();
+            }
+        }, null);
+    }
+}
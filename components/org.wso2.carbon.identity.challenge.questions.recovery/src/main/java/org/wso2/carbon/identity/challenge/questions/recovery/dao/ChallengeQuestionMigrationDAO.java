@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
+import org.wso2.carbon.database.utils.jdbc.NamedPreparedStatement;
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static java.time.ZoneOffset.UTC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.LAST_QUESTION_SET_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.MIGRATED_COUNT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.MIGRATION_STATUS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.UPDATED_AT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.MIGRATION_STATUS_MIGRATED;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.ADD_CHALLENGE_QUESTION_MIGRATION_STATUS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION_MIGRATION_STATUS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_MIGRATION_STATUS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPDATE_CHALLENGE_QUESTION_MIGRATION_STATUS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+
+/**
+ * Maintains the per tenant progress of the registry to database challenge question migration in the
+ * IDN_CHALLENGE_QUESTION_MIGRATION table. A tenant marked as migrated has all of its registry challenge questions
+ * in the database, hence the hybrid DAO no longer reads its registry.
+ */
+public class ChallengeQuestionMigrationDAO {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionMigrationDAO.class);
+    private final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone(UTC));
+
+    /**
+     * Get the migration status of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Migration status, or null if the migration of the tenant has not started.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the migration status.
+     */
+    public MigrationStatus getMigrationStatus(String tenantDomain) throws IdentityRecoveryServerException {
+
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.fetchSingleRecord(GET_CHALLENGE_QUESTION_MIGRATION_STATUS,
+                    (resultSet, rowNumber) -> new MigrationStatus(resultSet.getString(MIGRATION_STATUS),
+                            resultSet.getString(LAST_QUESTION_SET_ID), resultSet.getInt(MIGRATED_COUNT)),
+                    namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID,
+                            IdentityTenantUtil.getTenantId(tenantDomain)));
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_MIGRATION_STATUS,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Check whether all the registry challenge questions of a tenant were migrated to the database.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return True if the tenant is migrated.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the migration status.
+     */
+    public boolean isMigrated(String tenantDomain) throws IdentityRecoveryServerException {
+
+        MigrationStatus migrationStatus = getMigrationStatus(tenantDomain);
+        return migrationStatus != null && migrationStatus.isMigrated();
+    }
+
+    /**
+     * Persist the migration status of a tenant.
+     *
+     * @param tenantDomain    Tenant domain.
+     * @param migrationStatus Migration status.
+     * @throws IdentityRecoveryServerException If an error occurs while persisting the migration status.
+     */
+    public void updateMigrationStatus(String tenantDomain, MigrationStatus migrationStatus)
+            throws IdentityRecoveryServerException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        try {
+            if (updateMigrationStatus(tenantId, migrationStatus)) {
+                return;
+            }
+            try {
+                addMigrationStatus(tenantId, migrationStatus);
+            } catch (DataAccessException e) {
+                // Another node may have added the migration status row concurrently.
+                if (log.isDebugEnabled()) {
+                    log.debug("Migration status row of tenant: " + tenantDomain + " already exists.", e);
+                }
+                updateMigrationStatus(tenantId, migrationStatus);
+            }
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_UPDATE_MIGRATION_STATUS,
+                    tenantDomain, e);
+        }
+    }
+
+    /**
+     * Delete the migration status of a tenant so that its migration starts over.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityRecoveryServerException If an error occurs while deleting the migration status.
+     */
+    public void deleteMigrationStatus(String tenantDomain) throws IdentityRecoveryServerException {
+
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_QUESTION_MIGRATION_STATUS,
+                    namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID,
+                            IdentityTenantUtil.getTenantId(tenantDomain)));
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_UPDATE_MIGRATION_STATUS,
+                    tenantDomain, e);
+        }
+    }
+
+    private boolean updateMigrationStatus(int tenantId, MigrationStatus migrationStatus) throws DataAccessException {
+
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        int updatedRows = namedJdbcTemplate.executeUpdate(UPDATE_CHALLENGE_QUESTION_MIGRATION_STATUS,
+                namedPreparedStatement -> setMigrationStatus(namedPreparedStatement, tenantId, migrationStatus,
+                        currentTime));
+        return updatedRows > 0;
+    }
+
+    private void addMigrationStatus(int tenantId, MigrationStatus migrationStatus) throws DataAccessException {
+
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        namedJdbcTemplate.executeUpdate(ADD_CHALLENGE_QUESTION_MIGRATION_STATUS,
+                namedPreparedStatement -> setMigrationStatus(namedPreparedStatement, tenantId, migrationStatus,
+                        currentTime));
+    }
+
+    private void setMigrationStatus(NamedPreparedStatement namedPreparedStatement, int tenantId,
+                                    MigrationStatus migrationStatus, Timestamp currentTime) throws SQLException {
+
+        namedPreparedStatement.setInt(TENANT_ID, tenantId);
+        namedPreparedStatement.setString(MIGRATION_STATUS, migrationStatus.getStatus());
+        namedPreparedStatement.setString(LAST_QUESTION_SET_ID, migrationStatus.getLastQuestionSetId());
+        namedPreparedStatement.setInt(MIGRATED_COUNT, migrationStatus.getMigratedCount());
+        namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
+    }
+
+    /**
+     * Migration progress of a tenant. The last question set id is the checkpoint from which an interrupted
+     * migration resumes, as question sets are migrated in their natural order.
+     */
+    public static final class MigrationStatus {
+
+        private final String status;
+        private final String lastQuestionSetId;
+        private final int migratedCount;
+
+        public MigrationStatus(String status, String lastQuestionSetId, int migratedCount) {
+
+            this.status = status;
+            this.lastQuestionSetId = lastQuestionSetId;
+            this.migratedCount = migratedCount;
+        }
+
+        public String getStatus() {
+
+            return status;
+        }
+
+        public String getLastQuestionSetId() {
+
+            return lastQuestionSetId;
+        }
+
+        public int getMigratedCount() {
+
+            return migratedCount;
+        }
+
+        public boolean isMigrated() {
+
+            return MIGRATION_STATUS_MIGRATED.equals(status);
+        }
+    }
+}
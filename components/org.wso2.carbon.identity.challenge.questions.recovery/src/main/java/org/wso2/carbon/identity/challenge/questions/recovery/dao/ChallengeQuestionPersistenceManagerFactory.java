@@ -21,9 +21,18 @@ package org.wso2.carbon.identity.challenge.questions.recovery.dao;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.DefaultChallengeQuestionCatalog;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimReader;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CHALLENGE_ANSWERS_STORAGE_CONFIG;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CHALLENGE_QUESTIONS_STORAGE_CONFIG;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeAnswerStorageConfig.CLAIM_FALLBACK_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeAnswerStorageConfig.DEFAULT_CLAIM_FALLBACK_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultCatalogConfig.DEFAULT_SHARED_DEFAULT_CATALOG_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultCatalogConfig.SHARED_DEFAULT_CATALOG_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
 
 /**
  * Factory class to create instances of ChallengeQuestionsDAO based on the configured storage type.
@@ -35,6 +44,8 @@ public class ChallengeQuestionPersistenceManagerFactory {
             IdentityUtil.getProperty(CHALLENGE_QUESTIONS_STORAGE_CONFIG);
     private static final String HYBRID = "hybrid";
     private static final String REGISTRY = "registry";
+    private static String CHALLENGE_ANSWERS_STORAGE_TYPE = IdentityUtil.getProperty(CHALLENGE_ANSWERS_STORAGE_CONFIG);
+    private static final String DATABASE = "database";
 
     public ChallengeQuestionDAO getChallengeQuestionPersistenceManager() {
 
@@ -60,4 +71,83 @@ public class ChallengeQuestionPersistenceManagerFactory {
         }
         return challengeQuestionDAO;
     }
+
+    /**
+     * Check whether the hybrid storage type is configured.
+     *
+     * @return True if challenge questions are read from both the database and the registry.
+     */
+    public static boolean isHybridStorage() {
+
+        return HYBRID.equals(CHALLENGE_QUESTIONS_STORAGE_TYPE);
+    }
+
+    /**
+     * Get the configured ChallengeQuestionDAO wrapped with the node local catalog cache. If the cache checks catalog
+     * versions, they are checked for the storage types that persist the catalog version in the identity database.
+     * These storage types also serve the default questions from the shared default catalog if it is enabled.
+     *
+     * @return Cache backed challenge question DAO.
+     */
+    public ChallengeQuestionDAO getCachedChallengeQuestionPersistenceManager() {
+
+        ChallengeQuestionDAO challengeQuestionDAO = getChallengeQuestionPersistenceManager();
+        ChallengeQuestionCatalogVersionDAO catalogVersionDAO = null;
+        if (!(challengeQuestionDAO instanceof RegistryChallengeQuestionDAOImpl)) {
+            if (ChallengeQuestionCatalogCache.getInstance().isVersionCheckEnabled()) {
+                catalogVersionDAO = new ChallengeQuestionCatalogVersionDAO();
+            }
+            if (getBooleanProperty(SHARED_DEFAULT_CATALOG_ENABLE, DEFAULT_SHARED_DEFAULT_CATALOG_ENABLE)) {
+                // Serve the default questions from the shared catalog instead of copying them to every tenant.
+                JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO =
+                        challengeQuestionDAO instanceof HybridChallengeQuestionDAOImpl ?
+                                ((HybridChallengeQuestionDAOImpl) challengeQuestionDAO).getJdbcChallengeQuestionDAO() :
+                                (JDBCChallengeQuestionDAOImpl) challengeQuestionDAO;
+                challengeQuestionDAO = new DefaultCatalogOverlayChallengeQuestionDAO(challengeQuestionDAO,
+                        jdbcChallengeQuestionDAO, new ChallengeQuestionDefaultSetDAO(catalogVersionDAO),
+                        DefaultChallengeQuestionCatalog.getInstance(), ChallengeQuestionCatalogCache.getInstance());
+            }
+        }
+        return new CacheBackedChallengeQuestionDAO(challengeQuestionDAO, ChallengeQuestionCatalogCache.getInstance(),
+                catalogVersionDAO);
+    }
+
+    /**
+     * Check whether the database storage type is configured for challenge answers.
+     *
+     * @return True if challenge answers are stored in the identity database.
+     */
+    public static boolean isDatabaseAnswerStorage() {
+
+        return DATABASE.equals(CHALLENGE_ANSWERS_STORAGE_TYPE);
+    }
+
+    /**
+     * Get the ChallengeAnswerDAO of the configured challenge answer storage type. Answers are stored in user claims
+     * unless the database storage type is configured, in which case the answers still in user claims are read from
+     * there unless the claim fallback is disabled.
+     *
+     * @param claimReader Reader of the user claims, used by the user claim storage.
+     * @return Challenge answer DAO.
+     */
+    public ChallengeAnswerDAO getChallengeAnswerPersistenceManager(UserClaimReader claimReader) {
+
+        ChallengeAnswerDAO challengeAnswerDAO;
+        if (isDatabaseAnswerStorage()) {
+            challengeAnswerDAO = new JDBCChallengeAnswerDAOImpl();
+            if (getBooleanProperty(CLAIM_FALLBACK_ENABLE, DEFAULT_CLAIM_FALLBACK_ENABLE)) {
+                // Keep serving the answers stored in user claims until they are moved to the database.
+                challengeAnswerDAO = new ClaimFallbackChallengeAnswerDAO(
+                        (JDBCChallengeAnswerDAOImpl) challengeAnswerDAO, new UserClaimChallengeAnswerDAO(claimReader));
+            }
+            LOG.info("Database based Challenge Answer storage initialized.");
+        } else {
+            challengeAnswerDAO = new UserClaimChallengeAnswerDAO(claimReader);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Challenge Answer DAO initialized with the type: " + challengeAnswerDAO.getClass());
+        }
+        return challengeAnswerDAO;
+    }
 }
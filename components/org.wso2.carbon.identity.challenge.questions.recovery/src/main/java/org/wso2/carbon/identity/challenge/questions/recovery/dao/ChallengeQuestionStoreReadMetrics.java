@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and outcome counters of the reads served by a challenge question store.
+ */
+public class ChallengeQuestionStoreReadMetrics {
+
+    private final String storeName;
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public ChallengeQuestionStoreReadMetrics(String storeName) {
+
+        this.storeName = storeName;
+    }
+
+    /**
+     * Record a completed read.
+     *
+     * @param latencyNanos Latency of the read in nanoseconds.
+     * @param failed       Whether the read failed.
+     */
+    public void recordRead(long latencyNanos, boolean failed) {
+
+        readCount.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Record a read which did not complete within the timeout.
+     */
+    public void recordTimeout() {
+
+        timeoutCount.incrementAndGet();
+    }
+
+    public String getStoreName() {
+
+        return storeName;
+    }
+
+    public long getReadCount() {
+
+        return readCount.get();
+    }
+
+    public long getFailureCount() {
+
+        return failureCount.get();
+    }
+
+    public long getTimeoutCount() {
+
+        return timeoutCount.get();
+    }
+
+    public long getTotalLatencyMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get());
+    }
+
+    public long getMaxLatencyMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    /**
+     * Get the average latency of the completed reads.
+     *
+     * @return Average latency in milliseconds, or 0 if there were no reads.
+     */
+    public double getAverageLatencyMillis() {
+
+        long count = readCount.get();
+        return count == 0 ? 0 : (double) totalLatencyNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+
+        return storeName + " reads: " + getReadCount() + ", failures: " + getFailureCount() + ", timeouts: " +
+                getTimeoutCount() + ", average latency: " + String.format("%.2f", getAverageLatencyMillis()) +
+                " ms, max latency: " + getMaxLatencyMillis() + " ms";
+    }
+}
@@ -24,8 +24,147 @@ package org.wso2.carbon.identity.challenge.questions.recovery.dao;
 public class ChallengeQuestionsConstants {
 
     public static final String CHALLENGE_QUESTIONS_STORAGE_CONFIG = "DataStorageType.ChallengeQuestions";
+    public static final String CHALLENGE_ANSWERS_STORAGE_CONFIG = "DataStorageType.ChallengeAnswers";
     public static final String CHALLENGE_QUESTION_SCHEMA_VERSION = "1.0.0";
 
+    public static class CatalogCacheConfig {
+
+        public static final String CATALOG_CACHE_ENABLE = "ChallengeQuestions.CatalogCache.Enable";
+        // Time to live and capacity are configured for this cache in the identity cache configuration.
+        public static final String CATALOG_CACHE_NAME = "ChallengeQuestionCatalogCache";
+        public static final String CATALOG_VERSION_CHECK_INTERVAL =
+                "ChallengeQuestions.CatalogCache.VersionCheckInterval";
+        // Interval in seconds between two catalog version checks of a tenant.
+        public static final long DEFAULT_CATALOG_VERSION_CHECK_INTERVAL = 10;
+    }
+
+    public static class HybridReadConfig {
+
+        public static final String HYBRID_READ_CONCURRENT = "ChallengeQuestions.HybridRead.Concurrent";
+        public static final String HYBRID_READ_POOL_SIZE = "ChallengeQuestions.HybridRead.PoolSize";
+        public static final String HYBRID_READ_QUEUE_CAPACITY = "ChallengeQuestions.HybridRead.QueueCapacity";
+        public static final String HYBRID_READ_TIMEOUT = "ChallengeQuestions.HybridRead.Timeout";
+        public static final boolean DEFAULT_HYBRID_READ_CONCURRENT = true;
+        public static final long DEFAULT_HYBRID_READ_POOL_SIZE = 4;
+        public static final long DEFAULT_HYBRID_READ_QUEUE_CAPACITY = 100;
+        // Timeout in milliseconds for reading both stores.
+        public static final long DEFAULT_HYBRID_READ_TIMEOUT = 10000;
+    }
+
+    public static class RegistryReadConfig {
+
+        public static final String REGISTRY_READ_PARALLEL = "ChallengeQuestions.RegistryRead.Parallel";
+        public static final String REGISTRY_READ_POOL_SIZE = "ChallengeQuestions.RegistryRead.PoolSize";
+        public static final String REGISTRY_READ_QUEUE_CAPACITY = "ChallengeQuestions.RegistryRead.QueueCapacity";
+        public static final boolean DEFAULT_REGISTRY_READ_PARALLEL = false;
+        public static final long DEFAULT_REGISTRY_READ_POOL_SIZE = 8;
+        public static final long DEFAULT_REGISTRY_READ_QUEUE_CAPACITY = 1000;
+    }
+
+    public static class StreamingReadConfig {
+
+        public static final String STREAMING_READ_FETCH_SIZE = "ChallengeQuestions.StreamingRead.FetchSize";
+        public static final long DEFAULT_STREAMING_READ_FETCH_SIZE = 500;
+    }
+
+    public static class BulkReadConfig {
+
+        public static final String BULK_READ_TENANT_BATCH_SIZE = "ChallengeQuestions.BulkRead.TenantBatchSize";
+        public static final long DEFAULT_BULK_READ_TENANT_BATCH_SIZE = 500;
+        // Oracle accepts at most 1000 expressions in an IN list.
+        public static final int MAX_BULK_READ_TENANT_BATCH_SIZE = 1000;
+    }
+
+    public static class AnswerHashConfig {
+
+        public static final String ANSWER_HASH_ALGORITHM = "ChallengeQuestions.AnswerHash.Algorithm";
+        // Hashes of the default algorithm are stored without the algorithm prefix.
+        public static final String DEFAULT_ANSWER_HASH_ALGORITHM = "SHA-256";
+    }
+
+    public static class DefaultCatalogConfig {
+
+        public static final String SHARED_DEFAULT_CATALOG_ENABLE = "ChallengeQuestions.SharedDefaultCatalog.Enable";
+        // Requires the IDN_CHALLENGE_QUESTION_DEFAULT_SET table of the connector database scripts.
+        public static final boolean DEFAULT_SHARED_DEFAULT_CATALOG_ENABLE = false;
+    }
+
+    public static class DefaultQuestionSeedingConfig {
+
+        public static final String SEEDING_ASYNC = "ChallengeQuestions.DefaultQuestionSeeding.Async";
+        public static final String SEEDING_POOL_SIZE = "ChallengeQuestions.DefaultQuestionSeeding.PoolSize";
+        public static final String SEEDING_QUEUE_CAPACITY = "ChallengeQuestions.DefaultQuestionSeeding.QueueCapacity";
+        public static final String SEEDING_MAX_RETRIES = "ChallengeQuestions.DefaultQuestionSeeding.MaxRetries";
+        public static final String SEEDING_RETRY_DELAY = "ChallengeQuestions.DefaultQuestionSeeding.RetryDelay";
+        public static final String SEEDING_AWAIT_TIMEOUT = "ChallengeQuestions.DefaultQuestionSeeding.AwaitTimeout";
+        public static final boolean DEFAULT_SEEDING_ASYNC = true;
+        public static final long DEFAULT_SEEDING_POOL_SIZE = 2;
+        public static final long DEFAULT_SEEDING_QUEUE_CAPACITY = 1000;
+        public static final long DEFAULT_SEEDING_MAX_RETRIES = 3;
+        // Delay in milliseconds before the first retry, which grows linearly with the number of attempts.
+        public static final long DEFAULT_SEEDING_RETRY_DELAY = 1000;
+        // Timeout in milliseconds for an operation on a tenant to wait for the seeding of the tenant.
+        public static final long DEFAULT_SEEDING_AWAIT_TIMEOUT = 10000;
+    }
+
+    public static class StartupInitializationConfig {
+
+        public static final String STARTUP_INITIALIZATION_ASYNC = "ChallengeQuestions.StartupInitialization.Async";
+        public static final boolean DEFAULT_STARTUP_INITIALIZATION_ASYNC = true;
+    }
+
+    public static class CatalogWarmUpConfig {
+
+        public static final String CATALOG_WARM_UP_ON_TENANT_ACTIVATION =
+                "ChallengeQuestions.CatalogWarmUp.OnTenantActivation";
+        public static final String CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP =
+                "ChallengeQuestions.CatalogWarmUp.ActiveTenantsAtStartup";
+        // Comma separated tenant domains whose catalogs are warmed up at startup.
+        public static final String CATALOG_WARM_UP_TENANTS = "ChallengeQuestions.CatalogWarmUp.Tenants";
+        public static final String CATALOG_WARM_UP_POOL_SIZE = "ChallengeQuestions.CatalogWarmUp.PoolSize";
+        public static final String CATALOG_WARM_UP_QUEUE_CAPACITY = "ChallengeQuestions.CatalogWarmUp.QueueCapacity";
+        public static final boolean DEFAULT_CATALOG_WARM_UP_ON_TENANT_ACTIVATION = false;
+        public static final boolean DEFAULT_CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP = false;
+        public static final long DEFAULT_CATALOG_WARM_UP_POOL_SIZE = 4;
+        public static final long DEFAULT_CATALOG_WARM_UP_QUEUE_CAPACITY = 10000;
+    }
+
+    public static class LocaleResolutionConfig {
+
+        public static final String DEFAULT_LOCALE = "ChallengeQuestions.LocaleResolution.DefaultLocale";
+        public static final String NORMALIZED_LOCALE_CACHE_CAPACITY =
+                "ChallengeQuestions.LocaleResolution.NormalizedLocaleCacheCapacity";
+        public static final long DEFAULT_NORMALIZED_LOCALE_CACHE_CAPACITY = 1000;
+    }
+
+    public static class RegistryMigrationConfig {
+
+        public static final String REGISTRY_MIGRATION_ENABLE = "ChallengeQuestions.RegistryMigration.Enable";
+        public static final String REGISTRY_MIGRATION_ROWS_PER_SECOND =
+                "ChallengeQuestions.RegistryMigration.RowsPerSecond";
+        public static final String REGISTRY_MIGRATION_BATCH_SIZE = "ChallengeQuestions.RegistryMigration.BatchSize";
+        public static final String REGISTRY_MIGRATION_INITIAL_DELAY =
+                "ChallengeQuestions.RegistryMigration.InitialDelay";
+        public static final String REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL =
+                "ChallengeQuestions.RegistryMigration.StatusCheckInterval";
+        public static final boolean DEFAULT_REGISTRY_MIGRATION_ENABLE = false;
+        public static final long DEFAULT_REGISTRY_MIGRATION_ROWS_PER_SECOND = 100;
+        public static final long DEFAULT_REGISTRY_MIGRATION_BATCH_SIZE = 50;
+        // Delay in seconds after server startup before the migration starts.
+        public static final long DEFAULT_REGISTRY_MIGRATION_INITIAL_DELAY = 60;
+        // Interval in seconds between two migration status checks of a tenant which is not yet migrated.
+        public static final long DEFAULT_REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL = 60;
+        public static final String MIGRATION_STATUS_IN_PROGRESS = "IN_PROGRESS";
+        public static final String MIGRATION_STATUS_MIGRATED = "MIGRATED";
+    }
+
+    public static class ChallengeAnswerStorageConfig {
+
+        // Read the answers of users who have none in the database from their claims, until they are updated.
+        public static final String CLAIM_FALLBACK_ENABLE = "ChallengeQuestions.ChallengeAnswers.ClaimFallback";
+        public static final boolean DEFAULT_CLAIM_FALLBACK_ENABLE = true;
+    }
+
     public static class ChallengeQuestionTableColumns {
 
         public static final String ID = "ID";
@@ -37,6 +176,21 @@ public class ChallengeQuestionsConstants {
         public static final String VERSION = "VERSION";
         public static final String CREATED_AT = "CREATED_AT";
         public static final String UPDATED_AT = "UPDATED_AT";
+        public static final String CATALOG_VERSION = "CATALOG_VERSION";
+        public static final String MIGRATION_STATUS = "MIGRATION_STATUS";
+        public static final String LAST_QUESTION_SET_ID = "LAST_QUESTION_SET_ID";
+        public static final String MIGRATED_COUNT = "MIGRATED_COUNT";
+        public static final String USER_ID = "USER_ID";
+        public static final String ANSWER_HASH = "ANSWER_HASH";
+        public static final String HASH_ALGORITHM = "HASH_ALGORITHM";
+    }
+
+    public static class SQLPlaceholders {
+
+        public static final String AFTER_QUESTION_SET_ID = "AFTER_QUESTION_SET_ID";
+        public static final String AFTER_QUESTION_ID = "AFTER_QUESTION_ID";
+        public static final String AFTER_LOCALE = "AFTER_LOCALE";
+        public static final String LIMIT = "LIMIT";
     }
 
     public static class SQLQueries {
@@ -46,17 +200,135 @@ public class ChallengeQuestionsConstants {
                         "FROM IDN_CHALLENGE_QUESTION " +
                         "WHERE TENANT_ID = :TENANT_ID;";
 
+        public static final String GET_CHALLENGE_QUESTIONS_PAGE =
+                "SELECT QUESTION_SET_ID, QUESTION_ID, LOCALE, QUESTION " +
+                        "FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String CHALLENGE_QUESTIONS_PAGE_LOCALE_FILTER = " AND LOCALE = :LOCALE;";
+
+        // Keyset condition on the unique (QUESTION_SET_ID, QUESTION_ID, LOCALE) key of the tenant. The key columns are
+        // compared as they are, so that the condition and the order are served by the unique index.
+        public static final String CHALLENGE_QUESTIONS_PAGE_AFTER_FILTER =
+                " AND (QUESTION_SET_ID > :AFTER_QUESTION_SET_ID; " +
+                        "OR (QUESTION_SET_ID = :AFTER_QUESTION_SET_ID; AND (QUESTION_ID > :AFTER_QUESTION_ID; " +
+                        "OR (QUESTION_ID = :AFTER_QUESTION_ID; AND LOCALE > :AFTER_LOCALE;))))";
+
+        public static final String CHALLENGE_QUESTIONS_PAGE_ORDER = " ORDER BY QUESTION_SET_ID, QUESTION_ID, LOCALE";
+
+        public static final String CHALLENGE_QUESTIONS_PAGE_LIMIT = " LIMIT :LIMIT;";
+
+        public static final String CHALLENGE_QUESTIONS_PAGE_LIMIT_FETCH_FIRST =
+                " OFFSET 0 ROWS FETCH NEXT :LIMIT; ROWS ONLY";
+
+        // Completed with one tenant id placeholder per tenant.
+        public static final String GET_CHALLENGE_QUESTIONS_BY_TENANT_IDS =
+                "SELECT TENANT_ID, QUESTION_SET_ID, QUESTION_ID, LOCALE, QUESTION " +
+                        "FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID IN (%s) " +
+                        "ORDER BY TENANT_ID, QUESTION_SET_ID, QUESTION_ID, LOCALE";
+
         public static final String GET_CHALLENGE_QUESTIONS_BY_TENANT_ID_LOCALE =
                 "SELECT QUESTION_SET_ID, QUESTION_ID, QUESTION " +
                         "FROM IDN_CHALLENGE_QUESTION " +
                         "WHERE TENANT_ID = :TENANT_ID; AND LOCALE = :LOCALE;";
 
+        // Completed with one locale placeholder per locale and the page order.
+        public static final String GET_CHALLENGE_QUESTIONS_BY_TENANT_ID_LOCALES =
+                "SELECT QUESTION_SET_ID, QUESTION_ID, LOCALE, QUESTION " +
+                        "FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND LOCALE IN (%s)";
+
         public static final String ADD_CHALLENGE_QUESTION =
                 "INSERT INTO IDN_CHALLENGE_QUESTION " +
                         "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
                         "VALUES (:TENANT_ID;, :QUESTION_SET_ID;, :QUESTION_ID;, :QUESTION;, :LOCALE;, :VERSION;, " +
                         ":CREATED_AT;, :UPDATED_AT;)";
 
+        public static final String UPSERT_CHALLENGE_QUESTION_MYSQL =
+                "INSERT INTO IDN_CHALLENGE_QUESTION " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (:TENANT_ID;, :QUESTION_SET_ID;, :QUESTION_ID;, :QUESTION;, :LOCALE;, :VERSION;, " +
+                        ":CREATED_AT;, :UPDATED_AT;) " +
+                        "ON DUPLICATE KEY UPDATE QUESTION = VALUES(QUESTION), UPDATED_AT = VALUES(UPDATED_AT)";
+
+        public static final String UPSERT_CHALLENGE_QUESTION_POSTGRESQL =
+                "INSERT INTO IDN_CHALLENGE_QUESTION " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (:TENANT_ID;, :QUESTION_SET_ID;, :QUESTION_ID;, :QUESTION;, :LOCALE;, :VERSION;, " +
+                        ":CREATED_AT;, :UPDATED_AT;) " +
+                        "ON CONFLICT (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, LOCALE) " +
+                        "DO UPDATE SET QUESTION = EXCLUDED.QUESTION, UPDATED_AT = EXCLUDED.UPDATED_AT";
+
+        public static final String UPSERT_CHALLENGE_QUESTION_MSSQL =
+                "MERGE INTO IDN_CHALLENGE_QUESTION WITH (HOLDLOCK) AS TARGET " +
+                        "USING (VALUES (:TENANT_ID;, :QUESTION_SET_ID;, :QUESTION_ID;, :QUESTION;, :LOCALE;, " +
+                        ":VERSION;, :CREATED_AT;, :UPDATED_AT;)) " +
+                        "AS SOURCE (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, " +
+                        "UPDATED_AT) " +
+                        "ON (TARGET.TENANT_ID = SOURCE.TENANT_ID " +
+                        "AND TARGET.QUESTION_SET_ID = SOURCE.QUESTION_SET_ID " +
+                        "AND TARGET.QUESTION_ID = SOURCE.QUESTION_ID " +
+                        "AND TARGET.LOCALE = SOURCE.LOCALE) " +
+                        "WHEN MATCHED THEN UPDATE SET QUESTION = SOURCE.QUESTION, UPDATED_AT = SOURCE.UPDATED_AT " +
+                        "WHEN NOT MATCHED THEN INSERT " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (SOURCE.TENANT_ID, SOURCE.QUESTION_SET_ID, SOURCE.QUESTION_ID, SOURCE.QUESTION, " +
+                        "SOURCE.LOCALE, SOURCE.VERSION, SOURCE.CREATED_AT, SOURCE.UPDATED_AT);";
+
+        public static final String UPSERT_CHALLENGE_QUESTION_ORACLE =
+                "MERGE INTO IDN_CHALLENGE_QUESTION TARGET " +
+                        "USING (SELECT :TENANT_ID; AS TENANT_ID, :QUESTION_SET_ID; AS QUESTION_SET_ID, " +
+                        ":QUESTION_ID; AS QUESTION_ID, :QUESTION; AS QUESTION, :LOCALE; AS LOCALE, " +
+                        ":VERSION; AS VERSION, :CREATED_AT; AS CREATED_AT, :UPDATED_AT; AS UPDATED_AT FROM DUAL) " +
+                        "SOURCE " +
+                        "ON (TARGET.TENANT_ID = SOURCE.TENANT_ID " +
+                        "AND TARGET.QUESTION_SET_ID = SOURCE.QUESTION_SET_ID " +
+                        "AND TARGET.QUESTION_ID = SOURCE.QUESTION_ID " +
+                        "AND TARGET.LOCALE = SOURCE.LOCALE) " +
+                        "WHEN MATCHED THEN UPDATE SET QUESTION = SOURCE.QUESTION, UPDATED_AT = SOURCE.UPDATED_AT " +
+                        "WHEN NOT MATCHED THEN INSERT " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (SOURCE.TENANT_ID, SOURCE.QUESTION_SET_ID, SOURCE.QUESTION_ID, SOURCE.QUESTION, " +
+                        "SOURCE.LOCALE, SOURCE.VERSION, SOURCE.CREATED_AT, SOURCE.UPDATED_AT)";
+
+        // Untyped parameter markers are not allowed in a VALUES row of DB2, hence the parameters are cast.
+        public static final String UPSERT_CHALLENGE_QUESTION_DB2 =
+                "MERGE INTO IDN_CHALLENGE_QUESTION AS TARGET " +
+                        "USING (VALUES (CAST(:TENANT_ID; AS INTEGER), CAST(:QUESTION_SET_ID; AS VARCHAR(255)), " +
+                        "CAST(:QUESTION_ID; AS VARCHAR(255)), CAST(:QUESTION; AS BLOB), CAST(:LOCALE; AS VARCHAR(10)), " +
+                        "CAST(:VERSION; AS VARCHAR(15)), CAST(:CREATED_AT; AS TIMESTAMP), " +
+                        "CAST(:UPDATED_AT; AS TIMESTAMP))) " +
+                        "AS SOURCE (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, " +
+                        "UPDATED_AT) " +
+                        "ON (TARGET.TENANT_ID = SOURCE.TENANT_ID " +
+                        "AND TARGET.QUESTION_SET_ID = SOURCE.QUESTION_SET_ID " +
+                        "AND TARGET.QUESTION_ID = SOURCE.QUESTION_ID " +
+                        "AND TARGET.LOCALE = SOURCE.LOCALE) " +
+                        "WHEN MATCHED THEN UPDATE SET QUESTION = SOURCE.QUESTION, UPDATED_AT = SOURCE.UPDATED_AT " +
+                        "WHEN NOT MATCHED THEN INSERT " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (SOURCE.TENANT_ID, SOURCE.QUESTION_SET_ID, SOURCE.QUESTION_ID, SOURCE.QUESTION, " +
+                        "SOURCE.LOCALE, SOURCE.VERSION, SOURCE.CREATED_AT, SOURCE.UPDATED_AT)";
+
+        public static final String UPSERT_CHALLENGE_QUESTION_H2 =
+                "MERGE INTO IDN_CHALLENGE_QUESTION AS TARGET " +
+                        "USING (VALUES (CAST(:TENANT_ID; AS INTEGER), CAST(:QUESTION_SET_ID; AS VARCHAR(255)), " +
+                        "CAST(:QUESTION_ID; AS VARCHAR(255)), CAST(:QUESTION; AS BLOB), CAST(:LOCALE; AS VARCHAR(10)), " +
+                        "CAST(:VERSION; AS VARCHAR(15)), CAST(:CREATED_AT; AS TIMESTAMP), " +
+                        "CAST(:UPDATED_AT; AS TIMESTAMP))) " +
+                        "AS SOURCE (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, " +
+                        "UPDATED_AT) " +
+                        "ON TARGET.TENANT_ID = SOURCE.TENANT_ID " +
+                        "AND TARGET.QUESTION_SET_ID = SOURCE.QUESTION_SET_ID " +
+                        "AND TARGET.QUESTION_ID = SOURCE.QUESTION_ID " +
+                        "AND TARGET.LOCALE = SOURCE.LOCALE " +
+                        "WHEN MATCHED THEN UPDATE SET QUESTION = SOURCE.QUESTION, UPDATED_AT = SOURCE.UPDATED_AT " +
+                        "WHEN NOT MATCHED THEN INSERT " +
+                        "(TENANT_ID, QUESTION_SET_ID, QUESTION_ID, QUESTION, LOCALE, VERSION, CREATED_AT, UPDATED_AT) " +
+                        "VALUES (SOURCE.TENANT_ID, SOURCE.QUESTION_SET_ID, SOURCE.QUESTION_ID, SOURCE.QUESTION, " +
+                        "SOURCE.LOCALE, SOURCE.VERSION, SOURCE.CREATED_AT, SOURCE.UPDATED_AT)";
+
         public static final String UPDATE_CHALLENGE_QUESTION =
                 "UPDATE IDN_CHALLENGE_QUESTION " +
                         "SET QUESTION = :QUESTION; , UPDATED_AT = :UPDATED_AT; " +
@@ -103,15 +375,119 @@ public class ChallengeQuestionsConstants {
                         "AND QUESTION_ID = :QUESTION_ID; " +
                         "AND LOCALE = :LOCALE;";
 
-        public static final String GET_CHALLENGE_QUESTION_SET =
-                "SELECT ID FROM IDN_CHALLENGE_QUESTION " +
-                        "WHERE TENANT_ID = :TENANT_ID; " +
-                        "AND QUESTION_SET_ID = :QUESTION_SET_ID; " +
-                        "LIMIT 1";
+        public static final String GET_CHALLENGE_QUESTION_KEYS =
+                "SELECT QUESTION_SET_ID, QUESTION_ID, LOCALE FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
 
         public static final String GET_CHALLENGE_QUESTION_SET_ID =
                 "SELECT DISTINCT QUESTION_SET_ID FROM IDN_CHALLENGE_QUESTION " +
                         "WHERE TENANT_ID = :TENANT_ID;";
+
+        // Metadata queries read only the columns of the unique key index, never the QUESTION column.
+        public static final String GET_CHALLENGE_QUESTION_SET_COUNT =
+                "SELECT COUNT(DISTINCT QUESTION_SET_ID) FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String GET_CHALLENGE_QUESTION_SET_ID_BY_LOCALE =
+                "SELECT DISTINCT QUESTION_SET_ID FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND LOCALE = :LOCALE; " +
+                        "ORDER BY QUESTION_SET_ID";
+
+        public static final String GET_CHALLENGE_QUESTION_ID_OF_SET =
+                "SELECT DISTINCT QUESTION_ID FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND QUESTION_SET_ID = :QUESTION_SET_ID; " +
+                        "ORDER BY QUESTION_ID";
+
+        public static final String GET_CHALLENGE_QUESTION_LOCALES =
+                "SELECT DISTINCT LOCALE FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID; " +
+                        "ORDER BY LOCALE";
+
+        // Completed with the row limit clause of the database.
+        public static final String PROBE_CHALLENGE_QUESTION_SET =
+                "SELECT QUESTION_SET_ID FROM IDN_CHALLENGE_QUESTION " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND QUESTION_SET_ID = :QUESTION_SET_ID; " +
+                        "ORDER BY QUESTION_SET_ID";
+
+        public static final String GET_CHALLENGE_QUESTION_DEFAULT_SETS =
+                "SELECT QUESTION_SET_ID FROM IDN_CHALLENGE_QUESTION_DEFAULT_SET " +
+                        "WHERE TENANT_ID = :TENANT_ID; " +
+                        "ORDER BY QUESTION_SET_ID";
+
+        // Completed with one tenant id placeholder per tenant.
+        public static final String GET_CHALLENGE_QUESTION_DEFAULT_SETS_BY_TENANT_IDS =
+                "SELECT TENANT_ID, QUESTION_SET_ID FROM IDN_CHALLENGE_QUESTION_DEFAULT_SET " +
+                        "WHERE TENANT_ID IN (%s) " +
+                        "ORDER BY TENANT_ID, QUESTION_SET_ID";
+
+        public static final String ADD_CHALLENGE_QUESTION_DEFAULT_SET =
+                "INSERT INTO IDN_CHALLENGE_QUESTION_DEFAULT_SET (TENANT_ID, QUESTION_SET_ID, CREATED_AT) " +
+                        "VALUES (:TENANT_ID;, :QUESTION_SET_ID;, :CREATED_AT;)";
+
+        public static final String DELETE_CHALLENGE_QUESTION_DEFAULT_SET =
+                "DELETE FROM IDN_CHALLENGE_QUESTION_DEFAULT_SET " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND QUESTION_SET_ID = :QUESTION_SET_ID;";
+
+        public static final String GET_CHALLENGE_QUESTION_CATALOG_VERSION =
+                "SELECT CATALOG_VERSION FROM IDN_CHALLENGE_QUESTION_VERSION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String INCREMENT_CHALLENGE_QUESTION_CATALOG_VERSION =
+                "UPDATE IDN_CHALLENGE_QUESTION_VERSION " +
+                        "SET CATALOG_VERSION = CATALOG_VERSION + 1, UPDATED_AT = :UPDATED_AT; " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String ADD_CHALLENGE_QUESTION_CATALOG_VERSION =
+                "INSERT INTO IDN_CHALLENGE_QUESTION_VERSION (TENANT_ID, CATALOG_VERSION, UPDATED_AT) " +
+                        "VALUES (:TENANT_ID;, :CATALOG_VERSION;, :UPDATED_AT;)";
+
+        public static final String GET_CHALLENGE_QUESTION_MIGRATION_STATUS =
+                "SELECT MIGRATION_STATUS, LAST_QUESTION_SET_ID, MIGRATED_COUNT FROM IDN_CHALLENGE_QUESTION_MIGRATION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String UPDATE_CHALLENGE_QUESTION_MIGRATION_STATUS =
+                "UPDATE IDN_CHALLENGE_QUESTION_MIGRATION " +
+                        "SET MIGRATION_STATUS = :MIGRATION_STATUS;, LAST_QUESTION_SET_ID = :LAST_QUESTION_SET_ID;, " +
+                        "MIGRATED_COUNT = :MIGRATED_COUNT;, UPDATED_AT = :UPDATED_AT; " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String ADD_CHALLENGE_QUESTION_MIGRATION_STATUS =
+                "INSERT INTO IDN_CHALLENGE_QUESTION_MIGRATION " +
+                        "(TENANT_ID, MIGRATION_STATUS, LAST_QUESTION_SET_ID, MIGRATED_COUNT, UPDATED_AT) " +
+                        "VALUES (:TENANT_ID;, :MIGRATION_STATUS;, :LAST_QUESTION_SET_ID;, :MIGRATED_COUNT;, " +
+                        ":UPDATED_AT;)";
+
+        public static final String DELETE_CHALLENGE_QUESTION_MIGRATION_STATUS =
+                "DELETE FROM IDN_CHALLENGE_QUESTION_MIGRATION " +
+                        "WHERE TENANT_ID = :TENANT_ID;";
+
+        public static final String GET_CHALLENGE_ANSWERS_OF_USER =
+                "SELECT QUESTION_SET_ID, QUESTION, LOCALE, ANSWER_HASH FROM IDN_CHALLENGE_ANSWER " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND USER_ID = :USER_ID; " +
+                        "ORDER BY QUESTION_SET_ID";
+
+        public static final String GET_CHALLENGE_ANSWER_SET_IDS_OF_USER =
+                "SELECT QUESTION_SET_ID FROM IDN_CHALLENGE_ANSWER " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND USER_ID = :USER_ID; " +
+                        "ORDER BY QUESTION_SET_ID";
+
+        public static final String ADD_CHALLENGE_ANSWER =
+                "INSERT INTO IDN_CHALLENGE_ANSWER " +
+                        "(TENANT_ID, USER_ID, QUESTION_SET_ID, QUESTION, LOCALE, ANSWER_HASH, HASH_ALGORITHM, " +
+                        "UPDATED_AT) " +
+                        "VALUES (:TENANT_ID;, :USER_ID;, :QUESTION_SET_ID;, :QUESTION;, :LOCALE;, :ANSWER_HASH;, " +
+                        ":HASH_ALGORITHM;, :UPDATED_AT;)";
+
+        public static final String DELETE_CHALLENGE_ANSWER =
+                "DELETE FROM IDN_CHALLENGE_ANSWER " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND USER_ID = :USER_ID; AND QUESTION_SET_ID = :QUESTION_SET_ID;";
+
+        public static final String DELETE_CHALLENGE_ANSWERS_OF_USER =
+                "DELETE FROM IDN_CHALLENGE_ANSWER " +
+                        "WHERE TENANT_ID = :TENANT_ID; AND USER_ID = :USER_ID;";
+
+        public static final String DELETE_CHALLENGE_ANSWERS_OF_TENANT =
+                "DELETE FROM IDN_CHALLENGE_ANSWER WHERE TENANT_ID = :TENANT_ID;";
     }
 
     public enum ErrorMessages {
@@ -120,7 +496,31 @@ public class ChallengeQuestionsConstants {
         ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_QUESTIONS("20002", "Error while setting challenge question"),
         ERROR_CODE_ERROR_DELETING_CHALLENGE_SET("20057", "Error when deleting challenge question set %s."),
         ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_QUESTIONS("20058",
-                "Error while deleting challenge question set of locale %s");
+                "Error while deleting challenge question set of locale %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_GET_CATALOG_VERSION("20059",
+                "Error while getting the challenge question catalog version of tenant %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_UPDATE_CATALOG_VERSION("20060",
+                "Error while updating the challenge question catalog version of tenant %s"),
+        ERROR_CODE_HYBRID_READ_FAILED("20061",
+                "Error while reading challenge questions of tenant %s from the database and the registry"),
+        ERROR_CODE_DATABASE_EXCEPTION_GET_MIGRATION_STATUS("20062",
+                "Error while getting the challenge question migration status of tenant %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_UPDATE_MIGRATION_STATUS("20063",
+                "Error while updating the challenge question migration status of tenant %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_GET_DEFAULT_SETS("20064",
+                "Error while getting the default challenge question sets of tenant %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_UPDATE_DEFAULT_SETS("20065",
+                "Error while updating the default challenge question sets of tenant %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_ANSWERS("20066",
+                "Error while getting the challenge answers of user %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_ANSWERS("20067",
+                "Error while setting the challenge answers of user %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_ANSWERS("20068",
+                "Error while deleting the challenge answers of user %s"),
+        ERROR_CODE_RESOLVING_USER_ID("20069", "Error while resolving the id of user %s"),
+        ERROR_CODE_INVALID_PAGINATION_CURSOR("20070", "Invalid pagination cursor %s"),
+        ERROR_CODE_DATABASE_EXCEPTION_DELETE_TENANT_CHALLENGE_ANSWERS("20071",
+                "Error while deleting the challenge answers of tenant %s");
 
         private final String code;
         private final String message;
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ChallengeAnswerDAO used while switching the challenge answer storage from user claims to the database. The answers
+ * of a user who has none in the database are read from the user claims, and are moved to the database, and removed
+ * from the user claims, the next time the answers of the user are updated.
+ */
+public class ClaimFallbackChallengeAnswerDAO implements ChallengeAnswerDAO {
+
+    private static final Log log = LogFactory.getLog(ClaimFallbackChallengeAnswerDAO.class);
+    private final JDBCChallengeAnswerDAOImpl jdbcChallengeAnswerDAO;
+    private final UserClaimChallengeAnswerDAO claimChallengeAnswerDAO;
+
+    public ClaimFallbackChallengeAnswerDAO(JDBCChallengeAnswerDAOImpl jdbcChallengeAnswerDAO,
+                                           UserClaimChallengeAnswerDAO claimChallengeAnswerDAO) {
+
+        this.jdbcChallengeAnswerDAO = jdbcChallengeAnswerDAO;
+        this.claimChallengeAnswerDAO = claimChallengeAnswerDAO;
+    }
+
+    @Override
+    public List<String> getAnsweredChallengeSetUris(User user) throws IdentityRecoveryException {
+
+        List<String> challengeSetUris = jdbcChallengeAnswerDAO.getAnsweredChallengeSetUris(user);
+        if (challengeSetUris.isEmpty()) {
+            return claimChallengeAnswerDAO.getAnsweredChallengeSetUris(user);
+        }
+        return challengeSetUris;
+    }
+
+    @Override
+    public Map<String, UserChallengeAnswer> getChallengeAnswers(User user, List<String> challengeSetUris)
+            throws IdentityRecoveryException {
+
+        Map<String, UserChallengeAnswer> challengeAnswers =
+                jdbcChallengeAnswerDAO.getChallengeAnswers(user, challengeSetUris);
+        if (challengeAnswers.isEmpty() && !challengeSetUris.isEmpty() &&
+                jdbcChallengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty()) {
+            return claimChallengeAnswerDAO.getChallengeAnswers(user, challengeSetUris);
+        }
+        return challengeAnswers;
+    }
+
+    @Override
+    public void setChallengeAnswers(User user, List<UserChallengeAnswer> challengeAnswers,
+                                    Collection<String> answeredChallengeSetUris) throws IdentityRecoveryException {
+
+        if (!jdbcChallengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty()) {
+            jdbcChallengeAnswerDAO.setChallengeAnswers(user, challengeAnswers, answeredChallengeSetUris);
+            return;
+        }
+
+        List<String> claimChallengeSetUris = claimChallengeAnswerDAO.getAnsweredChallengeSetUris(user);
+        if (claimChallengeSetUris.isEmpty()) {
+            jdbcChallengeAnswerDAO.setChallengeAnswers(user, challengeAnswers, answeredChallengeSetUris);
+            return;
+        }
+
+        // Only the updated answers are given, so the answers that are kept are carried over from the user claims.
+        Set<String> updatedSetUris = new HashSet<>();
+        for (UserChallengeAnswer challengeAnswer : challengeAnswers) {
+            updatedSetUris.add(challengeAnswer.getQuestion().getQuestionSetId());
+        }
+        List<String> retainedSetUris = new ArrayList<>();
+        for (String claimChallengeSetUri : claimChallengeSetUris) {
+            if (answeredChallengeSetUris.contains(claimChallengeSetUri) &&
+                    !updatedSetUris.contains(claimChallengeSetUri)) {
+                retainedSetUris.add(claimChallengeSetUri);
+            }
+        }
+        List<UserChallengeAnswer> migratedAnswers = new ArrayList<>(challengeAnswers);
+        migratedAnswers.addAll(claimChallengeAnswerDAO.getChallengeAnswers(user, retainedSetUris).values());
+        jdbcChallengeAnswerDAO.setChallengeAnswers(user, migratedAnswers, answeredChallengeSetUris);
+        claimChallengeAnswerDAO.removeChallengeAnswers(user);
+        if (log.isDebugEnabled()) {
+            log.debug("Moved the challenge answers of user: " + user.getUserName() + " of tenant: " +
+                    user.getTenantDomain() + " from the user claims to the database.");
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswer(User user, String challengeSetUri, Collection<String> answeredChallengeSetUris)
+            throws IdentityRecoveryException {
+
+        if (jdbcChallengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty()) {
+            claimChallengeAnswerDAO.removeChallengeAnswer(user, challengeSetUri, answeredChallengeSetUris);
+        } else {
+            jdbcChallengeAnswerDAO.removeChallengeAnswer(user, challengeSetUri, answeredChallengeSetUris);
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswers(User user) throws IdentityRecoveryException {
+
+        jdbcChallengeAnswerDAO.removeChallengeAnswers(user);
+        if (!claimChallengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty()) {
+            claimChallengeAnswerDAO.removeChallengeAnswers(user);
+        }
+    }
+}
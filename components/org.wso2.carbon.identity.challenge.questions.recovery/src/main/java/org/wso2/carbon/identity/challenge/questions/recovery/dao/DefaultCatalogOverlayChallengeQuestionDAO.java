@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.DefaultChallengeQuestionCatalog;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.util.Utils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the shared default challenge question catalog as a virtual catalog of every tenant inheriting it, with the
+ * rows of the tenant as an overlay. A tenant inherits a default set as long as it has not modified the set, and holds
+ * no rows of it. The first modification of an inherited set materialises the remaining default questions of the set
+ * as rows of the tenant, after which the tenant stops inheriting the set. Tenants seeded before the shared catalog
+ * was introduced do not inherit any set, and are served from their own rows as before.
+ */
+public class DefaultCatalogOverlayChallengeQuestionDAO implements ChallengeQuestionDAO {
+
+    private static final Log log = LogFactory.getLog(DefaultCatalogOverlayChallengeQuestionDAO.class);
+
+    private final ChallengeQuestionDAO challengeQuestionDAO;
+    private final JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO;
+    private final ChallengeQuestionDefaultSetDAO defaultSetDAO;
+    private final DefaultChallengeQuestionCatalog defaultCatalog;
+    private final ChallengeQuestionCatalogCache catalogCache;
+
+    /**
+     * Create an overlay of the default catalog on a challenge question DAO.
+     *
+     * @param challengeQuestionDAO     DAO of the rows of the tenants.
+     * @param jdbcChallengeQuestionDAO JDBC DAO of the rows of the tenants, which materialises inherited sets in the
+     *                                 transaction removing them from the inherited sets.
+     * @param defaultSetDAO            DAO of the default sets inherited by the tenants.
+     * @param defaultCatalog           Shared default catalog.
+     * @param catalogCache             Catalog cache to cache the inherited sets of the tenants in.
+     */
+    public DefaultCatalogOverlayChallengeQuestionDAO(ChallengeQuestionDAO challengeQuestionDAO,
+                                                     JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO,
+                                                     ChallengeQuestionDefaultSetDAO defaultSetDAO,
+                                                     DefaultChallengeQuestionCatalog defaultCatalog,
+                                                     ChallengeQuestionCatalogCache catalogCache) {
+
+        this.challengeQuestionDAO = challengeQuestionDAO;
+        this.jdbcChallengeQuestionDAO = jdbcChallengeQuestionDAO;
+        this.defaultSetDAO = defaultSetDAO;
+        this.defaultCatalog = defaultCatalog;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain)
+            throws IdentityRecoveryServerException {
+
+        return overlay(challengeQuestionDAO.getAllChallengeQuestions(tenantDomain),
+                getInheritedChallengeQuestions(tenantDomain));
+    }
+
+    @Override
+    public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        return overlay(challengeQuestionDAO.getAllChallengeQuestions(tenantDomain, locale),
+                filterByLocale(getInheritedChallengeQuestions(tenantDomain), Collections.singletonList(locale)));
+    }
+
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        return overlay(challengeQuestionDAO.getChallengeQuestionsOfLocales(tenantDomain, locales),
+                filterByLocale(getInheritedChallengeQuestions(tenantDomain), locales));
+    }
+
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> inheritedChallengeQuestions = getInheritedChallengeQuestions(tenantDomain);
+        if (StringUtils.isNotEmpty(locale)) {
+            inheritedChallengeQuestions =
+                    filterByLocale(inheritedChallengeQuestions, Collections.singletonList(locale));
+        }
+        List<ChallengeQuestion> page = challengeQuestionDAO.getChallengeQuestions(tenantDomain, locale, after, limit);
+        if (inheritedChallengeQuestions.isEmpty()) {
+            return page;
+        }
+        // Both sources are read up to the limit, hence the page is within their merged questions.
+        return Utils.getChallengeQuestionPage(overlay(page, inheritedChallengeQuestions), after, limit);
+    }
+
+    @Override
+    public void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        if (getDefaultSets(tenantDomain).isEmpty()) {
+            challengeQuestionDAO.forEachChallengeQuestion(tenantDomain, locale, consumer);
+            return;
+        }
+        // Stream page by page, merging the inherited questions into each page.
+        ChallengeQuestionDAO.super.forEachChallengeQuestion(tenantDomain, locale, consumer);
+    }
+
+    /**
+     * Read the catalogs of the tenants from the underlying DAO batch by batch, merging the sets each tenant inherits
+     * into its catalog. The inherited sets of a batch are read in one query instead of from the catalog cache.
+     */
+    @Override
+    public void forEachTenantCatalog(Collection<Integer> tenantIds, TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        for (List<Integer> batch : Utils.getTenantIdBatches(tenantIds)) {
+            Map<Integer, List<String>> defaultSetsByTenant = defaultSetDAO.getDefaultSetsOfTenants(batch);
+            challengeQuestionDAO.forEachTenantCatalog(batch, (tenantId, challengeQuestions) -> {
+                List<String> defaultSets = defaultSetsByTenant.getOrDefault(tenantId, Collections.emptyList())
+                        .stream()
+                        .filter(defaultCatalog::hasChallengeQuestionSet)
+                        .collect(Collectors.toList());
+                if (defaultSets.isEmpty()) {
+                    consumer.accept(tenantId, challengeQuestions);
+                    return;
+                }
+                List<ChallengeQuestion> mergedChallengeQuestions =
+                        overlay(challengeQuestions, defaultCatalog.getChallengeQuestions(defaultSets));
+                mergedChallengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+                consumer.accept(tenantId, mergedChallengeQuestions);
+            });
+        }
+    }
+
+    @Override
+    public List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException {
+
+        List<String> defaultSets = getDefaultSets(tenantDomain);
+        List<String> setURIs = challengeQuestionDAO.getAllChallengeQuestionSetsURIs(tenantDomain);
+        if (defaultSets.isEmpty()) {
+            return setURIs;
+        }
+        Set<String> mergedSetURIs = new LinkedHashSet<>(setURIs);
+        mergedSetURIs.addAll(defaultSets);
+        return new ArrayList<>(mergedSetURIs);
+    }
+
+    @Override
+    public int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
+
+        if (getDefaultSets(tenantDomain).isEmpty()) {
+            return challengeQuestionDAO.getChallengeQuestionSetCount(tenantDomain);
+        }
+        return new HashSet<>(getAllChallengeQuestionSetsURIs(tenantDomain)).size();
+    }
+
+    @Override
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> inheritedChallengeQuestions = filterByLocale(
+                getInheritedChallengeQuestions(tenantDomain), Collections.singletonList(locale));
+        List<String> setURIs = challengeQuestionDAO.getChallengeQuestionSetURIs(tenantDomain, locale);
+        if (inheritedChallengeQuestions.isEmpty()) {
+            return setURIs;
+        }
+        Set<String> mergedSetURIs = new TreeSet<>(setURIs);
+        mergedSetURIs.addAll(Utils.getChallengeQuestionSetURIs(inheritedChallengeQuestions));
+        return new ArrayList<>(mergedSetURIs);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        List<String> questionIds = challengeQuestionDAO.getChallengeQuestionIds(challengeSetUri, tenantDomain);
+        if (!getDefaultSets(tenantDomain).contains(challengeSetUri)) {
+            return questionIds;
+        }
+        Set<String> mergedQuestionIds = new TreeSet<>(questionIds);
+        mergedQuestionIds.addAll(Utils.getChallengeQuestionIds(defaultCatalog.getChallengeQuestions(challengeSetUri),
+                challengeSetUri));
+        return new ArrayList<>(mergedQuestionIds);
+    }
+
+    @Override
+    public boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        return getDefaultSets(tenantDomain).contains(challengeSetUri) ||
+                challengeQuestionDAO.hasChallengeQuestionSet(challengeSetUri, tenantDomain);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionLocales(String tenantDomain) throws IdentityRecoveryServerException {
+
+        List<ChallengeQuestion> inheritedChallengeQuestions = getInheritedChallengeQuestions(tenantDomain);
+        List<String> locales = challengeQuestionDAO.getChallengeQuestionLocales(tenantDomain);
+        if (inheritedChallengeQuestions.isEmpty()) {
+            return locales;
+        }
+        Set<String> mergedLocales = new TreeSet<>(locales);
+        mergedLocales.addAll(Utils.getChallengeQuestionLocales(inheritedChallengeQuestions));
+        return new ArrayList<>(mergedLocales);
+    }
+
+    /**
+     * Let the tenant inherit every set of the shared default catalog, without writing any question rows.
+     */
+    @Override
+    public void addDefaultChallengeQuestions(String tenantDomain) throws IdentityRecoveryException {
+
+        defaultSetDAO.addDefaultSets(tenantDomain, defaultCatalog.getChallengeQuestionSetURIs());
+    }
+
+    @Override
+    public void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        Set<String> touchedSets = getTouchedDefaultSets(tenantDomain, questions);
+        if (touchedSets.isEmpty()) {
+            challengeQuestionDAO.addChallengeQuestions(questions, tenantDomain);
+            return;
+        }
+        // The added questions come last, so that they replace the default questions having the same key.
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>(defaultCatalog.getChallengeQuestions(touchedSets));
+        Collections.addAll(challengeQuestions, questions);
+        jdbcChallengeQuestionDAO.write(tenantDomain, Arrays.asList(
+                jdbcChallengeQuestionDAO.getAddChallengeQuestionsWrite(
+                        challengeQuestions.toArray(new ChallengeQuestion[0])),
+                getDetachDefaultSetsWrite(touchedSets)));
+        logDetachedDefaultSets(tenantDomain, touchedSets);
+    }
+
+    @Override
+    public void deleteChallengeQuestions(ChallengeQuestion[] challengeQuestions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        Set<String> touchedSets = getTouchedDefaultSets(tenantDomain, challengeQuestions);
+        if (touchedSets.isEmpty()) {
+            challengeQuestionDAO.deleteChallengeQuestions(challengeQuestions, tenantDomain);
+            return;
+        }
+        // Questions of the other sets are deleted as before, as they may not be stored in the database.
+        ChallengeQuestion[] otherChallengeQuestions = Arrays.stream(challengeQuestions)
+                .filter(question -> question == null || !touchedSets.contains(question.getQuestionSetId()))
+                .toArray(ChallengeQuestion[]::new);
+        if (otherChallengeQuestions.length > 0) {
+            challengeQuestionDAO.deleteChallengeQuestions(otherChallengeQuestions, tenantDomain);
+        }
+        ChallengeQuestion[] touchedChallengeQuestions = Arrays.stream(challengeQuestions)
+                .filter(question -> question != null && touchedSets.contains(question.getQuestionSetId()))
+                .toArray(ChallengeQuestion[]::new);
+        ChallengeQuestion[] remainingChallengeQuestions = defaultCatalog.getChallengeQuestions(touchedSets).stream()
+                .filter(question -> !isDeleted(question, touchedChallengeQuestions))
+                .toArray(ChallengeQuestion[]::new);
+        // The remaining defaults are materialised in the transaction of the delete, so that a deleted default
+        // question is never served again as an inherited question.
+        jdbcChallengeQuestionDAO.write(tenantDomain, Arrays.asList(
+                jdbcChallengeQuestionDAO.getAddChallengeQuestionsWrite(remainingChallengeQuestions),
+                jdbcChallengeQuestionDAO.getDeleteChallengeQuestionsWrite(touchedChallengeQuestions),
+                getDetachDefaultSetsWrite(touchedSets)));
+        logDetachedDefaultSets(tenantDomain, touchedSets);
+    }
+
+    @Override
+    public void deleteChallengeQuestionSet(String challengeQuestionUri, String locale, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        if (!getDefaultSets(tenantDomain).contains(challengeQuestionUri)) {
+            challengeQuestionDAO.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+            return;
+        }
+        ChallengeQuestion[] remainingChallengeQuestions = StringUtils.isEmpty(locale) ? new ChallengeQuestion[0] :
+                defaultCatalog.getChallengeQuestions(challengeQuestionUri).stream()
+                        .filter(question -> !StringUtils.equalsIgnoreCase(locale, question.getLocale()))
+                        .toArray(ChallengeQuestion[]::new);
+        Set<String> detachedSets = Collections.singleton(challengeQuestionUri);
+        jdbcChallengeQuestionDAO.write(tenantDomain, Arrays.asList(
+                jdbcChallengeQuestionDAO.getDeleteChallengeQuestionSetWrite(challengeQuestionUri, locale),
+                jdbcChallengeQuestionDAO.getAddChallengeQuestionsWrite(remainingChallengeQuestions),
+                getDetachDefaultSetsWrite(detachedSets)));
+        logDetachedDefaultSets(tenantDomain, detachedSets);
+    }
+
+    /**
+     * Get the DAO of the rows of the tenants.
+     *
+     * @return Underlying challenge question DAO.
+     */
+    public ChallengeQuestionDAO getChallengeQuestionDAO() {
+
+        return challengeQuestionDAO;
+    }
+
+    private List<String> getDefaultSets(String tenantDomain) throws IdentityRecoveryServerException {
+
+        List<String> defaultSets = catalogCache.getDefaultSets(tenantDomain);
+        if (defaultSets != null) {
+            return defaultSets;
+        }
+        long generation = catalogCache.getGeneration();
+        // Sets which are no longer in the default catalog are not served.
+        defaultSets = defaultSetDAO.getDefaultSets(tenantDomain).stream()
+                .filter(defaultCatalog::hasChallengeQuestionSet)
+                .collect(Collectors.toList());
+        catalogCache.putDefaultSets(tenantDomain, defaultSets, generation);
+        return defaultSets;
+    }
+
+    private List<ChallengeQuestion> getInheritedChallengeQuestions(String tenantDomain)
+            throws IdentityRecoveryServerException {
+
+        List<String> defaultSets = getDefaultSets(tenantDomain);
+        return defaultSets.isEmpty() ? Collections.emptyList() : defaultCatalog.getChallengeQuestions(defaultSets);
+    }
+
+    private Set<String> getTouchedDefaultSets(String tenantDomain, ChallengeQuestion[] challengeQuestions)
+            throws IdentityRecoveryServerException {
+
+        List<String> defaultSets = getDefaultSets(tenantDomain);
+        Set<String> touchedSets = new HashSet<>();
+        for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+            if (challengeQuestion != null && defaultSets.contains(challengeQuestion.getQuestionSetId())) {
+                touchedSets.add(challengeQuestion.getQuestionSetId());
+            }
+        }
+        return touchedSets;
+    }
+
+    /**
+     * Get the write which stops inheriting default sets whose questions are materialised as rows of the tenant in
+     * the same transaction.
+     */
+    private JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite getDetachDefaultSetsWrite(
+            Collection<String> challengeSetUris) {
+
+        return (template, tenantId) -> defaultSetDAO.deleteDefaultSets(template, tenantId, challengeSetUris);
+    }
+
+    private static void logDetachedDefaultSets(String tenantDomain, Collection<String> challengeSetUris) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Default challenge question sets: " + challengeSetUris + " materialised in tenant: " +
+                    tenantDomain);
+        }
+    }
+
+    private static boolean isDeleted(ChallengeQuestion challengeQuestion, ChallengeQuestion[] deletedQuestions) {
+
+        for (ChallengeQuestion deletedQuestion : deletedQuestions) {
+            if (deletedQuestion != null &&
+                    StringUtils.equals(deletedQuestion.getQuestionSetId(), challengeQuestion.getQuestionSetId()) &&
+                    StringUtils.equals(deletedQuestion.getQuestionId(), challengeQuestion.getQuestionId()) &&
+                    (StringUtils.isEmpty(deletedQuestion.getLocale()) ||
+                            StringUtils.equalsIgnoreCase(deletedQuestion.getLocale(), challengeQuestion.getLocale()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ChallengeQuestion> filterByLocale(List<ChallengeQuestion> challengeQuestions,
+                                                          List<String> locales) {
+
+        return challengeQuestions.stream()
+                .filter(question -> locales.stream()
+                        .anyMatch(locale -> StringUtils.equalsIgnoreCase(locale, question.getLocale())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Merge the inherited questions into the rows of a tenant. A row replaces the inherited question having the same
+     * key.
+     */
+    private static List<ChallengeQuestion> overlay(List<ChallengeQuestion> challengeQuestions,
+                                                   List<ChallengeQuestion> inheritedChallengeQuestions) {
+
+        if (inheritedChallengeQuestions.isEmpty()) {
+            return challengeQuestions;
+        }
+        List<ChallengeQuestion> mergedChallengeQuestions = new ArrayList<>(challengeQuestions);
+        Set<ChallengeQuestion> keys = new HashSet<>(challengeQuestions);
+        for (ChallengeQuestion inheritedChallengeQuestion : inheritedChallengeQuestions) {
+            if (!keys.contains(inheritedChallengeQuestion)) {
+                mergedChallengeQuestions.add(inheritedChallengeQuestion);
+            }
+        }
+        return mergedChallengeQuestions;
+    }
+}
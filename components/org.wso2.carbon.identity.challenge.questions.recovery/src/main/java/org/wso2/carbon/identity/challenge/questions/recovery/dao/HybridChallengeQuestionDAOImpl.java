@@ -18,60 +18,197 @@
 
 package org.wso2.carbon.identity.challenge.questions.recovery.dao;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.recovery.util.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BinaryOperator;
 
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_HYBRID_READ_FAILED;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.DEFAULT_HYBRID_READ_CONCURRENT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.DEFAULT_HYBRID_READ_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.DEFAULT_HYBRID_READ_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.DEFAULT_HYBRID_READ_TIMEOUT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.HYBRID_READ_CONCURRENT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.HYBRID_READ_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.HYBRID_READ_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.HybridReadConfig.HYBRID_READ_TIMEOUT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.DEFAULT_REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getChallengeQuestionPage;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.newBoundedExecutor;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.withTenantFlow;
 import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_ERROR_DELETING_CHALLENGE_SET;
 
 /**
- * Hybrid implementation of the ChallengeQuestionDAO interface.
+ * Hybrid implementation of the ChallengeQuestionDAO interface. Catalog reads query the database on the calling
+ * thread while the registry is read on a shared bounded executor, and both results are merged giving priority to the
+ * database. The registry is not read for the tenants whose registry challenge questions were migrated to the database
+ * by the ChallengeQuestionRegistryMigrator.
  */
 public class HybridChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
+    private static final Log log = LogFactory.getLog(HybridChallengeQuestionDAOImpl.class);
+
     JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAOImpl = new JDBCChallengeQuestionDAOImpl();
     RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAOImpl = new RegistryChallengeQuestionDAOImpl();
+    ChallengeQuestionCatalogVersionDAO catalogVersionDAO =
+            ChallengeQuestionCatalogCache.getInstance().isVersionCheckEnabled() ?
+                    new ChallengeQuestionCatalogVersionDAO() : null;
+    boolean concurrentReadEnabled = getBooleanProperty(HYBRID_READ_CONCURRENT, DEFAULT_HYBRID_READ_CONCURRENT);
+    long readTimeoutMillis = getLongProperty(HYBRID_READ_TIMEOUT, DEFAULT_HYBRID_READ_TIMEOUT);
+    ChallengeQuestionMigrationDAO migrationDAO = new ChallengeQuestionMigrationDAO();
+    long migrationStatusCheckIntervalMillis = TimeUnit.SECONDS.toMillis(getLongProperty(
+            REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL, DEFAULT_REGISTRY_MIGRATION_STATUS_CHECK_INTERVAL));
+
+    private final Map<String, MigrationState> migrationStates = new ConcurrentHashMap<>();
+
+    private final ChallengeQuestionStoreReadMetrics jdbcReadMetrics = new ChallengeQuestionStoreReadMetrics("JDBC");
+    private final ChallengeQuestionStoreReadMetrics registryReadMetrics =
+            new ChallengeQuestionStoreReadMetrics("Registry");
 
     @Override
     public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain)
             throws IdentityRecoveryServerException {
 
-        List<ChallengeQuestion> jdbcChallengeQuestions =
-                jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain);
-        List<ChallengeQuestion> registryChallengeQuestions =
-                registryChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain);
-
-        return mergeChallengeQuestionLists(jdbcChallengeQuestions, registryChallengeQuestions);
+        return readServerStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain),
+                () -> registryChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain),
+                HybridChallengeQuestionDAOImpl::mergeChallengeQuestionLists);
     }
 
     @Override
     public List<ChallengeQuestion> getAllChallengeQuestions(String tenantDomain, String locale)
             throws IdentityRecoveryException {
 
-        List<ChallengeQuestion> jdbcChallengeQuestions =
-                jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain, locale);
-        List<ChallengeQuestion> registryChallengeQuestions =
-                registryChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain, locale);
+        return readStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain, locale),
+                () -> registryChallengeQuestionDAOImpl.getAllChallengeQuestions(tenantDomain, locale),
+                HybridChallengeQuestionDAOImpl::mergeChallengeQuestionLists);
+    }
+
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        return readStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getChallengeQuestionsOfLocales(tenantDomain, locales),
+                () -> registryChallengeQuestionDAOImpl.getChallengeQuestionsOfLocales(tenantDomain, locales),
+                HybridChallengeQuestionDAOImpl::mergeChallengeQuestionLists);
+    }
+
+    /**
+     * Get a page of the challenge questions of a tenant. A page of the same size is read from both stores from the
+     * cursor question, and the pages are merged giving priority to the database.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
 
-        return mergeChallengeQuestionLists(jdbcChallengeQuestions, registryChallengeQuestions);
+        return readStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getChallengeQuestions(tenantDomain, locale, after, limit),
+                () -> registryChallengeQuestionDAOImpl.getChallengeQuestions(tenantDomain, locale, after, limit),
+                (jdbcPage, registryPage) -> getChallengeQuestionPage(
+                        mergeChallengeQuestionLists(jdbcPage, registryPage), after, limit));
+    }
+
+    /**
+     * Stream the challenge questions of a tenant. Migrated tenants are streamed straight from the database, otherwise
+     * the questions are read page by page, merging a page of each store at a time.
+     */
+    @Override
+    public void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        if (isRegistryMigrated(tenantDomain)) {
+            jdbcChallengeQuestionDAOImpl.forEachChallengeQuestion(tenantDomain, locale, consumer);
+            return;
+        }
+        ChallengeQuestionDAO.super.forEachChallengeQuestion(tenantDomain, locale, consumer);
     }
 
     @Override
     public List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException {
 
-        List<String> jdbcChallengeQuestionSetURIs =
-                jdbcChallengeQuestionDAOImpl.getAllChallengeQuestionSetsURIs(tenantDomain);
-        List<String> registryChallengeQuestions =
-                registryChallengeQuestionDAOImpl.getAllChallengeQuestionSetsURIs(tenantDomain);
+        return readServerStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getAllChallengeQuestionSetsURIs(tenantDomain),
+                () -> registryChallengeQuestionDAOImpl.getAllChallengeQuestionSetsURIs(tenantDomain),
+                HybridChallengeQuestionDAOImpl::mergeAndRemoveDuplicates);
+    }
+
+    @Override
+    public int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
 
-        return mergeAndRemoveDuplicates(jdbcChallengeQuestionSetURIs, registryChallengeQuestions);
+        if (isRegistryMigrated(tenantDomain)) {
+            return jdbcChallengeQuestionDAOImpl.getChallengeQuestionSetCount(tenantDomain);
+        }
+        // A set may have questions in both stores, hence the merged set URIs are counted.
+        return getAllChallengeQuestionSetsURIs(tenantDomain).size();
+    }
+
+    @Override
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        return readStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getChallengeQuestionSetURIs(tenantDomain, locale),
+                () -> registryChallengeQuestionDAOImpl.getChallengeQuestionSetURIs(tenantDomain, locale),
+                HybridChallengeQuestionDAOImpl::mergeAndSort);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        return readStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getChallengeQuestionIds(challengeSetUri, tenantDomain),
+                () -> registryChallengeQuestionDAOImpl.getChallengeQuestionIds(challengeSetUri, tenantDomain),
+                HybridChallengeQuestionDAOImpl::mergeAndSort);
+    }
+
+    @Override
+    public List<String> getChallengeQuestionLocales(String tenantDomain) throws IdentityRecoveryServerException {
+
+        return readServerStores(tenantDomain,
+                () -> jdbcChallengeQuestionDAOImpl.getChallengeQuestionLocales(tenantDomain),
+                () -> registryChallengeQuestionDAOImpl.getChallengeQuestionLocales(tenantDomain),
+                HybridChallengeQuestionDAOImpl::mergeAndSort);
+    }
+
+    /**
+     * Check whether a challenge question set exists. The registry is only probed if the set is not in the database.
+     */
+    @Override
+    public boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        if (jdbcChallengeQuestionDAOImpl.hasChallengeQuestionSet(challengeSetUri, tenantDomain)) {
+            return true;
+        }
+        return !isRegistryMigrated(tenantDomain) &&
+                registryChallengeQuestionDAOImpl.hasChallengeQuestionSet(challengeSetUri, tenantDomain);
     }
 
     @Override
@@ -86,15 +223,29 @@ public class HybridChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
             throws IdentityRecoveryException {
 
         try {
-            for (ChallengeQuestion challengeQuestion : challengeQuestions) {
-                if (jdbcChallengeQuestionDAOImpl.isChallengeQuestionExists(challengeQuestion, tenantDomain)) {
-                    jdbcChallengeQuestionDAOImpl.deleteChallengeQuestions(new ChallengeQuestion[]{challengeQuestion},
-                            tenantDomain);
-                } else {
-                    registryChallengeQuestionDAOImpl.deleteChallengeQuestions(
-                            new ChallengeQuestion[]{challengeQuestion}, tenantDomain);
+            // Resolve the questions stored in the database with a single query, the rest live in the registry.
+            List<ChallengeQuestion> jdbcChallengeQuestions =
+                    jdbcChallengeQuestionDAOImpl.getExistingChallengeQuestions(challengeQuestions, tenantDomain);
+            List<ChallengeQuestion> registryChallengeQuestions = new ArrayList<>();
+            if (isMigrationInProgress(tenantDomain)) {
+                // The migrator may have already copied these questions, hence they are deleted from both stores.
+                registryChallengeQuestions.addAll(Arrays.asList(challengeQuestions));
+            } else if (!isRegistryMigrated(tenantDomain)) {
+                for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+                    if (!jdbcChallengeQuestions.contains(challengeQuestion)) {
+                        registryChallengeQuestions.add(challengeQuestion);
+                    }
                 }
             }
+            if (!jdbcChallengeQuestions.isEmpty()) {
+                jdbcChallengeQuestionDAOImpl.deleteChallengeQuestions(
+                        jdbcChallengeQuestions.toArray(new ChallengeQuestion[0]), tenantDomain);
+            }
+            if (!registryChallengeQuestions.isEmpty()) {
+                registryChallengeQuestionDAOImpl.deleteChallengeQuestions(
+                        registryChallengeQuestions.toArray(new ChallengeQuestion[0]), tenantDomain);
+                updateCatalogVersion(tenantDomain);
+            }
         } catch (DataAccessException e) {
             throw new IdentityRecoveryException("Error when deleting challenge questions in " + tenantDomain, e);
         }
@@ -105,16 +256,234 @@ public class HybridChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
             throws IdentityRecoveryException {
 
         try {
-            if (jdbcChallengeQuestionDAOImpl.isChallengeQuestionSetExists(challengeQuestionUri, tenantDomain)) {
+            if (isRegistryMigrated(tenantDomain)) {
+                jdbcChallengeQuestionDAOImpl.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+            } else if (isMigrationInProgress(tenantDomain)) {
+                // The migrator may have already copied the set, hence it is deleted from both stores.
+                jdbcChallengeQuestionDAOImpl.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+                registryChallengeQuestionDAOImpl.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+                updateCatalogVersion(tenantDomain);
+            } else if (jdbcChallengeQuestionDAOImpl.isChallengeQuestionSetExists(challengeQuestionUri,
+                    tenantDomain)) {
                 jdbcChallengeQuestionDAOImpl.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
             } else {
                 registryChallengeQuestionDAOImpl.deleteChallengeQuestionSet(challengeQuestionUri, locale, tenantDomain);
+                updateCatalogVersion(tenantDomain);
             }
         } catch (DataAccessException e) {
             throw Utils.handleServerException(ERROR_CODE_ERROR_DELETING_CHALLENGE_SET, challengeQuestionUri, e);
         }
     }
 
+    /**
+     * Get the DAO of the database leg, which receives every added challenge question.
+     *
+     * @return JDBC challenge question DAO.
+     */
+    public JDBCChallengeQuestionDAOImpl getJdbcChallengeQuestionDAO() {
+
+        return jdbcChallengeQuestionDAOImpl;
+    }
+
+    /**
+     * Get the read metrics of the database leg.
+     *
+     * @return Database read metrics.
+     */
+    public ChallengeQuestionStoreReadMetrics getJdbcReadMetrics() {
+
+        return jdbcReadMetrics;
+    }
+
+    /**
+     * Get the read metrics of the registry leg.
+     *
+     * @return Registry read metrics.
+     */
+    public ChallengeQuestionStoreReadMetrics getRegistryReadMetrics() {
+
+        return registryReadMetrics;
+    }
+
+    /**
+     * Read the database and the registry and merge the results, reporting any failure as a server exception.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param jdbcRead     Read of the database.
+     * @param registryRead Read of the registry.
+     * @param merger       Merges the database result with the registry result.
+     * @return Merged result.
+     * @throws IdentityRecoveryServerException If either read fails or the reads time out.
+     */
+    private <T> T readServerStores(String tenantDomain, StoreRead<T> jdbcRead, StoreRead<T> registryRead,
+                                   BinaryOperator<T> merger) throws IdentityRecoveryServerException {
+
+        try {
+            return readStores(tenantDomain, jdbcRead, registryRead, merger);
+        } catch (IdentityRecoveryServerException e) {
+            throw e;
+        } catch (IdentityRecoveryException e) {
+            throw handleServerException(ERROR_CODE_HYBRID_READ_FAILED, tenantDomain, e);
+        }
+    }
+
+    /**
+     * Read the database and the registry and merge the results. When concurrent reads are enabled, the registry is
+     * read on the shared executor while the database is read on the calling thread, and the registry read is
+     * abandoned if both reads have not completed within the configured timeout.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param jdbcRead     Read of the database.
+     * @param registryRead Read of the registry.
+     * @param merger       Merges the database result with the registry result.
+     * @return Merged result.
+     * @throws IdentityRecoveryException If either read fails or the reads time out.
+     */
+    private <T> T readStores(String tenantDomain, StoreRead<T> jdbcRead, StoreRead<T> registryRead,
+                             BinaryOperator<T> merger) throws IdentityRecoveryException {
+
+        if (isRegistryMigrated(tenantDomain)) {
+            T jdbcResult = timedRead(jdbcRead, jdbcReadMetrics);
+            logReadMetrics(tenantDomain);
+            return jdbcResult;
+        }
+        if (!concurrentReadEnabled) {
+            T jdbcResult = timedRead(jdbcRead, jdbcReadMetrics);
+            T registryResult = timedRead(registryRead, registryReadMetrics);
+            logReadMetrics(tenantDomain);
+            return merger.apply(jdbcResult, registryResult);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis);
+        Future<T> registryFuture;
+        try {
+            registryFuture = ReadExecutorHolder.EXECUTOR.submit(
+                    withTenantFlow(() -> timedRead(registryRead, registryReadMetrics)));
+        } catch (RejectedExecutionException e) {
+            // Only happens if the executor was shut down, hence fall back to sequential reads.
+            T jdbcResult = timedRead(jdbcRead, jdbcReadMetrics);
+            T registryResult = timedRead(registryRead, registryReadMetrics);
+            logReadMetrics(tenantDomain);
+            return merger.apply(jdbcResult, registryResult);
+        }
+
+        T jdbcResult;
+        try {
+            jdbcResult = timedRead(jdbcRead, jdbcReadMetrics);
+        } catch (IdentityRecoveryException | RuntimeException e) {
+            registryFuture.cancel(true);
+            throw e;
+        }
+
+        T registryResult;
+        try {
+            registryResult = registryFuture.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            registryFuture.cancel(true);
+            registryReadMetrics.recordTimeout();
+            log.warn("Reading the challenge questions of tenant: " + tenantDomain + " from the registry did not " +
+                    "complete within " + readTimeoutMillis + " ms.");
+            throw handleServerException(ERROR_CODE_HYBRID_READ_FAILED, tenantDomain, e);
+        } catch (InterruptedException e) {
+            registryFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw handleServerException(ERROR_CODE_HYBRID_READ_FAILED, tenantDomain, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IdentityRecoveryException) {
+                throw (IdentityRecoveryException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw handleServerException(ERROR_CODE_HYBRID_READ_FAILED, tenantDomain, cause);
+        }
+        logReadMetrics(tenantDomain);
+        return merger.apply(jdbcResult, registryResult);
+    }
+
+    /**
+     * Check whether the registry challenge questions of a tenant were migrated to the database. Once observed, the
+     * migrated state is kept for the lifetime of this DAO, while other states are rechecked at most once per the
+     * configured interval.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return True if the registry of the tenant no longer needs to be read.
+     */
+    private boolean isRegistryMigrated(String tenantDomain) {
+
+        MigrationState migrationState = migrationStates.computeIfAbsent(tenantDomain, key -> new MigrationState());
+        if (migrationState.migrated) {
+            return true;
+        }
+        long currentTime = System.currentTimeMillis();
+        synchronized (migrationState) {
+            if (migrationState.checkedAt != 0 &&
+                    currentTime - migrationState.checkedAt < migrationStatusCheckIntervalMillis) {
+                return migrationState.migrated;
+            }
+            migrationState.checkedAt = currentTime;
+            try {
+                migrationState.migrated = migrationDAO.isMigrated(tenantDomain);
+            } catch (IdentityRecoveryServerException e) {
+                log.error("Error while checking the challenge question migration status of tenant: " +
+                        tenantDomain + ". Reading the registry.", e);
+            }
+            return migrationState.migrated;
+        }
+    }
+
+    /**
+     * Check whether the registry challenge questions of a tenant are being migrated to the database. The status is
+     * read from the database on each call as it is only checked on modifications.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return True if the migration of the tenant has started but not completed.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the migration status.
+     */
+    private boolean isMigrationInProgress(String tenantDomain) throws IdentityRecoveryServerException {
+
+        ChallengeQuestionMigrationDAO.MigrationStatus migrationStatus = migrationDAO.getMigrationStatus(tenantDomain);
+        return migrationStatus != null && !migrationStatus.isMigrated();
+    }
+
+    private static <T> T timedRead(StoreRead<T> read, ChallengeQuestionStoreReadMetrics metrics)
+            throws IdentityRecoveryException {
+
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = read.read();
+            failed = false;
+            return result;
+        } finally {
+            metrics.recordRead(System.nanoTime() - startTime, failed);
+        }
+    }
+
+    private void logReadMetrics(String tenantDomain) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Read challenge questions of tenant: " + tenantDomain + ". " + jdbcReadMetrics + ". " +
+                    registryReadMetrics + ".");
+        }
+    }
+
+    /**
+     * Increment the catalog version of the tenant after a registry modification, as the JDBC DAO only does so for
+     * its own modifications. The registry does not take part in the database transaction, so the version is
+     * incremented once the registry modification is done, and a failure fails the modification.
+     *
+     * @param tenantDomain Tenant domain of the modified catalog.
+     * @throws IdentityRecoveryServerException If an error occurs while updating the catalog version.
+     */
+    private void updateCatalogVersion(String tenantDomain) throws IdentityRecoveryServerException {
+
+        if (catalogVersionDAO != null) {
+            catalogVersionDAO.incrementCatalogVersion(tenantDomain);
+        }
+    }
+
     /**
      * Merges two lists and removes duplicates.
      *
@@ -130,6 +499,20 @@ public class HybridChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         return removeNullElements(new ArrayList<>((uniqueElements)));
     }
 
+    /**
+     * Merge two lists removing the duplicates and the null elements, and sort the result.
+     *
+     * @param list1 First list.
+     * @param list2 Second list.
+     * @return Sorted merged list.
+     */
+    private static List<String> mergeAndSort(List<String> list1, List<String> list2) {
+
+        List<String> mergedList = mergeAndRemoveDuplicates(list1, list2);
+        Collections.sort(mergedList);
+        return mergedList;
+    }
+
     /**
      * Removes null elements from a list.
      *
@@ -185,4 +568,32 @@ public class HybridChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         return challengeQuestion.getQuestionSetId() + "|" + challengeQuestion.getQuestionId() + "|" +
                 challengeQuestion.getLocale();
     }
+
+    /**
+     * Last observed migration status of a tenant.
+     */
+    private static final class MigrationState {
+
+        private volatile boolean migrated;
+        private long checkedAt;
+    }
+
+    /**
+     * A read of a single challenge question store.
+     */
+    @FunctionalInterface
+    private interface StoreRead<T> {
+
+        T read() throws IdentityRecoveryException;
+    }
+
+    /**
+     * Lazily created executor shared by all the hybrid DAO instances.
+     */
+    private static final class ReadExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = newBoundedExecutor("HybridChallengeQuestionReader",
+                (int) getLongProperty(HYBRID_READ_POOL_SIZE, DEFAULT_HYBRID_READ_POOL_SIZE),
+                (int) getLongProperty(HYBRID_READ_QUEUE_CAPACITY, DEFAULT_HYBRID_READ_QUEUE_CAPACITY));
+    }
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
+import org.wso2.carbon.database.utils.jdbc.NamedPreparedStatement;
+import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.ChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.DigestChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.ANSWER_HASH;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.HASH_ALGORITHM;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.LOCALE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.QUESTION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.QUESTION_SET_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.UPDATED_AT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.USER_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.ADD_CHALLENGE_ANSWER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_ANSWER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_ANSWERS_OF_TENANT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_ANSWERS_OF_USER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_ANSWERS_OF_USER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_ANSWER_SET_IDS_OF_USER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantUserStoreManager;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateLocale;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * JDBC implementation of the ChallengeAnswerDAO interface, which stores the challenge answers of users in the
+ * IDN_CHALLENGE_ANSWER table keyed by the tenant, the unique id of the user and the challenge set. The answers of a
+ * user are read with a single query and written with a single transaction, without reaching the user store other than
+ * to resolve the user id.
+ */
+public class JDBCChallengeAnswerDAOImpl implements ChallengeAnswerDAO {
+
+    private static final Log log = LogFactory.getLog(JDBCChallengeAnswerDAOImpl.class);
+    private final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone(UTC));
+    // Resolves the algorithm of a stored hash, which is described by the hash itself.
+    private final ChallengeAnswerHasher answerHasher = DigestChallengeAnswerHasher.getInstance();
+
+    public JDBCChallengeAnswerDAOImpl() {
+
+    }
+
+    @Override
+    public List<String> getAnsweredChallengeSetUris(User user) throws IdentityRecoveryException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
+        String userId = getUserId(user);
+        try {
+            return getAnsweredChallengeSetUris(JdbcUtils.getNewNamedJdbcTemplate(), tenantId, userId);
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_ANSWERS,
+                    user.getUserName(), e);
+        }
+    }
+
+    @Override
+    public Map<String, UserChallengeAnswer> getChallengeAnswers(User user, List<String> challengeSetUris)
+            throws IdentityRecoveryException {
+
+        Map<String, UserChallengeAnswer> challengeAnswers = new LinkedHashMap<>();
+        if (challengeSetUris.isEmpty()) {
+            return challengeAnswers;
+        }
+
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
+        String userId = getUserId(user);
+        List<UserChallengeAnswer> storedAnswers;
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            storedAnswers = namedJdbcTemplate.executeQuery(GET_CHALLENGE_ANSWERS_OF_USER,
+                    (resultSet, rowNumber) -> {
+                        ChallengeQuestion challengeQuestion = new ChallengeQuestion(
+                                resultSet.getString(QUESTION_SET_ID), null,
+                                new String(resultSet.getBytes(QUESTION), StandardCharsets.UTF_8),
+                                resultSet.getString(LOCALE));
+                        return new UserChallengeAnswer(challengeQuestion, resultSet.getString(ANSWER_HASH));
+                    }, namedPreparedStatement -> {
+                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                        namedPreparedStatement.setString(USER_ID, userId);
+                    });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_ANSWERS,
+                    user.getUserName(), e);
+        }
+
+        Map<String, UserChallengeAnswer> storedAnswersBySetUri = new HashMap<>();
+        for (UserChallengeAnswer storedAnswer : storedAnswers) {
+            storedAnswersBySetUri.put(storedAnswer.getQuestion().getQuestionSetId(), storedAnswer);
+        }
+        for (String challengeSetUri : challengeSetUris) {
+            UserChallengeAnswer storedAnswer = storedAnswersBySetUri.get(challengeSetUri);
+            if (storedAnswer != null) {
+                challengeAnswers.put(challengeSetUri, storedAnswer);
+            }
+        }
+        return challengeAnswers;
+    }
+
+    @Override
+    public void setChallengeAnswers(User user, List<UserChallengeAnswer> challengeAnswers,
+                                    Collection<String> answeredChallengeSetUris) throws IdentityRecoveryException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
+        String userId = getUserId(user);
+        Map<String, UserChallengeAnswer> answersToAdd = new LinkedHashMap<>();
+        for (UserChallengeAnswer challengeAnswer : challengeAnswers) {
+            ChallengeQuestion challengeQuestion = challengeAnswer.getQuestion();
+            answersToAdd.put(challengeQuestion.getQuestionSetId(), new UserChallengeAnswer(
+                    new ChallengeQuestion(challengeQuestion.getQuestionSetId(), null,
+                            challengeQuestion.getQuestion().trim(), validateLocale(challengeQuestion.getLocale())),
+                    challengeAnswer.getAnswer()));
+        }
+        Set<String> answeredSetUris = new HashSet<>(answeredChallengeSetUris);
+
+        try {
+            Timestamp currentTime = new Timestamp(new Date().getTime());
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.withTransaction(template -> {
+                // Replace the updated answers and drop the answers of the sets which are no longer answered.
+                List<String> setUrisToDelete = new ArrayList<>();
+                for (String storedSetUri : getAnsweredChallengeSetUris(template, tenantId, userId)) {
+                    if (answersToAdd.containsKey(storedSetUri) || !answeredSetUris.contains(storedSetUri)) {
+                        setUrisToDelete.add(storedSetUri);
+                    }
+                }
+                if (!setUrisToDelete.isEmpty()) {
+                    template.executeBatchInsert(DELETE_CHALLENGE_ANSWER, namedPreparedStatement ->
+                            addChallengeAnswerKeyBatch(namedPreparedStatement, setUrisToDelete, tenantId, userId),
+                            null);
+                }
+                if (!answersToAdd.isEmpty()) {
+                    template.executeBatchInsert(ADD_CHALLENGE_ANSWER, namedPreparedStatement ->
+                            addChallengeAnswerBatch(namedPreparedStatement, answersToAdd.values(), tenantId, userId,
+                                    currentTime), null);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_ANSWERS,
+                    user.getUserName(), e);
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswer(User user, String challengeSetUri, Collection<String> answeredChallengeSetUris)
+            throws IdentityRecoveryException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
+        String userId = getUserId(user);
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_ANSWER, namedPreparedStatement -> {
+                namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                namedPreparedStatement.setString(USER_ID, userId);
+                namedPreparedStatement.setString(QUESTION_SET_ID, challengeSetUri);
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_ANSWERS,
+                    user.getUserName(), e);
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswers(User user) throws IdentityRecoveryException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
+        String userId = getUserId(user);
+        try {
+            removeChallengeAnswers(JdbcUtils.getNewNamedJdbcTemplate(), tenantId, userId);
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_ANSWERS,
+                    user.getUserName(), e);
+        }
+    }
+
+    /**
+     * Remove all the answers of a user by the unique id of the user, which is all that is left once the user is
+     * deleted from the user store.
+     *
+     * @param tenantId Tenant ID.
+     * @param userId   Unique id of the user.
+     * @throws IdentityRecoveryException If an error occurs while removing the answers.
+     */
+    public void removeChallengeAnswers(int tenantId, String userId) throws IdentityRecoveryException {
+
+        try {
+            removeChallengeAnswers(JdbcUtils.getNewNamedJdbcTemplate(), tenantId, userId);
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_ANSWERS,
+                    userId, e);
+        }
+    }
+
+    /**
+     * Remove the answers of all the users of a tenant.
+     *
+     * @param tenantId Tenant ID.
+     * @throws IdentityRecoveryException If an error occurs while removing the answers.
+     */
+    public void removeTenantChallengeAnswers(int tenantId) throws IdentityRecoveryException {
+
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_ANSWERS_OF_TENANT,
+                    namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID, tenantId));
+        } catch (DataAccessException e) {
+            throw handleServerException(ChallengeQuestionsConstants.ErrorMessages
+                    .ERROR_CODE_DATABASE_EXCEPTION_DELETE_TENANT_CHALLENGE_ANSWERS, String.valueOf(tenantId), e);
+        }
+    }
+
+    private void removeChallengeAnswers(NamedJdbcTemplate namedJdbcTemplate, int tenantId, String userId)
+            throws DataAccessException {
+
+        namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_ANSWERS_OF_USER, namedPreparedStatement -> {
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+            namedPreparedStatement.setString(USER_ID, userId);
+        });
+    }
+
+    private List<String> getAnsweredChallengeSetUris(NamedJdbcTemplate namedJdbcTemplate, int tenantId,
+                                                     String userId) throws DataAccessException {
+
+        return namedJdbcTemplate.executeQuery(GET_CHALLENGE_ANSWER_SET_IDS_OF_USER,
+                (resultSet, rowNumber) -> resultSet.getString(QUESTION_SET_ID),
+                namedPreparedStatement -> {
+                    namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                    namedPreparedStatement.setString(USER_ID, userId);
+                });
+    }
+
+    /**
+     * Add the challenge answers to the batch of the insert statement.
+     *
+     * @param namedPreparedStatement Insert statement.
+     * @param challengeAnswers       Challenge answers holding the answer hashes and the validated locales.
+     * @param tenantId               Tenant ID.
+     * @param userId                 Unique id of the user.
+     * @param currentTime            Time of the modification.
+     * @throws SQLException If an error occurs while setting the parameters.
+     */
+    private void addChallengeAnswerBatch(NamedPreparedStatement namedPreparedStatement,
+                                         Collection<UserChallengeAnswer> challengeAnswers, int tenantId,
+                                         String userId, Timestamp currentTime) throws SQLException {
+
+        for (UserChallengeAnswer challengeAnswer : challengeAnswers) {
+            ChallengeQuestion challengeQuestion = challengeAnswer.getQuestion();
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+            namedPreparedStatement.setString(USER_ID, userId);
+            namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestion.getQuestionSetId());
+            namedPreparedStatement.setBytes(QUESTION, challengeQuestion.getQuestion().getBytes(StandardCharsets.UTF_8));
+            namedPreparedStatement.setString(LOCALE, challengeQuestion.getLocale());
+            namedPreparedStatement.setString(ANSWER_HASH, challengeAnswer.getAnswer());
+            namedPreparedStatement.setString(HASH_ALGORITHM, answerHasher.getAlgorithm(challengeAnswer.getAnswer()));
+            namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
+            namedPreparedStatement.addBatch();
+        }
+    }
+
+    private void addChallengeAnswerKeyBatch(NamedPreparedStatement namedPreparedStatement,
+                                            List<String> challengeSetUris, int tenantId, String userId)
+            throws SQLException {
+
+        for (String challengeSetUri : challengeSetUris) {
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+            namedPreparedStatement.setString(USER_ID, userId);
+            namedPreparedStatement.setString(QUESTION_SET_ID, challengeSetUri);
+            namedPreparedStatement.addBatch();
+        }
+    }
+
+    /**
+     * Resolve the unique id of a user, which keys the answers of the user so that they survive a username change.
+     *
+     * @param user User.
+     * @return Unique id of the user.
+     * @throws IdentityRecoveryServerException If the user id cannot be resolved.
+     */
+    private String getUserId(User user) throws IdentityRecoveryServerException {
+
+        String userName = IdentityUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
+        String userId = null;
+        try {
+            UserStoreManager userStoreManager = getTenantUserStoreManager(user.getTenantDomain());
+            if (userStoreManager instanceof AbstractUserStoreManager) {
+                userId = ((AbstractUserStoreManager) userStoreManager).getUserIDFromUserName(userName);
+            }
+        } catch (UserStoreException e) {
+            throw handleServerException(ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_RESOLVING_USER_ID,
+                    user.getUserName(), e);
+        }
+        if (StringUtils.isBlank(userId)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to resolve the id of the user: " + userName + " of tenant: " +
+                        user.getTenantDomain());
+            }
+            throw handleServerException(ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_RESOLVING_USER_ID,
+                    user.getUserName(), null);
+        }
+        return userId;
+    }
+}
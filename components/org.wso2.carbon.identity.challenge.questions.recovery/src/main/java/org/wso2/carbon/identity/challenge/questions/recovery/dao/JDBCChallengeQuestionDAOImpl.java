@@ -19,9 +19,16 @@
 package org.wso2.carbon.identity.challenge.questions.recovery.dao;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
+import org.wso2.carbon.database.utils.jdbc.NamedPreparedStatement;
+import org.wso2.carbon.database.utils.jdbc.NamedTemplate;
 import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.database.utils.jdbc.exceptions.TransactionException;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.JdbcUtils;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
@@ -29,10 +36,21 @@ import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 
 import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.CREATED_AT;
@@ -44,18 +62,47 @@ import static org.wso2.carbon.identity.challenge.questions.recovery.dao.Challeng
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.UPDATED_AT;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.ChallengeQuestionTableColumns.VERSION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLPlaceholders.AFTER_LOCALE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLPlaceholders.AFTER_QUESTION_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLPlaceholders.AFTER_QUESTION_SET_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLPlaceholders.LIMIT;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.ADD_CHALLENGE_QUESTION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.CHALLENGE_QUESTIONS_PAGE_AFTER_FILTER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.CHALLENGE_QUESTIONS_PAGE_LIMIT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.CHALLENGE_QUESTIONS_PAGE_LIMIT_FETCH_FIRST;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.CHALLENGE_QUESTIONS_PAGE_LOCALE_FILTER;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.CHALLENGE_QUESTIONS_PAGE_ORDER;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION_BY_LOCALE;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION_SET;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.DELETE_CHALLENGE_QUESTION_SET_BY_LOCALE;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTIONS_BY_TENANT_ID;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_KEYS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_LOCALES;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTIONS_BY_TENANT_IDS;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTIONS_BY_TENANT_ID_LOCALE;
-import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_SET;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTIONS_BY_TENANT_ID_LOCALES;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTIONS_PAGE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_ID_OF_SET;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_SET_COUNT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_SET_ID_BY_LOCALE;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_SET_ID;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.GET_CHALLENGE_QUESTION_WITH_LOCALE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.PROBE_CHALLENGE_QUESTION_SET;
 import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPDATE_CHALLENGE_QUESTION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_DB2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_H2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_MSSQL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_MYSQL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_ORACLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.SQLQueries.UPSERT_CHALLENGE_QUESTION_POSTGRESQL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.DEFAULT_STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StreamingReadConfig.STREAMING_READ_FETCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantIdBatches;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantIdPlaceholder;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantIdPlaceholders;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeQuestionAttributes;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeQuestionMandatoryParams;
@@ -69,10 +116,25 @@ import static java.time.ZoneOffset.UTC;
  */
 public class JDBCChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
+    private static final Log log = LogFactory.getLog(JDBCChallengeQuestionDAOImpl.class);
     private final Calendar CALENDAR = Calendar.getInstance(TimeZone.getTimeZone(UTC));
+    private final ChallengeQuestionCatalogVersionDAO catalogVersionDAO;
 
     public JDBCChallengeQuestionDAOImpl() {
 
+        this(ChallengeQuestionCatalogCache.getInstance().isVersionCheckEnabled() ?
+                new ChallengeQuestionCatalogVersionDAO() : null);
+    }
+
+    /**
+     * Create a JDBC challenge question DAO.
+     *
+     * @param catalogVersionDAO DAO of the catalog versions to increment in the transaction of every modification, or
+     *                          null if catalog versions are not checked.
+     */
+    public JDBCChallengeQuestionDAOImpl(ChallengeQuestionCatalogVersionDAO catalogVersionDAO) {
+
+        this.catalogVersionDAO = catalogVersionDAO;
     }
 
     @Override
@@ -129,6 +191,145 @@ public class JDBCChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         }
     }
 
+    /**
+     * Get the challenge questions of all the given locales with a single query.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        if (locales.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder localePlaceholders = new StringBuilder();
+        for (int i = 0; i < locales.size(); i++) {
+            if (i > 0) {
+                localePlaceholders.append(", ");
+            }
+            localePlaceholders.append(':').append(getLocalePlaceholder(i)).append(';');
+        }
+        try {
+            String query = String.format(GET_CHALLENGE_QUESTIONS_BY_TENANT_ID_LOCALES, localePlaceholders) +
+                    CHALLENGE_QUESTIONS_PAGE_ORDER;
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.executeQuery(query, (resultSet, rowNumber) -> {
+                byte[] questionBytes = resultSet.getBytes(QUESTION);
+                String questionText =
+                        (questionBytes != null) ? new String(questionBytes, StandardCharsets.UTF_8) : null;
+                return new ChallengeQuestion(resultSet.getString(QUESTION_SET_ID), resultSet.getString(QUESTION_ID),
+                        questionText, resultSet.getString(LOCALE));
+            }, namedPreparedStatement -> {
+                namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
+                for (int i = 0; i < locales.size(); i++) {
+                    namedPreparedStatement.setString(getLocalePlaceholder(i), locales.get(i));
+                }
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
+
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        boolean filterByLocale = StringUtils.isNotEmpty(locale);
+        try {
+            StringBuilder query = new StringBuilder(GET_CHALLENGE_QUESTIONS_PAGE);
+            if (filterByLocale) {
+                query.append(CHALLENGE_QUESTIONS_PAGE_LOCALE_FILTER);
+            }
+            if (after != null) {
+                query.append(CHALLENGE_QUESTIONS_PAGE_AFTER_FILTER);
+            }
+            query.append(CHALLENGE_QUESTIONS_PAGE_ORDER).append(getPageLimitClause());
+
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.executeQuery(query.toString(), (resultSet, rowNumber) -> {
+                byte[] questionBytes = resultSet.getBytes(QUESTION);
+                String questionText =
+                        (questionBytes != null) ? new String(questionBytes, StandardCharsets.UTF_8) : null;
+                return new ChallengeQuestion(resultSet.getString(QUESTION_SET_ID), resultSet.getString(QUESTION_ID),
+                        questionText, resultSet.getString(LOCALE));
+            }, namedPreparedStatement -> {
+                namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
+                if (filterByLocale) {
+                    namedPreparedStatement.setString(LOCALE, locale);
+                }
+                if (after != null) {
+                    namedPreparedStatement.setString(AFTER_QUESTION_SET_ID, after.getQuestionSetId());
+                    namedPreparedStatement.setString(AFTER_QUESTION_ID, after.getQuestionId());
+                    namedPreparedStatement.setString(AFTER_LOCALE, after.getLocale());
+                }
+                namedPreparedStatement.setInt(LIMIT, limit);
+            });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    /**
+     * Stream the challenge questions of a tenant from a single forward only result set ordered by question set id,
+     * question id and locale. The rows are fetched from the database in batches of the configured fetch size, hence
+     * only one batch is held in memory at a time.
+     */
+    @Override
+    public void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        boolean filterByLocale = StringUtils.isNotEmpty(locale);
+        // Drivers such as PostgreSQL only fetch in batches within a transaction.
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            String query = GET_CHALLENGE_QUESTIONS_PAGE +
+                    (filterByLocale ? CHALLENGE_QUESTIONS_PAGE_LOCALE_FILTER : "") +
+                    CHALLENGE_QUESTIONS_PAGE_ORDER;
+            try (NamedPreparedStatement namedPreparedStatement = new NamedPreparedStatement(connection, query)) {
+                namedPreparedStatement.getPreparedStatement().setFetchSize(getStreamingFetchSize());
+                namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
+                if (filterByLocale) {
+                    namedPreparedStatement.setString(LOCALE, locale);
+                }
+                try (ResultSet resultSet = namedPreparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        byte[] questionBytes = resultSet.getBytes(QUESTION);
+                        String questionText =
+                                (questionBytes != null) ? new String(questionBytes, StandardCharsets.UTF_8) : null;
+                        consumer.accept(new ChallengeQuestion(resultSet.getString(QUESTION_SET_ID),
+                                resultSet.getString(QUESTION_ID), questionText, resultSet.getString(LOCALE)));
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException | DataAccessException | IdentityRecoveryException | RuntimeException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException | DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    /**
+     * Read the catalogs of the tenants batch by batch, with one query per batch ordered by tenant id. The rows of a
+     * batch are streamed and grouped into the catalog of each tenant as they are read.
+     */
+    @Override
+    public void forEachTenantCatalog(Collection<Integer> tenantIds, TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        for (List<Integer> batch : getTenantIdBatches(tenantIds)) {
+            forEachTenantCatalogOfBatch(batch, consumer);
+        }
+    }
+
     @Override
     public List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException {
 
@@ -148,129 +349,568 @@ public class JDBCChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
     }
 
     @Override
-    public void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
-            throws IdentityRecoveryException {
+    public int getChallengeQuestionSetCount(String tenantDomain) throws IdentityRecoveryServerException {
 
         try {
-            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-            Timestamp currentTime = new Timestamp(new Date().getTime());
             NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
-            for (ChallengeQuestion challengeQuestion : questions) {
+            Integer setCount = namedJdbcTemplate.fetchSingleRecord(GET_CHALLENGE_QUESTION_SET_COUNT,
+                    (resultSet, rowNumber) -> resultSet.getInt(1),
+                    namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID,
+                            IdentityTenantUtil.getTenantId(tenantDomain)));
+            return setCount == null ? 0 : setCount;
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
 
-                validateChallengeQuestionAttributes(challengeQuestion);
-                String locale = validateLocale(challengeQuestion.getLocale());
-                byte[] questionText = challengeQuestion.getQuestion().getBytes(StandardCharsets.UTF_8);
+    @Override
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
 
-                if (isChallengeQuestionExists(challengeQuestion, tenantDomain)) {
-                    namedJdbcTemplate.executeUpdate(UPDATE_CHALLENGE_QUESTION, (namedPreparedStatement) -> {
-                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
-                        namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestion.getQuestionSetId());
-                        namedPreparedStatement.setString(QUESTION_ID, challengeQuestion.getQuestionId());
-                        namedPreparedStatement.setBytes(QUESTION, questionText);
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.executeQuery(GET_CHALLENGE_QUESTION_SET_ID_BY_LOCALE,
+                    (resultSet, rowNumber) -> resultSet.getString(QUESTION_SET_ID), namedPreparedStatement -> {
+                        namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
                         namedPreparedStatement.setString(LOCALE, locale);
-                        namedPreparedStatement.setString(VERSION,
-                                ChallengeQuestionsConstants.CHALLENGE_QUESTION_SCHEMA_VERSION);
-                        namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
                     });
-                } else {
-                    namedJdbcTemplate.executeInsert(ADD_CHALLENGE_QUESTION, (namedPreparedStatement -> {
-                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
-                        namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestion.getQuestionSetId());
-                        namedPreparedStatement.setString(QUESTION_ID, challengeQuestion.getQuestionId());
-                        namedPreparedStatement.setBytes(QUESTION, questionText);
-                        namedPreparedStatement.setString(LOCALE, locale);
-                        namedPreparedStatement.setString(VERSION,
-                                ChallengeQuestionsConstants.CHALLENGE_QUESTION_SCHEMA_VERSION);
-                        namedPreparedStatement.setTimeStamp(CREATED_AT, currentTime, CALENDAR);
-                        namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
-                    }), challengeQuestion, false);
-                }
-            }
         } catch (DataAccessException e) {
             throw handleServerException(
-                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_QUESTIONS,
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
                     null, e);
         }
     }
 
     @Override
-    public void deleteChallengeQuestions(ChallengeQuestion[] challengeQuestions, String tenantDomain)
+    public List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
             throws IdentityRecoveryException {
 
         try {
-            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
             NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
-            for (ChallengeQuestion question : challengeQuestions) {
-                validateChallengeQuestionMandatoryParams(question);
-                if (StringUtils.isNotEmpty(question.getLocale())) {
-                    String locale = validateLocale(question.getLocale());
-                    namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_QUESTION_BY_LOCALE, namedPreparedStatement -> {
-                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
-                        namedPreparedStatement.setString(QUESTION_SET_ID, question.getQuestionSetId());
-                        namedPreparedStatement.setString(QUESTION_ID, question.getQuestionId());
-                        namedPreparedStatement.setString(LOCALE, locale);
+            return namedJdbcTemplate.executeQuery(GET_CHALLENGE_QUESTION_ID_OF_SET,
+                    (resultSet, rowNumber) -> resultSet.getString(QUESTION_ID), namedPreparedStatement -> {
+                        namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
+                        namedPreparedStatement.setString(QUESTION_SET_ID, challengeSetUri);
                     });
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    @Override
+    public List<String> getChallengeQuestionLocales(String tenantDomain) throws IdentityRecoveryServerException {
+
+        try {
+            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+            return namedJdbcTemplate.executeQuery(GET_CHALLENGE_QUESTION_LOCALES,
+                    (resultSet, rowNumber) -> resultSet.getString(LOCALE), namedPreparedStatement ->
+                            namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain)));
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    @Override
+    public boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        try {
+            return isChallengeQuestionSetExists(challengeSetUri, tenantDomain);
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    @Override
+    public void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        ChallengeQuestionWrite write = getAddChallengeQuestionsWrite(questions);
+        if (questions.length == 0) {
+            return;
+        }
+        try {
+            write(IdentityTenantUtil.getTenantId(tenantDomain), Collections.singletonList(write));
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    /**
+     * Get the write adding or updating challenge questions, to run it in a transaction shared with other writes.
+     * The questions are validated upfront.
+     *
+     * @param questions Challenge questions to add or update.
+     * @return Write of the challenge questions.
+     * @throws IdentityRecoveryException If a question is invalid.
+     */
+    public ChallengeQuestionWrite getAddChallengeQuestionsWrite(ChallengeQuestion[] questions)
+            throws IdentityRecoveryException {
+
+        // Validate all the questions upfront and keep only the last occurrence of each question key.
+        Map<ChallengeQuestionKey, ChallengeQuestion> challengeQuestions = new LinkedHashMap<>();
+        for (ChallengeQuestion challengeQuestion : questions) {
+            validateChallengeQuestionAttributes(challengeQuestion);
+            String locale = validateLocale(challengeQuestion.getLocale());
+            challengeQuestions.put(new ChallengeQuestionKey(challengeQuestion.getQuestionSetId(),
+                    challengeQuestion.getQuestionId(), locale), challengeQuestion);
+        }
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        return (template, tenantId) -> {
+            if (challengeQuestions.isEmpty()) {
+                return;
+            }
+            String upsertQuery = getUpsertChallengeQuestionQuery();
+            if (upsertQuery != null) {
+                template.executeBatchInsert(upsertQuery, namedPreparedStatement ->
+                        addChallengeQuestionBatch(namedPreparedStatement, challengeQuestions, tenantId,
+                                currentTime, true), null);
+                return;
+            }
+            // The existing questions are resolved in the transaction of the write.
+            Set<ChallengeQuestionKey> existingKeys = getChallengeQuestionKeys(template, tenantId);
+            Map<ChallengeQuestionKey, ChallengeQuestion> questionsToAdd = new LinkedHashMap<>();
+            Map<ChallengeQuestionKey, ChallengeQuestion> questionsToUpdate = new LinkedHashMap<>();
+            for (Map.Entry<ChallengeQuestionKey, ChallengeQuestion> entry : challengeQuestions.entrySet()) {
+                if (existingKeys.contains(entry.getKey())) {
+                    questionsToUpdate.put(entry.getKey(), entry.getValue());
                 } else {
-                    namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_QUESTION, namedPreparedStatement -> {
-                        namedPreparedStatement.setInt(TENANT_ID, tenantId);
-                        namedPreparedStatement.setString(QUESTION_SET_ID, question.getQuestionSetId());
-                        namedPreparedStatement.setString(QUESTION_ID, question.getQuestionId());
-                    });
+                    questionsToAdd.put(entry.getKey(), entry.getValue());
                 }
             }
+            if (!questionsToUpdate.isEmpty()) {
+                template.executeBatchInsert(UPDATE_CHALLENGE_QUESTION, namedPreparedStatement ->
+                        addChallengeQuestionBatch(namedPreparedStatement, questionsToUpdate, tenantId,
+                                currentTime, false), null);
+            }
+            if (!questionsToAdd.isEmpty()) {
+                template.executeBatchInsert(ADD_CHALLENGE_QUESTION, namedPreparedStatement ->
+                        addChallengeQuestionBatch(namedPreparedStatement, questionsToAdd, tenantId,
+                                currentTime, true), null);
+            }
+        };
+    }
+
+    /**
+     * Add the challenge questions which are not yet in the database, leaving the existing ones untouched. Unlike
+     * addChallengeQuestions, this does not modify the catalog as seen by the hybrid DAO and therefore does not
+     * increment the catalog version.
+     *
+     * @param questions    Challenge questions to add.
+     * @param tenantDomain Tenant domain.
+     * @return Added challenge questions.
+     * @throws IdentityRecoveryException If a question is invalid or an error occurs while adding the questions.
+     */
+    public List<ChallengeQuestion> addMissingChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        Map<ChallengeQuestionKey, ChallengeQuestion> challengeQuestions = new LinkedHashMap<>();
+        for (ChallengeQuestion challengeQuestion : questions) {
+            validateChallengeQuestionAttributes(challengeQuestion);
+            String locale = validateLocale(challengeQuestion.getLocale());
+            challengeQuestions.put(new ChallengeQuestionKey(challengeQuestion.getQuestionSetId(),
+                    challengeQuestion.getQuestionId(), locale), challengeQuestion);
+        }
+
+        try {
+            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+            challengeQuestions.keySet().removeAll(getChallengeQuestionKeys(tenantId));
+            if (challengeQuestions.isEmpty()) {
+                return new ArrayList<>();
+            }
+            try {
+                insertChallengeQuestions(challengeQuestions, tenantId);
+            } catch (TransactionException e) {
+                // A question may have been added concurrently, hence resolve the missing questions again and retry.
+                if (log.isDebugEnabled()) {
+                    log.debug("Retrying to add the missing challenge questions of tenant: " + tenantDomain, e);
+                }
+                challengeQuestions.keySet().removeAll(getChallengeQuestionKeys(tenantId));
+                if (challengeQuestions.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                insertChallengeQuestions(challengeQuestions, tenantId);
+            }
+            return new ArrayList<>(challengeQuestions.values());
+        } catch (DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    private void insertChallengeQuestions(Map<ChallengeQuestionKey, ChallengeQuestion> challengeQuestions,
+                                          int tenantId) throws TransactionException {
+
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        namedJdbcTemplate.withTransaction(template -> {
+            template.executeBatchInsert(ADD_CHALLENGE_QUESTION, namedPreparedStatement ->
+                    addChallengeQuestionBatch(namedPreparedStatement, challengeQuestions, tenantId, currentTime,
+                            true), null);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteChallengeQuestions(ChallengeQuestion[] challengeQuestions, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        ChallengeQuestionWrite write = getDeleteChallengeQuestionsWrite(challengeQuestions);
+        if (challengeQuestions.length == 0) {
+            return;
+        }
+        try {
+            write(IdentityTenantUtil.getTenantId(tenantDomain), Collections.singletonList(write));
         } catch (DataAccessException e) {
             throw new IdentityRecoveryException("Error deleting challenge questions in " + tenantDomain, e);
         }
     }
 
+    /**
+     * Get the write deleting challenge questions, to run it in a transaction shared with other writes. A question
+     * without a locale is deleted from every locale. The questions are validated upfront.
+     *
+     * @param challengeQuestions Challenge questions to delete.
+     * @return Write deleting the challenge questions.
+     * @throws IdentityRecoveryException If a question is invalid.
+     */
+    public ChallengeQuestionWrite getDeleteChallengeQuestionsWrite(ChallengeQuestion[] challengeQuestions)
+            throws IdentityRecoveryException {
+
+        // Group the questions by whether they are deleted from a single locale or from every locale.
+        Map<ChallengeQuestionKey, ChallengeQuestion> questionsByLocale = new LinkedHashMap<>();
+        Map<ChallengeQuestionKey, ChallengeQuestion> questionsOfAllLocales = new LinkedHashMap<>();
+        for (ChallengeQuestion question : challengeQuestions) {
+            validateChallengeQuestionMandatoryParams(question);
+            if (StringUtils.isNotEmpty(question.getLocale())) {
+                String locale = validateLocale(question.getLocale());
+                questionsByLocale.put(new ChallengeQuestionKey(question.getQuestionSetId(),
+                        question.getQuestionId(), locale), question);
+            } else {
+                questionsOfAllLocales.put(new ChallengeQuestionKey(question.getQuestionSetId(),
+                        question.getQuestionId(), null), question);
+            }
+        }
+        return (template, tenantId) -> {
+            if (!questionsByLocale.isEmpty()) {
+                template.executeBatchInsert(DELETE_CHALLENGE_QUESTION_BY_LOCALE, namedPreparedStatement ->
+                        addChallengeQuestionKeyBatch(namedPreparedStatement, questionsByLocale.keySet(),
+                                tenantId), null);
+            }
+            if (!questionsOfAllLocales.isEmpty()) {
+                template.executeBatchInsert(DELETE_CHALLENGE_QUESTION, namedPreparedStatement ->
+                        addChallengeQuestionKeyBatch(namedPreparedStatement, questionsOfAllLocales.keySet(),
+                                tenantId), null);
+            }
+        };
+    }
+
     @Override
     public void deleteChallengeQuestionSet(String challengeQuestionUri, String locale, String tenantDomain)
             throws IdentityRecoveryException {
 
+        ChallengeQuestionWrite write = getDeleteChallengeQuestionSetWrite(challengeQuestionUri, locale);
         try {
-            int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
-            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
-            validateChallengeSetURI(challengeQuestionUri);
+            write(IdentityTenantUtil.getTenantId(tenantDomain), Collections.singletonList(write));
+        } catch (DataAccessException e) {
+            if (StringUtils.isNotEmpty(locale)) {
+                throw handleServerException(ChallengeQuestionsConstants.ErrorMessages
+                        .ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_QUESTIONS, locale, e);
+            }
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_ERROR_DELETING_CHALLENGE_SET,
+                    challengeQuestionUri, e);
+        }
+    }
+
+    /**
+     * Get the write deleting a challenge question set, to run it in a transaction shared with other writes.
+     *
+     * @param challengeQuestionUri URI of the challenge question set.
+     * @param locale               Locale to delete the set from, or empty to delete the set from every locale.
+     * @return Write deleting the challenge question set.
+     * @throws IdentityRecoveryException If the set URI is invalid.
+     */
+    public ChallengeQuestionWrite getDeleteChallengeQuestionSetWrite(String challengeQuestionUri, String locale)
+            throws IdentityRecoveryException {
+
+        validateChallengeSetURI(challengeQuestionUri);
+        return (template, tenantId) -> {
             if (StringUtils.isEmpty(locale)) {
-                namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_QUESTION_SET, namedPreparedStatement -> {
+                template.executeUpdate(DELETE_CHALLENGE_QUESTION_SET, namedPreparedStatement -> {
                     namedPreparedStatement.setInt(TENANT_ID, tenantId);
                     namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestionUri);
                 });
             } else {
-                deleteChallengeQuestionSetByLocale(challengeQuestionUri, tenantId, locale);
+                template.executeUpdate(DELETE_CHALLENGE_QUESTION_SET_BY_LOCALE, namedPreparedStatement -> {
+                    namedPreparedStatement.setInt(TENANT_ID, tenantId);
+                    namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestionUri);
+                    namedPreparedStatement.setString(LOCALE, locale);
+                });
             }
-        } catch (DataAccessException e) {
-            throw handleServerException(
-                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_ERROR_DELETING_CHALLENGE_SET,
-                    challengeQuestionUri, e);
-        }
+        };
     }
 
     /**
-     * Delete challenge questions by locale.
+     * Run writes of the challenge questions of a tenant in one transaction, incrementing the catalog version of the
+     * tenant once.
      *
-     * @param questionSetId Challenge question URI.
-     * @param tenantId      Tenant ID of the user.
-     * @param locale        Locale of the challenge questions.
-     * @throws IdentityRecoveryServerException If an error occurs while deleting the challenge questions.
+     * @param tenantDomain Tenant domain.
+     * @param writes       Writes in the order to run them.
+     * @throws IdentityRecoveryServerException If an error occurs while writing, in which case none of the writes is
+     *                                         applied.
      */
-    private void deleteChallengeQuestionSetByLocale(String questionSetId, int tenantId, String locale)
+    public void write(String tenantDomain, List<ChallengeQuestionWrite> writes)
             throws IdentityRecoveryServerException {
 
         try {
-            NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
-            namedJdbcTemplate.executeUpdate(DELETE_CHALLENGE_QUESTION_SET_BY_LOCALE, namedPreparedStatement -> {
-                namedPreparedStatement.setInt(TENANT_ID, tenantId);
-                namedPreparedStatement.setString(QUESTION_SET_ID, questionSetId);
-                namedPreparedStatement.setString(LOCALE, locale);
-            });
+            write(IdentityTenantUtil.getTenantId(tenantDomain), writes);
         } catch (DataAccessException e) {
             throw handleServerException(
-                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_DELETE_CHALLENGE_QUESTIONS,
-                    locale, e);
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_SET_CHALLENGE_QUESTIONS,
+                    null, e);
+        }
+    }
+
+    private void write(int tenantId, List<ChallengeQuestionWrite> writes) throws DataAccessException {
+
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        namedJdbcTemplate.withTransaction(template -> {
+            for (ChallengeQuestionWrite write : writes) {
+                write.write(template, tenantId);
+            }
+            incrementCatalogVersion(template, tenantId);
+            return null;
+        });
+    }
+
+    private void incrementCatalogVersion(NamedTemplate<?> template, int tenantId) throws DataAccessException {
+
+        if (catalogVersionDAO != null) {
+            catalogVersionDAO.incrementCatalogVersion(template, tenantId);
+        }
+    }
+
+    /**
+     * Add the challenge questions to the batch of the statement.
+     *
+     * @param namedPreparedStatement Insert, update or upsert statement.
+     * @param challengeQuestions     Challenge questions keyed by the question key with the validated locale.
+     * @param tenantId               Tenant ID.
+     * @param currentTime            Time of the modification.
+     * @param isInsert               Whether the statement may insert new rows.
+     * @throws SQLException If an error occurs while setting the parameters.
+     */
+    private void addChallengeQuestionBatch(NamedPreparedStatement namedPreparedStatement,
+                                           Map<ChallengeQuestionKey, ChallengeQuestion> challengeQuestions,
+                                           int tenantId, Timestamp currentTime, boolean isInsert)
+            throws SQLException {
+
+        for (Map.Entry<ChallengeQuestionKey, ChallengeQuestion> entry : challengeQuestions.entrySet()) {
+            ChallengeQuestionKey key = entry.getKey();
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+            namedPreparedStatement.setString(QUESTION_SET_ID, key.questionSetId);
+            namedPreparedStatement.setString(QUESTION_ID, key.questionId);
+            namedPreparedStatement.setBytes(QUESTION, entry.getValue().getQuestion().getBytes(StandardCharsets.UTF_8));
+            namedPreparedStatement.setString(LOCALE, key.locale);
+            namedPreparedStatement.setTimeStamp(UPDATED_AT, currentTime, CALENDAR);
+            if (isInsert) {
+                namedPreparedStatement.setString(VERSION, ChallengeQuestionsConstants.CHALLENGE_QUESTION_SCHEMA_VERSION);
+                namedPreparedStatement.setTimeStamp(CREATED_AT, currentTime, CALENDAR);
+            }
+            namedPreparedStatement.addBatch();
+        }
+    }
+
+    /**
+     * Add the challenge question keys to the batch of a delete statement. The locale is only set for keys which
+     * have one.
+     *
+     * @param namedPreparedStatement Delete statement.
+     * @param keys                   Challenge question keys.
+     * @param tenantId               Tenant ID.
+     * @throws SQLException If an error occurs while setting the parameters.
+     */
+    private void addChallengeQuestionKeyBatch(NamedPreparedStatement namedPreparedStatement,
+                                              Set<ChallengeQuestionKey> keys, int tenantId) throws SQLException {
+
+        for (ChallengeQuestionKey key : keys) {
+            namedPreparedStatement.setInt(TENANT_ID, tenantId);
+            namedPreparedStatement.setString(QUESTION_SET_ID, key.questionSetId);
+            namedPreparedStatement.setString(QUESTION_ID, key.questionId);
+            if (key.locale != null) {
+                namedPreparedStatement.setString(LOCALE, key.locale);
+            }
+            namedPreparedStatement.addBatch();
+        }
+    }
+
+    /**
+     * Get the keys of all the challenge questions of a tenant.
+     *
+     * @param tenantId Tenant ID.
+     * @return Challenge question keys.
+     * @throws DataAccessException If an error occurs while reading the keys.
+     */
+    private Set<ChallengeQuestionKey> getChallengeQuestionKeys(int tenantId) throws DataAccessException {
+
+        NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
+        List<ChallengeQuestionKey> keys = namedJdbcTemplate.executeQuery(GET_CHALLENGE_QUESTION_KEYS,
+                (resultSet, rowNumber) -> new ChallengeQuestionKey(resultSet.getString(QUESTION_SET_ID),
+                        resultSet.getString(QUESTION_ID), resultSet.getString(LOCALE)),
+                namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID, tenantId));
+        return new HashSet<>(keys);
+    }
+
+    /**
+     * Get the keys of all the challenge questions of a tenant within a transaction.
+     *
+     * @param template Template of the transaction.
+     * @param tenantId Tenant ID.
+     * @return Challenge question keys.
+     * @throws DataAccessException If an error occurs while reading the keys.
+     */
+    private Set<ChallengeQuestionKey> getChallengeQuestionKeys(NamedTemplate<?> template, int tenantId)
+            throws DataAccessException {
+
+        List<ChallengeQuestionKey> keys = template.executeQuery(GET_CHALLENGE_QUESTION_KEYS,
+                (resultSet, rowNumber) -> new ChallengeQuestionKey(resultSet.getString(QUESTION_SET_ID),
+                        resultSet.getString(QUESTION_ID), resultSet.getString(LOCALE)),
+                namedPreparedStatement -> namedPreparedStatement.setInt(TENANT_ID, tenantId));
+        return new HashSet<>(keys);
+    }
+
+    /**
+     * Get the single statement insert or update query of the underlying database, if there is one.
+     *
+     * @return Upsert query, or null if the existing questions should be resolved before writing.
+     * @throws DataAccessException If an error occurs while resolving the database type.
+     */
+    private String getUpsertChallengeQuestionQuery() throws DataAccessException {
+
+        if (JdbcUtils.isMySQLDB() || JdbcUtils.isMariaDB()) {
+            return UPSERT_CHALLENGE_QUESTION_MYSQL;
+        } else if (JdbcUtils.isPostgreSQLDB()) {
+            return UPSERT_CHALLENGE_QUESTION_POSTGRESQL;
+        } else if (JdbcUtils.isMSSqlDB()) {
+            return UPSERT_CHALLENGE_QUESTION_MSSQL;
+        } else if (JdbcUtils.isOracleDB()) {
+            return UPSERT_CHALLENGE_QUESTION_ORACLE;
+        } else if (JdbcUtils.isDB2DB()) {
+            return UPSERT_CHALLENGE_QUESTION_DB2;
+        } else if (JdbcUtils.isH2DB()) {
+            return UPSERT_CHALLENGE_QUESTION_H2;
+        }
+        return null;
+    }
+
+    /**
+     * Get the clause limiting the rows of a challenge question page in the underlying database.
+     *
+     * @return Row limiting clause.
+     * @throws DataAccessException If an error occurs while resolving the database type.
+     */
+    private String getPageLimitClause() throws DataAccessException {
+
+        if (JdbcUtils.isMSSqlDB() || JdbcUtils.isOracleDB() || JdbcUtils.isDB2DB()) {
+            return CHALLENGE_QUESTIONS_PAGE_LIMIT_FETCH_FIRST;
+        }
+        return CHALLENGE_QUESTIONS_PAGE_LIMIT;
+    }
+
+    /**
+     * Get the name of the placeholder of a locale in the locale list of a query.
+     *
+     * @param index Index of the locale in the list.
+     * @return Placeholder name.
+     */
+    private static String getLocalePlaceholder(int index) {
+
+        return LOCALE + "_" + index;
+    }
+
+    /**
+     * Pass the catalogs of a batch of tenants to the consumer. Since the rows are ordered by tenant id, the catalog of
+     * a tenant is complete once a row of a later tenant is read. Tenants without rows get an empty catalog in their
+     * position of the order. The database orders the questions of a tenant in the collation of the key columns, hence
+     * each catalog is sorted in the order of ChallengeQuestion.KEY_ORDER before it is passed on.
+     *
+     * @param tenantIds Tenant ids in ascending order, without duplicates.
+     * @param consumer  Consumer of the catalogs.
+     */
+    private void forEachTenantCatalogOfBatch(List<Integer> tenantIds, TenantCatalogConsumer consumer)
+            throws IdentityRecoveryException {
+
+        // Drivers such as PostgreSQL only fetch in batches within a transaction.
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            String query = String.format(GET_CHALLENGE_QUESTIONS_BY_TENANT_IDS,
+                    getTenantIdPlaceholders(tenantIds.size()));
+            try (NamedPreparedStatement namedPreparedStatement = new NamedPreparedStatement(connection, query)) {
+                namedPreparedStatement.getPreparedStatement().setFetchSize(getStreamingFetchSize());
+                for (int i = 0; i < tenantIds.size(); i++) {
+                    namedPreparedStatement.setInt(getTenantIdPlaceholder(i), tenantIds.get(i));
+                }
+                int nextTenant = 0;
+                List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+                try (ResultSet resultSet = namedPreparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        int tenantId = resultSet.getInt(TENANT_ID);
+                        while (nextTenant < tenantIds.size() - 1 && tenantIds.get(nextTenant) != tenantId) {
+                            challengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+                            consumer.accept(tenantIds.get(nextTenant++), challengeQuestions);
+                            challengeQuestions = new ArrayList<>();
+                        }
+                        byte[] questionBytes = resultSet.getBytes(QUESTION);
+                        String questionText =
+                                (questionBytes != null) ? new String(questionBytes, StandardCharsets.UTF_8) : null;
+                        challengeQuestions.add(new ChallengeQuestion(resultSet.getString(QUESTION_SET_ID),
+                                resultSet.getString(QUESTION_ID), questionText, resultSet.getString(LOCALE)));
+                    }
+                }
+                for (; nextTenant < tenantIds.size(); nextTenant++) {
+                    challengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+                    consumer.accept(tenantIds.get(nextTenant), challengeQuestions);
+                    challengeQuestions = new ArrayList<>();
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException | DataAccessException | IdentityRecoveryException | RuntimeException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException | DataAccessException e) {
+            throw handleServerException(
+                    ChallengeQuestionsConstants.ErrorMessages.ERROR_CODE_DATABASE_EXCEPTION_GET_CHALLENGE_QUESTIONS,
+                    null, e);
         }
     }
 
+    /**
+     * Get the number of rows to fetch per round trip when streaming the challenge questions. The MySQL driver reads
+     * the whole result set into memory unless the fetch size is Integer.MIN_VALUE, which makes it stream row by row.
+     *
+     * @return Fetch size.
+     * @throws DataAccessException If an error occurs while resolving the database type.
+     */
+    private int getStreamingFetchSize() throws DataAccessException {
+
+        if (JdbcUtils.isMySQLDB()) {
+            return Integer.MIN_VALUE;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                getLongProperty(STREAMING_READ_FETCH_SIZE, DEFAULT_STREAMING_READ_FETCH_SIZE)));
+    }
+
     /**
      * Check whether a challenge question exists in the tenant domain. Here we check whether a question exists with the
      * given questionSetID, questionID and locale, if provided.
@@ -310,15 +950,108 @@ public class JDBCChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         return questionId != null;
     }
 
+    /**
+     * Get the challenge questions which exist in the tenant domain, out of the given challenge questions. A question
+     * with a locale exists if a question with the same questionSetID, questionID and locale exists, while a question
+     * without a locale exists if the question exists in any locale. The existing questions of the tenant are
+     * resolved with a single query.
+     *
+     * @param challengeQuestions Challenge questions to be checked.
+     * @param tenantDomain       Tenant domain of the user.
+     * @return Existing challenge questions, in the given order.
+     * @throws IdentityRecoveryClientException If a challenge question is invalid.
+     * @throws DataAccessException             If a data access error occurs while checking the challenge questions.
+     */
+    public List<ChallengeQuestion> getExistingChallengeQuestions(ChallengeQuestion[] challengeQuestions,
+                                                                 String tenantDomain)
+            throws IdentityRecoveryClientException, DataAccessException {
+
+        List<ChallengeQuestion> existingQuestions = new ArrayList<>();
+        if (challengeQuestions == null || challengeQuestions.length == 0) {
+            return existingQuestions;
+        }
+        Set<ChallengeQuestionKey> existingKeys = new HashSet<>();
+        for (ChallengeQuestionKey key : getChallengeQuestionKeys(IdentityTenantUtil.getTenantId(tenantDomain))) {
+            existingKeys.add(key);
+            // Also index the question without the locale to match questions deleted from every locale.
+            existingKeys.add(new ChallengeQuestionKey(key.questionSetId, key.questionId, null));
+        }
+        for (ChallengeQuestion challengeQuestion : challengeQuestions) {
+            validateChallengeQuestionMandatoryParams(challengeQuestion);
+            String locale = StringUtils.isNotEmpty(challengeQuestion.getLocale()) ?
+                    validateLocale(challengeQuestion.getLocale()) : null;
+            if (existingKeys.contains(new ChallengeQuestionKey(challengeQuestion.getQuestionSetId(),
+                    challengeQuestion.getQuestionId(), locale))) {
+                existingQuestions.add(challengeQuestion);
+            }
+        }
+        return existingQuestions;
+    }
+
     public boolean isChallengeQuestionSetExists(String challengeQuestionUri, String tenantDomain)
             throws DataAccessException {
 
         NamedJdbcTemplate namedJdbcTemplate = JdbcUtils.getNewNamedJdbcTemplate();
-        Integer questionId = namedJdbcTemplate.fetchSingleRecord(GET_CHALLENGE_QUESTION_SET,
-                (resultSet, rowNumber) -> resultSet.getInt(1), namedPreparedStatement -> {
+        String questionSetId = namedJdbcTemplate.fetchSingleRecord(PROBE_CHALLENGE_QUESTION_SET +
+                        getPageLimitClause(), (resultSet, rowNumber) -> resultSet.getString(QUESTION_SET_ID),
+                namedPreparedStatement -> {
                     namedPreparedStatement.setInt(TENANT_ID, IdentityTenantUtil.getTenantId(tenantDomain));
                     namedPreparedStatement.setString(QUESTION_SET_ID, challengeQuestionUri);
+                    namedPreparedStatement.setInt(LIMIT, 1);
                 });
-        return questionId != null;
+        return questionSetId != null;
+    }
+
+    /**
+     * Unique key of a challenge question within a tenant.
+     */
+    /**
+     * A write of the challenge question data of a tenant, run in a transaction shared with other writes.
+     */
+    @FunctionalInterface
+    public interface ChallengeQuestionWrite {
+
+        /**
+         * Run the write in the transaction.
+         *
+         * @param template Template of the transaction.
+         * @param tenantId Tenant ID.
+         * @throws DataAccessException If an error occurs while writing.
+         */
+        void write(NamedTemplate<?> template, int tenantId) throws DataAccessException;
+    }
+
+    private static final class ChallengeQuestionKey {
+
+        private final String questionSetId;
+        private final String questionId;
+        private final String locale;
+
+        private ChallengeQuestionKey(String questionSetId, String questionId, String locale) {
+
+            this.questionSetId = questionSetId;
+            this.questionId = questionId;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChallengeQuestionKey)) {
+                return false;
+            }
+            ChallengeQuestionKey that = (ChallengeQuestionKey) o;
+            return Objects.equals(questionSetId, that.questionSetId) && Objects.equals(questionId, that.questionId)
+                    && Objects.equals(locale, that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(questionSetId, questionId, locale);
+        }
     }
 }
@@ -39,15 +39,32 @@ import org.wso2.carbon.registry.core.exceptions.RegistryException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.DEFAULT_REGISTRY_READ_PARALLEL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.DEFAULT_REGISTRY_READ_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.DEFAULT_REGISTRY_READ_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.REGISTRY_READ_PARALLEL;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.REGISTRY_READ_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryReadConfig.REGISTRY_READ_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.newBoundedExecutor;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeSetURI;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeQuestionAttributes;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeQuestionMandatoryParams;
 import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateLocale;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.withTenantFlow;
 
 /**
- * Registry implementation of the ChallengeQuestionDAO interface.
+ * Registry implementation of the ChallengeQuestionDAO interface. When parallel traversal is enabled, the question set
+ * and question collections of each level of the question tree are fetched concurrently on a shared bounded executor,
+ * while the results keep the order of the sequential traversal.
  */
 public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
@@ -55,6 +72,7 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
     private IdentityRecoveryServiceDataHolder dataHolder = IdentityRecoveryServiceDataHolder.getInstance();
     private RegistryResourceMgtService resourceMgtService = dataHolder.getResourceMgtService();
+    boolean parallelTraversalEnabled = getBooleanProperty(REGISTRY_READ_PARALLEL, DEFAULT_REGISTRY_READ_PARALLEL);
 
     public RegistryChallengeQuestionDAOImpl() {
 
@@ -67,25 +85,35 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
 
         try {
-            Resource questionCollection = resourceMgtService.getIdentityResource(QUESTIONS_BASE_PATH, tenantDomain);
-            if (questionCollection != null) {
-                Collection questionSetCollection = (Collection) questionCollection;
+            List<String> questionIdPaths = getQuestionIdPaths(tenantDomain);
+            for (List<ChallengeQuestion> questions : readPaths(questionIdPaths,
+                    questionIdPath -> getChallengeQuestionsOfAllLocales(questionIdPath, tenantDomain))) {
+                challengeQuestions.addAll(questions);
+            }
+            return challengeQuestions;
+        } catch (RegistryException e) {
+            throw Utils.handleServerException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
+                    e);
+        }
+    }
 
-                for (String questionSetId : questionSetCollection.getChildren()) {
-                    Collection questionIdCollection =
-                            (Collection) resourceMgtService.getIdentityResource(questionSetId, tenantDomain);
-                    // Iterate each question to find the one with correct locale
-                    for (String questionIdPath : questionIdCollection.getChildren()) {
-                        Collection questions =
-                                (Collection) resourceMgtService.getIdentityResource(questionIdPath, tenantDomain);
-                        for (String question : questions.getChildren()) {
-                            Resource resource = resourceMgtService.getIdentityResource(question, tenantDomain);
-                            if (resource != null) {
-                                challengeQuestions.add(createChallengeQuestion(resource));
-                            }
-                        }
-                    }
-                }
+    /**
+     * Get the challenge questions of a question set in all locales.
+     *
+     * @param challengeSetUri Challenge question set URI.
+     * @param tenantDomain    Tenant domain.
+     * @return Challenge questions of the set, or an empty list if the set does not exist.
+     * @throws IdentityRecoveryServerException If an error occurs while reading the registry.
+     */
+    public List<ChallengeQuestion> getChallengeQuestionsOfSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryServerException {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        try {
+            String questionSetPath = getQuestionSetPath(challengeSetUri);
+            if (resourceMgtService.getIdentityResource(questionSetPath, tenantDomain) != null) {
+                addChallengeQuestionsOfSet(questionSetPath, tenantDomain, challengeQuestions);
             }
             return challengeQuestions;
         } catch (RegistryException e) {
@@ -101,23 +129,48 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
         List<ChallengeQuestion> questions = new ArrayList<>();
         try {
-            Resource questionCollection = resourceMgtService.getIdentityResource(QUESTIONS_BASE_PATH, tenantDomain);
-            if (questionCollection != null) {
-                Collection questionSetCollection = (Collection) questionCollection;
+            List<String> questionIdPaths = getQuestionIdPaths(tenantDomain);
+            for (Resource questionResource : readPaths(questionIdPaths,
+                    questionIdPath -> resourceMgtService.getIdentityResource(questionIdPath, tenantDomain, locale))) {
+                if (questionResource != null) {
+                    questions.add(createChallengeQuestion(questionResource));
+                }
+            }
+        } catch (RegistryException e) {
+            throw Utils.handleServerException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
+                    e);
+        }
 
-                for (String questionSetId : questionSetCollection.getChildren()) {
-                    Collection questionIdCollection =
-                            (Collection) resourceMgtService.getIdentityResource(questionSetId, tenantDomain);
-                    for (String questionIdPath : questionIdCollection.getChildren()) {
-                        Resource questionResource =
-                                resourceMgtService.getIdentityResource(questionIdPath, tenantDomain, locale);
-                        if (questionResource != null) {
-                            questions.add(createChallengeQuestion(questionResource));
-                        }
+        return questions;
+    }
+
+    /**
+     * Get the challenge questions of all the given locales, listing the question tree only once.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestionsOfLocales(String tenantDomain, List<String> locales)
+            throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> questions = new ArrayList<>();
+        if (locales.isEmpty()) {
+            return questions;
+        }
+        try {
+            List<String> questionIdPaths = getQuestionIdPaths(tenantDomain);
+            for (List<Resource> questionResources : readPaths(questionIdPaths, questionIdPath -> {
+                List<Resource> resources = new ArrayList<>(locales.size());
+                for (String locale : locales) {
+                    resources.add(resourceMgtService.getIdentityResource(questionIdPath, tenantDomain, locale));
+                }
+                return resources;
+            })) {
+                for (Resource questionResource : questionResources) {
+                    if (questionResource != null) {
+                        questions.add(createChallengeQuestion(questionResource));
                     }
                 }
             }
-
         } catch (RegistryException e) {
             throw Utils.handleServerException(
                     IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
@@ -127,6 +180,39 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         return questions;
     }
 
+    /**
+     * Get a page of the challenge questions of a tenant. The question tree is walked from the cursor question and the
+     * walk stops once the page is full.
+     */
+    @Override
+    public List<ChallengeQuestion> getChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                                         int limit) throws IdentityRecoveryException {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        if (limit <= 0) {
+            return challengeQuestions;
+        }
+        walkChallengeQuestions(tenantDomain, locale, after, question -> {
+            challengeQuestions.add(question);
+            return challengeQuestions.size() < limit;
+        });
+        return challengeQuestions;
+    }
+
+    /**
+     * Stream the challenge questions of a tenant by walking the question tree, holding only the locales of the
+     * current question in memory.
+     */
+    @Override
+    public void forEachChallengeQuestion(String tenantDomain, String locale, ChallengeQuestionConsumer consumer)
+            throws IdentityRecoveryException {
+
+        walkChallengeQuestions(tenantDomain, locale, null, question -> {
+            consumer.accept(question);
+            return true;
+        });
+    }
+
     @Override
     public List<String> getAllChallengeQuestionSetsURIs(String tenantDomain) throws IdentityRecoveryServerException {
 
@@ -150,6 +236,72 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         }
     }
 
+    /**
+     * Get the URIs of the challenge question sets having questions in a locale. The questions of each set are probed
+     * for the locale until one is found, instead of reading every question of the set.
+     */
+    @Override
+    public List<String> getChallengeQuestionSetURIs(String tenantDomain, String locale)
+            throws IdentityRecoveryException {
+
+        List<String> challengeSetURIs = new ArrayList<>();
+        try {
+            Resource questionCollection = resourceMgtService.getIdentityResource(QUESTIONS_BASE_PATH, tenantDomain);
+            if (questionCollection == null) {
+                return challengeSetURIs;
+            }
+            for (String questionSetPath : getSortedChildren((Collection) questionCollection)) {
+                Collection questionIdCollection =
+                        (Collection) resourceMgtService.getIdentityResource(questionSetPath, tenantDomain);
+                for (String questionIdPath : questionIdCollection.getChildren()) {
+                    if (resourceMgtService.getIdentityResource(questionIdPath, tenantDomain, locale) != null) {
+                        challengeSetURIs.add(questionSetPath.replace(QUESTIONS_BASE_PATH,
+                                IdentityRecoveryConstants.WSO2CARBON_CLAIM_DIALECT));
+                        break;
+                    }
+                }
+            }
+            return challengeSetURIs;
+        } catch (RegistryException e) {
+            throw Utils.handleServerException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
+                    e);
+        }
+    }
+
+    /**
+     * Get the ids of the questions of a challenge question set from the names of the question collections, without
+     * reading the questions.
+     */
+    @Override
+    public List<String> getChallengeQuestionIds(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        List<String> questionIds = new ArrayList<>();
+        try {
+            Resource questionIdCollection =
+                    resourceMgtService.getIdentityResource(getQuestionSetPath(challengeSetUri), tenantDomain);
+            if (questionIdCollection == null) {
+                return questionIds;
+            }
+            for (String questionIdPath : getSortedChildren((Collection) questionIdCollection)) {
+                questionIds.add(getPathName(questionIdPath));
+            }
+            return questionIds;
+        } catch (RegistryException e) {
+            throw Utils.handleServerException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
+                    e);
+        }
+    }
+
+    @Override
+    public boolean hasChallengeQuestionSet(String challengeSetUri, String tenantDomain)
+            throws IdentityRecoveryException {
+
+        return isChallengeQuestionSetExists(challengeSetUri, tenantDomain);
+    }
+
     @Override
     public void addChallengeQuestions(ChallengeQuestion[] questions, String tenantDomain)
             throws IdentityRecoveryException {
@@ -221,6 +373,206 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
         }
     }
 
+    /**
+     * Walk the challenge questions of a tenant in the order of ChallengeQuestion.KEY_ORDER. The question set and
+     * question collections are walked in order from the cursor question, skipping the preceding collections by name
+     * without fetching their questions.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Challenge questions locale, or null to walk the challenge questions of all locales.
+     * @param after        Question after which the walk starts, or null to start from the first question.
+     * @param visitor      Visitor of the challenge questions, which ends the walk by returning false.
+     * @throws IdentityRecoveryException If an error occurs while reading the registry, or if the visitor fails.
+     */
+    private void walkChallengeQuestions(String tenantDomain, String locale, ChallengeQuestion after,
+                                        ChallengeQuestionVisitor visitor) throws IdentityRecoveryException {
+
+        String afterQuestionSetDir = after == null ? null : Utils.getChallengeSetDirFromUri(after.getQuestionSetId());
+        try {
+            Resource questionCollection = resourceMgtService.getIdentityResource(QUESTIONS_BASE_PATH, tenantDomain);
+            if (questionCollection == null) {
+                return;
+            }
+            for (String questionSetPath : getSortedChildren((Collection) questionCollection)) {
+                int setOrder = afterQuestionSetDir == null ? 1 : getPathName(questionSetPath)
+                        .compareTo(afterQuestionSetDir);
+                if (setOrder < 0) {
+                    continue;
+                }
+                Collection questionIdCollection =
+                        (Collection) resourceMgtService.getIdentityResource(questionSetPath, tenantDomain);
+                for (String questionIdPath : getSortedChildren(questionIdCollection)) {
+                    if (setOrder == 0 && getPathName(questionIdPath).compareTo(after.getQuestionId()) < 0) {
+                        continue;
+                    }
+                    List<ChallengeQuestion> questions = new ArrayList<>();
+                    if (StringUtils.isEmpty(locale)) {
+                        questions.addAll(getChallengeQuestionsOfAllLocales(questionIdPath, tenantDomain));
+                    } else {
+                        Resource questionResource =
+                                resourceMgtService.getIdentityResource(questionIdPath, tenantDomain, locale);
+                        if (questionResource != null) {
+                            questions.add(createChallengeQuestion(questionResource));
+                        }
+                    }
+                    // Resources without a question set id are not challenge questions.
+                    questions.removeIf(Objects::isNull);
+                    questions.sort(ChallengeQuestion.KEY_ORDER);
+                    for (ChallengeQuestion question : questions) {
+                        if (after != null && ChallengeQuestion.KEY_ORDER.compare(question, after) <= 0) {
+                            continue;
+                        }
+                        if (!visitor.visit(question)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        } catch (RegistryException e) {
+            throw Utils.handleServerException(
+                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_REGISTRY_EXCEPTION_GET_CHALLENGE_QUESTIONS, null,
+                    e);
+        }
+    }
+
+    /**
+     * Add the challenge questions of all the locales of a question set to the given list.
+     *
+     * @param questionSetPath    Registry path of the question set.
+     * @param tenantDomain       Tenant domain.
+     * @param challengeQuestions List to add the challenge questions to.
+     * @throws RegistryException If an error occurs while reading the registry.
+     */
+    private void addChallengeQuestionsOfSet(String questionSetPath, String tenantDomain,
+                                            List<ChallengeQuestion> challengeQuestions) throws RegistryException {
+
+        Collection questionIdCollection =
+                (Collection) resourceMgtService.getIdentityResource(questionSetPath, tenantDomain);
+        for (List<ChallengeQuestion> questions : readPaths(Arrays.asList(questionIdCollection.getChildren()),
+                questionIdPath -> getChallengeQuestionsOfAllLocales(questionIdPath, tenantDomain))) {
+            challengeQuestions.addAll(questions);
+        }
+    }
+
+    /**
+     * Get the challenge questions of all the locales of a question.
+     *
+     * @param questionIdPath Registry path of the question.
+     * @param tenantDomain   Tenant domain.
+     * @return Challenge questions of the question in all locales.
+     * @throws RegistryException If an error occurs while reading the registry.
+     */
+    private List<ChallengeQuestion> getChallengeQuestionsOfAllLocales(String questionIdPath, String tenantDomain)
+            throws RegistryException {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        Collection questions = (Collection) resourceMgtService.getIdentityResource(questionIdPath, tenantDomain);
+        // Iterate each question to find the one with correct locale
+        for (String question : questions.getChildren()) {
+            Resource resource = resourceMgtService.getIdentityResource(question, tenantDomain);
+            if (resource != null) {
+                challengeQuestions.add(createChallengeQuestion(resource));
+            }
+        }
+        return challengeQuestions;
+    }
+
+    /**
+     * Get the registry paths of all the questions of a tenant, in the order of their question sets.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Registry paths of the questions.
+     * @throws RegistryException If an error occurs while reading the registry.
+     */
+    private List<String> getQuestionIdPaths(String tenantDomain) throws RegistryException {
+
+        List<String> questionIdPaths = new ArrayList<>();
+        Resource questionCollection = resourceMgtService.getIdentityResource(QUESTIONS_BASE_PATH, tenantDomain);
+        if (questionCollection == null) {
+            return questionIdPaths;
+        }
+        Collection questionSetCollection = (Collection) questionCollection;
+        for (String[] questionSetChildren : readPaths(Arrays.asList(questionSetCollection.getChildren()),
+                questionSetPath -> ((Collection) resourceMgtService.getIdentityResource(questionSetPath,
+                        tenantDomain)).getChildren())) {
+            questionIdPaths.addAll(Arrays.asList(questionSetChildren));
+        }
+        return questionIdPaths;
+    }
+
+    /**
+     * Get the child paths of a registry collection in their natural order.
+     *
+     * @param collection Registry collection.
+     * @return Sorted child paths.
+     * @throws RegistryException If an error occurs while reading the registry.
+     */
+    private static String[] getSortedChildren(Collection collection) throws RegistryException {
+
+        String[] children = collection.getChildren().clone();
+        Arrays.sort(children);
+        return children;
+    }
+
+    /**
+     * Get the last segment of a registry path.
+     *
+     * @param path Registry path.
+     * @return Name of the resource at the path.
+     */
+    private static String getPathName(String path) {
+
+        return path.substring(path.lastIndexOf(RegistryConstants.PATH_SEPARATOR) + 1);
+    }
+
+    /**
+     * Read the given registry paths, concurrently if parallel traversal is enabled. The reads run in the tenant flow
+     * of the calling thread.
+     *
+     * @param paths Registry paths to read.
+     * @param read  Read of a single path.
+     * @return Results of the reads, in the order of the given paths.
+     * @throws RegistryException If an error occurs while reading the registry.
+     */
+    private <T> List<T> readPaths(List<String> paths, RegistryRead<T> read) throws RegistryException {
+
+        List<T> results = new ArrayList<>(paths.size());
+        if (!parallelTraversalEnabled || paths.size() <= 1) {
+            for (String path : paths) {
+                results.add(read.read(path));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(paths.size());
+        try {
+            for (String path : paths) {
+                futures.add(RegistryReadExecutorHolder.EXECUTOR.submit(withTenantFlow(() -> read.read(path))));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistryException("Interrupted while reading the challenge questions from the registry.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RegistryException) {
+                throw (RegistryException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RegistryException("Error while reading the challenge questions from the registry.", cause);
+        } finally {
+            // Cancel the reads which are still pending when one of the reads failed.
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     /**
      * Delete challenge questions by locale.
      *
@@ -367,4 +719,33 @@ public class RegistryChallengeQuestionDAOImpl implements ChallengeQuestionDAO {
 
         return QUESTIONS_BASE_PATH + RegistryConstants.PATH_SEPARATOR + questionSetId;
     }
+
+    /**
+     * Read of a registry path.
+     */
+    @FunctionalInterface
+    private interface RegistryRead<T> {
+
+        T read(String path) throws RegistryException;
+    }
+
+    /**
+     * Visitor of the challenge questions of a registry walk.
+     */
+    @FunctionalInterface
+    private interface ChallengeQuestionVisitor {
+
+        boolean visit(ChallengeQuestion challengeQuestion) throws IdentityRecoveryException;
+    }
+
+    /**
+     * Lazily created executor shared by all the registry DAO instances. It is separate from the hybrid read executor
+     * as the hybrid DAO waits on the registry read, which in turn waits on these reads.
+     */
+    private static final class RegistryReadExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = newBoundedExecutor("RegistryChallengeQuestionReader",
+                (int) getLongProperty(REGISTRY_READ_POOL_SIZE, DEFAULT_REGISTRY_READ_POOL_SIZE),
+                (int) getLongProperty(REGISTRY_READ_QUEUE_CAPACITY, DEFAULT_REGISTRY_READ_QUEUE_CAPACITY));
+    }
 }
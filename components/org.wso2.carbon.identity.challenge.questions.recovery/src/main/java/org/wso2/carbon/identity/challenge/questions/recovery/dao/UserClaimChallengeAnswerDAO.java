@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimReader;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+import org.wso2.carbon.user.api.UserStoreException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.removeClaimFromUserStoreManager;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.setClaimsListOfUser;
+
+/**
+ * ChallengeAnswerDAO which stores the answer to a challenge set in the user claim of the challenge set, as the
+ * question and the answer hash joined by the challenge question separator, and the answered challenge sets in the
+ * challenge question URI claim. This is the default challenge answer storage.
+ */
+public class UserClaimChallengeAnswerDAO implements ChallengeAnswerDAO {
+
+    private final UserClaimReader claimReader;
+
+    public UserClaimChallengeAnswerDAO(UserClaimReader claimReader) {
+
+        this.claimReader = claimReader;
+    }
+
+    @Override
+    public List<String> getAnsweredChallengeSetUris(User user) throws IdentityRecoveryException {
+
+        String claimValue;
+        try {
+            claimValue = claimReader.getClaimValue(user, IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
+        } catch (UserStoreException e) {
+            throw handleServerException(IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_GETTING_CHALLENGE_URIS,
+                    user.getUserName(), e);
+        }
+
+        List<String> challengeSetUris = new ArrayList<>();
+        if (claimValue != null) {
+            String[] challengesUris;
+            String challengeQuestionSeparator = getChallengeSeparator();
+            if (claimValue.contains(challengeQuestionSeparator)) {
+                challengesUris = claimValue.split(challengeQuestionSeparator);
+            } else {
+                challengesUris = new String[]{claimValue.trim()};
+            }
+
+            for (String challengesUri : challengesUris) {
+                if (StringUtils.isNotBlank(challengesUri)) {
+                    challengeSetUris.add(challengesUri.trim());
+                }
+            }
+        }
+        return challengeSetUris;
+    }
+
+    /**
+     * Get the answered challenge set URIs claim and the answer claims of every challenge set of the tenant.
+     */
+    @Override
+    public List<String> getKnownClaims(User user, Supplier<List<String>> challengeSetUris) {
+
+        List<String> claimUris = new ArrayList<>();
+        claimUris.add(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
+        claimUris.addAll(challengeSetUris.get());
+        return claimUris;
+    }
+
+    @Override
+    public Map<String, UserChallengeAnswer> getChallengeAnswers(User user, List<String> challengeSetUris)
+            throws IdentityRecoveryException {
+
+        Map<String, UserChallengeAnswer> challengeAnswers = new LinkedHashMap<>();
+        if (challengeSetUris.isEmpty()) {
+            return challengeAnswers;
+        }
+
+        // Load the answers of all the challenge sets with a single user store call.
+        Map<String, String> challengeValues;
+        try {
+            challengeValues = claimReader.getClaimValues(user, challengeSetUris);
+        } catch (IdentityRecoveryServerException e) {
+            throw handleServerException(IdentityRecoveryConstants.ErrorMessages
+                    .ERROR_CODE_GETTING_CHALLENGE_QUESTIONS, user.getUserName(), e);
+        }
+
+        String challengeQuestionSeparator = getChallengeSeparator();
+        for (String challengeSetUri : challengeSetUris) {
+            String challengeValue = challengeValues == null ? null : challengeValues.get(challengeSetUri);
+            if (StringUtils.isBlank(challengeValue)) {
+                continue;
+            }
+
+            String[] challengeValueParts = challengeValue.split(challengeQuestionSeparator);
+            if (challengeValueParts.length == 2) {
+                ChallengeQuestion challengeQuestion = new ChallengeQuestion(challengeSetUri,
+                        challengeValueParts[0].trim());
+                challengeAnswers.put(challengeSetUri,
+                        new UserChallengeAnswer(challengeQuestion, challengeValueParts[1].trim()));
+            }
+        }
+        return challengeAnswers;
+    }
+
+    @Override
+    public void setChallengeAnswers(User user, List<UserChallengeAnswer> challengeAnswers,
+                                    Collection<String> answeredChallengeSetUris) throws IdentityRecoveryException {
+
+        String separator = getChallengeSeparator();
+        // Write the answers and the answered set URIs together, so that they are never out of step.
+        Map<String, String> claimsToUpdate = new HashMap<>();
+        for (UserChallengeAnswer challengeAnswer : challengeAnswers) {
+            claimsToUpdate.put(challengeAnswer.getQuestion().getQuestionSetId(),
+                    challengeAnswer.getQuestion().getQuestion().trim() + separator + challengeAnswer.getAnswer());
+        }
+        claimsToUpdate.put(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI,
+                getUserChallengesUriValue(answeredChallengeSetUris, separator));
+        try {
+            setClaimsListOfUser(user, claimsToUpdate);
+        } finally {
+            UserClaimContext.invalidateCurrent(user);
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswer(User user, String challengeSetUri, Collection<String> answeredChallengeSetUris)
+            throws IdentityRecoveryException {
+
+        Map<String, String> claimsToUpdate = new HashMap<>();
+        claimsToUpdate.put(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI,
+                getUserChallengesUriValue(answeredChallengeSetUris, getChallengeSeparator()));
+        try {
+            setClaimsListOfUser(user, claimsToUpdate);
+            removeClaimFromUserStoreManager(user, new String[]{challengeSetUri});
+        } catch (UserStoreException e) {
+            throw handleServerException(IdentityRecoveryConstants.ErrorMessages
+                    .ERROR_CODE_REMOVING_CHALLENGE_QUESTIONS, user.getUserName(), e);
+        } finally {
+            UserClaimContext.invalidateCurrent(user);
+        }
+    }
+
+    @Override
+    public void removeChallengeAnswers(User user) throws IdentityRecoveryException {
+
+        List<String> challengesUris = getAnsweredChallengeSetUris(user);
+        challengesUris.add(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
+        try {
+            removeClaimFromUserStoreManager(user, challengesUris.toArray(new String[0]));
+        } catch (UserStoreException e) {
+            throw handleServerException(IdentityRecoveryConstants.ErrorMessages
+                    .ERROR_CODE_REMOVING_CHALLENGE_QUESTIONS, user.getUserName(), e);
+        } finally {
+            UserClaimContext.invalidateCurrent(user);
+        }
+    }
+
+    private String getUserChallengesUriValue(Collection<String> challengesUris, String separator) {
+
+        return StringUtils.join(challengesUris, separator);
+    }
+
+    private String getChallengeSeparator() {
+
+        String separator = IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
+                .QUESTION_CHALLENGE_SEPARATOR);
+        if (StringUtils.isEmpty(separator)) {
+            separator = IdentityRecoveryConstants.DEFAULT_CHALLENGE_QUESTION_SEPARATOR;
+        }
+        return separator;
+    }
+}
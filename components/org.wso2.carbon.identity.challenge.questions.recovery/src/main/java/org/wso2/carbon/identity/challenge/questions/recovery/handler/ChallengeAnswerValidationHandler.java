@@ -33,16 +33,18 @@ import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.ChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.DigestChallengeAnswerHasher;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
 import org.wso2.carbon.identity.recovery.util.Utils;
-import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserStoreManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -195,21 +197,27 @@ public class ChallengeAnswerValidationHandler extends AbstractEventHandler {
                                                    List<UserChallengeAnswer> existingChallengeAnswers)
             throws IdentityRecoveryServerException, IdentityRecoveryClientException {
 
-        Set<String> uniqueChallengeAnswerHashSet = new HashSet<>();
+        // Existing answers may be hashed with different algorithms, so they are grouped by algorithm and each new
+        // answer is hashed once per algorithm rather than once per existing answer.
+        ChallengeAnswerHasher answerHasher = DigestChallengeAnswerHasher.getInstance();
+        Map<String, Set<String>> existingAnswerHashes = new HashMap<>();
         for (UserChallengeAnswer existingChallengeAnswer : existingChallengeAnswers) {
-            uniqueChallengeAnswerHashSet.add(existingChallengeAnswer.getAnswer().trim());
+            String storedHash = existingChallengeAnswer.getAnswer().trim();
+            existingAnswerHashes.computeIfAbsent(answerHasher.getAlgorithm(storedHash), algorithm -> new HashSet<>())
+                    .add(storedHash);
         }
-
-        String hashedNewChallengeAnswer;
+        Set<String> uniqueNewChallengeAnswers = new HashSet<>();
         for (UserChallengeAnswer userChallengeAnswer : newChallengeAnswers) {
             String challengeQuestion = userChallengeAnswer.getQuestion().getQuestion();
-            try {
-                hashedNewChallengeAnswer = Utils.doHash(userChallengeAnswer.getAnswer().trim().toLowerCase());
-            } catch (UserStoreException e) {
-                throw Utils.handleServerException(
-                        IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_NO_HASHING_ALGO, null);
+            String normalizedNewChallengeAnswer = answerHasher.normalize(userChallengeAnswer.getAnswer());
+            boolean unique = uniqueNewChallengeAnswers.add(normalizedNewChallengeAnswer);
+            for (Iterator<Map.Entry<String, Set<String>>> iterator = existingAnswerHashes.entrySet().iterator();
+                 unique && iterator.hasNext(); ) {
+                Map.Entry<String, Set<String>> algorithmHashes = iterator.next();
+                unique = !algorithmHashes.getValue().contains(
+                        answerHasher.hash(normalizedNewChallengeAnswer, algorithmHashes.getKey()));
             }
-            if (!uniqueChallengeAnswerHashSet.add(hashedNewChallengeAnswer)) {
+            if (!unique) {
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("The challenge question answer is not unique. The given answer for " +
                                     "the challenge question '%s' has been used more than once.", challengeQuestion));
@@ -31,33 +31,23 @@ import org.wso2.carbon.identity.application.authentication.framework.model.Authe
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.application.common.model.IdentityProviderProperty;
 import org.wso2.carbon.identity.application.common.model.User;
-import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
-import org.wso2.carbon.identity.mgt.util.Utils;
 import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
-import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
 import org.wso2.carbon.idp.mgt.IdentityProviderManager;
-import org.wso2.carbon.user.api.UserStoreException;
-import org.wso2.carbon.user.core.UserCoreConstants;
-import org.wso2.carbon.user.core.UserStoreManager;
-import org.wso2.carbon.user.core.service.RealmService;
-import org.wso2.carbon.user.core.util.UserCoreUtil;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
@@ -229,7 +219,7 @@ public class PostAuthnMissingChallengeQuestionsHandler extends AbstractPostAuthn
                                                  String minimumForcedChallengeQuestionsAnswered) {
 
         int questionsAnswered = getUserAnsweredChallengeSetUris(user).size();
-        int challengeQuestionSets = getChallengeSetUris(user).size();
+        int challengeQuestionSets = getChallengeQuestionSetCount(user);
         /* If "Minimum Number of Forced Challenge Questions to be Answered" property is not configured,
         check whether the user has answered for at least one question. As "Minimum Number of Forced Challenge
         Questions to be Answered" property has a default value "1", the property not configured scenario
@@ -264,88 +254,37 @@ public class PostAuthnMissingChallengeQuestionsHandler extends AbstractPostAuthn
     }
 
     /**
-     * Return a list of challenge questions set URIs for a given user.
+     * Return the number of challenge question sets available for a given user.
      *
      * @param user Authenticated User.
-     * @return List of Challenge question sets URI.
+     * @return Number of challenge question sets.
      */
-    private List<String> getChallengeSetUris(AuthenticatedUser user) {
+    private int getChallengeQuestionSetCount(AuthenticatedUser user) {
 
-        List<ChallengeQuestion> challengeQuestions = getChallengeQuestions(user);
-        HashSet<String> questionSetNames = new HashSet<>();
-        if (CollectionUtils.isEmpty(challengeQuestions)) {
-            return new ArrayList<>();
-        }
-        for (ChallengeQuestion question : challengeQuestions) {
-            if (StringUtils.isNotBlank(question.getQuestionSetId())) {
-                questionSetNames.add(question.getQuestionSetId());
-            }
+        try {
+            return ChallengeQuestionManager.getInstance().getChallengeQuestionSetCount(user.getTenantDomain());
+        } catch (IdentityRecoveryServerException e) {
+            log.error("Identity recovery server error occurred for user:" + user.getUserName(), e);
+            return 0;
         }
-        List<String> challengeSetUriList = new ArrayList<>(questionSetNames);
-        Collections.sort(challengeSetUriList);
-        return challengeSetUriList;
     }
 
     /**
-     * Return a list of challenge question sets URIs that user answered.
+     * Return a list of challenge question sets URIs that user answered, read from the configured challenge answer
+     * store.
      *
      * @param user Authenticated user.
      * @return List of challenge question set URIs answered by user.
-     * @throws IdentityException  Exception occurred while retrieving tenant ID for the user.
-     * @throws UserStoreException Exception occurred while retrieving tenant ID for the user.
      */
     private List<String> getUserAnsweredChallengeSetUris(AuthenticatedUser user) {
 
-        List<String> questionSetsAnswered = new ArrayList<>();
-        String userName = UserCoreUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
-        try {
-            int tenantId = Utils.getTenantId(user.getTenantDomain());
-            UserStoreManager userStoreManager = getUserStoreManager(tenantId);
-            if (userStoreManager != null) {
-                Map<String, String> claimsMap = userStoreManager
-                        .getUserClaimValues(userName, new String[]{IdentityRecoveryConstants.CHALLENGE_QUESTION_URI},
-                                UserCoreConstants.DEFAULT_PROFILE);
-                String claimValue = claimsMap.get(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI);
-                if (StringUtils.isBlank(claimValue)) {
-                    return questionSetsAnswered;
-                }
-                questionSetsAnswered =
-                        Arrays.asList(claimValue.split(IdentityRecoveryConstants.DEFAULT_CHALLENGE_QUESTION_SEPARATOR));
-            }
-        } catch (IdentityException | UserStoreException e) {
-            log.error("Exception occurred while retrieving tenant ID for the user :" + userName, e);
-        }
-        return questionSetsAnswered;
-    }
-
-    /**
-     * Get UserStoreManager.
-     *
-     * @param tenantId Tenant id.
-     * @return UserStoreManager object.
-     * @throws IdentityRecoveryServerException Error getting UserStoreManager
-     */
-    private UserStoreManager getUserStoreManager(int tenantId) throws IdentityRecoveryServerException {
-
-        UserStoreManager userStoreManager;
-        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
         try {
-            if (realmService.getTenantUserRealm(tenantId) != null) {
-                userStoreManager = (UserStoreManager) realmService.getTenantUserRealm(tenantId).
-                        getUserStoreManager();
-            } else {
-                throw org.wso2.carbon.identity.recovery.util.Utils.handleServerException(
-                        IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_ERROR_GETTING_USERSTORE_MANAGER, null);
-            }
-        } catch (UserStoreException e) {
-            if (log.isDebugEnabled()) {
-                String error = String.format("Error retrieving the user store manager for the tenant : %s", tenantId);
-                log.debug(error, e);
-            }
-            throw org.wso2.carbon.identity.recovery.util.Utils.handleServerException(
-                    IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_ERROR_GETTING_USERSTORE_MANAGER, null, e);
+            return ChallengeQuestionManager.getInstance().getChallengeQuestionUris(user);
+        } catch (IdentityRecoveryException e) {
+            log.error("Error while retrieving the answered challenge question sets of the user :" +
+                    user.getUserName(), e);
+            return new ArrayList<>();
         }
-        return userStoreManager;
     }
 
     /**
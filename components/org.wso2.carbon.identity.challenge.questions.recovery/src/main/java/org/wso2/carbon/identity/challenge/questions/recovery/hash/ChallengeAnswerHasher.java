@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.hash;
+
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+/**
+ * This interface is used to hash challenge answers for storage and to verify submitted answers against stored hashes.
+ * A stored hash describes the algorithm which produced it, so that answers hashed with an earlier algorithm can still
+ * be verified after the configured algorithm changes.
+ */
+public interface ChallengeAnswerHasher {
+
+    /**
+     * Get the algorithm used to hash new answers.
+     *
+     * @return Hash algorithm.
+     */
+    String getAlgorithm();
+
+    /**
+     * Get the algorithm which produced a stored hash.
+     *
+     * @param storedHash Stored answer hash.
+     * @return Hash algorithm.
+     */
+    String getAlgorithm(String storedHash);
+
+    /**
+     * Normalize a submitted answer before hashing, so that answers differing only in case or surrounding white space
+     * match. Callers normalize an answer once and pass the normalized answer to the other methods.
+     *
+     * @param answer Submitted answer.
+     * @return Normalized answer.
+     */
+    String normalize(String answer);
+
+    /**
+     * Hash a normalized answer with the configured algorithm.
+     *
+     * @param normalizedAnswer Normalized answer.
+     * @return Answer hash in the stored format.
+     * @throws IdentityRecoveryServerException If the algorithm is not available.
+     */
+    String hash(String normalizedAnswer) throws IdentityRecoveryServerException;
+
+    /**
+     * Hash a normalized answer with the given algorithm, so that the answer can be compared with any number of stored
+     * hashes of that algorithm at the cost of a single hash.
+     *
+     * @param normalizedAnswer Normalized answer.
+     * @param algorithm        Hash algorithm.
+     * @return Answer hash in the stored format.
+     * @throws IdentityRecoveryServerException If the algorithm is not available.
+     */
+    String hash(String normalizedAnswer, String algorithm) throws IdentityRecoveryServerException;
+
+    /**
+     * Check whether a normalized answer matches a stored hash, in time independent of where the hashes differ.
+     *
+     * @param normalizedAnswer Normalized answer.
+     * @param storedHash       Stored answer hash.
+     * @return True if the answer matches the stored hash.
+     * @throws IdentityRecoveryServerException If the algorithm of the stored hash is not available.
+     */
+    boolean matches(String normalizedAnswer, String storedHash) throws IdentityRecoveryServerException;
+}
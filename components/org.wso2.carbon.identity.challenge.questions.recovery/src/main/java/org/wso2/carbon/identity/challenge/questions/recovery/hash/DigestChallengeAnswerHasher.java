@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.hash;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.AnswerHashConfig.ANSWER_HASH_ALGORITHM;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.AnswerHashConfig.DEFAULT_ANSWER_HASH_ALGORITHM;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getStringProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.handleServerException;
+
+/**
+ * ChallengeAnswerHasher which hashes answers with a message digest algorithm. The digests are reused per thread.
+ * Hashes of the default algorithm are stored as the plain Base64 encoded digest, as they always have been, and hashes
+ * of other algorithms as the Base64 encoded digest prefixed with the algorithm in braces, e.g. {SHA-512}digest.
+ */
+public class DigestChallengeAnswerHasher implements ChallengeAnswerHasher {
+
+    private static final Log log = LogFactory.getLog(DigestChallengeAnswerHasher.class);
+    private static final String ALGORITHM_PREFIX = "{";
+    private static final String ALGORITHM_SUFFIX = "}";
+    private static final ThreadLocal<Map<String, MessageDigest>> digests = ThreadLocal.withInitial(HashMap::new);
+    private static final DigestChallengeAnswerHasher instance = new DigestChallengeAnswerHasher(
+            getStringProperty(ANSWER_HASH_ALGORITHM, DEFAULT_ANSWER_HASH_ALGORITHM));
+
+    private final String algorithm;
+
+    /**
+     * Create a digest challenge answer hasher.
+     *
+     * @param algorithm Message digest algorithm of new answer hashes. The default algorithm is used if it is not
+     *                  available.
+     */
+    public DigestChallengeAnswerHasher(String algorithm) {
+
+        if (StringUtils.isBlank(algorithm)) {
+            algorithm = DEFAULT_ANSWER_HASH_ALGORITHM;
+        }
+        try {
+            getDigest(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            log.error("Challenge answer hash algorithm: " + algorithm + " is not available. Using the default " +
+                    "algorithm: " + DEFAULT_ANSWER_HASH_ALGORITHM, e);
+            algorithm = DEFAULT_ANSWER_HASH_ALGORITHM;
+        }
+        this.algorithm = algorithm;
+    }
+
+    public static DigestChallengeAnswerHasher getInstance() {
+
+        return instance;
+    }
+
+    @Override
+    public String getAlgorithm() {
+
+        return algorithm;
+    }
+
+    @Override
+    public String getAlgorithm(String storedHash) {
+
+        if (storedHash != null && storedHash.startsWith(ALGORITHM_PREFIX)) {
+            int suffixIndex = storedHash.indexOf(ALGORITHM_SUFFIX);
+            if (suffixIndex > 1) {
+                return storedHash.substring(1, suffixIndex);
+            }
+        }
+        return DEFAULT_ANSWER_HASH_ALGORITHM;
+    }
+
+    @Override
+    public String normalize(String answer) {
+
+        return answer.trim().toLowerCase();
+    }
+
+    @Override
+    public String hash(String normalizedAnswer) throws IdentityRecoveryServerException {
+
+        return hash(normalizedAnswer, algorithm);
+    }
+
+    @Override
+    public String hash(String normalizedAnswer, String hashAlgorithm) throws IdentityRecoveryServerException {
+
+        byte[] digest;
+        try {
+            digest = digest(hashAlgorithm, normalizedAnswer);
+        } catch (NoSuchAlgorithmException e) {
+            throw handleServerException(IdentityRecoveryConstants.ErrorMessages.ERROR_CODE_NO_HASHING_ALGO, null, e);
+        }
+        String encodedDigest = Base64.getEncoder().encodeToString(digest);
+        if (DEFAULT_ANSWER_HASH_ALGORITHM.equals(hashAlgorithm)) {
+            return encodedDigest;
+        }
+        return ALGORITHM_PREFIX + hashAlgorithm + ALGORITHM_SUFFIX + encodedDigest;
+    }
+
+    @Override
+    public boolean matches(String normalizedAnswer, String storedHash) throws IdentityRecoveryServerException {
+
+        if (storedHash == null) {
+            return false;
+        }
+        String answerHash = hash(normalizedAnswer, getAlgorithm(storedHash));
+        return MessageDigest.isEqual(answerHash.getBytes(StandardCharsets.UTF_8),
+                storedHash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Digest a value with a message digest of the current thread.
+     *
+     * @param algorithm Message digest algorithm.
+     * @param value     Value to digest.
+     * @return Digest of the UTF-8 bytes of the value.
+     * @throws NoSuchAlgorithmException If the algorithm is not available.
+     */
+    public static byte[] digest(String algorithm, String value) throws NoSuchAlgorithmException {
+
+        // The digest is reset once the digest is computed.
+        return getDigest(algorithm).digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest getDigest(String algorithm) throws NoSuchAlgorithmException {
+
+        Map<String, MessageDigest> threadDigests = digests.get();
+        MessageDigest digest = threadDigests.get(algorithm);
+        if (digest == null) {
+            digest = MessageDigest.getInstance(algorithm);
+            threadDigests.put(algorithm, digest);
+        }
+        return digest;
+    }
+}
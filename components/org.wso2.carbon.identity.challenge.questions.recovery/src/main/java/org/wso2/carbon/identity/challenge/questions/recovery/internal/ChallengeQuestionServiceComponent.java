@@ -28,10 +28,13 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.wso2.carbon.identity.application.authentication.framework.handler.request.PostAuthenticationHandler;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionPersistenceManagerFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.listener.ChallengeAnswerUserOperationEventListener;
 import org.wso2.carbon.identity.challenge.questions.recovery.listener.TenantManagementListener;
+import org.wso2.carbon.identity.challenge.questions.recovery.migration.ChallengeQuestionRegistryMigrator;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionStartupInitializer;
 import org.wso2.carbon.identity.core.persistence.registry.RegistryResourceMgtService;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
-import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.challenge.questions.recovery.handler.ChallengeAnswerValidationHandler;
 import org.wso2.carbon.identity.challenge.questions.recovery.handler.request.PostAuthnMissingChallengeQuestionsHandler;
 import org.wso2.carbon.identity.challenge.questions.recovery.internal.service.impl.password.ChallengeQuestionPasswordRecoveryManagerImpl;
@@ -40,7 +43,13 @@ import org.wso2.carbon.identity.challenge.questions.recovery.password.SecurityQu
 import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
 import org.wso2.carbon.identity.recovery.services.password.PasswordRecoveryManager;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
-import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+import org.wso2.carbon.user.core.listener.UserOperationEventListener;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.DEFAULT_REGISTRY_MIGRATION_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.REGISTRY_MIGRATION_ENABLE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StartupInitializationConfig.DEFAULT_STARTUP_INITIALIZATION_ASYNC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.StartupInitializationConfig.STARTUP_INITIALIZATION_ASYNC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
 
 @Component(
         name = "org.wso2.challenge.question.Component",
@@ -50,6 +59,7 @@ public class ChallengeQuestionServiceComponent {
 
     private static final Log log = LogFactory.getLog(ChallengeQuestionServiceComponent.class);
     private IdentityRecoveryServiceDataHolder dataHolder = IdentityRecoveryServiceDataHolder.getInstance();
+    private ChallengeQuestionRegistryMigrator registryMigrator;
 
     @Activate
     protected void activate(ComponentContext ctxt) {
@@ -73,6 +83,11 @@ public class ChallengeQuestionServiceComponent {
             // register the tenant management listener
             TenantMgtListener tenantMgtListener = new TenantManagementListener();
             ctxt.getBundleContext().registerService(TenantMgtListener.class.getName(), tenantMgtListener, null);
+            if (ChallengeQuestionPersistenceManagerFactory.isDatabaseAnswerStorage()) {
+                // Remove the challenge answers of deleted users, which are not removed with the user claims.
+                ctxt.getBundleContext().registerService(UserOperationEventListener.class.getName(),
+                        new ChallengeAnswerUserOperationEventListener(), null);
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Challenge questions recovery bundle is activated");
             }
@@ -80,32 +95,37 @@ public class ChallengeQuestionServiceComponent {
             log.error(" Error while activating Challenge questions recovery bundle ", e);
         }
 
-        // register default challenge questions
-        try {
-            if (log.isDebugEnabled()) {
-                log.debug("Loading default challenge questions for super tenant.");
-            }
-            loadDefaultChallengeQuestions();
-            // new ChallengeQuestionManager().getAllChallengeQuestions("carbon.super", "lk_LK");
-        } catch (IdentityRecoveryException e) {
-            log.error("Error persisting challenge question for super tenant.", e);
+        // register default challenge questions and warm up the catalogs, off the activation thread unless disabled
+        if (log.isDebugEnabled()) {
+            log.debug("Loading default challenge questions for super tenant.");
+        }
+        ChallengeQuestionStartupInitializer startupInitializer = ChallengeQuestionStartupInitializer.getInstance();
+        if (getBooleanProperty(STARTUP_INITIALIZATION_ASYNC, DEFAULT_STARTUP_INITIALIZATION_ASYNC)) {
+            startupInitializer.start();
+        } else {
+            startupInitializer.run();
+        }
+
+        if (ChallengeQuestionPersistenceManagerFactory.isHybridStorage() &&
+                getBooleanProperty(REGISTRY_MIGRATION_ENABLE, DEFAULT_REGISTRY_MIGRATION_ENABLE)) {
+            registryMigrator = new ChallengeQuestionRegistryMigrator();
+            registryMigrator.start();
         }
     }
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        if (registryMigrator != null) {
+            registryMigrator.stop();
+            registryMigrator = null;
+        }
+        ChallengeQuestionStartupInitializer.getInstance().stop();
         if (log.isDebugEnabled()) {
             log.debug("Challenge Question bundle is deactivated");
         }
     }
 
-    private void loadDefaultChallengeQuestions() throws IdentityRecoveryException {
-
-        String tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
-        ChallengeQuestionManager.getInstance().setDefaultChallengeQuestions(tenantDomain);
-    }
-
     protected void unsetResourceMgtService(RegistryResourceMgtService registryResourceMgtService) {
 
         dataHolder.setResourceMgtService(null);
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeAnswerDAOImpl;
+import org.wso2.carbon.identity.core.AbstractIdentityUserOperationEventListener;
+import org.wso2.carbon.identity.core.util.IdentityCoreConstants;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+
+/**
+ * User operation listener which removes the challenge answers of a deleted user from the database. Answers stored in
+ * user claims are removed with the user by the user store.
+ */
+public class ChallengeAnswerUserOperationEventListener extends AbstractIdentityUserOperationEventListener {
+
+    private static final Log log = LogFactory.getLog(ChallengeAnswerUserOperationEventListener.class);
+    private static final int DEFAULT_ORDER_ID = 95;
+    private final JDBCChallengeAnswerDAOImpl challengeAnswerDAO;
+
+    public ChallengeAnswerUserOperationEventListener() {
+
+        this(new JDBCChallengeAnswerDAOImpl());
+    }
+
+    public ChallengeAnswerUserOperationEventListener(JDBCChallengeAnswerDAOImpl challengeAnswerDAO) {
+
+        this.challengeAnswerDAO = challengeAnswerDAO;
+    }
+
+    @Override
+    public int getExecutionOrderId() {
+
+        int orderId = getOrderId();
+        if (orderId != IdentityCoreConstants.EVENT_LISTENER_ORDER_ID) {
+            return orderId;
+        }
+        return DEFAULT_ORDER_ID;
+    }
+
+    @Override
+    public boolean doPostDeleteUserWithID(String userID, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+
+        // The user is already deleted, so a failure to remove the answers does not fail the deletion.
+        try {
+            challengeAnswerDAO.removeChallengeAnswers(userStoreManager.getTenantId(), userID);
+        } catch (IdentityRecoveryException e) {
+            log.error("Error while removing the challenge answers of the deleted user: " + userID, e);
+        }
+        return true;
+    }
+}
@@ -22,6 +22,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionPersistenceManagerFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeAnswerDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.seeding.DefaultChallengeQuestionSeeder;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionCatalogWarmer;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.store.JDBCRecoveryDataStore;
 import org.wso2.carbon.identity.recovery.store.UserRecoveryDataStore;
@@ -29,6 +34,10 @@ import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
 import org.wso2.carbon.stratos.common.exception.StratosException;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.CATALOG_WARM_UP_ON_TENANT_ACTIVATION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.DEFAULT_CATALOG_WARM_UP_ON_TENANT_ACTIVATION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+
 /**
  *  Tenant Management listener for Identity Recovery functionality.
  */
@@ -45,11 +54,11 @@ public class TenantManagementListener implements TenantMgtListener {
         PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
         PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantInfoBean.getTenantId());
 
-        ChallengeQuestionManager questionManager = ChallengeQuestionManager.getInstance();
         try {
-            questionManager.setDefaultChallengeQuestions(tenantDomain);
+            // Seeded on a background queue unless asynchronous seeding is disabled.
+            DefaultChallengeQuestionSeeder.getInstance().seed(tenantDomain);
             if (log.isDebugEnabled()) {
-                log.debug("Default Challenge Questions persisted to the " + tenantDomain + " tenant");
+                log.debug("Default Challenge Questions seeding started for the " + tenantDomain + " tenant");
             }
         } catch (IdentityRecoveryException e) {
             log.error("Error when trying to set default challenge question for tenant : " + tenantDomain, e);
@@ -64,28 +73,33 @@ public class TenantManagementListener implements TenantMgtListener {
     }
 
     @Override
-    public void onTenantDelete(int i) {
+    public void onTenantDelete(int tenantId) {
 
+        releaseChallengeQuestionCatalog(tenantId);
     }
 
     @Override
-    public void onTenantRename(int i, String s, String s1) throws StratosException {
+    public void onTenantRename(int tenantId, String oldDomainName, String newDomainName) throws StratosException {
 
+        ChallengeQuestionManager.getInstance().releaseTenant(oldDomainName);
     }
 
     @Override
-    public void onTenantInitialActivation(int i) throws StratosException {
+    public void onTenantInitialActivation(int tenantId) throws StratosException {
 
+        warmUpChallengeQuestionCatalog(tenantId);
     }
 
     @Override
-    public void onTenantActivation(int i) throws StratosException {
+    public void onTenantActivation(int tenantId) throws StratosException {
 
+        warmUpChallengeQuestionCatalog(tenantId);
     }
 
     @Override
-    public void onTenantDeactivation(int i) throws StratosException {
+    public void onTenantDeactivation(int tenantId) throws StratosException {
 
+        releaseChallengeQuestionCatalog(tenantId);
     }
 
     @Override
@@ -107,5 +121,27 @@ public class TenantManagementListener implements TenantMgtListener {
         } catch (IdentityRecoveryException e) {
             throw new StratosException("Error in deleting recovery data of the tenant:" + tenantId, e);
         }
+        if (ChallengeQuestionPersistenceManagerFactory.isDatabaseAnswerStorage()) {
+            try {
+                new JDBCChallengeAnswerDAOImpl().removeTenantChallengeAnswers(tenantId);
+            } catch (IdentityRecoveryException e) {
+                throw new StratosException("Error in deleting challenge answers of the tenant:" + tenantId, e);
+            }
+        }
+    }
+
+    private void warmUpChallengeQuestionCatalog(int tenantId) {
+
+        if (getBooleanProperty(CATALOG_WARM_UP_ON_TENANT_ACTIVATION, DEFAULT_CATALOG_WARM_UP_ON_TENANT_ACTIVATION)) {
+            ChallengeQuestionCatalogWarmer.getInstance().warmUp(IdentityTenantUtil.getTenantDomain(tenantId));
+        }
+    }
+
+    private void releaseChallengeQuestionCatalog(int tenantId) {
+
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(tenantId);
+        if (tenantDomain != null) {
+            ChallengeQuestionManager.getInstance().releaseTenant(tenantDomain);
+        }
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.locale;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateLocale;
+import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.LOCALE_EN_US;
+
+/**
+ * Resolves the locales challenge questions are served in.
+ * Locale tags are normalized to the underscore separated form, with a lower case language, a title case script and
+ * an upper case region, so that en-US, en_US and EN_us all resolve to en_US. The fallback chain of a requested locale
+ * is built from the locales actually present in the catalog of the tenant, in the order of the requested locale, its
+ * parent locales, the other regional variants of its language, the configured default locale and finally en_US.
+ * For example es_MX resolves to es_MX, es, es_ES, the default locale and en_US, skipping the locales without
+ * questions. Locales in a chain are in the spelling they are stored in, and the chains are cached per tenant and
+ * requested locale in the catalog cache, so that they are invalidated along with the catalog of the tenant.
+ */
+public class ChallengeQuestionLocaleResolver {
+
+    private static final String SUBTAG_SEPARATORS = "[-_]";
+    private static final String SEPARATOR = "_";
+
+    private final LocaleSource localeSource;
+    private final ChallengeQuestionCatalogCache catalogCache;
+    private final String defaultLocale;
+    private final int normalizedLocaleCacheCapacity;
+    // Normalized locales keyed by the raw locale tag, so that a tag is only validated once.
+    private final Map<String, String> normalizedLocales = new ConcurrentHashMap<>();
+
+    /**
+     * Create a locale resolver.
+     *
+     * @param localeSource                  Source of the locales present in the catalog of a tenant. The cached
+     *                                      fallback chains are only invalidated along with the catalog, hence the
+     *                                      source should read through the same catalog cache.
+     * @param catalogCache                  Catalog cache to cache the fallback chains in.
+     * @param defaultLocale                 Locale to fall back to before en_US, or null to fall back to en_US only.
+     * @param normalizedLocaleCacheCapacity Maximum number of normalized locale tags to remember.
+     */
+    public ChallengeQuestionLocaleResolver(LocaleSource localeSource, ChallengeQuestionCatalogCache catalogCache,
+                                           String defaultLocale, int normalizedLocaleCacheCapacity) {
+
+        this.localeSource = localeSource;
+        this.catalogCache = catalogCache;
+        this.defaultLocale = StringUtils.isBlank(defaultLocale) ? null : canonicalize(defaultLocale.trim());
+        this.normalizedLocaleCacheCapacity = normalizedLocaleCacheCapacity;
+    }
+
+    /**
+     * Normalize a locale tag. A blank tag is normalized to en_US.
+     *
+     * @param locale Locale tag.
+     * @return Normalized locale.
+     * @throws IdentityRecoveryClientException If the locale tag is invalid.
+     */
+    public String normalize(String locale) throws IdentityRecoveryClientException {
+
+        if (StringUtils.isBlank(locale)) {
+            return LOCALE_EN_US;
+        }
+        String normalizedLocale = normalizedLocales.get(locale);
+        if (normalizedLocale != null) {
+            return normalizedLocale;
+        }
+        normalizedLocale = canonicalize(validateLocale(locale.trim()));
+        if (normalizedLocales.size() >= normalizedLocaleCacheCapacity) {
+            normalizedLocales.clear();
+        }
+        if (normalizedLocaleCacheCapacity > 0) {
+            normalizedLocales.put(locale, normalizedLocale);
+        }
+        return normalizedLocale;
+    }
+
+    /**
+     * Resolve a locale tag to the locale of the catalog of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Locale tag.
+     * @return The locale of the catalog matching the normalized locale in its stored spelling, or the normalized
+     * locale if the catalog has no questions in it.
+     * @throws IdentityRecoveryException If the locale tag is invalid or the locales of the catalog could not be read.
+     */
+    public String resolveLocale(String tenantDomain, String locale) throws IdentityRecoveryException {
+
+        String requestedLocale = normalize(locale);
+        // The chain starts with the stored spelling of the requested locale if the catalog has questions in it.
+        String firstLocale = getLocaleFallbackChain(tenantDomain, locale).get(0);
+        return requestedLocale.equals(canonicalize(firstLocale)) ? firstLocale : requestedLocale;
+    }
+
+    /**
+     * Get the locales to look up challenge questions in for a requested locale, in the order of precedence.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param locale       Requested locale tag.
+     * @return Unmodifiable fallback chain, which always ends with en_US.
+     * @throws IdentityRecoveryException If the locale tag is invalid or the locales of the catalog could not be read.
+     */
+    public List<String> getLocaleFallbackChain(String tenantDomain, String locale) throws IdentityRecoveryException {
+
+        String requestedLocale = normalize(locale);
+        long generation = catalogCache.getGeneration();
+        // Read before the cached chain, so that the chains of a catalog modified by another node are invalidated.
+        List<String> locales = localeSource.getLocales(tenantDomain);
+        List<String> fallbackChain = catalogCache.getLocaleFallbackChain(tenantDomain, requestedLocale);
+        if (fallbackChain != null) {
+            return fallbackChain;
+        }
+        fallbackChain = buildLocaleFallbackChain(requestedLocale, locales);
+        catalogCache.putLocaleFallbackChain(tenantDomain, requestedLocale, fallbackChain, generation);
+        return fallbackChain;
+    }
+
+    private List<String> buildLocaleFallbackChain(String requestedLocale, List<String> locales) {
+
+        // Stored spellings of the locales of the catalog keyed by their normalized form.
+        Map<String, String> storedLocales = new TreeMap<>();
+        for (String locale : locales) {
+            if (StringUtils.isNotBlank(locale)) {
+                storedLocales.putIfAbsent(canonicalize(locale.trim()), locale);
+            }
+        }
+
+        Set<String> fallbackChain = new LinkedHashSet<>();
+        // The requested locale and its parents, such as zh_Hant_TW, zh_Hant and zh.
+        String language = requestedLocale;
+        addIfPresent(fallbackChain, storedLocales, language);
+        while (language.contains(SEPARATOR)) {
+            language = language.substring(0, language.lastIndexOf(SEPARATOR));
+            addIfPresent(fallbackChain, storedLocales, language);
+        }
+        // The other regional variants of the language, such as es_ES for es_MX.
+        for (Map.Entry<String, String> storedLocale : storedLocales.entrySet()) {
+            if (storedLocale.getKey().startsWith(language + SEPARATOR)) {
+                fallbackChain.add(storedLocale.getValue());
+            }
+        }
+        if (defaultLocale != null) {
+            addIfPresent(fallbackChain, storedLocales, defaultLocale);
+        }
+        fallbackChain.add(storedLocales.getOrDefault(LOCALE_EN_US, LOCALE_EN_US));
+        return new ArrayList<>(fallbackChain);
+    }
+
+    private static void addIfPresent(Set<String> fallbackChain, Map<String, String> storedLocales, String locale) {
+
+        String storedLocale = storedLocales.get(locale);
+        if (storedLocale != null) {
+            fallbackChain.add(storedLocale);
+        }
+    }
+
+    /**
+     * Bring a locale tag to the underscore separated form with a lower case language, a title case script and an
+     * upper case region.
+     *
+     * @param locale Locale tag.
+     * @return Normalized locale.
+     */
+    private static String canonicalize(String locale) {
+
+        StringBuilder normalizedLocale = new StringBuilder();
+        for (String subtag : locale.split(SUBTAG_SEPARATORS)) {
+            if (subtag.isEmpty()) {
+                continue;
+            }
+            if (normalizedLocale.length() == 0) {
+                normalizedLocale.append(subtag.toLowerCase(Locale.ENGLISH));
+                continue;
+            }
+            normalizedLocale.append(SEPARATOR);
+            if (subtag.length() == 4 && StringUtils.isAlpha(subtag)) {
+                normalizedLocale.append(StringUtils.capitalize(subtag.toLowerCase(Locale.ENGLISH)));
+            } else if ((subtag.length() == 2 && StringUtils.isAlpha(subtag)) ||
+                    (subtag.length() == 3 && StringUtils.isNumeric(subtag))) {
+                normalizedLocale.append(subtag.toUpperCase(Locale.ENGLISH));
+            } else {
+                normalizedLocale.append(subtag);
+            }
+        }
+        return normalizedLocale.length() == 0 ? locale : normalizedLocale.toString();
+    }
+
+    /**
+     * Source of the locales present in the catalog of a tenant.
+     */
+    @FunctionalInterface
+    public interface LocaleSource {
+
+        /**
+         * Get the locales having challenge questions in a tenant.
+         *
+         * @param tenantDomain Tenant domain.
+         * @return Locales of the catalog, in the spelling they are stored in.
+         * @throws IdentityRecoveryException If the locales could not be read.
+         */
+        List<String> getLocales(String tenantDomain) throws IdentityRecoveryException;
+    }
+}
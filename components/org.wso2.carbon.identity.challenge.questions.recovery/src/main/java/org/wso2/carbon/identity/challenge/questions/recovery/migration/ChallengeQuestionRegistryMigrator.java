@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.migration;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO.MigrationStatus;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.RegistryChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.user.api.Tenant;
+import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.DEFAULT_REGISTRY_MIGRATION_BATCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.DEFAULT_REGISTRY_MIGRATION_INITIAL_DELAY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.DEFAULT_REGISTRY_MIGRATION_ROWS_PER_SECOND;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.MIGRATION_STATUS_IN_PROGRESS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.MIGRATION_STATUS_MIGRATED;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.REGISTRY_MIGRATION_BATCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.REGISTRY_MIGRATION_INITIAL_DELAY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.REGISTRY_MIGRATION_ROWS_PER_SECOND;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateChallengeQuestionAttributes;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.validateLocale;
+
+/**
+ * Background migration of the challenge questions stored in the registry to the IDN_CHALLENGE_QUESTION table, used
+ * with the hybrid storage type. Tenants are migrated one by one and each tenant question set by question set, in the
+ * natural order of the question set URIs. The last migrated question set of a tenant is checkpointed so that an
+ * interrupted migration resumes from where it stopped, and the tenant is marked as migrated once all of its question
+ * sets are copied. Questions already in the database take priority, as in the hybrid DAO, and are never overwritten.
+ * The rate of the copied questions is limited to the configured number of rows per second.
+ */
+public class ChallengeQuestionRegistryMigrator implements Runnable {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionRegistryMigrator.class);
+
+    private final RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAO;
+    private final JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO;
+    private final ChallengeQuestionMigrationDAO migrationDAO;
+    private final long rowsPerSecond;
+    private final int batchSize;
+    private volatile boolean stopped;
+    private ScheduledExecutorService executor;
+    private long nextPermitTime;
+
+    public ChallengeQuestionRegistryMigrator() {
+
+        this(new RegistryChallengeQuestionDAOImpl(), new JDBCChallengeQuestionDAOImpl(),
+                new ChallengeQuestionMigrationDAO(),
+                getLongProperty(REGISTRY_MIGRATION_ROWS_PER_SECOND, DEFAULT_REGISTRY_MIGRATION_ROWS_PER_SECOND),
+                (int) getLongProperty(REGISTRY_MIGRATION_BATCH_SIZE, DEFAULT_REGISTRY_MIGRATION_BATCH_SIZE));
+    }
+
+    public ChallengeQuestionRegistryMigrator(RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAO,
+                                             JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO,
+                                             ChallengeQuestionMigrationDAO migrationDAO, long rowsPerSecond,
+                                             int batchSize) {
+
+        this.registryChallengeQuestionDAO = registryChallengeQuestionDAO;
+        this.jdbcChallengeQuestionDAO = jdbcChallengeQuestionDAO;
+        this.migrationDAO = migrationDAO;
+        this.rowsPerSecond = rowsPerSecond;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Start the migration on a background thread after the configured initial delay.
+     */
+    public synchronized void start() {
+
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ChallengeQuestionRegistryMigrator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long initialDelay = getLongProperty(REGISTRY_MIGRATION_INITIAL_DELAY, DEFAULT_REGISTRY_MIGRATION_INITIAL_DELAY);
+        executor.schedule(this, initialDelay, TimeUnit.SECONDS);
+        log.info("Challenge question registry migration scheduled to start in " + initialDelay + " seconds.");
+    }
+
+    /**
+     * Stop the migration. A tenant being migrated resumes from its last checkpoint on the next start.
+     */
+    public synchronized void stop() {
+
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void run() {
+
+        List<String> tenantDomains;
+        try {
+            tenantDomains = getTenantDomains();
+        } catch (UserStoreException e) {
+            log.error("Error while listing the tenants for the challenge question registry migration.", e);
+            return;
+        }
+        int migratedTenants = 0;
+        for (String tenantDomain : tenantDomains) {
+            if (stopped || Thread.currentThread().isInterrupted()) {
+                log.info("Challenge question registry migration stopped after migrating " + migratedTenants +
+                        " tenants.");
+                return;
+            }
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+                if (migrateTenant(tenantDomain)) {
+                    migratedTenants++;
+                }
+            } catch (IdentityRecoveryException e) {
+                log.error("Error while migrating the registry challenge questions of tenant: " + tenantDomain +
+                        ". The migration of the tenant resumes on the next run.", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+        log.info("Challenge question registry migration completed for " + migratedTenants + " of " +
+                tenantDomains.size() + " tenants.");
+    }
+
+    /**
+     * Migrate the registry challenge questions of a tenant, resuming from the last checkpoint of the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return True if the tenant is migrated, false if the migration was stopped before completion.
+     * @throws IdentityRecoveryException If an error occurs while migrating the challenge questions.
+     * @throws InterruptedException      If the thread is interrupted while throttled.
+     */
+    public boolean migrateTenant(String tenantDomain) throws IdentityRecoveryException, InterruptedException {
+
+        MigrationStatus migrationStatus = migrationDAO.getMigrationStatus(tenantDomain);
+        if (migrationStatus != null && migrationStatus.isMigrated()) {
+            return true;
+        }
+        String checkpoint = null;
+        int migratedCount = 0;
+        if (migrationStatus == null) {
+            // Mark the tenant before copying anything so that deletes are applied to both stores from now on.
+            migrationDAO.updateMigrationStatus(tenantDomain,
+                    new MigrationStatus(MIGRATION_STATUS_IN_PROGRESS, null, 0));
+        } else {
+            checkpoint = migrationStatus.getLastQuestionSetId();
+            migratedCount = migrationStatus.getMigratedCount();
+        }
+
+        List<String> questionSetUris = new ArrayList<>();
+        for (String questionSetUri : registryChallengeQuestionDAO.getAllChallengeQuestionSetsURIs(tenantDomain)) {
+            if (questionSetUri != null && (checkpoint == null || questionSetUri.compareTo(checkpoint) > 0)) {
+                questionSetUris.add(questionSetUri);
+            }
+        }
+        Collections.sort(questionSetUris);
+
+        for (String questionSetUri : questionSetUris) {
+            if (stopped) {
+                return false;
+            }
+            migratedCount += migrateQuestionSet(questionSetUri, tenantDomain);
+            checkpoint = questionSetUri;
+            migrationDAO.updateMigrationStatus(tenantDomain,
+                    new MigrationStatus(MIGRATION_STATUS_IN_PROGRESS, checkpoint, migratedCount));
+        }
+        migrationDAO.updateMigrationStatus(tenantDomain,
+                new MigrationStatus(MIGRATION_STATUS_MIGRATED, checkpoint, migratedCount));
+        log.info("Migrated " + migratedCount + " registry challenge questions of tenant: " + tenantDomain +
+                " to the database.");
+        return true;
+    }
+
+    /**
+     * Copy the challenge questions of a question set which are not yet in the database, in throttled batches.
+     *
+     * @param questionSetUri Challenge question set URI.
+     * @param tenantDomain   Tenant domain.
+     * @return Number of copied challenge questions.
+     * @throws IdentityRecoveryException If an error occurs while copying the challenge questions.
+     * @throws InterruptedException      If the thread is interrupted while throttled.
+     */
+    private int migrateQuestionSet(String questionSetUri, String tenantDomain)
+            throws IdentityRecoveryException, InterruptedException {
+
+        List<ChallengeQuestion> challengeQuestions = new ArrayList<>();
+        for (ChallengeQuestion challengeQuestion :
+                registryChallengeQuestionDAO.getChallengeQuestionsOfSet(questionSetUri, tenantDomain)) {
+            if (isValid(challengeQuestion, tenantDomain)) {
+                challengeQuestions.add(challengeQuestion);
+            }
+        }
+
+        List<ChallengeQuestion> addedQuestions = new ArrayList<>();
+        for (int i = 0; i < challengeQuestions.size(); i += batchSize) {
+            List<ChallengeQuestion> batch =
+                    challengeQuestions.subList(i, Math.min(i + batchSize, challengeQuestions.size()));
+            throttle(batch.size());
+            addedQuestions.addAll(jdbcChallengeQuestionDAO.addMissingChallengeQuestions(
+                    batch.toArray(new ChallengeQuestion[0]), tenantDomain));
+        }
+        if (addedQuestions.isEmpty()) {
+            return 0;
+        }
+
+        // Questions deleted from the registry while being copied must not be resurrected in the database.
+        List<ChallengeQuestion> remainingQuestions =
+                registryChallengeQuestionDAO.getChallengeQuestionsOfSet(questionSetUri, tenantDomain);
+        List<ChallengeQuestion> deletedQuestions = new ArrayList<>();
+        for (ChallengeQuestion addedQuestion : addedQuestions) {
+            if (!remainingQuestions.contains(addedQuestion)) {
+                deletedQuestions.add(addedQuestion);
+            }
+        }
+        if (!deletedQuestions.isEmpty()) {
+            jdbcChallengeQuestionDAO.deleteChallengeQuestions(deletedQuestions.toArray(new ChallengeQuestion[0]),
+                    tenantDomain);
+        }
+        return addedQuestions.size() - deletedQuestions.size();
+    }
+
+    /**
+     * Wait until the given number of rows can be copied without exceeding the configured rate. Unused capacity is
+     * not accumulated, so a pause in the migration is not followed by a burst.
+     *
+     * @param rows Number of rows to be copied.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void throttle(int rows) throws InterruptedException {
+
+        if (rowsPerSecond <= 0) {
+            return;
+        }
+        long currentTime = System.nanoTime();
+        if (nextPermitTime < currentTime) {
+            nextPermitTime = currentTime;
+        }
+        long waitTime = nextPermitTime - currentTime;
+        nextPermitTime += rows * TimeUnit.SECONDS.toNanos(1) / rowsPerSecond;
+        if (waitTime > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+        }
+    }
+
+    private boolean isValid(ChallengeQuestion challengeQuestion, String tenantDomain) {
+
+        if (challengeQuestion == null) {
+            return false;
+        }
+        try {
+            validateChallengeQuestionAttributes(challengeQuestion);
+            validateLocale(challengeQuestion.getLocale());
+            return true;
+        } catch (IdentityRecoveryClientException e) {
+            log.warn("Skipping the migration of the invalid challenge question: " +
+                    challengeQuestion.getQuestionSetId() + "/" + challengeQuestion.getQuestionId() + " of tenant: " +
+                    tenantDomain + ". " + e.getMessage());
+            return false;
+        }
+    }
+
+    private List<String> getTenantDomains() throws UserStoreException {
+
+        List<String> tenantDomains = new ArrayList<>();
+        tenantDomains.add(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+        for (Tenant tenant : realmService.getTenantManager().getAllTenants()) {
+            tenantDomains.add(tenant.getDomain());
+        }
+        return tenantDomains;
+    }
+}
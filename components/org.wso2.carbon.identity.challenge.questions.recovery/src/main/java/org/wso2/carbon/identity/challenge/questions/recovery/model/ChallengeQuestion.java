@@ -18,12 +18,25 @@
 
 package org.wso2.carbon.identity.challenge.questions.recovery.model;
 
+import java.io.Serializable;
+import java.util.Comparator;
 import java.util.Objects;
 
 /**
  * encapsulates challenge questions data
  */
-public class ChallengeQuestion {
+public class ChallengeQuestion implements Serializable {
+
+    private static final long serialVersionUID = -3318720183604581422L;
+
+    /**
+     * Orders challenge questions by question set id, question id and locale, which is the order of the paginated
+     * challenge question reads.
+     */
+    public static final Comparator<ChallengeQuestion> KEY_ORDER =
+            Comparator.comparing(ChallengeQuestion::getQuestionSetId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ChallengeQuestion::getQuestionId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ChallengeQuestion::getLocale, Comparator.nullsFirst(Comparator.naturalOrder()));
 
     private String question;
 
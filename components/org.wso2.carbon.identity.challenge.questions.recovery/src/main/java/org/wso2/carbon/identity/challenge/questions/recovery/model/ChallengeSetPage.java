@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of whole challenge sets, with the cursor of the next page if there is one. The cursor is opaque and is
+ * passed back as is to read the next page.
+ *
+ * @param <T> Type of the page items.
+ */
+public class ChallengeSetPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public ChallengeSetPage(List<T> items, String nextCursor) {
+
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+
+        return items;
+    }
+
+    /**
+     * Get the cursor of the next page.
+     *
+     * @return Cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    /**
+     * Convert the items of the page, keeping the cursor of the next page.
+     *
+     * @param mapper Converter of the page items.
+     * @param <R>    Type of the converted items.
+     * @return Page with the converted items.
+     */
+    public <R> ChallengeSetPage<R> map(Function<List<T>, List<R>> mapper) {
+
+        return new ChallengeSetPage<>(mapper.apply(items), nextCursor);
+    }
+}
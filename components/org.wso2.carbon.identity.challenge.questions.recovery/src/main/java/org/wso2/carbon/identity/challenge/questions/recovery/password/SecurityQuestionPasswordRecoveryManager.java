@@ -33,6 +33,7 @@ import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimContext;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
@@ -57,8 +58,6 @@ import org.wso2.carbon.identity.user.functionality.mgt.model.FunctionalityLockSt
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UserCoreConstants;
-import org.wso2.carbon.user.core.UserRealm;
-import org.wso2.carbon.user.core.service.RealmService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -70,6 +69,8 @@ import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
 
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getTenantUserStoreManager;
+
 /**
  * Security Question Password Recovery Manager
  */
@@ -101,6 +102,14 @@ public class SecurityQuestionPasswordRecoveryManager {
 
     public ChallengeQuestionResponse initiateUserChallengeQuestion(User user) throws IdentityRecoveryException {
 
+        // The challenge claims of the user are read from the user store once for the request.
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            return doInitiateUserChallengeQuestion(user);
+        }
+    }
+
+    private ChallengeQuestionResponse doInitiateUserChallengeQuestion(User user) throws IdentityRecoveryException {
+
         Utils.validateEmailUsername(user);
         if (StringUtils.isBlank(user.getTenantDomain())) {
             user.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
@@ -224,6 +233,15 @@ public class SecurityQuestionPasswordRecoveryManager {
     }
 
     public ChallengeQuestionsResponse initiateUserChallengeQuestionAtOnce(User user) throws IdentityRecoveryException {
+
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            return doInitiateUserChallengeQuestionAtOnce(user);
+        }
+    }
+
+    private ChallengeQuestionsResponse doInitiateUserChallengeQuestionAtOnce(User user)
+            throws IdentityRecoveryException {
+
         String challengeQuestionSeparator = IdentityUtil.getProperty(IdentityRecoveryConstants.ConnectorConfig
                 .QUESTION_CHALLENGE_SEPARATOR);
 
@@ -322,6 +340,14 @@ public class SecurityQuestionPasswordRecoveryManager {
             code, org.wso2.carbon.identity.recovery.model.Property[] properties) throws
             IdentityRecoveryException {
 
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            return doValidateUserChallengeQuestions(userChallengeAnswer, code);
+        }
+    }
+
+    private ChallengeQuestionResponse doValidateUserChallengeQuestions(UserChallengeAnswer[] userChallengeAnswer,
+                                                                       String code) throws IdentityRecoveryException {
+
         UserRecoveryDataStore userRecoveryDataStore = JDBCRecoveryDataStore.getInstance();
         UserRecoveryData userRecoveryData = userRecoveryDataStore.load(code);
         //if return data from load, it means the code is validated. Otherwise it returns exceptions.
@@ -438,14 +464,13 @@ public class SecurityQuestionPasswordRecoveryManager {
                 }
                 ChallengeQuestionManager challengeQuestionManager = ChallengeQuestionManager.getInstance();
 
-                for (int i = 0; i < userChallengeAnswer.length; i++) {
-                    boolean verified = challengeQuestionManager.verifyUserChallengeAnswer(userRecoveryData.getUser(),
-                            userChallengeAnswer[i]);
-                    if (!verified) {
+                // Verify all the answers against a single snapshot of the stored answers.
+                Map<String, Boolean> verificationResults = challengeQuestionManager.verifyUserChallengeAnswers(
+                        userRecoveryData.getUser(), userChallengeAnswer);
+                if (verificationResults.containsValue(Boolean.FALSE)) {
 //                    handleAnswerVerificationFail(userRecoveryData.getUser());
-                        throw Utils.handleClientException(IdentityRecoveryConstants.ErrorMessages
-                                .ERROR_CODE_INVALID_ANSWER_FOR_SECURITY_QUESTION, null);
-                    }
+                    throw Utils.handleClientException(IdentityRecoveryConstants.ErrorMessages
+                            .ERROR_CODE_INVALID_ANSWER_FOR_SECURITY_QUESTION, null);
                 }
 
                 // Reset password recovery failed attempts
@@ -561,24 +586,7 @@ public class SecurityQuestionPasswordRecoveryManager {
             }
         }
 
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-
-        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
-        UserRealm userRealm;
-        try {
-            userRealm = (UserRealm) realmService.getTenantUserRealm(tenantId);
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain(), e);
-        }
-
-        org.wso2.carbon.user.core.UserStoreManager userStoreManager;
-        try {
-            userStoreManager = userRealm.getUserStoreManager();
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_FAILED_TO_LOAD_USER_STORE_MANAGER, null, e);
-        }
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager = getUserStoreManager(user);
 
         Map<String, String> updatedClaims = new HashMap<>();
         if (resetFailedLoginLockOutCount) {
@@ -668,24 +676,7 @@ public class SecurityQuestionPasswordRecoveryManager {
             }
         }
 
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-
-        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
-        UserRealm userRealm;
-        try {
-            userRealm = (UserRealm) realmService.getTenantUserRealm(tenantId);
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain(), e);
-        }
-
-        org.wso2.carbon.user.core.UserStoreManager userStoreManager;
-        try {
-            userStoreManager = userRealm.getUserStoreManager();
-        } catch (UserStoreException e) {
-            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
-                    .ERROR_CODE_FAILED_TO_LOAD_USER_STORE_MANAGER, null, e);
-        }
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager = getUserStoreManager(user);
 
         if (Utils.isAccountLocked(user)) {
             return;
@@ -906,13 +897,32 @@ public class SecurityQuestionPasswordRecoveryManager {
         }
     }
 
+    private org.wso2.carbon.user.core.UserStoreManager getUserStoreManager(User user)
+            throws IdentityRecoveryServerException {
+
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager;
+        try {
+            userStoreManager = getTenantUserStoreManager(user.getTenantDomain());
+        } catch (UserStoreException e) {
+            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
+                    .ERROR_CODE_FAILED_TO_LOAD_USER_STORE_MANAGER, null, e);
+        }
+        if (userStoreManager == null) {
+            throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
+                    .ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain());
+        }
+        return userStoreManager;
+    }
+
     private void verifyUserExists(User user) throws IdentityRecoveryClientException, IdentityRecoveryServerException {
 
         UserStoreManager userStoreManager;
         try {
-            int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-            userStoreManager = IdentityRecoveryServiceDataHolder.getInstance().getRealmService().
-                    getTenantUserRealm(tenantId).getUserStoreManager();
+            userStoreManager = getTenantUserStoreManager(user.getTenantDomain());
+            if (userStoreManager == null) {
+                throw Utils.handleServerException(IdentityRecoveryConstants.ErrorMessages
+                        .ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain());
+            }
             String domainQualifiedUsername =
                     IdentityUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
 
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.seeding;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_ASYNC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_AWAIT_TIMEOUT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_MAX_RETRIES;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.DEFAULT_SEEDING_RETRY_DELAY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_ASYNC;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_AWAIT_TIMEOUT;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_MAX_RETRIES;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.DefaultQuestionSeedingConfig.SEEDING_RETRY_DELAY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.newBoundedExecutor;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.withTenantFlow;
+
+/**
+ * Seeds the default challenge questions of newly created tenants on a bounded background queue, so that the tenant
+ * creation does not wait for the catalog writes. A tenant is queued at most once at a time, and a failed seeding is
+ * retried with a linearly growing delay. Seeding is idempotent, since a tenant which already has challenge question
+ * sets is not seeded again. An operation on a tenant whose seeding is pending on this node waits up to the configured
+ * timeout for the seeding to complete, so that it does not observe an empty catalog.
+ */
+public class DefaultChallengeQuestionSeeder {
+
+    private static final Log log = LogFactory.getLog(DefaultChallengeQuestionSeeder.class);
+    private static final DefaultChallengeQuestionSeeder instance = new DefaultChallengeQuestionSeeder();
+
+    private final SeedingTask seedingTask;
+    private final ExecutorService executor;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+    private final long awaitTimeoutMillis;
+    private final Map<String, FutureTask<Void>> pendingSeedings = new ConcurrentHashMap<>();
+    // Tenant seeded by the current thread, which must not wait for its own seeding.
+    private final ThreadLocal<String> currentSeeding = new ThreadLocal<>();
+    private final DefaultChallengeQuestionSeedingMetrics metrics = new DefaultChallengeQuestionSeedingMetrics();
+
+    private DefaultChallengeQuestionSeeder() {
+
+        this(tenantDomain -> ChallengeQuestionManager.getInstance().setDefaultChallengeQuestions(tenantDomain),
+                getBooleanProperty(SEEDING_ASYNC, DEFAULT_SEEDING_ASYNC) ?
+                        newBoundedExecutor("DefaultChallengeQuestionSeeder",
+                                (int) getLongProperty(SEEDING_POOL_SIZE, DEFAULT_SEEDING_POOL_SIZE),
+                                (int) getLongProperty(SEEDING_QUEUE_CAPACITY, DEFAULT_SEEDING_QUEUE_CAPACITY)) : null,
+                (int) getLongProperty(SEEDING_MAX_RETRIES, DEFAULT_SEEDING_MAX_RETRIES),
+                getLongProperty(SEEDING_RETRY_DELAY, DEFAULT_SEEDING_RETRY_DELAY),
+                getLongProperty(SEEDING_AWAIT_TIMEOUT, DEFAULT_SEEDING_AWAIT_TIMEOUT));
+    }
+
+    /**
+     * Create a seeder.
+     *
+     * @param seedingTask        Task seeding the default challenge questions of a tenant.
+     * @param executor           Executor to seed on, or null to seed on the calling thread.
+     * @param maxRetries         Maximum number of retries of a failed seeding.
+     * @param retryDelayMillis   Delay in milliseconds before the first retry.
+     * @param awaitTimeoutMillis Timeout in milliseconds for an operation on a tenant to wait for its seeding.
+     */
+    public DefaultChallengeQuestionSeeder(SeedingTask seedingTask, ExecutorService executor, int maxRetries,
+                                          long retryDelayMillis, long awaitTimeoutMillis) {
+
+        this.seedingTask = seedingTask;
+        this.executor = executor;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryDelayMillis = Math.max(0, retryDelayMillis);
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+
+    public static DefaultChallengeQuestionSeeder getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Seed the default challenge questions of a tenant. With asynchronous seeding the seeding is queued, and runs in
+     * the tenant flow of the caller. Once the queue is full, the seeding runs on the calling thread.
+     *
+     * @param tenantDomain Tenant domain.
+     * @throws IdentityRecoveryException If the seeding runs synchronously and fails.
+     */
+    public void seed(String tenantDomain) throws IdentityRecoveryException {
+
+        if (executor == null) {
+            seedingTask.seed(tenantDomain);
+            return;
+        }
+        long queuedTime = System.nanoTime();
+        Callable<Void> task = withTenantFlow(() -> {
+            seedWithRetries(tenantDomain, queuedTime);
+            return null;
+        });
+        FutureTask<Void> seeding = new FutureTask<Void>(task) {
+
+            @Override
+            protected void done() {
+
+                pendingSeedings.remove(tenantDomain, this);
+            }
+        };
+        if (pendingSeedings.putIfAbsent(tenantDomain, seeding) != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Default challenge questions of tenant: " + tenantDomain + " are already being seeded.");
+            }
+            return;
+        }
+        executor.execute(seeding);
+        if (log.isDebugEnabled()) {
+            log.debug("Default challenge questions of tenant: " + tenantDomain + " queued for seeding. Queue depth: " +
+                    getQueueDepth());
+        }
+    }
+
+    /**
+     * Wait for a pending seeding of a tenant to complete before operating on the tenant, up to the configured
+     * timeout. The seeding, including its retries, stays on the seeding executor.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void awaitSeeding(String tenantDomain) {
+
+        if (pendingSeedings.isEmpty() || tenantDomain == null || tenantDomain.equals(currentSeeding.get())) {
+            return;
+        }
+        FutureTask<Void> seeding = pendingSeedings.get(tenantDomain);
+        if (seeding == null) {
+            return;
+        }
+        try {
+            seeding.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The failure is logged by the seeding, and the operation continues on the catalog as it is.
+            if (log.isDebugEnabled()) {
+                log.debug("Default challenge questions of tenant: " + tenantDomain + " could not be seeded.", e);
+            }
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for the default challenge questions of tenant: " + tenantDomain +
+                    " to be seeded.");
+        }
+    }
+
+    /**
+     * Get the number of tenants whose seeding is queued or running.
+     *
+     * @return Number of pending seedings.
+     */
+    public int getQueueDepth() {
+
+        return pendingSeedings.size();
+    }
+
+    public DefaultChallengeQuestionSeedingMetrics getMetrics() {
+
+        return metrics;
+    }
+
+    private void seedWithRetries(String tenantDomain, long queuedTime)
+            throws IdentityRecoveryException, InterruptedException {
+
+        currentSeeding.set(tenantDomain);
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    seedingTask.seed(tenantDomain);
+                    metrics.recordSeeding(System.nanoTime() - queuedTime, false);
+                    return;
+                } catch (IdentityRecoveryException e) {
+                    if (attempt >= maxRetries) {
+                        metrics.recordSeeding(System.nanoTime() - queuedTime, true);
+                        log.error("Error when trying to set default challenge question for tenant : " +
+                                tenantDomain, e);
+                        throw e;
+                    }
+                    metrics.recordRetry();
+                    long retryDelay = retryDelayMillis * (attempt + 1);
+                    log.warn("Error when trying to set default challenge question for tenant : " + tenantDomain +
+                            ". Retrying in " + retryDelay + " ms.");
+                    Thread.sleep(retryDelay);
+                }
+            }
+        } finally {
+            currentSeeding.remove();
+            if (log.isDebugEnabled()) {
+                log.debug(metrics + ", queue depth: " + getQueueDepth());
+            }
+        }
+    }
+
+    /**
+     * Task seeding the default challenge questions of a tenant.
+     */
+    @FunctionalInterface
+    public interface SeedingTask {
+
+        /**
+         * Seed the default challenge questions of a tenant, unless the tenant already has challenge questions.
+         *
+         * @param tenantDomain Tenant domain.
+         * @throws IdentityRecoveryException If the seeding fails.
+         */
+        void seed(String tenantDomain) throws IdentityRecoveryException;
+    }
+}
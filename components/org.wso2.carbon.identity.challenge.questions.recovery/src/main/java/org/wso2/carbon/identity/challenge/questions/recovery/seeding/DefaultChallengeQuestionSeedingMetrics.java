@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.seeding;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the default challenge question seedings. The latency of a seeding is measured from the time it is
+ * queued, so that it includes the time spent waiting in the queue and between retries.
+ */
+public class DefaultChallengeQuestionSeedingMetrics {
+
+    private final AtomicLong seedingCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Record a completed seeding.
+     *
+     * @param latencyNanos Latency of the seeding in nanoseconds.
+     * @param failed       Whether the seeding failed after all of its retries.
+     */
+    public void recordSeeding(long latencyNanos, boolean failed) {
+
+        seedingCount.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Record a failed seeding attempt which is retried.
+     */
+    public void recordRetry() {
+
+        retryCount.incrementAndGet();
+    }
+
+    public long getSeedingCount() {
+
+        return seedingCount.get();
+    }
+
+    public long getFailureCount() {
+
+        return failureCount.get();
+    }
+
+    public long getRetryCount() {
+
+        return retryCount.get();
+    }
+
+    public long getMaxLatencyMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    /**
+     * Get the average latency of the completed seedings.
+     *
+     * @return Average latency in milliseconds, or 0 if there were no seedings.
+     */
+    public double getAverageLatencyMillis() {
+
+        long count = seedingCount.get();
+        return count == 0 ? 0 : (double) totalLatencyNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+
+        return "Default challenge question seedings: " + getSeedingCount() + ", failures: " + getFailureCount() +
+                ", retries: " + getRetryCount() + ", average latency: " +
+                String.format("%.2f", getAverageLatencyMillis()) + " ms, max latency: " + getMaxLatencyMillis() +
+                " ms";
+    }
+}
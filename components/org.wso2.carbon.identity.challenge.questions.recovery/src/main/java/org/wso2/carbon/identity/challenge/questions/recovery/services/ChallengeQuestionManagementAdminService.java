@@ -29,6 +29,7 @@ import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionCatalogWarmer;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
@@ -72,6 +73,40 @@ public class ChallengeQuestionManagementAdminService {
         }
     }
 
+    /**
+     * Get the URIs of all challenge question sets registered for a tenant, without the question texts.
+     *
+     * @param tenantDomain
+     * @return
+     * @throws IdentityRecoveryException
+     */
+    public String[] getChallengeQuestionSetURIsOfTenant(String tenantDomain) throws IdentityRecoveryException {
+
+        List<String> challengeSetURIs;
+        checkCrossTenantAccess(tenantDomain);
+        try {
+            challengeSetURIs = questionManager.getChallengeQuestionSetURIs(tenantDomain, null);
+            return challengeSetURIs.toArray(new String[0]);
+        } catch (IdentityRecoveryException e) {
+            String errorMgs = "Error loading challenge question sets for tenant : %s.";
+            log.error(String.format(errorMgs, tenantDomain), e);
+            throw new IdentityRecoveryException(String.format(errorMgs, tenantDomain), e);
+        }
+    }
+
+    /**
+     * Queue the warm-up of the challenge question catalog of a tenant, which loads the catalog into the catalog
+     * cache in the background.
+     *
+     * @param tenantDomain
+     * @throws IdentityRecoveryException
+     */
+    public void warmUpChallengeQuestionCatalogOfTenant(String tenantDomain) throws IdentityRecoveryException {
+
+        checkCrossTenantAccess(tenantDomain);
+        ChallengeQuestionCatalogWarmer.getInstance().warmUp(tenantDomain);
+    }
+
     /**
      * Get all challenge questions applicable for a user based on his locale. If we can't find any question in his
      * locale we return challenge questions from the default en_US locale.
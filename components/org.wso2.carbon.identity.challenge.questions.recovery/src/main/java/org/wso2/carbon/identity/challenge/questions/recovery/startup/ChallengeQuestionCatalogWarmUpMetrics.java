@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.startup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress counters of the challenge question catalog warm-ups. The latency of a warm-up is measured from the time it
+ * is requested, so that it includes the time spent waiting in the queue.
+ */
+public class ChallengeQuestionCatalogWarmUpMetrics {
+
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Record a requested warm-up.
+     */
+    public void recordRequest() {
+
+        requestedCount.incrementAndGet();
+    }
+
+    /**
+     * Record a completed warm-up.
+     *
+     * @param latencyNanos Latency of the warm-up in nanoseconds.
+     * @param failed       Whether the warm-up failed.
+     */
+    public void recordWarmUp(long latencyNanos, boolean failed) {
+
+        completedCount.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public long getRequestedCount() {
+
+        return requestedCount.get();
+    }
+
+    public long getCompletedCount() {
+
+        return completedCount.get();
+    }
+
+    public long getFailureCount() {
+
+        return failureCount.get();
+    }
+
+    public long getMaxLatencyMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    /**
+     * Get the average latency of the completed warm-ups.
+     *
+     * @return Average latency in milliseconds, or 0 if there were no warm-ups.
+     */
+    public double getAverageLatencyMillis() {
+
+        long count = completedCount.get();
+        return count == 0 ? 0 : (double) totalLatencyNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+
+        return "Challenge question catalog warm-ups requested: " + getRequestedCount() + ", completed: " +
+                getCompletedCount() + ", failures: " + getFailureCount() + ", average latency: " +
+                String.format("%.2f", getAverageLatencyMillis()) + " ms, max latency: " + getMaxLatencyMillis() +
+                " ms";
+    }
+}
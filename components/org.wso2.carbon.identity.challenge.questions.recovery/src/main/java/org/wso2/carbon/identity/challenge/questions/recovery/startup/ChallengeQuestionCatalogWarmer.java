@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.startup;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.ChallengeQuestionManager;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionStartupInitializer.TenantTask;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.user.api.Tenant;
+import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.CATALOG_WARM_UP_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.CATALOG_WARM_UP_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.DEFAULT_CATALOG_WARM_UP_POOL_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.DEFAULT_CATALOG_WARM_UP_QUEUE_CAPACITY;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getLongProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.newBoundedExecutor;
+
+/**
+ * Warms up the challenge question catalogs of tenants in the background with bounded parallelism, so that the first
+ * login or recovery of a tenant after a restart or a tenant load does not pay for a cold catalog read. Warming up a
+ * tenant loads its catalog, set count, locales and catalog index into the catalog cache. A tenant already queued is
+ * not queued again, and once the queue is full the warm-up runs on the requesting thread.
+ */
+public class ChallengeQuestionCatalogWarmer {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionCatalogWarmer.class);
+    private static final ChallengeQuestionCatalogWarmer instance = new ChallengeQuestionCatalogWarmer();
+
+    private final TenantTask warmUpTask;
+    private final TenantDomainSource activeTenantSource;
+    private final ExecutorService executor;
+    private final Set<String> pendingWarmUps = ConcurrentHashMap.newKeySet();
+    private final ChallengeQuestionCatalogWarmUpMetrics metrics = new ChallengeQuestionCatalogWarmUpMetrics();
+
+    private ChallengeQuestionCatalogWarmer() {
+
+        this(tenantDomain -> ChallengeQuestionManager.getInstance().loadChallengeQuestionCatalog(tenantDomain),
+                ChallengeQuestionCatalogWarmer::getActiveTenantDomains,
+                newBoundedExecutor("ChallengeQuestionCatalogWarmer",
+                        (int) getLongProperty(CATALOG_WARM_UP_POOL_SIZE, DEFAULT_CATALOG_WARM_UP_POOL_SIZE),
+                        (int) getLongProperty(CATALOG_WARM_UP_QUEUE_CAPACITY, DEFAULT_CATALOG_WARM_UP_QUEUE_CAPACITY)));
+    }
+
+    /**
+     * Create a catalog warmer.
+     *
+     * @param warmUpTask         Task warming up the catalog of a tenant.
+     * @param activeTenantSource Source of the active tenants.
+     * @param executor           Executor to warm up the catalogs on.
+     */
+    public ChallengeQuestionCatalogWarmer(TenantTask warmUpTask, TenantDomainSource activeTenantSource,
+                                          ExecutorService executor) {
+
+        this.warmUpTask = warmUpTask;
+        this.activeTenantSource = activeTenantSource;
+        this.executor = executor;
+    }
+
+    public static ChallengeQuestionCatalogWarmer getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Queue the warm-up of the catalog of a tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void warmUp(String tenantDomain) {
+
+        if (StringUtils.isBlank(tenantDomain) || !pendingWarmUps.add(tenantDomain)) {
+            return;
+        }
+        metrics.recordRequest();
+        long requestTime = System.nanoTime();
+        executor.execute(() -> warmUpInTenantFlow(tenantDomain, requestTime));
+    }
+
+    /**
+     * Queue the warm-up of the catalogs of the given tenants.
+     *
+     * @param tenantDomains Tenant domains.
+     */
+    public void warmUp(Collection<String> tenantDomains) {
+
+        for (String tenantDomain : tenantDomains) {
+            warmUp(tenantDomain);
+        }
+    }
+
+    /**
+     * Queue the warm-up of the catalogs of all the active tenants. The tenants are listed and queued on the warm-up
+     * executor, so that the caller is not held up.
+     */
+    public void warmUpActiveTenants() {
+
+        executor.execute(() -> {
+            try {
+                List<String> tenantDomains = activeTenantSource.getTenantDomains();
+                log.info("Warming up the challenge question catalogs of " + tenantDomains.size() + " tenants.");
+                warmUp(tenantDomains);
+            } catch (UserStoreException e) {
+                log.error("Error while listing the tenants to warm up the challenge question catalogs of.", e);
+            }
+        });
+    }
+
+    /**
+     * Get the number of tenants whose warm-up is queued or running.
+     *
+     * @return Number of pending warm-ups.
+     */
+    public int getPendingCount() {
+
+        return pendingWarmUps.size();
+    }
+
+    public ChallengeQuestionCatalogWarmUpMetrics getMetrics() {
+
+        return metrics;
+    }
+
+    private void warmUpInTenantFlow(String tenantDomain, long requestTime) {
+
+        boolean failed = true;
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+            warmUpTask.run(tenantDomain);
+            failed = false;
+        } catch (IdentityRecoveryException e) {
+            log.error("Error while warming up the challenge question catalog of tenant: " + tenantDomain, e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+            pendingWarmUps.remove(tenantDomain);
+            metrics.recordWarmUp(System.nanoTime() - requestTime, failed);
+            if (log.isDebugEnabled()) {
+                log.debug(metrics + ", pending: " + getPendingCount());
+            }
+        }
+    }
+
+    private static List<String> getActiveTenantDomains() throws UserStoreException {
+
+        List<String> tenantDomains = new ArrayList<>();
+        tenantDomains.add(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+        for (Tenant tenant : realmService.getTenantManager().getAllTenants()) {
+            if (tenant.isActive()) {
+                tenantDomains.add(tenant.getDomain());
+            }
+        }
+        return tenantDomains;
+    }
+
+    /**
+     * Source of the tenants to warm up the catalogs of.
+     */
+    @FunctionalInterface
+    public interface TenantDomainSource {
+
+        /**
+         * Get the tenant domains.
+         *
+         * @return Tenant domains.
+         * @throws UserStoreException If the tenants could not be listed.
+         */
+        List<String> getTenantDomains() throws UserStoreException;
+    }
+}
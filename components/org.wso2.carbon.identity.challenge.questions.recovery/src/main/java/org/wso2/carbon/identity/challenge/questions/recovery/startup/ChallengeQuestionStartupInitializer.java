@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery.startup;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.seeding.DefaultChallengeQuestionSeeder;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.CATALOG_WARM_UP_TENANTS;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.CatalogWarmUpConfig.DEFAULT_CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getBooleanProperty;
+import static org.wso2.carbon.identity.challenge.questions.recovery.util.Utils.getStringProperty;
+
+/**
+ * Runs the startup work of the challenge question catalog off the OSGi activation thread, so that the server startup
+ * is not gated on the latency of the identity database. The default challenge questions of the super tenant are
+ * seeded first, after which the catalogs of the configured tenants, or of all the active tenants, are queued on the
+ * ChallengeQuestionCatalogWarmer. Nothing waits for this work: reads of a tenant wait for its pending seeding first,
+ * and the catalog is read through on demand whether or not the warm up has completed.
+ */
+public class ChallengeQuestionStartupInitializer implements Runnable {
+
+    private static final Log log = LogFactory.getLog(ChallengeQuestionStartupInitializer.class);
+    private static final ChallengeQuestionStartupInitializer instance = new ChallengeQuestionStartupInitializer();
+
+    private final TenantTask seedingTask;
+    private final ChallengeQuestionCatalogWarmer catalogWarmer;
+    private final List<String> warmUpTenants;
+    private final boolean warmUpActiveTenants;
+    private ExecutorService executor;
+    private volatile boolean stopped;
+
+    private ChallengeQuestionStartupInitializer() {
+
+        this(ChallengeQuestionStartupInitializer::seedDefaultChallengeQuestions,
+                ChallengeQuestionCatalogWarmer.getInstance(),
+                parseTenantDomains(getStringProperty(CATALOG_WARM_UP_TENANTS, null)),
+                getBooleanProperty(CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP,
+                        DEFAULT_CATALOG_WARM_UP_ACTIVE_TENANTS_AT_STARTUP));
+    }
+
+    /**
+     * Create a startup initializer.
+     *
+     * @param seedingTask         Task seeding the default challenge questions of the super tenant.
+     * @param catalogWarmer       Warmer to queue the warm-up of the catalogs on.
+     * @param warmUpTenants       Tenants to warm up the catalogs of.
+     * @param warmUpActiveTenants Whether to warm up the catalogs of all the active tenants instead.
+     */
+    public ChallengeQuestionStartupInitializer(TenantTask seedingTask, ChallengeQuestionCatalogWarmer catalogWarmer,
+                                               List<String> warmUpTenants, boolean warmUpActiveTenants) {
+
+        this.seedingTask = seedingTask;
+        this.catalogWarmer = catalogWarmer;
+        this.warmUpTenants = Collections.unmodifiableList(new ArrayList<>(warmUpTenants));
+        this.warmUpActiveTenants = warmUpActiveTenants;
+    }
+
+    public static ChallengeQuestionStartupInitializer getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Start the initialization on a background thread.
+     */
+    public synchronized void start() {
+
+        if (executor != null) {
+            return;
+        }
+        stopped = false;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ChallengeQuestionStartupInitializer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this);
+    }
+
+    /**
+     * Stop an initialization in progress.
+     */
+    public synchronized void stop() {
+
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void run() {
+
+        long startTime = System.nanoTime();
+        try {
+            runInTenantFlow(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, seedingTask);
+            warmUp();
+        } finally {
+            log.info("Challenge question catalog initialized in " +
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms.");
+        }
+    }
+
+    public List<String> getWarmUpTenants() {
+
+        return warmUpTenants;
+    }
+
+    private void warmUp() {
+
+        if (stopped) {
+            return;
+        }
+        if (warmUpActiveTenants) {
+            catalogWarmer.warmUpActiveTenants();
+        } else {
+            catalogWarmer.warmUp(warmUpTenants);
+        }
+    }
+
+    private void runInTenantFlow(String tenantDomain, TenantTask task) {
+
+        if (stopped) {
+            return;
+        }
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+            task.run(tenantDomain);
+        } catch (IdentityRecoveryException e) {
+            log.error("Error while initializing the challenge question catalog of tenant: " + tenantDomain, e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private static void seedDefaultChallengeQuestions(String tenantDomain) {
+
+        DefaultChallengeQuestionSeeder seeder = DefaultChallengeQuestionSeeder.getInstance();
+        try {
+            seeder.seed(tenantDomain);
+        } catch (IdentityRecoveryException e) {
+            log.error("Error persisting challenge question for super tenant.", e);
+            return;
+        }
+        // Waits for a queued seeding, so that the catalogs are only warmed up once the tenant is seeded.
+        seeder.awaitSeeding(tenantDomain);
+    }
+
+    private static List<String> parseTenantDomains(String tenantDomains) {
+
+        Set<String> parsedTenantDomains = new LinkedHashSet<>();
+        if (StringUtils.isNotBlank(tenantDomains)) {
+            for (String tenantDomain : tenantDomains.split(",")) {
+                if (StringUtils.isNotBlank(tenantDomain)) {
+                    parsedTenantDomains.add(tenantDomain.trim());
+                }
+            }
+        }
+        return new ArrayList<>(parsedTenantDomains);
+    }
+
+    /**
+     * Work on the catalog of a tenant, run in the tenant flow of the tenant.
+     */
+    @FunctionalInterface
+    public interface TenantTask {
+
+        /**
+         * Run the task.
+         *
+         * @param tenantDomain Tenant domain.
+         * @throws IdentityRecoveryException If the task fails.
+         */
+        void run(String tenantDomain) throws IdentityRecoveryException;
+    }
+}
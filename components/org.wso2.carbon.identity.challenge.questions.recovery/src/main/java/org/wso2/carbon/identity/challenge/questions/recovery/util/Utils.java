@@ -24,29 +24,43 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.DigestChallengeAnswerHasher;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
-import org.wso2.carbon.identity.challenge.questions.recovery.internal.ChallengeQuestionDataHolder;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryServerException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
+import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.api.UserStoreManager;
-import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.service.RealmService;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.AnswerHashConfig.DEFAULT_ANSWER_HASH_ALGORITHM;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.BulkReadConfig.BULK_READ_TENANT_BATCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.BulkReadConfig.DEFAULT_BULK_READ_TENANT_BATCH_SIZE;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.BulkReadConfig.MAX_BULK_READ_TENANT_BATCH_SIZE;
 import static org.wso2.carbon.identity.recovery.IdentityRecoveryConstants.LOCALE_EN_US;
 
 public class Utils {
@@ -95,16 +109,10 @@ public class Utils {
             throws UserStoreException {
 
         String userStoreQualifiedUsername = IdentityUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
-        org.wso2.carbon.user.core.UserStoreManager userStoreManager = null;
-        RealmService realmService = ChallengeQuestionDataHolder.getInstance().getRealmService();
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager =
+                getTenantUserStoreManager(user.getTenantDomain());
         String claimValue = "";
 
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-        if (realmService.getTenantUserRealm(tenantId) != null) {
-            userStoreManager = (org.wso2.carbon.user.core.UserStoreManager) realmService.getTenantUserRealm(tenantId).
-                    getUserStoreManager();
-        }
-
         if (userStoreManager != null) {
             Map<String, String> claimsMap = userStoreManager
                     .getUserClaimValues(userStoreQualifiedUsername, new String[]{claim},
@@ -166,9 +174,7 @@ public class Utils {
      */
     public static String hashCode(String value) throws NoSuchAlgorithmException {
 
-        String digsestFunction = "SHA-256";
-        MessageDigest dgst = MessageDigest.getInstance(digsestFunction);
-        byte[] byteValue = dgst.digest(value.getBytes(StandardCharsets.UTF_8));
+        byte[] byteValue = DigestChallengeAnswerHasher.digest(DEFAULT_ANSWER_HASH_ALGORITHM, value);
         return Base64.encode(byteValue);
     }
 
@@ -208,14 +214,8 @@ public class Utils {
     public static void setClaimInUserStoreManager(User user, String claim, String value) throws UserStoreException {
 
         String fullUserName = IdentityUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-
-        org.wso2.carbon.user.core.UserStoreManager userStoreManager = null;
-        RealmService realmService = ChallengeQuestionDataHolder.getInstance().getRealmService();
-        if (realmService.getTenantUserRealm(tenantId) != null) {
-            userStoreManager = (org.wso2.carbon.user.core.UserStoreManager) realmService.getTenantUserRealm(tenantId).
-                    getUserStoreManager();
-        }
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager =
+                getTenantUserStoreManager(user.getTenantDomain());
 
         if (userStoreManager != null) {
             Map<String, String> values = userStoreManager.getUserClaimValues(fullUserName, new String[]{
@@ -233,14 +233,8 @@ public class Utils {
             throws UserStoreException {
 
         String userStoreQualifiedUsername = IdentityUtil.addDomainToName(user.getUserName(), user.getUserStoreDomain());
-        org.wso2.carbon.user.core.UserStoreManager userStoreManager = null;
-        RealmService realmService = ChallengeQuestionDataHolder.getInstance().getRealmService();
-
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
-        if (realmService.getTenantUserRealm(tenantId) != null) {
-            userStoreManager = (org.wso2.carbon.user.core.UserStoreManager) realmService.getTenantUserRealm(tenantId).
-                    getUserStoreManager();
-        }
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager =
+                getTenantUserStoreManager(user.getTenantDomain());
 
         if (userStoreManager != null) {
             userStoreManager
@@ -248,6 +242,47 @@ public class Utils {
         }
     }
 
+    /**
+     * Get the user store manager of a tenant, which resolves users of every user store domain.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return User store manager, or null if the realm of the tenant is not available.
+     * @throws UserStoreException If an error occurs while loading the realm of the tenant.
+     */
+    public static org.wso2.carbon.user.core.UserStoreManager getTenantUserStoreManager(String tenantDomain)
+            throws UserStoreException {
+
+        RealmService realmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+        if (realmService == null) {
+            return null;
+        }
+        UserRealm userRealm = realmService.getTenantUserRealm(IdentityTenantUtil.getTenantId(tenantDomain));
+        if (userRealm == null) {
+            return null;
+        }
+        return (org.wso2.carbon.user.core.UserStoreManager) userRealm.getUserStoreManager();
+    }
+
+    /**
+     * Get the user store manager of a user store domain of a tenant.
+     *
+     * @param tenantDomain    Tenant domain.
+     * @param userStoreDomain User store domain. The primary user store manager is returned for a blank domain.
+     * @return User store manager, or null if the realm of the tenant or the user store is not available.
+     * @throws UserStoreException If an error occurs while loading the realm of the tenant.
+     */
+    public static org.wso2.carbon.user.core.UserStoreManager getTenantUserStoreManager(String tenantDomain,
+                                                                                      String userStoreDomain)
+            throws UserStoreException {
+
+        org.wso2.carbon.user.core.UserStoreManager userStoreManager = getTenantUserStoreManager(tenantDomain);
+        if (userStoreManager == null || StringUtils.isBlank(userStoreDomain) ||
+                IdentityUtil.getPrimaryDomainName().equalsIgnoreCase(userStoreDomain)) {
+            return userStoreManager;
+        }
+        return userStoreManager.getSecondaryUserStoreManager(userStoreDomain);
+    }
+
     // challenge question related Util
     public static String getChallengeSetDirFromUri(String challengeSetUri) {
 
@@ -273,6 +308,26 @@ public class Utils {
         return IdentityException.error(IdentityRecoveryClientException.class, error.getCode(), errorDescription);
     }
 
+    /**
+     * Handle client exception.
+     *
+     * @param error Error message.
+     * @param data  Data to be formatted in the error message.
+     * @return IdentityRecoveryClientException.
+     */
+    public static IdentityRecoveryClientException handleClientException(ChallengeQuestionsConstants.ErrorMessages error,
+                                                                        String data) {
+
+        String errorDescription;
+        if (StringUtils.isNotBlank(data)) {
+            errorDescription = String.format(error.getMessage(), data);
+        } else {
+            errorDescription = error.getMessage();
+        }
+
+        return IdentityException.error(IdentityRecoveryClientException.class, error.getCode(), errorDescription);
+    }
+
     private static org.wso2.carbon.user.core.UserStoreManager getUserStoreManager(User user)
             throws IdentityRecoveryClientException, IdentityRecoveryServerException {
 
@@ -284,15 +339,12 @@ public class Utils {
                     "Invalid User Data provided.");
         }
 
-        int tenantId = IdentityTenantUtil.getTenantId(user.getTenantDomain());
         try {
-            RealmService realmService = ChallengeQuestionDataHolder.getInstance().getRealmService();
-            if (realmService == null || realmService.getTenantUserRealm(tenantId) == null) {
+            userStoreManager = getTenantUserStoreManager(user.getTenantDomain());
+            if (userStoreManager == null) {
                 throw handleServerException(IdentityRecoveryConstants.ErrorMessages.
                         ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain());
             }
-            userStoreManager = (org.wso2.carbon.user.core.UserStoreManager) realmService.getTenantUserRealm(tenantId).
-                    getUserStoreManager();
         } catch (UserStoreException e) {
             throw handleServerException(IdentityRecoveryConstants.ErrorMessages.
                     ERROR_CODE_FAILED_TO_LOAD_REALM_SERVICE, user.getTenantDomain(), e);
@@ -443,4 +495,256 @@ public class Utils {
                     pathParamName);
         }
     }
+
+    /**
+     * Read a boolean property from the identity configuration.
+     *
+     * @param property     Property name.
+     * @param defaultValue Value to use if the property is not configured.
+     * @return Configured value, or the default value.
+     */
+    public static boolean getBooleanProperty(String property, boolean defaultValue) {
+
+        String value = IdentityUtil.getProperty(property);
+        return StringUtils.isBlank(value) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Read a string property from the identity configuration.
+     *
+     * @param property     Property name.
+     * @param defaultValue Value to use if the property is not configured.
+     * @return Configured value, or the default value.
+     */
+    public static String getStringProperty(String property, String defaultValue) {
+
+        String value = IdentityUtil.getProperty(property);
+        return StringUtils.isBlank(value) ? defaultValue : value.trim();
+    }
+
+    /**
+     * Read a numeric property from the identity configuration.
+     *
+     * @param property     Property name.
+     * @param defaultValue Value to use if the property is not configured or is invalid.
+     * @return Configured value, or the default value.
+     */
+    public static long getLongProperty(String property, long defaultValue) {
+
+        String value = IdentityUtil.getProperty(property);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " configured for " + property + ". Using the default value: " +
+                    defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a page of challenge questions from an in memory list, in the order of ChallengeQuestion.KEY_ORDER.
+     *
+     * @param challengeQuestions Challenge questions to paginate.
+     * @param after              Question after which the page starts, or null to start from the first question.
+     * @param limit              Maximum number of questions in the page.
+     * @return Page of challenge questions.
+     */
+    public static List<ChallengeQuestion> getChallengeQuestionPage(List<ChallengeQuestion> challengeQuestions,
+                                                                   ChallengeQuestion after, int limit) {
+
+        return challengeQuestions.stream()
+                .filter(question -> after == null || ChallengeQuestion.KEY_ORDER.compare(question, after) > 0)
+                .sorted(ChallengeQuestion.KEY_ORDER)
+                .limit(Math.max(0, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the distinct URIs of the question sets of the given challenge questions.
+     *
+     * @param challengeQuestions Challenge questions.
+     * @return Sorted challenge question set URIs.
+     */
+    public static List<String> getChallengeQuestionSetURIs(List<ChallengeQuestion> challengeQuestions) {
+
+        return challengeQuestions.stream()
+                .map(ChallengeQuestion::getQuestionSetId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the distinct ids of the given challenge questions which belong to a question set.
+     *
+     * @param challengeQuestions Challenge questions.
+     * @param challengeSetUri    Challenge question set URI.
+     * @return Sorted question ids of the set.
+     */
+    public static List<String> getChallengeQuestionIds(List<ChallengeQuestion> challengeQuestions,
+                                                       String challengeSetUri) {
+
+        return challengeQuestions.stream()
+                .filter(question -> StringUtils.equals(challengeSetUri, question.getQuestionSetId()))
+                .map(ChallengeQuestion::getQuestionId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the distinct locales of the given challenge questions.
+     *
+     * @param challengeQuestions Challenge questions.
+     * @return Sorted locales of the challenge questions.
+     */
+    public static List<String> getChallengeQuestionLocales(List<ChallengeQuestion> challengeQuestions) {
+
+        return challengeQuestions.stream()
+                .map(ChallengeQuestion::getLocale)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the given challenge questions which are in a locale. Locales are compared ignoring case.
+     *
+     * @param challengeQuestions Challenge questions.
+     * @param locale             Challenge questions locale.
+     * @return Challenge questions of the locale, in the given order.
+     */
+    public static List<ChallengeQuestion> getChallengeQuestionsOfLocale(List<ChallengeQuestion> challengeQuestions,
+                                                                        String locale) {
+
+        return challengeQuestions.stream()
+                .filter(question -> StringUtils.equalsIgnoreCase(locale, question.getLocale()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the given challenge questions which are in the first locale of the given locales having any question.
+     *
+     * @param challengeQuestions Challenge questions.
+     * @param locales            Challenge questions locales, in the order of precedence.
+     * @return Challenge questions of the first locale having questions, or an empty list if no locale has questions.
+     */
+    public static List<ChallengeQuestion> getChallengeQuestionsOfFirstLocale(
+            List<ChallengeQuestion> challengeQuestions, List<String> locales) {
+
+        for (String locale : locales) {
+            List<ChallengeQuestion> challengeQuestionsOfLocale = getChallengeQuestionsOfLocale(challengeQuestions,
+                    locale);
+            if (!challengeQuestionsOfLocale.isEmpty()) {
+                return challengeQuestionsOfLocale;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Split tenant ids into batches for bulk reads, in ascending order and without duplicates. The batch size is
+     * configurable, and capped so that the tenant ids of a batch fit into the IN list of any supported database.
+     *
+     * @param tenantIds Tenant ids.
+     * @return Batches of tenant ids.
+     */
+    public static List<List<Integer>> getTenantIdBatches(Collection<Integer> tenantIds) {
+
+        List<Integer> sortedTenantIds = tenantIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        int batchSize = (int) Math.max(1, Math.min(MAX_BULK_READ_TENANT_BATCH_SIZE,
+                getLongProperty(BULK_READ_TENANT_BATCH_SIZE, DEFAULT_BULK_READ_TENANT_BATCH_SIZE)));
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int i = 0; i < sortedTenantIds.size(); i += batchSize) {
+            batches.add(sortedTenantIds.subList(i, Math.min(i + batchSize, sortedTenantIds.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Get the named placeholder of the tenant id at an index of an IN list.
+     *
+     * @param index Index of the tenant id.
+     * @return Placeholder name.
+     */
+    public static String getTenantIdPlaceholder(int index) {
+
+        return ChallengeQuestionsConstants.ChallengeQuestionTableColumns.TENANT_ID + "_" + index;
+    }
+
+    /**
+     * Get the named placeholders of an IN list of tenant ids, to be set with getTenantIdPlaceholder.
+     *
+     * @param count Number of tenant ids.
+     * @return Comma separated placeholders.
+     */
+    public static String getTenantIdPlaceholders(int count) {
+
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                placeholders.append(", ");
+            }
+            placeholders.append(':').append(getTenantIdPlaceholder(i)).append(';');
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * Create a fixed size executor of daemon threads with a bounded queue. Once the queue is full, tasks run on the
+     * submitting thread instead of being rejected. Idle threads are released.
+     *
+     * @param threadNamePrefix Prefix of the thread names.
+     * @param poolSize         Number of threads.
+     * @param queueCapacity    Capacity of the task queue.
+     * @return Executor.
+     */
+    public static ExecutorService newBoundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(Math.max(1, poolSize), Math.max(1, poolSize), 60,
+                TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Wrap a task so that it runs in the tenant flow of the calling thread, when executed on another thread.
+     *
+     * @param task Task to wrap.
+     * @return Task running in the tenant flow of the caller.
+     */
+    public static <T> Callable<T> withTenantFlow(Callable<T> task) {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        String tenantDomain = carbonContext.getTenantDomain();
+        int tenantId = carbonContext.getTenantId();
+        String username = carbonContext.getUsername();
+        return () -> {
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext workerContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                workerContext.setTenantDomain(tenantDomain);
+                workerContext.setTenantId(tenantId);
+                workerContext.setUsername(username);
+                return task.call();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        };
+    }
 }
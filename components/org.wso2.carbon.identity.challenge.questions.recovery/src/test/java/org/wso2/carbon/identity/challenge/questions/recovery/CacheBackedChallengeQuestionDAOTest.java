@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogIndex;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.CacheBackedChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the CacheBackedChallengeQuestionDAO and the ChallengeQuestionCatalogCache.
+ */
+@WithCarbonHome
+public class CacheBackedChallengeQuestionDAOTest {
+
+    private static final String CACHE_NAME = "CacheBackedChallengeQuestionDAOTestCache";
+
+    private ChallengeQuestionDAO challengeQuestionDAO;
+    private ChallengeQuestionCatalogCache catalogCache;
+    private CacheBackedChallengeQuestionDAO cacheBackedChallengeQuestionDAO;
+    private List<ChallengeQuestion> challengeQuestions;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        challengeQuestionDAO = Mockito.mock(ChallengeQuestionDAO.class);
+        catalogCache = new ChallengeQuestionCatalogCache(CACHE_NAME, true);
+        // Caches of the same name share their entries, so drop the entries of the previous test.
+        catalogCache.invalidate(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO = new CacheBackedChallengeQuestionDAO(challengeQuestionDAO, catalogCache);
+        challengeQuestions = Arrays.asList(
+                new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_1, LOCALE_1),
+                new ChallengeQuestion(QUESTION_SET_ID_2, QUESTION_ID_1, QUESTION_2, LOCALE_1));
+    }
+
+    @Test
+    public void testReadThrough() throws Exception {
+
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1)).thenReturn(challengeQuestions);
+
+        assertEquals(cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1),
+                challengeQuestions);
+        assertEquals(cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1),
+                challengeQuestions);
+
+        verify(challengeQuestionDAO, times(1)).getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+        assertEquals(catalogCache.getHitCount(), 1);
+        assertEquals(catalogCache.getMissCount(), 1);
+    }
+
+    @Test
+    public void testInvalidationOnWrite() throws Exception {
+
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(challengeQuestions);
+        when(challengeQuestionDAO.getAllChallengeQuestionSetsURIs(TENANT_DOMAIN))
+                .thenReturn(Arrays.asList(QUESTION_SET_ID_1, QUESTION_SET_ID_2));
+
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestionSetsURIs(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.addChallengeQuestions(new ChallengeQuestion[0], TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.deleteChallengeQuestions(new ChallengeQuestion[0], TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.deleteChallengeQuestionSet(QUESTION_SET_ID_1, LOCALE_1, TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestionSetsURIs(TENANT_DOMAIN);
+
+        verify(challengeQuestionDAO, times(4)).getAllChallengeQuestions(TENANT_DOMAIN);
+        verify(challengeQuestionDAO, times(2)).getAllChallengeQuestionSetsURIs(TENANT_DOMAIN);
+        assertEquals(catalogCache.getHitCount(), 0);
+    }
+
+    @Test
+    public void testLocaleFallbackWithNegativeCache() throws Exception {
+
+        List<String> locales = Arrays.asList("fr_FR", LOCALE_1);
+        when(challengeQuestionDAO.getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales))
+                .thenReturn(challengeQuestions);
+
+        assertEquals(cacheBackedChallengeQuestionDAO.getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales),
+                challengeQuestions);
+        assertEquals(cacheBackedChallengeQuestionDAO.getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales),
+                challengeQuestions);
+
+        verify(challengeQuestionDAO, times(1)).getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales);
+        assertEquals(catalogCache.getChallengeQuestions(TENANT_DOMAIN, "fr_FR"), Collections.emptyList());
+        assertEquals(catalogCache.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1), challengeQuestions);
+
+        cacheBackedChallengeQuestionDAO.addChallengeQuestions(new ChallengeQuestion[0], TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales);
+        verify(challengeQuestionDAO, times(2)).getChallengeQuestionsOfLocales(TENANT_DOMAIN, locales);
+    }
+
+    @Test
+    public void testCachedQuestionsAreCopied() throws Exception {
+
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1)).thenReturn(challengeQuestions);
+
+        cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).get(0)
+                .setQuestion(QUESTION_2);
+        challengeQuestions.get(1).setQuestion(QUESTION_1);
+
+        List<ChallengeQuestion> cachedChallengeQuestions =
+                cacheBackedChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+        assertEquals(cachedChallengeQuestions.get(0).getQuestion(), QUESTION_1);
+        assertEquals(cachedChallengeQuestions.get(1).getQuestion(), QUESTION_2);
+        verify(challengeQuestionDAO, times(1)).getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+    }
+
+    @Test
+    public void testStaleReadIsNotCached() throws Exception {
+
+        long generation = catalogCache.getGeneration();
+        catalogCache.invalidate(TENANT_DOMAIN);
+        catalogCache.putChallengeQuestions(TENANT_DOMAIN, LOCALE_1, challengeQuestions, generation);
+
+        assertNull(catalogCache.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1));
+    }
+
+    @Test
+    public void testCatalogIndex() throws Exception {
+
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1)).thenReturn(challengeQuestions);
+
+        ChallengeQuestionCatalogIndex catalogIndex =
+                cacheBackedChallengeQuestionDAO.getChallengeQuestionCatalogIndex(TENANT_DOMAIN, LOCALE_1);
+        assertTrue(catalogIndex.contains(" " + QUESTION_SET_ID_1 + " ", " " + QUESTION_1 + " "));
+        assertTrue(catalogIndex.contains(QUESTION_SET_ID_2, QUESTION_2));
+        assertFalse(catalogIndex.contains(QUESTION_SET_ID_1, QUESTION_2));
+        assertFalse(catalogIndex.contains(null, QUESTION_1));
+
+        // Question set ids are trimmed on both sides of the lookup.
+        ChallengeQuestionCatalogIndex untrimmedIndex = ChallengeQuestionCatalogIndex.of(TENANT_DOMAIN, LOCALE_1,
+                Collections.singletonList(new ChallengeQuestion(" " + QUESTION_SET_ID_1 + " ", QUESTION_ID_1,
+                        QUESTION_1, LOCALE_1)));
+        assertTrue(untrimmedIndex.contains(QUESTION_SET_ID_1, QUESTION_1));
+        assertTrue(untrimmedIndex.contains(" " + QUESTION_SET_ID_1, QUESTION_1));
+
+        assertSame(cacheBackedChallengeQuestionDAO.getChallengeQuestionCatalogIndex(TENANT_DOMAIN, LOCALE_1),
+                catalogIndex);
+        verify(challengeQuestionDAO, times(1)).getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+
+        cacheBackedChallengeQuestionDAO.addChallengeQuestions(new ChallengeQuestion[0], TENANT_DOMAIN);
+        cacheBackedChallengeQuestionDAO.getChallengeQuestionCatalogIndex(TENANT_DOMAIN, LOCALE_1);
+        verify(challengeQuestionDAO, times(2)).getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+    }
+
+    @Test
+    public void testDisabledCache() throws Exception {
+
+        ChallengeQuestionCatalogCache disabledCache = new ChallengeQuestionCatalogCache(CACHE_NAME, false);
+        CacheBackedChallengeQuestionDAO dao = new CacheBackedChallengeQuestionDAO(challengeQuestionDAO,
+                disabledCache);
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1))
+                .thenReturn(Collections.emptyList());
+
+        dao.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+        dao.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+
+        assertFalse(disabledCache.isEnabled());
+        verify(challengeQuestionDAO, times(2)).getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1);
+    }
+}
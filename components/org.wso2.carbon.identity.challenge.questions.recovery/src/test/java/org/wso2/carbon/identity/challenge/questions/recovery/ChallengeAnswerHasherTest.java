@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.ChallengeAnswerHasher;
+import org.wso2.carbon.identity.challenge.questions.recovery.hash.DigestChallengeAnswerHasher;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.recovery.util.Utils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * This class tests the DigestChallengeAnswerHasher class.
+ */
+@WithCarbonHome
+public class ChallengeAnswerHasherTest {
+
+    private static final String ANSWER = "  My Answer ";
+    private static final String NORMALIZED_ANSWER = "my answer";
+
+    @Test
+    public void testDefaultAlgorithmKeepsStoredFormat() throws Exception {
+
+        ChallengeAnswerHasher answerHasher = new DigestChallengeAnswerHasher("SHA-256");
+
+        assertEquals(answerHasher.normalize(ANSWER), NORMALIZED_ANSWER);
+        String hash = answerHasher.hash(answerHasher.normalize(ANSWER));
+        // Answers hashed before the hasher was introduced must still match.
+        assertEquals(hash, Utils.doHash(NORMALIZED_ANSWER));
+        assertEquals(answerHasher.getAlgorithm(hash), "SHA-256");
+        assertTrue(answerHasher.matches(NORMALIZED_ANSWER, hash));
+        assertFalse(answerHasher.matches("other answer", hash));
+        assertFalse(answerHasher.matches(NORMALIZED_ANSWER, null));
+    }
+
+    @Test
+    public void testConfiguredAlgorithm() throws Exception {
+
+        ChallengeAnswerHasher answerHasher = new DigestChallengeAnswerHasher("SHA-512");
+        ChallengeAnswerHasher defaultAnswerHasher = new DigestChallengeAnswerHasher("SHA-256");
+
+        String hash = answerHasher.hash(NORMALIZED_ANSWER);
+        assertTrue(hash.startsWith("{SHA-512}"));
+        assertEquals(answerHasher.getAlgorithm(), "SHA-512");
+        assertEquals(answerHasher.getAlgorithm(hash), "SHA-512");
+
+        // The algorithm of a stored hash is used to verify it, whichever algorithm is configured.
+        String defaultHash = defaultAnswerHasher.hash(NORMALIZED_ANSWER);
+        assertTrue(answerHasher.matches(NORMALIZED_ANSWER, defaultHash));
+        assertTrue(defaultAnswerHasher.matches(NORMALIZED_ANSWER, hash));
+        assertFalse(defaultAnswerHasher.matches("other answer", hash));
+    }
+
+    @Test
+    public void testHashWithGivenAlgorithm() throws Exception {
+
+        ChallengeAnswerHasher answerHasher = new DigestChallengeAnswerHasher("SHA-256");
+        ChallengeAnswerHasher sha512AnswerHasher = new DigestChallengeAnswerHasher("SHA-512");
+
+        // An answer hashed with the algorithm of stored hashes can be compared with them directly.
+        assertEquals(answerHasher.hash(NORMALIZED_ANSWER, "SHA-512"), sha512AnswerHasher.hash(NORMALIZED_ANSWER));
+        assertEquals(sha512AnswerHasher.hash(NORMALIZED_ANSWER, "SHA-256"), Utils.doHash(NORMALIZED_ANSWER));
+    }
+
+    @Test
+    public void testUnavailableAlgorithmFallsBackToDefault() throws Exception {
+
+        ChallengeAnswerHasher answerHasher = new DigestChallengeAnswerHasher("UNKNOWN-ALGORITHM");
+
+        assertEquals(answerHasher.getAlgorithm(), "SHA-256");
+        assertEquals(answerHasher.hash(NORMALIZED_ANSWER), Utils.doHash(NORMALIZED_ANSWER));
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.claim.UserClaimContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.common.testng.WithRealmService;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.identity.recovery.util.Utils;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the number of user store calls made by the ChallengeQuestionManager for the user challenge
+ * answer operations.
+ */
+@WithCarbonHome
+@WithRealmService(initUserStoreManager = true)
+public class ChallengeAnswerUserStoreAccessTest {
+
+    private static final String USERNAME = "testUser";
+    private static final String CHALLENGE_SET_1 = "http://wso2.org/claims/challengeQuestion1";
+    private static final String CHALLENGE_SET_2 = "http://wso2.org/claims/challengeQuestion2";
+    private static final String ANSWER_1 = "Answer1";
+    private static final String ANSWER_2 = "Answer2";
+
+    private ChallengeQuestionManager challengeQuestionManager;
+    private RealmService previousRealmService;
+    private RealmService realmService;
+    private UserStoreManager userStoreManager;
+    private Map<String, String> userClaims;
+    private User user;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        challengeQuestionManager = ChallengeQuestionManager.getInstance();
+        previousRealmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+
+        realmService = mock(RealmService.class);
+        UserRealm userRealm = mock(UserRealm.class);
+        userStoreManager = mock(UserStoreManager.class);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        when(userStoreManager.getUserClaimValues(anyString(), any(String[].class), any())).thenAnswer(
+                invocation -> {
+                    Map<String, String> claimValues = new HashMap<>();
+                    for (String claim : (String[]) invocation.getArgument(1)) {
+                        if (userClaims.containsKey(claim)) {
+                            claimValues.put(claim, userClaims.get(claim));
+                        }
+                    }
+                    return claimValues;
+                });
+        IdentityRecoveryServiceDataHolder.getInstance().setRealmService(realmService);
+
+        String separator = IdentityRecoveryConstants.DEFAULT_CHALLENGE_QUESTION_SEPARATOR;
+        userClaims = new HashMap<>();
+        userClaims.put(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI, CHALLENGE_SET_1 + separator + CHALLENGE_SET_2);
+        userClaims.put(CHALLENGE_SET_1, QUESTION_1 + separator + Utils.doHash(ANSWER_1.toLowerCase()));
+        userClaims.put(CHALLENGE_SET_2, QUESTION_2 + separator + Utils.doHash(ANSWER_2.toLowerCase()));
+
+        user = new User();
+        user.setUserName(USERNAME);
+        user.setTenantDomain(TENANT_DOMAIN);
+        user.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        IdentityRecoveryServiceDataHolder.getInstance().setRealmService(previousRealmService);
+    }
+
+    @Test
+    public void testGetChallengeAnswersOfUser() throws Exception {
+
+        UserChallengeAnswer[] challengeAnswers = challengeQuestionManager.getChallengeAnswersOfUser(user);
+
+        assertEquals(challengeAnswers.length, 2);
+        assertEquals(challengeAnswers[0].getQuestion().getQuestionSetId(), CHALLENGE_SET_1);
+        assertEquals(challengeAnswers[0].getQuestion().getQuestion(), QUESTION_1);
+        assertEquals(challengeAnswers[1].getQuestion().getQuestionSetId(), CHALLENGE_SET_2);
+        assertEquals(challengeAnswers[1].getQuestion().getQuestion(), QUESTION_2);
+        // One call for the answered challenge set URIs and one call for all the answers.
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 2);
+    }
+
+    @Test
+    public void testGetChallengeAnswersOfUserWithoutAnswers() throws Exception {
+
+        userClaims.clear();
+
+        assertEquals(challengeQuestionManager.getChallengeAnswersOfUser(user).length, 0);
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 1);
+    }
+
+    @Test
+    public void testVerifyUserChallengeAnswers() throws Exception {
+
+        UserChallengeAnswer[] challengeAnswers = new UserChallengeAnswer[]{
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_1, QUESTION_1), " " + ANSWER_1 + " "),
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_2, QUESTION_2), "wrongAnswer")};
+
+        Map<String, Boolean> verificationResults =
+                challengeQuestionManager.verifyUserChallengeAnswers(user, challengeAnswers);
+
+        assertEquals(verificationResults.size(), 2);
+        assertTrue(verificationResults.get(CHALLENGE_SET_1));
+        assertFalse(verificationResults.get(CHALLENGE_SET_2));
+        // The stored answers are loaded once regardless of the number of submitted answers.
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 2);
+    }
+
+    @Test
+    public void testVerifyUserChallengeAnswersOfUnansweredSet() throws Exception {
+
+        userClaims.remove(CHALLENGE_SET_2);
+        UserChallengeAnswer[] challengeAnswers = new UserChallengeAnswer[]{
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_2, QUESTION_2), ANSWER_2),
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_1, QUESTION_1), "")};
+
+        Map<String, Boolean> verificationResults =
+                challengeQuestionManager.verifyUserChallengeAnswers(user, challengeAnswers);
+
+        assertFalse(verificationResults.get(CHALLENGE_SET_2));
+        assertFalse(verificationResults.get(CHALLENGE_SET_1));
+    }
+
+    @Test
+    public void testClaimsReadOncePerClaimContext() throws Exception {
+
+        ChallengeQuestionDAO previousChallengeQuestionDAO = challengeQuestionManager.challengeQuestionsImpl;
+        ChallengeQuestionDAO challengeQuestionDAO = mock(ChallengeQuestionDAO.class);
+        when(challengeQuestionDAO.getAllChallengeQuestionSetsURIs(anyString()))
+                .thenReturn(Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+        challengeQuestionManager.challengeQuestionsImpl = challengeQuestionDAO;
+        try (UserClaimContext ignored = UserClaimContext.open()) {
+            assertEquals(challengeQuestionManager.getChallengeQuestionUris(user),
+                    Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+            assertEquals(challengeQuestionManager.getChallengeAnswersOfUser(user).length, 2);
+            assertEquals(challengeQuestionManager.getUserChallengeQuestion(user, CHALLENGE_SET_2).getQuestion(),
+                    QUESTION_2);
+            // The answered set URIs, the locale and the answers are prefetched with the first read.
+            assertEquals(countUserStoreInvocations("getUserClaimValues"), 1);
+
+            // A write drops the claims of the user from the context.
+            challengeQuestionManager.removeChallengeAnswerOfUser(user, CHALLENGE_SET_2);
+            int invocationsAfterWrite = countUserStoreInvocations("getUserClaimValues");
+            challengeQuestionManager.getChallengeQuestionUris(user);
+            assertEquals(countUserStoreInvocations("getUserClaimValues"), invocationsAfterWrite + 1);
+        } finally {
+            challengeQuestionManager.challengeQuestionsImpl = previousChallengeQuestionDAO;
+        }
+        assertNull(UserClaimContext.getCurrent());
+    }
+
+    @Test
+    public void testRemoveChallengeAnswerOfUser() throws Exception {
+
+        challengeQuestionManager.removeChallengeAnswerOfUser(user, CHALLENGE_SET_2);
+
+        Map<String, String> expectedClaims = new HashMap<>();
+        expectedClaims.put(IdentityRecoveryConstants.CHALLENGE_QUESTION_URI, CHALLENGE_SET_1);
+        verify(userStoreManager, times(1)).setUserClaimValues(anyString(), eq(expectedClaims), any());
+        // The answer claim is removed instead of being written empty.
+        verify(userStoreManager, times(1)).deleteUserClaimValues(anyString(), eq(new String[]{CHALLENGE_SET_2}),
+                any());
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 1);
+    }
+
+    @Test
+    public void testReconfiguredUserStoreManagerIsUsed() throws Exception {
+
+        challengeQuestionManager.getChallengeQuestionUris(user);
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 1);
+
+        // A user store reconfiguration replaces the realm of the tenant, which must be used without invalidation.
+        UserRealm reconfiguredUserRealm = mock(UserRealm.class);
+        UserStoreManager reconfiguredUserStoreManager = mock(UserStoreManager.class);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(reconfiguredUserRealm);
+        when(reconfiguredUserRealm.getUserStoreManager()).thenReturn(reconfiguredUserStoreManager);
+
+        challengeQuestionManager.getChallengeQuestionUris(user);
+        verify(reconfiguredUserStoreManager, times(1)).getUserClaimValues(anyString(), any(String[].class), any());
+        assertEquals(countUserStoreInvocations("getUserClaimValues"), 1);
+    }
+
+    private int countUserStoreInvocations(String methodName) {
+
+        int count = 0;
+        for (Invocation invocation : Mockito.mockingDetails(userStoreManager).getInvocations()) {
+            if (methodName.equals(invocation.getMethod().getName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
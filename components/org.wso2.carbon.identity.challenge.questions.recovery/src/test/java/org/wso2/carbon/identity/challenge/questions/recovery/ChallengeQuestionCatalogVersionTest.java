@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.CacheBackedChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionCatalogVersionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.common.testng.WithH2Database;
+import org.wso2.carbon.identity.common.testng.WithRealmService;
+import org.wso2.carbon.identity.common.testng.WithRegistry;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.UPDATED_QUESTION;
+
+/**
+ * This class tests the catalog version based cache invalidation with two nodes sharing the same identity database.
+ */
+@WithRegistry
+@WithRealmService(initUserStoreManager = true)
+@WithH2Database(jndiName = "jdbc/WSO2IdentityDB", files = {"dbscripts/h2.sql"})
+@WithCarbonHome
+public class ChallengeQuestionCatalogVersionTest {
+
+    // Each node has a cache of its own name, as caches of the same name share their entries.
+    private static final String NODE_CACHE_NAME = "ChallengeQuestionCatalogVersionTestCache";
+    private static final AtomicInteger nodeCount = new AtomicInteger();
+
+    private CacheBackedChallengeQuestionDAO node1;
+    private CacheBackedChallengeQuestionDAO node2;
+    private ChallengeQuestion challengeQuestion;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        node1 = createNode(0);
+        node2 = createNode(0);
+        challengeQuestion = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_1, LOCALE_1);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        new JDBCChallengeQuestionDAOImpl().deleteChallengeQuestionSet(QUESTION_SET_ID_1, null, TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testCatalogVersionIncrementedOnModification() throws Exception {
+
+        ChallengeQuestionCatalogVersionDAO catalogVersionDAO = new ChallengeQuestionCatalogVersionDAO();
+        long initialVersion = catalogVersionDAO.getCatalogVersion(TENANT_DOMAIN);
+
+        node1.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+        node1.deleteChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+
+        assertEquals(catalogVersionDAO.getCatalogVersion(TENANT_DOMAIN), initialVersion + 2);
+    }
+
+    @Test
+    public void testCatalogVersionNotIncrementedWithoutVersionChecks() throws Exception {
+
+        ChallengeQuestionCatalogVersionDAO catalogVersionDAO = new ChallengeQuestionCatalogVersionDAO();
+        long initialVersion = catalogVersionDAO.getCatalogVersion(TENANT_DOMAIN);
+
+        JDBCChallengeQuestionDAOImpl challengeQuestionDAO = new JDBCChallengeQuestionDAOImpl(null);
+        challengeQuestionDAO.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+        challengeQuestionDAO.deleteChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+
+        assertEquals(catalogVersionDAO.getCatalogVersion(TENANT_DOMAIN), initialVersion);
+    }
+
+    @Test
+    public void testModificationOnOtherNodeInvalidatesCache() throws Exception {
+
+        assertTrue(node1.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).isEmpty());
+
+        node2.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+        assertEquals(node1.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1),
+                Collections.singletonList(challengeQuestion));
+
+        ChallengeQuestion updatedQuestion =
+                new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, UPDATED_QUESTION, LOCALE_1);
+        node2.addChallengeQuestions(new ChallengeQuestion[]{updatedQuestion}, TENANT_DOMAIN);
+        assertEquals(node1.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).get(0).getQuestion(),
+                UPDATED_QUESTION);
+
+        node2.deleteChallengeQuestionSet(QUESTION_SET_ID_1, LOCALE_1, TENANT_DOMAIN);
+        assertTrue(node1.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).isEmpty());
+    }
+
+    @Test
+    public void testCacheServedWithinVersionCheckInterval() throws Exception {
+
+        CacheBackedChallengeQuestionDAO lazyNode = createNode(60000);
+        assertTrue(lazyNode.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).isEmpty());
+
+        node2.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+        assertTrue(lazyNode.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).isEmpty());
+    }
+
+    @Test
+    public void testReleasedTenantIsReloaded() throws Exception {
+
+        CacheBackedChallengeQuestionDAO lazyNode = createNode(60000);
+        assertTrue(lazyNode.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).isEmpty());
+
+        node2.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion}, TENANT_DOMAIN);
+        lazyNode.releaseTenant(TENANT_DOMAIN);
+        assertEquals(lazyNode.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_1).size(), 1);
+    }
+
+    private CacheBackedChallengeQuestionDAO createNode(long versionCheckIntervalMillis) {
+
+        ChallengeQuestionCatalogVersionDAO catalogVersionDAO = new ChallengeQuestionCatalogVersionDAO();
+        return new CacheBackedChallengeQuestionDAO(new JDBCChallengeQuestionDAOImpl(catalogVersionDAO),
+                new ChallengeQuestionCatalogCache(NODE_CACHE_NAME + nodeCount.incrementAndGet(), true,
+                        versionCheckIntervalMillis), catalogVersionDAO);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionCatalogWarmer;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the ChallengeQuestionCatalogWarmer.
+ */
+public class ChallengeQuestionCatalogWarmerTest {
+
+    private List<Runnable> queuedTasks;
+    private List<String> warmedUpTenants;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+
+        queuedTasks = new ArrayList<>();
+        warmedUpTenants = new ArrayList<>();
+        executor = mock(ExecutorService.class);
+        doAnswer(invocation -> queuedTasks.add(invocation.getArgument(0))).when(executor).execute(any());
+    }
+
+    @Test
+    public void testWarmUpRunsInTenantFlowOnce() {
+
+        ChallengeQuestionCatalogWarmer catalogWarmer = new ChallengeQuestionCatalogWarmer(
+                tenantDomain -> warmedUpTenants.add(
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()),
+                Collections::emptyList, executor);
+
+        catalogWarmer.warmUp(TENANT_DOMAIN);
+        catalogWarmer.warmUp(TENANT_DOMAIN);
+        assertEquals(queuedTasks.size(), 1);
+        assertEquals(catalogWarmer.getPendingCount(), 1);
+
+        runQueuedTasks();
+        assertEquals(warmedUpTenants, Collections.singletonList(TENANT_DOMAIN));
+        assertEquals(catalogWarmer.getPendingCount(), 0);
+        assertEquals(catalogWarmer.getMetrics().getRequestedCount(), 1);
+        assertEquals(catalogWarmer.getMetrics().getCompletedCount(), 1);
+
+        // A tenant can be warmed up again once its previous warm-up has completed.
+        catalogWarmer.warmUp(TENANT_DOMAIN);
+        assertEquals(queuedTasks.size(), 1);
+    }
+
+    @Test
+    public void testWarmUpActiveTenantsRecordsFailures() {
+
+        ChallengeQuestionCatalogWarmer catalogWarmer = new ChallengeQuestionCatalogWarmer(tenantDomain -> {
+            throw new IdentityRecoveryException("Warm up failed.");
+        }, () -> Arrays.asList(TENANT_DOMAIN, TENANT_DOMAIN), executor);
+
+        catalogWarmer.warmUpActiveTenants();
+        // The tenants are listed on the executor rather than the calling thread.
+        assertEquals(catalogWarmer.getMetrics().getRequestedCount(), 0);
+
+        runQueuedTasks();
+        assertEquals(catalogWarmer.getMetrics().getRequestedCount(), 1);
+        assertEquals(catalogWarmer.getMetrics().getCompletedCount(), 1);
+        assertEquals(catalogWarmer.getMetrics().getFailureCount(), 1);
+        assertEquals(catalogWarmer.getPendingCount(), 0);
+    }
+
+    private void runQueuedTasks() {
+
+        while (!queuedTasks.isEmpty()) {
+            queuedTasks.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.locale.ChallengeQuestionLocaleResolver;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the ChallengeQuestionLocaleResolver.
+ */
+@WithCarbonHome
+public class ChallengeQuestionLocaleResolverTest {
+
+    private ChallengeQuestionCatalogCache catalogCache;
+    private ChallengeQuestionLocaleResolver localeResolver;
+    private List<String> locales;
+
+    @BeforeMethod
+    public void setUp() {
+
+        catalogCache = new ChallengeQuestionCatalogCache("ChallengeQuestionLocaleResolverTestCache", true);
+        // Caches of the same name share their entries, so drop the entries of the previous test.
+        catalogCache.invalidate(TENANT_DOMAIN);
+        locales = Arrays.asList(LOCALE_1, "es", "es_ES", "fr_FR", LOCALE_2);
+        localeResolver = new ChallengeQuestionLocaleResolver(tenantDomain -> locales, catalogCache, "fr-fr", 100);
+    }
+
+    @Test
+    public void testNormalize() throws Exception {
+
+        assertEquals(localeResolver.normalize("en-US"), LOCALE_1);
+        assertEquals(localeResolver.normalize("EN_us"), LOCALE_1);
+        assertEquals(localeResolver.normalize(" en_us "), LOCALE_1);
+        assertEquals(localeResolver.normalize(null), LOCALE_1);
+        assertEquals(localeResolver.normalize("zh-hant-tw"), "zh_Hant_TW");
+        assertEquals(localeResolver.normalize("es-419"), "es_419");
+    }
+
+    @Test
+    public void testGetLocaleFallbackChain() throws Exception {
+
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "es-MX"),
+                Arrays.asList("es", "es_ES", "fr_FR", LOCALE_1));
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "ES_es"),
+                Arrays.asList("es_ES", "es", "fr_FR", LOCALE_1));
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "de_DE"), Arrays.asList("fr_FR", LOCALE_1));
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "en-us"),
+                Collections.singletonList(LOCALE_1));
+    }
+
+    @Test
+    public void testResolveLocale() throws Exception {
+
+        // The locale of the catalog is returned in its stored spelling.
+        assertEquals(localeResolver.resolveLocale(TENANT_DOMAIN, "NN-NN"), LOCALE_2);
+        assertEquals(localeResolver.resolveLocale(TENANT_DOMAIN, "es-es"), "es_ES");
+        assertEquals(localeResolver.resolveLocale(TENANT_DOMAIN, "de-de"), "de_DE");
+    }
+
+    @Test
+    public void testLocaleFallbackChainIsCachedPerTenant() throws Exception {
+
+        List<String> fallbackChain = localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "es-MX");
+        assertEquals(catalogCache.getLocaleFallbackChain(TENANT_DOMAIN, "es_MX"), fallbackChain);
+
+        // A new locale in the catalog is only picked up once the catalog of the tenant is invalidated.
+        locales = Arrays.asList(LOCALE_1, "es", "es_ES", "es_MX", "fr_FR", LOCALE_2);
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "es-MX"), fallbackChain);
+        catalogCache.invalidate(TENANT_DOMAIN);
+        assertNull(catalogCache.getLocaleFallbackChain(TENANT_DOMAIN, "es_MX"));
+        assertEquals(localeResolver.getLocaleFallbackChain(TENANT_DOMAIN, "es-MX"),
+                Arrays.asList("es_MX", "es", "es_ES", "fr_FR", LOCALE_1));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO.MigrationStatus;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.RegistryChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.migration.ChallengeQuestionRegistryMigrator;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.common.testng.WithH2Database;
+import org.wso2.carbon.identity.common.testng.WithRealmService;
+import org.wso2.carbon.identity.common.testng.WithRegistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_3;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_4;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.UPDATED_QUESTION;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.MIGRATION_STATUS_IN_PROGRESS;
+
+/**
+ * This class tests the migration of registry challenge questions to the database.
+ */
+@WithRegistry
+@WithRealmService(initUserStoreManager = true)
+@WithH2Database(jndiName = "jdbc/WSO2IdentityDB", files = {"dbscripts/h2.sql"})
+@WithCarbonHome
+public class ChallengeQuestionRegistryMigratorTest {
+
+    private RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAOImpl;
+    private JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAOImpl;
+    private ChallengeQuestionMigrationDAO migrationDAO;
+    private ChallengeQuestionRegistryMigrator migrator;
+    private ChallengeQuestion registryQuestion1;
+    private ChallengeQuestion registryQuestion2;
+    private ChallengeQuestion registryQuestion3;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        registryChallengeQuestionDAOImpl = Mockito.mock(RegistryChallengeQuestionDAOImpl.class);
+        jdbcChallengeQuestionDAOImpl = new JDBCChallengeQuestionDAOImpl();
+        migrationDAO = new ChallengeQuestionMigrationDAO();
+        migrator = new ChallengeQuestionRegistryMigrator(registryChallengeQuestionDAOImpl,
+                jdbcChallengeQuestionDAOImpl, migrationDAO, 0, 1);
+
+        registryQuestion1 = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_1, LOCALE_1);
+        registryQuestion2 = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_2, QUESTION_3, LOCALE_1);
+        registryQuestion3 = new ChallengeQuestion(QUESTION_SET_ID_2, QUESTION_ID_1, QUESTION_4, LOCALE_1);
+        when(registryChallengeQuestionDAOImpl.getAllChallengeQuestionSetsURIs(TENANT_DOMAIN)).thenReturn(
+                Arrays.asList(QUESTION_SET_ID_2, QUESTION_SET_ID_1));
+        when(registryChallengeQuestionDAOImpl.getChallengeQuestionsOfSet(QUESTION_SET_ID_1, TENANT_DOMAIN))
+                .thenReturn(Arrays.asList(registryQuestion1, registryQuestion2));
+        when(registryChallengeQuestionDAOImpl.getChallengeQuestionsOfSet(QUESTION_SET_ID_2, TENANT_DOMAIN))
+                .thenReturn(Collections.singletonList(registryQuestion3));
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        jdbcChallengeQuestionDAOImpl.deleteChallengeQuestionSet(QUESTION_SET_ID_1, null, TENANT_DOMAIN);
+        jdbcChallengeQuestionDAOImpl.deleteChallengeQuestionSet(QUESTION_SET_ID_2, null, TENANT_DOMAIN);
+        migrationDAO.deleteMigrationStatus(TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testMigrateTenant() throws Exception {
+
+        // The question already in the database takes priority over the registry question.
+        ChallengeQuestion databaseQuestion =
+                new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, UPDATED_QUESTION, LOCALE_1);
+        jdbcChallengeQuestionDAOImpl.addChallengeQuestions(new ChallengeQuestion[]{databaseQuestion}, TENANT_DOMAIN);
+
+        assertTrue(migrator.migrateTenant(TENANT_DOMAIN));
+
+        List<ChallengeQuestion> migratedQuestions =
+                jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN);
+        assertEquals(migratedQuestions.size(), 3);
+        for (ChallengeQuestion migratedQuestion : migratedQuestions) {
+            if (migratedQuestion.equals(databaseQuestion)) {
+                assertEquals(migratedQuestion.getQuestion(), UPDATED_QUESTION);
+            }
+        }
+        assertTrue(migratedQuestions.containsAll(Arrays.asList(registryQuestion2, registryQuestion3)));
+
+        MigrationStatus migrationStatus = migrationDAO.getMigrationStatus(TENANT_DOMAIN);
+        assertTrue(migrationStatus.isMigrated());
+        assertEquals(migrationStatus.getMigratedCount(), 2);
+        assertEquals(migrationStatus.getLastQuestionSetId(), QUESTION_SET_ID_2);
+    }
+
+    @Test
+    public void testMigrateTenantResumesFromCheckpoint() throws Exception {
+
+        migrationDAO.updateMigrationStatus(TENANT_DOMAIN, new MigrationStatus(MIGRATION_STATUS_IN_PROGRESS,
+                QUESTION_SET_ID_1, 2));
+
+        assertTrue(migrator.migrateTenant(TENANT_DOMAIN));
+
+        verify(registryChallengeQuestionDAOImpl, never()).getChallengeQuestionsOfSet(QUESTION_SET_ID_1,
+                TENANT_DOMAIN);
+        assertEquals(jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN),
+                Collections.singletonList(registryQuestion3));
+        assertEquals(migrationDAO.getMigrationStatus(TENANT_DOMAIN).getMigratedCount(), 3);
+    }
+
+    @Test
+    public void testMigrateTenantSkipsQuestionsDeletedDuringCopy() throws Exception {
+
+        when(registryChallengeQuestionDAOImpl.getChallengeQuestionsOfSet(QUESTION_SET_ID_2, TENANT_DOMAIN))
+                .thenReturn(Collections.singletonList(registryQuestion3))
+                .thenReturn(Collections.emptyList());
+
+        assertTrue(migrator.migrateTenant(TENANT_DOMAIN));
+
+        List<ChallengeQuestion> migratedQuestions =
+                jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN);
+        assertFalse(migratedQuestions.contains(registryQuestion3));
+        assertEquals(migrationDAO.getMigrationStatus(TENANT_DOMAIN).getMigratedCount(), 2);
+    }
+}
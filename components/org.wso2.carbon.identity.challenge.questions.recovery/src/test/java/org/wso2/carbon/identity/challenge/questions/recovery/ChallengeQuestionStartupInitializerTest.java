@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionCatalogWarmer;
+import org.wso2.carbon.identity.challenge.questions.recovery.startup.ChallengeQuestionStartupInitializer;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the ChallengeQuestionStartupInitializer.
+ */
+public class ChallengeQuestionStartupInitializerTest {
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+
+        // Runs the warm-ups queued on the catalog warmer on the queuing thread.
+        executor = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any());
+    }
+
+    @Test
+    public void testSeedingAndWarmUpRunInTenantFlow() throws Exception {
+
+        List<String> seededTenants = new CopyOnWriteArrayList<>();
+        List<String> warmedUpTenants = new CopyOnWriteArrayList<>();
+        ChallengeQuestionCatalogWarmer catalogWarmer = new ChallengeQuestionCatalogWarmer(
+                tenantDomain -> warmedUpTenants.add(
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()),
+                Collections::emptyList, executor);
+        ChallengeQuestionStartupInitializer startupInitializer = new ChallengeQuestionStartupInitializer(
+                seededTenants::add, catalogWarmer, Collections.singletonList(TENANT_DOMAIN), false);
+
+        startupInitializer.run();
+
+        assertEquals(seededTenants, Collections.singletonList(TENANT_DOMAIN));
+        assertEquals(warmedUpTenants, Collections.singletonList(TENANT_DOMAIN));
+        assertEquals(catalogWarmer.getMetrics().getCompletedCount(), 1);
+    }
+
+    @Test
+    public void testWarmUpActiveTenants() throws Exception {
+
+        List<String> warmedUpTenants = new CopyOnWriteArrayList<>();
+        ChallengeQuestionCatalogWarmer catalogWarmer = new ChallengeQuestionCatalogWarmer(warmedUpTenants::add,
+                () -> Collections.singletonList(TENANT_DOMAIN), executor);
+        ChallengeQuestionStartupInitializer startupInitializer = new ChallengeQuestionStartupInitializer(
+                tenantDomain -> { }, catalogWarmer, Collections.emptyList(), true);
+
+        startupInitializer.run();
+
+        assertEquals(warmedUpTenants, Collections.singletonList(TENANT_DOMAIN));
+    }
+
+    @Test(timeOut = 10000)
+    public void testInitializationRunsOnBackgroundThread() throws Exception {
+
+        CountDownLatch seedingStarted = new CountDownLatch(1);
+        CountDownLatch releaseSeeding = new CountDownLatch(1);
+        CountDownLatch warmUpStarted = new CountDownLatch(1);
+        ChallengeQuestionCatalogWarmer catalogWarmer = new ChallengeQuestionCatalogWarmer(tenantDomain -> {
+            warmUpStarted.countDown();
+            throw new IdentityRecoveryException("Warm up failed.");
+        }, Collections::emptyList, executor);
+        ChallengeQuestionStartupInitializer startupInitializer = new ChallengeQuestionStartupInitializer(
+                tenantDomain -> {
+                    seedingStarted.countDown();
+                    try {
+                        releaseSeeding.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, catalogWarmer, Collections.singletonList(TENANT_DOMAIN), false);
+
+        // The caller is not blocked on the startup work.
+        startupInitializer.start();
+        seedingStarted.await();
+
+        // The catalogs are warmed up once the seeding completes.
+        releaseSeeding.countDown();
+        assertTrue(warmUpStarted.await(5, TimeUnit.SECONDS));
+        startupInitializer.stop();
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.database.utils.jdbc.NamedTemplate;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.ChallengeQuestionCatalogCache;
+import org.wso2.carbon.identity.challenge.questions.recovery.cache.DefaultChallengeQuestionCatalog;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionDefaultSetDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.DefaultCatalogOverlayChallengeQuestionDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the DefaultCatalogOverlayChallengeQuestionDAO and the DefaultChallengeQuestionCatalog.
+ */
+@WithCarbonHome
+public class DefaultCatalogOverlayChallengeQuestionDAOTest {
+
+    private ChallengeQuestionDAO challengeQuestionDAO;
+    private JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO;
+    private JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite addWrite;
+    private JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite deleteWrite;
+    private ChallengeQuestionDefaultSetDAO defaultSetDAO;
+    private DefaultChallengeQuestionCatalog defaultCatalog;
+    private DefaultCatalogOverlayChallengeQuestionDAO overlayChallengeQuestionDAO;
+    private ChallengeQuestion defaultQuestion1;
+    private ChallengeQuestion defaultQuestion2;
+    private ChallengeQuestion defaultQuestion3;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        challengeQuestionDAO = Mockito.mock(ChallengeQuestionDAO.class);
+        jdbcChallengeQuestionDAO = Mockito.mock(JDBCChallengeQuestionDAOImpl.class);
+        addWrite = Mockito.mock(JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite.class);
+        deleteWrite = Mockito.mock(JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite.class);
+        when(jdbcChallengeQuestionDAO.getAddChallengeQuestionsWrite(any())).thenReturn(addWrite);
+        when(jdbcChallengeQuestionDAO.getDeleteChallengeQuestionsWrite(any())).thenReturn(deleteWrite);
+        when(jdbcChallengeQuestionDAO.getDeleteChallengeQuestionSetWrite(anyString(), any())).thenReturn(deleteWrite);
+        defaultSetDAO = Mockito.mock(ChallengeQuestionDefaultSetDAO.class);
+        defaultQuestion1 = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_1, LOCALE_1);
+        defaultQuestion2 = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_2, QUESTION_2, LOCALE_1);
+        defaultQuestion3 = new ChallengeQuestion(QUESTION_SET_ID_2, QUESTION_ID_1, QUESTION_1, LOCALE_1);
+        ChallengeQuestionCatalogCache catalogCache =
+                new ChallengeQuestionCatalogCache("DefaultCatalogOverlayChallengeQuestionDAOTestCache", true);
+        // Caches of the same name share their entries, so drop the entries of the previous test.
+        catalogCache.invalidate(TENANT_DOMAIN);
+        defaultCatalog = new DefaultChallengeQuestionCatalog(
+                new ChallengeQuestion[]{defaultQuestion3, defaultQuestion2, defaultQuestion1});
+        overlayChallengeQuestionDAO = new DefaultCatalogOverlayChallengeQuestionDAO(challengeQuestionDAO,
+                jdbcChallengeQuestionDAO, defaultSetDAO, defaultCatalog, catalogCache);
+
+        when(defaultSetDAO.getDefaultSets(TENANT_DOMAIN)).thenReturn(Arrays.asList(QUESTION_SET_ID_1,
+                QUESTION_SET_ID_2));
+        when(challengeQuestionDAO.getAllChallengeQuestions(anyString())).thenReturn(Collections.emptyList());
+        when(challengeQuestionDAO.getAllChallengeQuestions(anyString(), anyString()))
+                .thenReturn(Collections.emptyList());
+        when(challengeQuestionDAO.getAllChallengeQuestionSetsURIs(anyString())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    public void testDefaultCatalog() {
+
+        assertEquals(defaultCatalog.getChallengeQuestionSetURIs(), Arrays.asList(QUESTION_SET_ID_1,
+                QUESTION_SET_ID_2));
+        assertEquals(defaultCatalog.getChallengeQuestions(QUESTION_SET_ID_1), Arrays.asList(defaultQuestion1,
+                defaultQuestion2));
+        assertTrue(defaultCatalog.getChallengeQuestions("unknown").isEmpty());
+    }
+
+    @Test
+    public void testAddDefaultChallengeQuestionsOnlyRecordsInheritedSets() throws Exception {
+
+        overlayChallengeQuestionDAO.addDefaultChallengeQuestions(TENANT_DOMAIN);
+
+        verify(defaultSetDAO).addDefaultSets(TENANT_DOMAIN, Arrays.asList(QUESTION_SET_ID_1, QUESTION_SET_ID_2));
+        verify(challengeQuestionDAO, never()).addChallengeQuestions(any(), anyString());
+    }
+
+    @Test
+    public void testInheritedSetsAreMergedWithTenantRows() throws Exception {
+
+        ChallengeQuestion modifiedQuestion = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_2,
+                LOCALE_1);
+        ChallengeQuestion tenantQuestion = new ChallengeQuestion("http://wso2.org/claims/tenantSet", QUESTION_ID_1,
+                QUESTION_1, LOCALE_2);
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN))
+                .thenReturn(Arrays.asList(modifiedQuestion, tenantQuestion));
+        when(challengeQuestionDAO.getAllChallengeQuestionSetsURIs(TENANT_DOMAIN))
+                .thenReturn(Collections.singletonList(tenantQuestion.getQuestionSetId()));
+
+        List<ChallengeQuestion> challengeQuestions = overlayChallengeQuestionDAO.getAllChallengeQuestions(
+                TENANT_DOMAIN);
+        assertEquals(challengeQuestions.size(), 4);
+        // A row of the tenant replaces the default question having the same key.
+        assertEquals(challengeQuestions.stream().filter(question -> question.equals(defaultQuestion1))
+                .findFirst().get().getQuestion(), QUESTION_2);
+        assertEquals(overlayChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_2).size(), 0);
+        assertEquals(overlayChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN, "EN_us").size(), 3);
+        assertEquals(overlayChallengeQuestionDAO.getChallengeQuestionSetCount(TENANT_DOMAIN), 3);
+        assertEquals(overlayChallengeQuestionDAO.getChallengeQuestionIds(QUESTION_SET_ID_1, TENANT_DOMAIN),
+                Arrays.asList(QUESTION_ID_1, QUESTION_ID_2));
+        assertTrue(overlayChallengeQuestionDAO.hasChallengeQuestionSet(QUESTION_SET_ID_2, TENANT_DOMAIN));
+
+        // The inherited sets of the tenant are cached.
+        overlayChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN);
+        verify(defaultSetDAO, times(1)).getDefaultSets(TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testPageMergesInheritedQuestions() throws Exception {
+
+        when(challengeQuestionDAO.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1, defaultQuestion1, 1))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(overlayChallengeQuestionDAO.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1, defaultQuestion1, 1),
+                Collections.singletonList(defaultQuestion2));
+    }
+
+    @Test
+    public void testTenantWithoutInheritedSetsIsServedFromRows() throws Exception {
+
+        when(defaultSetDAO.getDefaultSets(TENANT_DOMAIN)).thenReturn(Collections.emptyList());
+        List<ChallengeQuestion> challengeQuestions = Collections.singletonList(defaultQuestion1);
+        when(challengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(challengeQuestions);
+        when(challengeQuestionDAO.getChallengeQuestionSetCount(TENANT_DOMAIN)).thenReturn(1);
+
+        assertEquals(overlayChallengeQuestionDAO.getAllChallengeQuestions(TENANT_DOMAIN), challengeQuestions);
+        assertEquals(overlayChallengeQuestionDAO.getChallengeQuestionSetCount(TENANT_DOMAIN), 1);
+        assertFalse(overlayChallengeQuestionDAO.hasChallengeQuestionSet(QUESTION_SET_ID_2, TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testForEachTenantCatalogMergesInheritedSets() throws Exception {
+
+        ChallengeQuestion modifiedQuestion = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_2,
+                LOCALE_1);
+        when(defaultSetDAO.getDefaultSetsOfTenants(Arrays.asList(1, 2)))
+                .thenReturn(Collections.singletonMap(1, Collections.singletonList(QUESTION_SET_ID_1)));
+        doAnswer(invocation -> {
+            ChallengeQuestionDAO.TenantCatalogConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1, Collections.singletonList(modifiedQuestion));
+            consumer.accept(2, Collections.emptyList());
+            return null;
+        }).when(challengeQuestionDAO).forEachTenantCatalog(eq(Arrays.asList(1, 2)), any());
+
+        Map<Integer, List<ChallengeQuestion>> catalogs = new HashMap<>();
+        overlayChallengeQuestionDAO.forEachTenantCatalog(Arrays.asList(2, 1), catalogs::put);
+
+        assertEquals(catalogs.get(1), Arrays.asList(defaultQuestion1, defaultQuestion2));
+        assertEquals(catalogs.get(1).get(0).getQuestion(), QUESTION_2);
+        assertTrue(catalogs.get(2).isEmpty());
+        verify(defaultSetDAO, never()).getDefaultSets(anyString());
+    }
+
+    @Test
+    public void testAddMaterialisesOnlyTheTouchedSet() throws Exception {
+
+        ChallengeQuestion modifiedQuestion = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, QUESTION_2,
+                LOCALE_1);
+        overlayChallengeQuestionDAO.addChallengeQuestions(new ChallengeQuestion[]{modifiedQuestion}, TENANT_DOMAIN);
+
+        ArgumentCaptor<ChallengeQuestion[]> captor = ArgumentCaptor.forClass(ChallengeQuestion[].class);
+        verify(jdbcChallengeQuestionDAO).getAddChallengeQuestionsWrite(captor.capture());
+        // The defaults of the touched set come first, so that the added question replaces its default.
+        assertEquals(Arrays.asList(captor.getValue()), Arrays.asList(defaultQuestion1, defaultQuestion2,
+                modifiedQuestion));
+        assertEquals(captor.getValue()[2].getQuestion(), QUESTION_2);
+        verify(challengeQuestionDAO, never()).addChallengeQuestions(any(), anyString());
+        // The set is detached in the transaction materialising it.
+        List<JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite> writes = getWrites();
+        assertEquals(writes.size(), 2);
+        assertEquals(writes.get(0), addWrite);
+        verifyDetached(writes.get(1), QUESTION_SET_ID_1);
+    }
+
+    @Test
+    public void testDeleteMaterialisesTheRemainingDefaults() throws Exception {
+
+        ChallengeQuestion tenantQuestion = new ChallengeQuestion("http://wso2.org/claims/tenantSet", QUESTION_ID_1,
+                null, null);
+        ChallengeQuestion deletedQuestion = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, null, null);
+        overlayChallengeQuestionDAO.deleteChallengeQuestions(new ChallengeQuestion[]{tenantQuestion, deletedQuestion},
+                TENANT_DOMAIN);
+
+        verify(challengeQuestionDAO).deleteChallengeQuestions(new ChallengeQuestion[]{tenantQuestion},
+                TENANT_DOMAIN);
+        verify(jdbcChallengeQuestionDAO).getAddChallengeQuestionsWrite(new ChallengeQuestion[]{defaultQuestion2});
+        verify(jdbcChallengeQuestionDAO).getDeleteChallengeQuestionsWrite(new ChallengeQuestion[]{deletedQuestion});
+        // Materialising, deleting and detaching run in one transaction.
+        List<JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite> writes = getWrites();
+        assertEquals(writes.size(), 3);
+        assertEquals(writes.subList(0, 2), Arrays.asList(addWrite, deleteWrite));
+        verifyDetached(writes.get(2), QUESTION_SET_ID_1);
+    }
+
+    @Test
+    public void testDeleteInheritedSet() throws Exception {
+
+        overlayChallengeQuestionDAO.deleteChallengeQuestionSet(QUESTION_SET_ID_2, null, TENANT_DOMAIN);
+
+        verify(jdbcChallengeQuestionDAO).getAddChallengeQuestionsWrite(new ChallengeQuestion[0]);
+        verify(jdbcChallengeQuestionDAO).getDeleteChallengeQuestionSetWrite(QUESTION_SET_ID_2, null);
+        verify(challengeQuestionDAO, never()).deleteChallengeQuestionSet(anyString(), any(), anyString());
+        List<JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite> writes = getWrites();
+        assertEquals(writes.size(), 3);
+        verifyDetached(writes.get(2), QUESTION_SET_ID_2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite> getWrites() throws Exception {
+
+        ArgumentCaptor<List<JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite>> captor =
+                ArgumentCaptor.forClass((Class) List.class);
+        verify(jdbcChallengeQuestionDAO).write(eq(TENANT_DOMAIN), captor.capture());
+        return captor.getValue();
+    }
+
+    private void verifyDetached(JDBCChallengeQuestionDAOImpl.ChallengeQuestionWrite write, String challengeSetUri)
+            throws Exception {
+
+        NamedTemplate<?> template = Mockito.mock(NamedTemplate.class);
+        write.write(template, 1);
+        verify(defaultSetDAO).deleteDefaultSets(template, 1, Collections.singleton(challengeSetUri));
+        verify(defaultSetDAO, never()).deleteDefaultSets(anyString(), any());
+    }
+}
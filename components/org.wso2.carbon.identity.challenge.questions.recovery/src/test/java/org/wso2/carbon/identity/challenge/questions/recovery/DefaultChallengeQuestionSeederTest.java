@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.seeding.DefaultChallengeQuestionSeeder;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the DefaultChallengeQuestionSeeder.
+ */
+public class DefaultChallengeQuestionSeederTest {
+
+    private ExecutorService executor;
+    private List<String> seededTenants;
+
+    @BeforeMethod
+    public void setUp() {
+
+        executor = mock(ExecutorService.class);
+        seededTenants = new ArrayList<>();
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        PrivilegedCarbonContext.endTenantFlow();
+    }
+
+    @Test
+    public void testSeedingIsQueuedOnce() throws Exception {
+
+        DefaultChallengeQuestionSeeder seeder =
+                new DefaultChallengeQuestionSeeder(seededTenants::add, executor, 0, 0, 1000);
+
+        seeder.seed(TENANT_DOMAIN);
+        seeder.seed(TENANT_DOMAIN);
+
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1)).execute(captor.capture());
+        assertEquals(seeder.getQueueDepth(), 1);
+        assertEquals(seededTenants.size(), 0);
+
+        captor.getValue().run();
+        assertEquals(seededTenants.size(), 1);
+        assertEquals(seeder.getQueueDepth(), 0);
+        assertEquals(seeder.getMetrics().getSeedingCount(), 1);
+    }
+
+    @Test(timeOut = 5000)
+    public void testAwaitSeedingWaitsForQueuedSeeding() throws Exception {
+
+        DefaultChallengeQuestionSeeder seeder =
+                new DefaultChallengeQuestionSeeder(seededTenants::add, executor, 0, 0, 60000);
+        seeder.seed(TENANT_DOMAIN);
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(captor.capture());
+
+        Thread seedingThread = new Thread(captor.getValue());
+        seedingThread.start();
+        seeder.awaitSeeding(TENANT_DOMAIN);
+        assertEquals(seededTenants.size(), 1);
+        seedingThread.join();
+        assertEquals(seeder.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testAwaitSeedingDoesNotRunQueuedSeeding() throws Exception {
+
+        DefaultChallengeQuestionSeeder seeder =
+                new DefaultChallengeQuestionSeeder(seededTenants::add, executor, 0, 0, 10);
+        seeder.seed(TENANT_DOMAIN);
+
+        // The queued seeding is not run on the calling thread, which gives up after the timeout.
+        seeder.awaitSeeding(TENANT_DOMAIN);
+        assertEquals(seededTenants.size(), 0);
+        assertEquals(seeder.getQueueDepth(), 1);
+    }
+
+    @Test
+    public void testFailedSeedingIsRetried() throws Exception {
+
+        AtomicInteger attempts = new AtomicInteger();
+        DefaultChallengeQuestionSeeder seeder = new DefaultChallengeQuestionSeeder(tenantDomain -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IdentityRecoveryException("Seeding failed.");
+            }
+            seededTenants.add(tenantDomain);
+        }, executor, 2, 0, 1000);
+
+        seeder.seed(TENANT_DOMAIN);
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(captor.capture());
+        captor.getValue().run();
+
+        assertEquals(seededTenants.size(), 1);
+        assertEquals(seeder.getMetrics().getRetryCount(), 2);
+        assertEquals(seeder.getMetrics().getFailureCount(), 0);
+    }
+
+    @Test(timeOut = 5000)
+    public void testSeedingDoesNotWaitForItself() throws Exception {
+
+        DefaultChallengeQuestionSeeder[] seeder = new DefaultChallengeQuestionSeeder[1];
+        seeder[0] = new DefaultChallengeQuestionSeeder(tenantDomain -> {
+            // Operations of the seeding on the tenant must not wait for the seeding.
+            seeder[0].awaitSeeding(tenantDomain);
+            seededTenants.add(tenantDomain);
+        }, executor, 0, 0, 60000);
+
+        seeder[0].seed(TENANT_DOMAIN);
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(captor.capture());
+        captor.getValue().run();
+        assertEquals(seededTenants.size(), 1);
+    }
+
+    @Test
+    public void testSynchronousSeeding() throws Exception {
+
+        DefaultChallengeQuestionSeeder seeder =
+                new DefaultChallengeQuestionSeeder(seededTenants::add, null, 0, 0, 1000);
+
+        seeder.seed(TENANT_DOMAIN);
+        assertEquals(seededTenants.size(), 1);
+        verify(executor, never()).execute(any());
+    }
+}
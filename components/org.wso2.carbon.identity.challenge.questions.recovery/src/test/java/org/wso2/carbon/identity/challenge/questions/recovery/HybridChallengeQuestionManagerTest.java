@@ -25,6 +25,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionMigrationDAO.MigrationStatus;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionStoreReadMetrics;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.HybridChallengeQuestionDAOImpl;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.RegistryChallengeQuestionDAOImpl;
@@ -41,14 +44,17 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+import static org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeQuestionsConstants.RegistryMigrationConfig.MIGRATION_STATUS_MIGRATED;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_2;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
@@ -85,6 +91,7 @@ public class HybridChallengeQuestionManagerTest {
 
     JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAOImpl;
     RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAOImpl;
+    HybridChallengeQuestionDAOImpl hybridChallengeQuestionDAOImpl;
 
     @BeforeMethod
     public void setUp() throws Exception {
@@ -94,8 +101,7 @@ public class HybridChallengeQuestionManagerTest {
         jdbcChallengeQuestionDAOImpl = Mockito.mock(JDBCChallengeQuestionDAOImpl.class);
         registryChallengeQuestionDAOImpl = Mockito.mock(RegistryChallengeQuestionDAOImpl.class);
 
-        HybridChallengeQuestionDAOImpl hybridChallengeQuestionDAOImpl =
-                Mockito.spy(new HybridChallengeQuestionDAOImpl());
+        hybridChallengeQuestionDAOImpl = Mockito.spy(new HybridChallengeQuestionDAOImpl());
 
         Field jdbcField = HybridChallengeQuestionDAOImpl.class.getDeclaredField("jdbcChallengeQuestionDAOImpl");
         jdbcField.setAccessible(true);
@@ -160,6 +166,69 @@ public class HybridChallengeQuestionManagerTest {
         assertEquals(questionSetsURIs, Arrays.asList(QUESTION_SET_ID_3, QUESTION_SET_ID_2, QUESTION_SET_ID_1));
     }
 
+    @Test
+    public void testGetAllChallengeQuestionsRecordsReadMetrics() throws Exception {
+
+        when(jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(
+                Collections.singletonList(challengeQuestion1));
+        when(registryChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(
+                Collections.singletonList(challengeQuestion2));
+
+        ChallengeQuestionStoreReadMetrics jdbcReadMetrics = hybridChallengeQuestionDAOImpl.getJdbcReadMetrics();
+        ChallengeQuestionStoreReadMetrics registryReadMetrics =
+                hybridChallengeQuestionDAOImpl.getRegistryReadMetrics();
+        long jdbcReadCount = jdbcReadMetrics.getReadCount();
+        long registryReadCount = registryReadMetrics.getReadCount();
+
+        List<ChallengeQuestion> questionsFromStorage = challengeQuestionManager.getAllChallengeQuestions(TENANT_DOMAIN);
+        assertEquals(questionsFromStorage, Arrays.asList(challengeQuestion1, challengeQuestion2));
+        assertEquals(jdbcReadMetrics.getReadCount(), jdbcReadCount + 1);
+        assertEquals(registryReadMetrics.getReadCount(), registryReadCount + 1);
+        assertEquals(registryReadMetrics.getFailureCount(), 0);
+    }
+
+    @Test(expectedExceptions = IdentityRecoveryException.class)
+    public void testGetAllChallengeQuestionsWithRegistryTimeout() throws Exception {
+
+        Field timeoutField = HybridChallengeQuestionDAOImpl.class.getDeclaredField("readTimeoutMillis");
+        timeoutField.setAccessible(true);
+        timeoutField.set(hybridChallengeQuestionDAOImpl, 100L);
+
+        when(jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(
+                Collections.singletonList(challengeQuestion1));
+        when(registryChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN)).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return Collections.singletonList(challengeQuestion2);
+        });
+
+        long timeoutCount = hybridChallengeQuestionDAOImpl.getRegistryReadMetrics().getTimeoutCount();
+        try {
+            challengeQuestionManager.getAllChallengeQuestions(TENANT_DOMAIN);
+        } finally {
+            assertEquals(hybridChallengeQuestionDAOImpl.getRegistryReadMetrics().getTimeoutCount(),
+                    timeoutCount + 1);
+        }
+    }
+
+    @Test
+    public void testGetAllChallengeQuestionsOfMigratedTenant() throws Exception {
+
+        ChallengeQuestionMigrationDAO migrationDAO = new ChallengeQuestionMigrationDAO();
+        migrationDAO.updateMigrationStatus(TENANT_DOMAIN,
+                new MigrationStatus(MIGRATION_STATUS_MIGRATED, QUESTION_SET_ID_2, 2));
+        try {
+            when(jdbcChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN)).thenReturn(
+                    Arrays.asList(challengeQuestion1, challengeQuestion4));
+
+            List<ChallengeQuestion> questionsFromStorage =
+                    challengeQuestionManager.getAllChallengeQuestions(TENANT_DOMAIN);
+            assertEquals(questionsFromStorage, Arrays.asList(challengeQuestion1, challengeQuestion4));
+            verify(registryChallengeQuestionDAOImpl, never()).getAllChallengeQuestions(TENANT_DOMAIN);
+        } finally {
+            migrationDAO.deleteMigrationStatus(TENANT_DOMAIN);
+        }
+    }
+
     @Test
     public void testAddChallengeQuestions() throws Exception {
 
@@ -189,10 +258,8 @@ public class HybridChallengeQuestionManagerTest {
     @Test
     public void testDeleteChallengeQuestionsInDatabase() throws Exception {
 
-        when(jdbcChallengeQuestionDAOImpl.isChallengeQuestionExists(challengeQuestion1, TENANT_DOMAIN)).thenReturn(
-                true);
-        when(jdbcChallengeQuestionDAOImpl.isChallengeQuestionExists(challengeQuestion2, TENANT_DOMAIN)).thenReturn(
-                false);
+        when(jdbcChallengeQuestionDAOImpl.getExistingChallengeQuestions(any(ChallengeQuestion[].class),
+                eq(TENANT_DOMAIN))).thenReturn(Collections.singletonList(challengeQuestion1));
         challengeQuestionManager.deleteChallengeQuestions(
                 new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2}, TENANT_DOMAIN);
 
@@ -205,10 +272,8 @@ public class HybridChallengeQuestionManagerTest {
     @Test
     public void testDeleteChallengeQuestionsInRegistry() throws Exception {
 
-        when(jdbcChallengeQuestionDAOImpl.isChallengeQuestionExists(challengeQuestion1, TENANT_DOMAIN)).thenReturn(
-                false);
-        when(jdbcChallengeQuestionDAOImpl.isChallengeQuestionExists(challengeQuestion2, TENANT_DOMAIN)).thenReturn(
-                true);
+        when(jdbcChallengeQuestionDAOImpl.getExistingChallengeQuestions(any(ChallengeQuestion[].class),
+                eq(TENANT_DOMAIN))).thenReturn(Collections.singletonList(challengeQuestion2));
         challengeQuestionManager.deleteChallengeQuestions(
                 new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2}, TENANT_DOMAIN);
 
@@ -222,7 +287,7 @@ public class HybridChallengeQuestionManagerTest {
     public void testDeleteChallengeQuestionsWithException() throws Exception {
 
         doThrow(new DataAccessException("Data access exception")).when(jdbcChallengeQuestionDAOImpl)
-                .isChallengeQuestionExists(challengeQuestion1, TENANT_DOMAIN);
+                .getExistingChallengeQuestions(any(ChallengeQuestion[].class), eq(TENANT_DOMAIN));
 
         challengeQuestionManager.deleteChallengeQuestions(
                 new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2}, TENANT_DOMAIN);
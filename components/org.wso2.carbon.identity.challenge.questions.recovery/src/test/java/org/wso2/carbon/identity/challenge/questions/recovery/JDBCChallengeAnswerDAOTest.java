@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.config.model.SequenceConfig;
+import org.wso2.carbon.identity.application.authentication.framework.context.AuthenticationContext;
+import org.wso2.carbon.identity.application.authentication.framework.handler.request.PostAuthnHandlerFlowStatus;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.IdentityProvider;
+import org.wso2.carbon.identity.application.common.model.IdentityProviderProperty;
+import org.wso2.carbon.identity.application.common.model.User;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ChallengeAnswerDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.ClaimFallbackChallengeAnswerDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeAnswerDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.UserClaimChallengeAnswerDAO;
+import org.wso2.carbon.identity.challenge.questions.recovery.handler.request.PostAuthnMissingChallengeQuestionsHandler;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.UserChallengeAnswer;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.common.testng.WithH2Database;
+import org.wso2.carbon.identity.common.testng.WithRealmService;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.identity.recovery.internal.IdentityRecoveryServiceDataHolder;
+import org.wso2.carbon.identity.recovery.util.Utils;
+import org.wso2.carbon.idp.mgt.IdentityProviderManager;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the JDBCChallengeAnswerDAOImpl class and the ChallengeQuestionManager operations on the challenge
+ * answers stored in the database.
+ */
+@WithRealmService(initUserStoreManager = true)
+@WithH2Database(jndiName = "jdbc/WSO2IdentityDB", files = {"dbscripts/h2.sql"})
+@WithCarbonHome
+public class JDBCChallengeAnswerDAOTest {
+
+    private static final String USERNAME = "testUser";
+    private static final String USER_ID = "8f3b6e1c-2d4a-4c7e-9b1f-5a6d7e8f9a0b";
+    private static final String CHALLENGE_SET_1 = "http://wso2.org/claims/challengeQuestion1";
+    private static final String CHALLENGE_SET_2 = "http://wso2.org/claims/challengeQuestion2";
+    private static final String ANSWER_1 = "Answer1";
+    private static final String ANSWER_2 = "Answer2";
+
+    private ChallengeQuestionManager challengeQuestionManager;
+    private ChallengeAnswerDAO previousChallengeAnswerDAO;
+    private RealmService previousRealmService;
+    private AbstractUserStoreManager userStoreManager;
+    private ChallengeAnswerDAO challengeAnswerDAO;
+    private User user;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        previousRealmService = IdentityRecoveryServiceDataHolder.getInstance().getRealmService();
+        RealmService realmService = mock(RealmService.class);
+        UserRealm userRealm = mock(UserRealm.class);
+        userStoreManager = mock(AbstractUserStoreManager.class);
+        when(realmService.getTenantUserRealm(anyInt())).thenReturn(userRealm);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        when(userStoreManager.getUserIDFromUserName(anyString())).thenReturn(USER_ID);
+        IdentityRecoveryServiceDataHolder.getInstance().setRealmService(realmService);
+
+        challengeAnswerDAO = new JDBCChallengeAnswerDAOImpl();
+        challengeQuestionManager = ChallengeQuestionManager.getInstance();
+        previousChallengeAnswerDAO = challengeQuestionManager.challengeAnswerDAO;
+        challengeQuestionManager.challengeAnswerDAO = challengeAnswerDAO;
+
+        user = new User();
+        user.setUserName(USERNAME);
+        user.setTenantDomain(TENANT_DOMAIN);
+        user.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        challengeAnswerDAO.removeChallengeAnswers(user);
+        challengeQuestionManager.challengeAnswerDAO = previousChallengeAnswerDAO;
+        IdentityRecoveryServiceDataHolder.getInstance().setRealmService(previousRealmService);
+    }
+
+    @Test
+    public void testSetAndGetChallengeAnswers() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Arrays.asList(getChallengeAnswer(CHALLENGE_SET_2, QUESTION_2,
+                ANSWER_2), getChallengeAnswer(CHALLENGE_SET_1, QUESTION_1, ANSWER_1)),
+                Arrays.asList(CHALLENGE_SET_2, CHALLENGE_SET_1));
+
+        assertEquals(challengeAnswerDAO.getAnsweredChallengeSetUris(user),
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+        Map<String, UserChallengeAnswer> challengeAnswers = challengeAnswerDAO.getChallengeAnswers(user,
+                Arrays.asList(CHALLENGE_SET_2, CHALLENGE_SET_1));
+        assertEquals(challengeAnswers.keySet().toArray(), new String[]{CHALLENGE_SET_2, CHALLENGE_SET_1});
+        UserChallengeAnswer challengeAnswer = challengeAnswers.get(CHALLENGE_SET_1);
+        assertEquals(challengeAnswer.getQuestion().getQuestion(), QUESTION_1);
+        assertEquals(challengeAnswer.getQuestion().getLocale(), LOCALE_1);
+        assertEquals(challengeAnswer.getAnswer(), Utils.doHash(ANSWER_1.toLowerCase()));
+    }
+
+    @Test
+    public void testSetChallengeAnswersReplacesAnswers() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Arrays.asList(getChallengeAnswer(CHALLENGE_SET_1, QUESTION_1,
+                ANSWER_1), getChallengeAnswer(CHALLENGE_SET_2, QUESTION_2, ANSWER_2)),
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+
+        // The answer of the first set is updated, and the second set is no longer answered.
+        challengeAnswerDAO.setChallengeAnswers(user, Collections.singletonList(
+                getChallengeAnswer(CHALLENGE_SET_1, QUESTION_1, ANSWER_2)), Collections.singletonList(CHALLENGE_SET_1));
+
+        assertEquals(challengeAnswerDAO.getAnsweredChallengeSetUris(user), Collections.singletonList(CHALLENGE_SET_1));
+        assertEquals(challengeAnswerDAO.getChallengeAnswers(user, Collections.singletonList(CHALLENGE_SET_1))
+                .get(CHALLENGE_SET_1).getAnswer(), Utils.doHash(ANSWER_2.toLowerCase()));
+    }
+
+    @Test
+    public void testChallengeAnswersOfUserInDatabase() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Arrays.asList(getChallengeAnswer(CHALLENGE_SET_1, QUESTION_1,
+                ANSWER_1), getChallengeAnswer(CHALLENGE_SET_2, QUESTION_2, ANSWER_2)),
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+
+        assertEquals(challengeQuestionManager.getChallengeAnswersOfUser(user).length, 2);
+        assertEquals(challengeQuestionManager.getUserChallengeQuestion(user, CHALLENGE_SET_2).getQuestion(),
+                QUESTION_2);
+        assertTrue(challengeQuestionManager.verifyUserChallengeAnswer(user,
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_1, QUESTION_1), ANSWER_1)));
+
+        challengeQuestionManager.removeChallengeAnswerOfUser(user, CHALLENGE_SET_2);
+        assertEquals(challengeQuestionManager.getChallengeQuestionUris(user),
+                Collections.singletonList(CHALLENGE_SET_1));
+        assertFalse(challengeQuestionManager.verifyUserChallengeAnswer(user,
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_2, QUESTION_2), ANSWER_2)));
+
+        challengeQuestionManager.removeChallengeAnswersOfUser(user);
+        assertEquals(challengeQuestionManager.getChallengeAnswersOfUser(user).length, 0);
+
+        // The answers are neither read from nor written to the user claims.
+        verify(userStoreManager, never()).getUserClaimValues(anyString(), any(String[].class), any());
+        verify(userStoreManager, never()).setUserClaimValues(anyString(), anyMap(), any());
+    }
+
+    @Test
+    public void testMissingChallengeQuestionsHandlerReadsAnswersFromDatabase() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Collections.singletonList(getChallengeAnswer(CHALLENGE_SET_1,
+                QUESTION_1, ANSWER_1)), Collections.singletonList(CHALLENGE_SET_1));
+
+        IdentityProvider residentIdp = new IdentityProvider();
+        residentIdp.setIdpProperties(new IdentityProviderProperty[]{
+                getIdpProperty(IdentityRecoveryConstants.ConnectorConfig.FORCE_ADD_PW_RECOVERY_QUESTION, "true"),
+                getIdpProperty(IdentityRecoveryConstants.ConnectorConfig.FORCE_MIN_NO_QUESTION_ANSWERED, "1")});
+        IdentityProviderManager identityProviderManager = mock(IdentityProviderManager.class);
+        when(identityProviderManager.getResidentIdP(anyString())).thenReturn(residentIdp);
+
+        AuthenticatedUser authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName(USERNAME);
+        authenticatedUser.setTenantDomain(TENANT_DOMAIN);
+        authenticatedUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        SequenceConfig sequenceConfig = new SequenceConfig();
+        sequenceConfig.setAuthenticatedUser(authenticatedUser);
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        authenticationContext.setTenantDomain(TENANT_DOMAIN);
+        authenticationContext.setSequenceConfig(sequenceConfig);
+
+        try (MockedStatic<IdentityProviderManager> identityProviderManagerMockedStatic =
+                     mockStatic(IdentityProviderManager.class)) {
+            identityProviderManagerMockedStatic.when(IdentityProviderManager::getInstance)
+                    .thenReturn(identityProviderManager);
+
+            // The answer stored in the database satisfies the minimum, so the user is not asked for answers.
+            assertEquals(PostAuthnMissingChallengeQuestionsHandler.getInstance().handle(
+                    mock(HttpServletRequest.class), mock(HttpServletResponse.class), authenticationContext),
+                    PostAuthnHandlerFlowStatus.SUCCESS_COMPLETED);
+        }
+        verify(userStoreManager, never()).getUserClaimValues(anyString(), any(String[].class), any());
+    }
+
+    @Test
+    public void testRemoveChallengeAnswersOfDeletedUser() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Collections.singletonList(getChallengeAnswer(CHALLENGE_SET_1,
+                QUESTION_1, ANSWER_1)), Collections.singletonList(CHALLENGE_SET_1));
+
+        // The user can no longer be resolved once deleted, so the answers are removed by the user id.
+        new JDBCChallengeAnswerDAOImpl().removeChallengeAnswers(IdentityTenantUtil.getTenantId(TENANT_DOMAIN),
+                USER_ID);
+
+        assertTrue(challengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty());
+    }
+
+    @Test
+    public void testRemoveTenantChallengeAnswers() throws Exception {
+
+        challengeAnswerDAO.setChallengeAnswers(user, Arrays.asList(getChallengeAnswer(CHALLENGE_SET_1, QUESTION_1,
+                ANSWER_1), getChallengeAnswer(CHALLENGE_SET_2, QUESTION_2, ANSWER_2)),
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+
+        new JDBCChallengeAnswerDAOImpl().removeTenantChallengeAnswers(IdentityTenantUtil.getTenantId(TENANT_DOMAIN));
+
+        assertTrue(challengeAnswerDAO.getAnsweredChallengeSetUris(user).isEmpty());
+    }
+
+    @Test
+    public void testClaimFallbackReadsAnswersOfUserWithoutAnswersInDatabase() throws Exception {
+
+        UserClaimChallengeAnswerDAO claimChallengeAnswerDAO = mock(UserClaimChallengeAnswerDAO.class);
+        Map<String, UserChallengeAnswer> claimAnswers = Collections.singletonMap(CHALLENGE_SET_1,
+                new UserChallengeAnswer(new ChallengeQuestion(CHALLENGE_SET_1, QUESTION_1),
+                        Utils.doHash(ANSWER_1.toLowerCase())));
+        when(claimChallengeAnswerDAO.getAnsweredChallengeSetUris(user))
+                .thenReturn(new ArrayList<>(Collections.singletonList(CHALLENGE_SET_1)));
+        when(claimChallengeAnswerDAO.getChallengeAnswers(user, Collections.singletonList(CHALLENGE_SET_1)))
+                .thenReturn(claimAnswers);
+        ChallengeAnswerDAO fallbackChallengeAnswerDAO = new ClaimFallbackChallengeAnswerDAO(
+                new JDBCChallengeAnswerDAOImpl(), claimChallengeAnswerDAO);
+
+        assertEquals(fallbackChallengeAnswerDAO.getAnsweredChallengeSetUris(user),
+                Collections.singletonList(CHALLENGE_SET_1));
+        assertEquals(fallbackChallengeAnswerDAO.getChallengeAnswers(user,
+                Collections.singletonList(CHALLENGE_SET_1)), claimAnswers);
+    }
+
+    @Test
+    public void testClaimFallbackMovesAnswersToDatabaseOnUpdate() throws Exception {
+
+        UserClaimChallengeAnswerDAO claimChallengeAnswerDAO = mock(UserClaimChallengeAnswerDAO.class);
+        when(claimChallengeAnswerDAO.getAnsweredChallengeSetUris(user))
+                .thenReturn(new ArrayList<>(Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2)));
+        when(claimChallengeAnswerDAO.getChallengeAnswers(user, Collections.singletonList(CHALLENGE_SET_2)))
+                .thenReturn(Collections.singletonMap(CHALLENGE_SET_2, new UserChallengeAnswer(
+                        new ChallengeQuestion(CHALLENGE_SET_2, QUESTION_2), Utils.doHash(ANSWER_2.toLowerCase()))));
+        ChallengeAnswerDAO fallbackChallengeAnswerDAO = new ClaimFallbackChallengeAnswerDAO(
+                new JDBCChallengeAnswerDAOImpl(), claimChallengeAnswerDAO);
+
+        // Only the answer of the first set is updated, and the answer of the second set is kept.
+        fallbackChallengeAnswerDAO.setChallengeAnswers(user, Collections.singletonList(getChallengeAnswer(
+                CHALLENGE_SET_1, QUESTION_1, ANSWER_2)), Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+
+        verify(claimChallengeAnswerDAO).removeChallengeAnswers(user);
+        assertEquals(challengeAnswerDAO.getAnsweredChallengeSetUris(user),
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+        Map<String, UserChallengeAnswer> challengeAnswers = fallbackChallengeAnswerDAO.getChallengeAnswers(user,
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+        assertEquals(challengeAnswers.get(CHALLENGE_SET_1).getAnswer(), Utils.doHash(ANSWER_2.toLowerCase()));
+        assertEquals(challengeAnswers.get(CHALLENGE_SET_2).getQuestion().getQuestion(), QUESTION_2);
+        assertEquals(challengeAnswers.get(CHALLENGE_SET_2).getAnswer(), Utils.doHash(ANSWER_2.toLowerCase()));
+        // The moved answers are read from the database.
+        verify(claimChallengeAnswerDAO, never()).getChallengeAnswers(user,
+                Arrays.asList(CHALLENGE_SET_1, CHALLENGE_SET_2));
+    }
+
+    private IdentityProviderProperty getIdpProperty(String name, String value) {
+
+        IdentityProviderProperty property = new IdentityProviderProperty();
+        property.setName(name);
+        property.setValue(value);
+        return property;
+    }
+
+    private UserChallengeAnswer getChallengeAnswer(String challengeSetUri, String question, String answer)
+            throws Exception {
+
+        return new UserChallengeAnswer(new ChallengeQuestion(challengeSetUri, null, question, LOCALE_1),
+                Utils.doHash(answer.toLowerCase()));
+    }
+}
@@ -24,25 +24,34 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.database.utils.jdbc.NamedJdbcTemplate;
 import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.database.utils.jdbc.exceptions.TransactionException;
 import org.wso2.carbon.identity.challenge.questions.recovery.dao.JDBCChallengeQuestionDAOImpl;
 import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeSetPage;
+import org.wso2.carbon.identity.challenge.questions.recovery.util.Utils;
 import org.wso2.carbon.identity.common.testng.WithCarbonHome;
 import org.wso2.carbon.identity.common.testng.WithRegistry;
 import org.wso2.carbon.identity.common.testng.WithRealmService;
 import org.wso2.carbon.identity.common.testng.WithH2Database;
 import org.wso2.carbon.identity.core.util.JdbcUtils;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryClientException;
 import org.wso2.carbon.identity.recovery.IdentityRecoveryException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_2;
@@ -56,6 +65,7 @@ import static org.wso2.carbon.identity.challenge.questions.recovery.constant.Tes
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_ID_2;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_1;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.QUESTION_SET_ID_3;
 import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
 
 /**
@@ -125,6 +135,143 @@ public class JDBCChallengeQuestionManagerTest {
         assertEquals(challengeQuestionsFromStorage, filteredChallengeQuestions);
     }
 
+    @Test
+    public void testGetChallengeQuestionsOfLocales() throws Exception {
+
+        addChallengeQuestions();
+        JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO = new JDBCChallengeQuestionDAOImpl();
+        List<ChallengeQuestion> challengeQuestionsFromStorage = jdbcChallengeQuestionDAO
+                .getChallengeQuestionsOfLocales(TENANT_DOMAIN, Arrays.asList("fr_FR", LOCALE_2));
+
+        assertEquals(challengeQuestionsFromStorage, Arrays.asList(challengeQuestion2, challengeQuestion6));
+    }
+
+    @Test
+    public void testGetChallengeQuestionsPages() throws Exception {
+
+        addChallengeQuestions();
+        List<ChallengeQuestion> pagedChallengeQuestions = new ArrayList<>();
+        ChallengeQuestion after = null;
+        List<ChallengeQuestion> page;
+        do {
+            page = challengeQuestionManager.getChallengeQuestions(TENANT_DOMAIN, null, after, 4);
+            assertTrue(page.size() <= 4);
+            pagedChallengeQuestions.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (!page.isEmpty());
+
+        assertEquals(pagedChallengeQuestions, sampleChallengeQuestions);
+    }
+
+    @Test
+    public void testGetChallengeQuestionsPagesWithMixedCaseSetIds() throws Exception {
+
+        List<ChallengeQuestion> mixedCaseChallengeQuestions = Arrays.asList(
+                new ChallengeQuestion("seta", QUESTION_ID_1, QUESTION_1, LOCALE_1),
+                new ChallengeQuestion("SetA", QUESTION_ID_1, QUESTION_2, LOCALE_1),
+                new ChallengeQuestion("setB", QUESTION_ID_1, QUESTION_3, LOCALE_1),
+                new ChallengeQuestion("SETC", QUESTION_ID_1, QUESTION_4, LOCALE_1));
+        challengeQuestionManager.addChallengeQuestions(mixedCaseChallengeQuestions.toArray(new ChallengeQuestion[0]),
+                TENANT_DOMAIN);
+        try {
+            List<ChallengeQuestion> sortedChallengeQuestions = new ArrayList<>(mixedCaseChallengeQuestions);
+            sortedChallengeQuestions.sort(ChallengeQuestion.KEY_ORDER);
+
+            List<ChallengeQuestion> pagedChallengeQuestions = new ArrayList<>();
+            ChallengeQuestion after = null;
+            List<ChallengeQuestion> page;
+            do {
+                page = challengeQuestionManager.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1, after, 1);
+                // A page continued from an in memory list must match the page read from the database.
+                assertEquals(page, Utils.getChallengeQuestionPage(mixedCaseChallengeQuestions, after, 1));
+                pagedChallengeQuestions.addAll(page);
+                after = page.isEmpty() ? null : page.get(0);
+            } while (!page.isEmpty());
+
+            assertEquals(pagedChallengeQuestions, sortedChallengeQuestions);
+        } finally {
+            challengeQuestionManager.deleteChallengeQuestions(
+                    mixedCaseChallengeQuestions.toArray(new ChallengeQuestion[0]), TENANT_DOMAIN);
+        }
+    }
+
+    @Test
+    public void testGetChallengeQuestionsPagesByLocale() throws Exception {
+
+        addChallengeQuestions();
+        List<ChallengeQuestion> firstPage =
+                challengeQuestionManager.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1, null, 2);
+        List<ChallengeQuestion> secondPage = challengeQuestionManager.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1,
+                firstPage.get(firstPage.size() - 1), 2);
+        List<ChallengeQuestion> lastPage = challengeQuestionManager.getChallengeQuestions(TENANT_DOMAIN, LOCALE_1,
+                secondPage.get(secondPage.size() - 1), 2);
+
+        assertEquals(firstPage, Arrays.asList(challengeQuestion1, challengeQuestion3));
+        assertEquals(secondPage, Arrays.asList(challengeQuestion4, challengeQuestion5));
+        assertTrue(lastPage.isEmpty());
+    }
+
+    @Test
+    public void testGetChallengeSetPages() throws Exception {
+
+        addChallengeQuestions();
+        ChallengeSetPage<ChallengeQuestion> firstPage =
+                challengeQuestionManager.getChallengeSets(TENANT_DOMAIN, null, null, 1);
+        ChallengeSetPage<ChallengeQuestion> lastPage = challengeQuestionManager.getChallengeSets(TENANT_DOMAIN, null,
+                firstPage.getNextCursor(), 1);
+
+        // Sets are never split, even if a set has more questions than the page size.
+        assertEquals(firstPage.getItems(), Arrays.asList(challengeQuestion1, challengeQuestion2, challengeQuestion3));
+        assertEquals(lastPage.getItems(), Arrays.asList(challengeQuestion4, challengeQuestion5, challengeQuestion6));
+        assertNull(lastPage.getNextCursor());
+
+        ChallengeSetPage<ChallengeQuestion> localePage =
+                challengeQuestionManager.getChallengeSets(TENANT_DOMAIN, LOCALE_1, null, 2);
+        assertEquals(localePage.getItems(), Arrays.asList(challengeQuestion1, challengeQuestion3, challengeQuestion4,
+                challengeQuestion5));
+        assertNull(localePage.getNextCursor());
+    }
+
+    @Test(expectedExceptions = IdentityRecoveryClientException.class)
+    public void testGetChallengeSetsWithInvalidCursor() throws Exception {
+
+        challengeQuestionManager.getChallengeSets(TENANT_DOMAIN, null, "not a cursor", 1);
+    }
+
+    @Test
+    public void testForEachChallengeQuestion() throws Exception {
+
+        addChallengeQuestions();
+        List<ChallengeQuestion> streamedChallengeQuestions = new ArrayList<>();
+        challengeQuestionManager.forEachChallengeQuestion(TENANT_DOMAIN, null, streamedChallengeQuestions::add);
+        assertEquals(streamedChallengeQuestions, sampleChallengeQuestions);
+
+        List<ChallengeQuestion> streamedLocaleChallengeQuestions = new ArrayList<>();
+        challengeQuestionManager.forEachChallengeQuestion(TENANT_DOMAIN, LOCALE_2,
+                streamedLocaleChallengeQuestions::add);
+        assertEquals(streamedLocaleChallengeQuestions, Arrays.asList(challengeQuestion2, challengeQuestion6));
+    }
+
+    @Test
+    public void testForEachTenantChallengeQuestionCatalog() throws Exception {
+
+        addChallengeQuestions();
+        List<Integer> tenantIds = new ArrayList<>();
+        Map<Integer, List<ChallengeQuestion>> catalogs = new HashMap<>();
+        challengeQuestionManager.forEachTenantChallengeQuestionCatalog(
+                Arrays.asList(2, MultitenantConstants.SUPER_TENANT_ID, 1, MultitenantConstants.SUPER_TENANT_ID),
+                (tenantId, challengeQuestions) -> {
+                    tenantIds.add(tenantId);
+                    catalogs.put(tenantId, challengeQuestions);
+                });
+
+        // Every tenant is passed once in ascending order, including the tenants without questions.
+        assertEquals(tenantIds, Arrays.asList(MultitenantConstants.SUPER_TENANT_ID, 1, 2));
+        assertEquals(catalogs.get(MultitenantConstants.SUPER_TENANT_ID), sampleChallengeQuestions);
+        assertTrue(catalogs.get(1).isEmpty());
+        assertTrue(catalogs.get(2).isEmpty());
+    }
+
     @Test(expectedExceptions = IdentityRecoveryException.class)
     public void testGetAllChallengeQuestionsByLocaleWithException() throws Exception {
 
@@ -159,6 +306,32 @@ public class JDBCChallengeQuestionManagerTest {
         }
     }
 
+    @Test
+    public void testGetChallengeQuestionSetMetadata() throws Exception {
+
+        addChallengeQuestions();
+        assertEquals(challengeQuestionManager.getChallengeQuestionSetCount(TENANT_DOMAIN), 2);
+        assertEquals(challengeQuestionManager.getChallengeQuestionSetURIs(TENANT_DOMAIN, LOCALE_2),
+                Arrays.asList(QUESTION_SET_ID_1, QUESTION_SET_ID_2));
+        assertEquals(challengeQuestionManager.getChallengeQuestionIds(TENANT_DOMAIN, QUESTION_SET_ID_1),
+                Arrays.asList(QUESTION_ID_1, QUESTION_ID_2));
+        assertTrue(challengeQuestionManager.isChallengeQuestionSetExists(TENANT_DOMAIN, QUESTION_SET_ID_2));
+        assertFalse(challengeQuestionManager.isChallengeQuestionSetExists(TENANT_DOMAIN, QUESTION_SET_ID_3));
+    }
+
+    @Test(expectedExceptions = IdentityRecoveryException.class)
+    public void testGetChallengeQuestionSetCountWithException() throws Exception {
+
+        try (MockedStatic<JdbcUtils> jdbcUtilsMockedStatic = mockStatic(JdbcUtils.class)) {
+            NamedJdbcTemplate namedJdbcTemplate = mock(NamedJdbcTemplate.class);
+            jdbcUtilsMockedStatic.when(JdbcUtils::getNewNamedJdbcTemplate).thenReturn(namedJdbcTemplate);
+            doThrow(new DataAccessException("Data access exception")).when(namedJdbcTemplate)
+                    .fetchSingleRecord(any(), any(), any());
+
+            challengeQuestionManager.getChallengeQuestionSetCount(TENANT_DOMAIN);
+        }
+    }
+
     @Test(priority = 1)
     public void testAddChallengeQuestions() throws Exception {
 
@@ -182,14 +355,31 @@ public class JDBCChallengeQuestionManagerTest {
         assertEquals(storedQuestions, sampleChallengeQuestions);
     }
 
+    @Test
+    public void testAddChallengeQuestionsInBatch() throws Exception {
+
+        challengeQuestionManager.addChallengeQuestions(
+                new ChallengeQuestion[]{challengeQuestion1, challengeQuestion3, challengeQuestion4}, TENANT_DOMAIN);
+
+        // Update existing questions, add new ones and repeat a question key within the same batch.
+        ChallengeQuestion updatedQuestion1 =
+                new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, "Updated Question", LOCALE_1);
+        challengeQuestionManager.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2,
+                updatedQuestion1, challengeQuestion5, challengeQuestion6}, TENANT_DOMAIN);
+
+        challengeQuestion1.setQuestion("Updated Question");
+        assertEqualsNoOrder(challengeQuestionManager.getAllChallengeQuestions(TENANT_DOMAIN).toArray(),
+                sampleChallengeQuestions.toArray());
+    }
+
     @Test(expectedExceptions = IdentityRecoveryException.class)
     public void testAddChallengeQuestionsWithException() throws Exception {
 
         try (MockedStatic<JdbcUtils> jdbcUtilsMockedStatic = mockStatic(JdbcUtils.class)) {
             NamedJdbcTemplate namedJdbcTemplate = mock(NamedJdbcTemplate.class);
             jdbcUtilsMockedStatic.when(JdbcUtils::getNewNamedJdbcTemplate).thenReturn(namedJdbcTemplate);
-            doThrow(new DataAccessException("Data access exception")).when(namedJdbcTemplate)
-                    .executeInsert(any(), any(), any(), eq(false));
+            doThrow(new TransactionException("Transaction exception", null)).when(namedJdbcTemplate)
+                    .withTransaction(any());
 
             challengeQuestionManager.addChallengeQuestions(sampleChallengeQuestions.toArray(new ChallengeQuestion[0]),
                     TENANT_DOMAIN);
@@ -226,14 +416,29 @@ public class JDBCChallengeQuestionManagerTest {
         assertEquals(challengeQuestionManager.getAllChallengeQuestions(TENANT_DOMAIN), remainingChallengeQuestions);
     }
 
+    @Test
+    public void testGetExistingChallengeQuestions() throws Exception {
+
+        challengeQuestionManager.addChallengeQuestions(new ChallengeQuestion[]{challengeQuestion1, challengeQuestion4},
+                TENANT_DOMAIN);
+        JDBCChallengeQuestionDAOImpl jdbcChallengeQuestionDAO =
+                (JDBCChallengeQuestionDAOImpl) challengeQuestionManager.challengeQuestionsImpl;
+        ChallengeQuestion questionWithoutLocale = new ChallengeQuestion(QUESTION_SET_ID_1, QUESTION_ID_1, null, "");
+
+        List<ChallengeQuestion> existingQuestions = jdbcChallengeQuestionDAO.getExistingChallengeQuestions(
+                new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2, challengeQuestion5,
+                        questionWithoutLocale}, TENANT_DOMAIN);
+        assertEquals(existingQuestions, Arrays.asList(challengeQuestion1, questionWithoutLocale));
+    }
+
     @Test(expectedExceptions = IdentityRecoveryException.class)
     public void testDeleteChallengeQuestionsWithException() throws Exception {
 
         try (MockedStatic<JdbcUtils> jdbcUtilsMockedStatic = mockStatic(JdbcUtils.class)) {
             NamedJdbcTemplate namedJdbcTemplate = mock(NamedJdbcTemplate.class);
             jdbcUtilsMockedStatic.when(JdbcUtils::getNewNamedJdbcTemplate).thenReturn(namedJdbcTemplate);
-            doThrow(new DataAccessException("Data access exception")).when(namedJdbcTemplate)
-                    .executeUpdate(any(), any());
+            doThrow(new TransactionException("Transaction exception", null)).when(namedJdbcTemplate)
+                    .withTransaction(any());
 
             challengeQuestionManager.deleteChallengeQuestions(
                     new ChallengeQuestion[]{challengeQuestion1, challengeQuestion2, challengeQuestion3}, TENANT_DOMAIN);
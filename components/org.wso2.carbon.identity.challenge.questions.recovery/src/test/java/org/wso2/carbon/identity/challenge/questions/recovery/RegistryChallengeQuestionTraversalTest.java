@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.challenge.questions.recovery;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.challenge.questions.recovery.dao.RegistryChallengeQuestionDAOImpl;
+import org.wso2.carbon.identity.challenge.questions.recovery.model.ChallengeQuestion;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.persistence.registry.RegistryResourceMgtService;
+import org.wso2.carbon.identity.recovery.IdentityRecoveryConstants;
+import org.wso2.carbon.registry.core.CollectionImpl;
+import org.wso2.carbon.registry.core.RegistryConstants;
+import org.wso2.carbon.registry.core.Resource;
+import org.wso2.carbon.registry.core.ResourceImpl;
+import org.wso2.carbon.registry.core.exceptions.RegistryException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_1;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.LOCALE_2;
+import static org.wso2.carbon.identity.challenge.questions.recovery.constant.TestConstants.TENANT_DOMAIN;
+
+/**
+ * This class tests the parallel traversal of the registry question tree against an in memory registry which
+ * simulates the latency of the registry reads.
+ */
+@WithCarbonHome
+public class RegistryChallengeQuestionTraversalTest {
+
+    private static final Log log = LogFactory.getLog(RegistryChallengeQuestionTraversalTest.class);
+    private static final String QUESTIONS_BASE_PATH = IdentityRecoveryConstants.IDENTITY_MANAGEMENT_QUESTIONS;
+    private static final int QUESTION_SET_COUNT = 4;
+    private static final int QUESTION_COUNT = 10;
+    private static final long READ_LATENCY_MILLIS = 2;
+
+    private final Map<String, Resource> registryResources = new HashMap<>();
+    private final Set<String> readTenantDomains = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlightReads = new AtomicInteger();
+    private final AtomicInteger peakInFlightReads = new AtomicInteger();
+    private RegistryChallengeQuestionDAOImpl registryChallengeQuestionDAOImpl;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        String[] locales = {LOCALE_1, LOCALE_2};
+        String[] questionSetPaths = new String[QUESTION_SET_COUNT];
+        for (int i = 0; i < QUESTION_SET_COUNT; i++) {
+            String questionSetId = "challengeQuestion" + i;
+            questionSetPaths[i] = QUESTIONS_BASE_PATH + RegistryConstants.PATH_SEPARATOR + questionSetId;
+            String[] questionPaths = new String[QUESTION_COUNT];
+            for (int j = 0; j < QUESTION_COUNT; j++) {
+                String questionId = "question" + j;
+                questionPaths[j] = questionSetPaths[i] + RegistryConstants.PATH_SEPARATOR + questionId;
+                String[] localePaths = new String[locales.length];
+                for (int k = 0; k < locales.length; k++) {
+                    localePaths[k] = getLocalePath(questionPaths[j], locales[k]);
+                    registryResources.put(localePaths[k], createQuestionResource(
+                            IdentityRecoveryConstants.WSO2CARBON_CLAIM_DIALECT + "/" + questionSetId, questionId,
+                            "Question " + i + "." + j + " in " + locales[k], locales[k]));
+                }
+                registryResources.put(questionPaths[j], createCollection(localePaths));
+            }
+            registryResources.put(questionSetPaths[i], createCollection(questionPaths));
+        }
+        registryResources.put(QUESTIONS_BASE_PATH, createCollection(questionSetPaths));
+
+        RegistryResourceMgtService resourceMgtService = mock(RegistryResourceMgtService.class);
+        when(resourceMgtService.getIdentityResource(anyString(), anyString())).thenAnswer(
+                invocation -> readResource(invocation.getArgument(0)));
+        when(resourceMgtService.getIdentityResource(anyString(), anyString(), anyString())).thenAnswer(
+                invocation -> readResource(getLocalePath(invocation.getArgument(0), invocation.getArgument(2))));
+
+        registryChallengeQuestionDAOImpl = new RegistryChallengeQuestionDAOImpl();
+        Field resourceMgtServiceField =
+                RegistryChallengeQuestionDAOImpl.class.getDeclaredField("resourceMgtService");
+        resourceMgtServiceField.setAccessible(true);
+        resourceMgtServiceField.set(registryChallengeQuestionDAOImpl, resourceMgtService);
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        PrivilegedCarbonContext.endTenantFlow();
+        registryResources.clear();
+        readTenantDomains.clear();
+        peakInFlightReads.set(0);
+    }
+
+    @Test
+    public void testParallelTraversalKeepsOrder() throws Exception {
+
+        setParallelTraversalEnabled(false);
+        List<ChallengeQuestion> sequentialQuestions = getAllChallengeQuestions();
+        List<ChallengeQuestion> sequentialLocaleQuestions =
+                registryChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_2);
+
+        setParallelTraversalEnabled(true);
+        List<ChallengeQuestion> parallelQuestions = getAllChallengeQuestions();
+        List<ChallengeQuestion> parallelLocaleQuestions =
+                registryChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN, LOCALE_2);
+
+        assertEquals(sequentialQuestions.size(), QUESTION_SET_COUNT * QUESTION_COUNT * 2);
+        assertEquals(parallelQuestions, sequentialQuestions);
+        assertQuestionTextsEqual(parallelQuestions, sequentialQuestions);
+        assertEquals(sequentialLocaleQuestions.size(), QUESTION_SET_COUNT * QUESTION_COUNT);
+        assertEquals(parallelLocaleQuestions, sequentialLocaleQuestions);
+        assertQuestionTextsEqual(parallelLocaleQuestions, sequentialLocaleQuestions);
+        // The registry reads of the worker threads run in the tenant flow of the caller.
+        assertEquals(readTenantDomains.size(), 1);
+        assertTrue(readTenantDomains.contains(TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testForEachChallengeQuestion() throws Exception {
+
+        List<ChallengeQuestion> streamedQuestions = new ArrayList<>();
+        registryChallengeQuestionDAOImpl.forEachChallengeQuestion(TENANT_DOMAIN, null, streamedQuestions::add);
+        List<ChallengeQuestion> streamedLocaleQuestions = new ArrayList<>();
+        registryChallengeQuestionDAOImpl.forEachChallengeQuestion(TENANT_DOMAIN, LOCALE_2,
+                streamedLocaleQuestions::add);
+
+        List<ChallengeQuestion> expectedQuestions = getAllChallengeQuestions();
+        expectedQuestions.sort(ChallengeQuestion.KEY_ORDER);
+        assertEquals(streamedQuestions, expectedQuestions);
+        assertQuestionTextsEqual(streamedQuestions, expectedQuestions);
+        assertEquals(streamedLocaleQuestions.size(), QUESTION_SET_COUNT * QUESTION_COUNT);
+        for (ChallengeQuestion streamedLocaleQuestion : streamedLocaleQuestions) {
+            assertEquals(streamedLocaleQuestion.getLocale(), LOCALE_2);
+        }
+    }
+
+    @Test
+    public void testParallelTraversalReadsConcurrently() throws Exception {
+
+        setParallelTraversalEnabled(false);
+        getAllChallengeQuestions();
+        assertEquals(peakInFlightReads.get(), 1);
+
+        peakInFlightReads.set(0);
+        setParallelTraversalEnabled(true);
+        getAllChallengeQuestions();
+        log.info("Parallel registry question tree traversal of " + QUESTION_SET_COUNT * QUESTION_COUNT +
+                " questions had up to " + peakInFlightReads.get() + " registry reads in flight.");
+        assertTrue(peakInFlightReads.get() > 1);
+    }
+
+    private List<ChallengeQuestion> getAllChallengeQuestions() throws Exception {
+
+        return registryChallengeQuestionDAOImpl.getAllChallengeQuestions(TENANT_DOMAIN);
+    }
+
+    private void setParallelTraversalEnabled(boolean enabled) throws Exception {
+
+        Field parallelField = RegistryChallengeQuestionDAOImpl.class.getDeclaredField("parallelTraversalEnabled");
+        parallelField.setAccessible(true);
+        parallelField.set(registryChallengeQuestionDAOImpl, enabled);
+    }
+
+    private Resource readResource(String path) throws InterruptedException {
+
+        readTenantDomains.add(String.valueOf(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()));
+        peakInFlightReads.accumulateAndGet(inFlightReads.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(READ_LATENCY_MILLIS);
+        } finally {
+            inFlightReads.decrementAndGet();
+        }
+        return registryResources.get(path);
+    }
+
+    private void assertQuestionTextsEqual(List<ChallengeQuestion> actual, List<ChallengeQuestion> expected) {
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.get(i).getQuestion(), expected.get(i).getQuestion());
+        }
+    }
+
+    private static String getLocalePath(String questionPath, String locale) {
+
+        return questionPath + RegistryConstants.PATH_SEPARATOR + locale.toLowerCase();
+    }
+
+    private static Resource createCollection(String[] children) {
+
+        CollectionImpl collection = new CollectionImpl();
+        collection.setChildren(children);
+        return collection;
+    }
+
+    private static Resource createQuestionResource(String questionSetId, String questionId, String question,
+                                                   String locale) throws RegistryException {
+
+        Resource resource = new ResourceImpl();
+        resource.setContent(question.getBytes(StandardCharsets.UTF_8));
+        resource.addProperty(IdentityRecoveryConstants.Questions.CHALLENGE_QUESTION_SET_ID, questionSetId);
+        resource.addProperty(IdentityRecoveryConstants.Questions.CHALLENGE_QUESTION_ID, questionId);
+        resource.addProperty(IdentityRecoveryConstants.Questions.CHALLENGE_QUESTION_LOCALE, locale);
+        return resource;
+    }
+}
@@ -67,6 +67,16 @@ public class IdentityManagementAdminClient {
         return new ChallengeQuestion[0];
     }
 
+    public String[] getChallengeQuestionSetURIsForTenant(String tenantDomain) throws AxisFault {
+
+        try {
+            return stub.getChallengeQuestionSetURIsOfTenant(tenantDomain);
+        } catch (Exception e) {
+            handleException(e.getMessage(), e);
+        }
+        return new String[0];
+    }
+
     public ChallengeQuestion[] getChallengeQuestionsForUser(User user) throws AxisFault {
 
         try {
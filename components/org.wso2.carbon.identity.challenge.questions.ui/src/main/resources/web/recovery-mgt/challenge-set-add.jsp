@@ -25,12 +25,12 @@
 <jsp:include page="../dialog/display_messages.jsp"/>
 
 <%@ page import="org.wso2.carbon.context.CarbonContext" %>
-<%@ page import="org.wso2.carbon.identity.challenge.questions.recovery.stub.model.ChallengeQuestion" %>
 <%@ page import="org.wso2.carbon.identity.challenge.questions.ui.IdentityManagementAdminClient" %>
 <%@ page import="org.wso2.carbon.identity.challenge.questions.ui.Utils" %>
 <%@ page import="org.wso2.carbon.ui.CarbonUIMessage" %>
 <%@ page import="org.wso2.carbon.ui.CarbonUIUtil" %>
 <%@ page import="org.wso2.carbon.utils.ServerConstants" %>
+<%@ page import="java.util.Arrays" %>
 <%@ page import="java.util.List" %>
 <%@ page import="java.util.Locale" %>
 
@@ -48,9 +48,7 @@
                 new IdentityManagementAdminClient(cookie, backendServerURL, configContext);
 
         String tenantDomain = CarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-        ChallengeQuestion[] challengeQuestionsForTenant = client.getChallengeQuestionsForTenant(tenantDomain);
-
-        List<String> challengeSetUris = Utils.getChallengeSetUris(challengeQuestionsForTenant);
+        List<String> challengeSetUris = Arrays.asList(client.getChallengeQuestionSetURIsForTenant(tenantDomain));
 
     } catch (Exception e) {
         CarbonUIMessage.sendCarbonUIMessage(e.getMessage(), CarbonUIMessage.ERROR,
@@ -28,11 +28,11 @@
 <%@ page import="org.wso2.carbon.context.CarbonContext" %>
 <%@ page import="org.wso2.carbon.identity.challenge.questions.recovery.stub.model.ChallengeQuestion" %>
 <%@ page import="org.wso2.carbon.identity.challenge.questions.ui.IdentityManagementAdminClient" %>
-<%@ page import="org.wso2.carbon.identity.challenge.questions.ui.Utils" %>
 <%@ page import="org.wso2.carbon.ui.CarbonUIMessage" %>
 <%@ page import="org.wso2.carbon.ui.CarbonUIUtil" %>
 <%@ page import="org.wso2.carbon.utils.ServerConstants" %>
-<%@ page import="java.util.Collections" %>
+<%@ page import="java.util.ArrayList" %>
+<%@ page import="java.util.Arrays" %>
 <%@ page import="java.util.List" %>
 
 
@@ -56,10 +56,8 @@
 
 
         String tenantDomain = CarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-        // retrieve all available challenge questions for user's tenant and locale.
-        ChallengeQuestion[] challengeQuestions = client.getChallengeQuestionsForTenant(tenantDomain);
-        questionSetNamesList = Utils.getChallengeSetUris(challengeQuestions);
-        Collections.sort(questionSetNamesList);
+        // retrieve the sorted challenge question set URIs of the tenant, without the question texts.
+        questionSetNamesList = new ArrayList<>(Arrays.asList(client.getChallengeQuestionSetURIsForTenant(tenantDomain)));
 
     } catch (Exception e) {
         CarbonUIMessage.sendCarbonUIMessage(e.getMessage(), CarbonUIMessage.ERROR, request);
@@ -11,3 +11,38 @@ CREATE TABLE IDN_CHALLENGE_QUESTION (
     PRIMARY KEY (ID),
     CONSTRAINT IDN_CHALLENGE_QUESTION_CONSTRAINT UNIQUE (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, LOCALE)
 );
+
+CREATE TABLE IDN_CHALLENGE_QUESTION_VERSION (
+    TENANT_ID INTEGER NOT NULL,
+    CATALOG_VERSION INTEGER NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID)
+);
+
+CREATE TABLE IDN_CHALLENGE_QUESTION_MIGRATION (
+    TENANT_ID INTEGER NOT NULL,
+    MIGRATION_STATUS VARCHAR(20) NOT NULL,
+    LAST_QUESTION_SET_ID VARCHAR(255),
+    MIGRATED_COUNT INTEGER NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID)
+);
+
+CREATE TABLE IDN_CHALLENGE_QUESTION_DEFAULT_SET (
+    TENANT_ID INTEGER NOT NULL,
+    QUESTION_SET_ID VARCHAR(255) NOT NULL,
+    CREATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID, QUESTION_SET_ID)
+);
+
+CREATE TABLE IDN_CHALLENGE_ANSWER (
+    TENANT_ID INTEGER NOT NULL,
+    USER_ID VARCHAR(255) NOT NULL,
+    QUESTION_SET_ID VARCHAR(255) NOT NULL,
+    QUESTION BLOB NOT NULL,
+    LOCALE VARCHAR(10) NOT NULL,
+    ANSWER_HASH VARCHAR(255) NOT NULL,
+    HASH_ALGORITHM VARCHAR(50) NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID, USER_ID, QUESTION_SET_ID)
+);
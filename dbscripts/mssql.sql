@@ -12,3 +12,42 @@ CREATE TABLE IDN_CHALLENGE_QUESTION (
     PRIMARY KEY (ID),
     CONSTRAINT IDN_CHALLENGE_QUESTION_CONSTRAINT UNIQUE (TENANT_ID, QUESTION_SET_ID, QUESTION_ID, LOCALE)
 );
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_CHALLENGE_QUESTION_VERSION]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_CHALLENGE_QUESTION_VERSION (
+    TENANT_ID INTEGER NOT NULL,
+    CATALOG_VERSION INTEGER NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_CHALLENGE_QUESTION_MIGRATION]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_CHALLENGE_QUESTION_MIGRATION (
+    TENANT_ID INTEGER NOT NULL,
+    MIGRATION_STATUS VARCHAR(20) NOT NULL,
+    LAST_QUESTION_SET_ID VARCHAR(255),
+    MIGRATED_COUNT INTEGER NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_CHALLENGE_QUESTION_DEFAULT_SET]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_CHALLENGE_QUESTION_DEFAULT_SET (
+    TENANT_ID INTEGER NOT NULL,
+    QUESTION_SET_ID VARCHAR(255) NOT NULL,
+    CREATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID, QUESTION_SET_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_CHALLENGE_ANSWER]') AND TYPE IN (N'U'))
+CREATE TABLE IDN_CHALLENGE_ANSWER (
+    TENANT_ID INTEGER NOT NULL,
+    USER_ID VARCHAR(255) NOT NULL,
+    QUESTION_SET_ID VARCHAR(255) NOT NULL,
+    QUESTION VARBINARY(MAX) NOT NULL,
+    LOCALE VARCHAR(10) NOT NULL,
+    ANSWER_HASH VARCHAR(255) NOT NULL,
+    HASH_ALGORITHM VARCHAR(50) NOT NULL,
+    UPDATED_AT DATETIME NOT NULL,
+    PRIMARY KEY (TENANT_ID, USER_ID, QUESTION_SET_ID)
+);